@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Builds and runs the JMH suites, writes target/jmh-result.json and compares it with the
+# stored baseline. Extra arguments are passed to JMH (e.g. a benchmark name regex).
+#
+#   ./run-benchmarks.sh                      run everything and compare
+#   ./run-benchmarks.sh JwtUtils             run only matching benchmarks
+#   UPDATE_BASELINE=1 ./run-benchmarks.sh    run everything and store the result as the new baseline
+#                                            (with a filter, only the matching entries are replaced)
+#   THRESHOLD=5 ./run-benchmarks.sh          flag slowdowns above 5% (default 10%)
+set -euo pipefail
+
+cd "$(dirname "$0")"
+BASELINE=baseline/jmh-baseline.json
+RESULT=target/jmh-result.json
+
+mvn -B -q package
+java -jar target/benchmarks.jar -rf json -rff "$RESULT" "$@"
+
+if [[ "${UPDATE_BASELINE:-0}" == "1" ]]; then
+  java -cp target/benchmarks.jar com.excisemia.benchmark.BaselineWriter "$BASELINE" "$RESULT"
+elif [[ -f "$BASELINE" ]]; then
+  java -cp target/benchmarks.jar com.excisemia.benchmark.BaselineComparator "$BASELINE" "$RESULT" "${THRESHOLD:-10}"
+else
+  echo "No baseline at $BASELINE, run with UPDATE_BASELINE=1 to create one"
+fi
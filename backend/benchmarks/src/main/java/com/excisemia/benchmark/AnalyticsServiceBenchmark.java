@@ -0,0 +1,95 @@
+package com.excisemia.benchmark;
+
+import com.excisemia.ExciseMiaApplication;
+import com.excisemia.dto.AnalyticsResponse;
+import com.excisemia.service.AnalyticsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Boots the full application context against an in-memory H2 database. Background work is switched off as in
+// the test profile so it does not compete with the measured calls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 30, time = 2)
+@Measurement(iterations = 15, time = 2)
+@Fork(value = 3, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AnalyticsServiceBenchmark {
+    private static final long VENDOR_ID = 1L;
+
+    @Param({"50", "500"})
+    private int locks;
+
+    @Param({"20"})
+    private int tripsPerLock;
+
+    private ConfigurableApplicationContext context;
+    private AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ExciseMiaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--locktrackpro.outbox.enabled=false",
+                        "--locktrackpro.notifications.enabled=false",
+                        "--locktrackpro.jobs.enabled=false",
+                        "--locktrackpro.analytics.facts.enabled=false",
+                        "--locktrackpro.leaderboards.enabled=false",
+                        "--locktrackpro.lockcounters.enabled=false",
+                        "--locktrackpro.analytics.cache.enabled=false",
+                        "--locktrackpro.app.jwtSecret=" + BenchmarkFixtures.JWT_SECRET,
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        analyticsService = context.getBean(AnalyticsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AnalyticsResponse> analyticsByVendor() {
+        return analyticsService.getAnalyticsByVendor(VENDOR_ID);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO vendors (vendor_name, vendor_code, contact_email, is_active, created_at) " +
+                "VALUES ('Benchmark Vendor', 'BENCH', 'bench@vendor.test', TRUE, ?)", now);
+        jdbcTemplate.update("INSERT INTO schedules (date, note, created_by, vendor_id, created_at) " +
+                "VALUES (CURRENT_DATE, 'Benchmark route', 1, ?, ?)", VENDOR_ID, now);
+
+        List<Object[]> lockRows = new ArrayList<>(locks);
+        for (int l = 0; l < locks; l++) {
+            lockRows.add(new Object[]{"BENCH-L" + l, "AVAILABLE", VENDOR_ID, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO locks (lock_number, status, vendor_id, last_updated) VALUES (?, ?, ?, ?)",
+                lockRows);
+
+        List<Object[]> tripRows = new ArrayList<>(locks * tripsPerLock);
+        for (long lockId = 1; lockId <= locks; lockId++) {
+            for (int t = 0; t < tripsPerLock; t++) {
+                tripRows.add(new Object[]{lockId, 1L, VENDOR_ID, now, 10.0 + t, t * 3, "COMPLETED"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trips (lock_id, schedule_id, vendor_id, start_time, distance_km, " +
+                "detention_mins, status) VALUES (?, ?, ?, ?, ?, ?, ?)", tripRows);
+    }
+}
@@ -0,0 +1,96 @@
+package com.excisemia.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares a JMH JSON result file against a stored baseline and exits non-zero when any
+// benchmark got slower than the allowed threshold by more than the two runs' combined error.
+// Usage: BaselineComparator <baseline.json> <current.json> [thresholdPercent]
+public class BaselineComparator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double thresholdPercent = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-75s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+
+            // Throughput is better when higher, every time-based mode is better when lower
+            double change = (now.score - before.score) / before.score * 100.0;
+            double slowdown = now.higherIsBetter() ? -change : change;
+            boolean outsideError = Math.abs(now.score - before.score) > now.error + before.error;
+            boolean regressed = slowdown > thresholdPercent && outsideError;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score, now.score, change,
+                    now.unit, regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, thresholdPercent);
+            System.exit(1);
+        }
+        System.out.printf("No regressions above %.1f%%%n", thresholdPercent);
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : root) {
+            Result result = new Result();
+            result.mode = run.path("mode").asText();
+            result.score = run.path("primaryMetric").path("score").asDouble();
+            result.error = run.path("primaryMetric").path("scoreError").asDouble(0.0);
+            result.unit = run.path("primaryMetric").path("scoreUnit").asText();
+            results.put(key(run), result);
+        }
+        return results;
+    }
+
+    static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("com.excisemia.benchmark.", "");
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        return benchmark + sorted;
+    }
+
+    private static class Result {
+        private String mode;
+        private double score;
+        private double error;
+        private String unit;
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
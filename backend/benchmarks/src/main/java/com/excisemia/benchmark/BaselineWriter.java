@@ -0,0 +1,47 @@
+package com.excisemia.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Stores a JMH JSON result file as the baseline. Runs of benchmarks that were not part of the result are kept,
+// so a filtered run only replaces its own entries, and fields that describe the machine are dropped.
+// Usage: BaselineWriter <baseline.json> <current.json>
+public class BaselineWriter {
+    private static final List<String> MACHINE_FIELDS = List.of("jvm", "jvmArgs", "jdkVersion", "vmName", "vmVersion");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineWriter <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        File baselineFile = new File(args[0]);
+
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        if (baselineFile.exists()) {
+            for (JsonNode run : mapper.readTree(baselineFile)) {
+                runs.put(BaselineComparator.key(run), run);
+            }
+        }
+        for (JsonNode run : mapper.readTree(new File(args[1]))) {
+            runs.put(BaselineComparator.key(run), run);
+        }
+
+        ArrayNode baseline = mapper.createArrayNode();
+        for (JsonNode run : runs.values()) {
+            ObjectNode stored = run.deepCopy();
+            stored.remove(MACHINE_FIELDS);
+            baseline.add(stored);
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile, baseline);
+        System.out.printf("Stored %d benchmark runs in %s%n", baseline.size(), baselineFile);
+    }
+}
@@ -0,0 +1,82 @@
+package com.excisemia.benchmark;
+
+import com.excisemia.model.Lock;
+import com.excisemia.model.Remark;
+import com.excisemia.model.User;
+import com.excisemia.model.Vendor;
+import com.excisemia.security.JwtUtils;
+import com.excisemia.security.UserPrincipal;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+    static final String JWT_SECRET =
+            "benchmarkSecretKeyForTheLockTrackProJmhSuiteThatIsLongEnoughForHs512Signing0123456789";
+
+    private BenchmarkFixtures() {}
+
+    static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        return jwtUtils;
+    }
+
+    static User user() {
+        User user = new User("Mike Wilson", "tracking@abctransport.com",
+                "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6UJ6I1Wl0pX5f9YH4vB6aG2", User.Role.TRACKING, 2L);
+        user.setId(5L);
+        user.setIsActive(true);
+        return user;
+    }
+
+    static Authentication authentication(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    static Vendor vendor() {
+        Vendor vendor = new Vendor("ABC Transport Co.", "ABC001", "admin@abctransport.com");
+        vendor.setId(2L);
+        vendor.setDescription("Leading transport and logistics company");
+        vendor.setContactPhone("+1-555-0101");
+        vendor.setIsActive(true);
+        vendor.setCreatedAt(LocalDateTime.of(2025, 1, 1, 8, 0));
+        return vendor;
+    }
+
+    static List<Lock> locks(int count) {
+        Vendor vendor = vendor();
+        Lock.Status[] statuses = Lock.Status.values();
+        List<Lock> locks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Lock lock = new Lock("ABC-L" + i, vendor.getId());
+            lock.setId((long) i + 1);
+            lock.setStatus(statuses[i % statuses.length]);
+            lock.setAssignedTo(5L);
+            lock.setVendor(vendor);
+            lock.setLastUpdated(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(i));
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    static List<Remark> remarks(int count) {
+        Vendor vendor = vendor();
+        List<Remark> remarks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Remark remark = new Remark((long) (i % 50) + 1, 5L, "Mike Wilson",
+                    "ABC Transport - Checkpoint " + i + " cleared, seal intact", vendor.getId());
+            remark.setId((long) i + 1);
+            remark.setVendor(vendor);
+            remark.setTimestamp(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(i));
+            remarks.add(remark);
+        }
+        return remarks;
+    }
+}
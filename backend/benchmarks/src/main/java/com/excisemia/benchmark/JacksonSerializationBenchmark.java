@@ -0,0 +1,44 @@
+package com.excisemia.benchmark;
+
+import com.excisemia.model.Lock;
+import com.excisemia.model.Remark;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Lock> locks;
+    private List<Remark> remarks;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring MVC uses for response bodies
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        locks = BenchmarkFixtures.locks(size);
+        remarks = BenchmarkFixtures.remarks(size);
+    }
+
+    @Benchmark
+    public byte[] serializeLocks() throws Exception {
+        return objectMapper.writeValueAsBytes(locks);
+    }
+
+    @Benchmark
+    public byte[] serializeRemarks() throws Exception {
+        return objectMapper.writeValueAsBytes(remarks);
+    }
+}
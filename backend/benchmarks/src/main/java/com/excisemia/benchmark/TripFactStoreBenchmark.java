@@ -0,0 +1,69 @@
+package com.excisemia.benchmark;
+
+import com.excisemia.dto.TripFactQuery;
+import com.excisemia.dto.TripFactReport;
+import com.excisemia.model.Trip;
+import com.excisemia.service.TripFactStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Group-by scans over one vendor's trip facts, without Spring or a database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TripFactStoreBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int trips;
+
+    @Param({"0"})
+    private int parallelism;
+
+    private TripFactStore store;
+    private ForkJoinPool pool;
+    private TripFactQuery detentionByLockByWeek;
+    private TripFactQuery tripsByStatus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        store = new TripFactStore(trips);
+        for (long id = 1; id <= trips; id++) {
+            store.upsert(id, 1 + random.nextInt(2000), base.plusMinutes(random.nextInt(2 * 365 * 24 * 60)),
+                    (double) random.nextInt(600), random.nextInt(240),
+                    random.nextInt(20) == 0 ? Trip.Status.ACTIVE : Trip.Status.COMPLETED);
+        }
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        detentionByLockByWeek = new TripFactQuery();
+        detentionByLockByWeek.setMinDistanceKm(200.0);
+        detentionByLockByWeek.setGroupBy(List.of(TripFactQuery.GroupBy.LOCK, TripFactQuery.GroupBy.WEEK));
+
+        tripsByStatus = new TripFactQuery();
+        tripsByStatus.setGroupBy(List.of(TripFactQuery.GroupBy.STATUS));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public TripFactReport detentionByLockByWeek() {
+        return store.scan(detentionByLockByWeek, pool, 65536);
+    }
+
+    @Benchmark
+    public TripFactReport tripsByStatus() {
+        return store.scan(tripsByStatus, pool, 65536);
+    }
+}
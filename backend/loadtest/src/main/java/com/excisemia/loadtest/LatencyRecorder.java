@@ -0,0 +1,63 @@
+package com.excisemia.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency histograms. Recorder is safe for concurrent writers and lets the warmup
+// interval be discarded without stopping the clients.
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        stats.recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    // Drops everything recorded so far, used at the end of the warmup
+    public void reset() {
+        for (EndpointStats stats : endpoints.values()) {
+            stats.recorder.getIntervalHistogram();
+            stats.errors.reset();
+        }
+    }
+
+    public Map<String, Result> snapshot() {
+        Map<String, Result> results = new TreeMap<>();
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            results.put(entry.getKey(), new Result(stats.recorder.getIntervalHistogram(), stats.errors.sum()));
+        }
+        return results;
+    }
+
+    private static class EndpointStats {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    public static class Result {
+        private final Histogram histogram;
+        private final long errors;
+
+        public Result(Histogram histogram, long errors) {
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+
+        public Histogram getHistogram() { return histogram; }
+        public long getErrors() { return errors; }
+        public long getCount() { return histogram.getTotalCount(); }
+    }
+}
@@ -0,0 +1,230 @@
+package com.excisemia.loadtest;
+
+import com.excisemia.ExciseMiaApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Boots the backend on an in-memory H2 database seeded by the scale profile, drives it with
+// simulated users over real HTTP and prints throughput and latency percentiles per endpoint.
+//
+//   java -jar target/loadtest.jar --users=200 --duration=60 --scenario=mixed
+//
+// Options: --users, --duration (s), --warmup (s), --rampUp (s), --thinkTime (mean ms), --scenario,
+// --seed, --report (CSV output path). Any other --key=value is passed to the application,
+// e.g. --locktrackpro.scale.locks=20000.
+public class LoadTestMain {
+
+    private static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        register(new MixedTrafficScenario());
+        register(new SigninScenario());
+    }
+
+    private static final String[] APPLICATION_DEFAULTS = {
+            "--server.port=0",
+            "--spring.profiles.active=scale",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+            "--locktrackpro.app.jwtSecret=loadTestSecretKeyThatIsLongEnoughForHmacSha512SigningAlgorithmRequirements",
+            "--locktrackpro.scale.vendors=20",
+            "--locktrackpro.scale.users=2000",
+            "--locktrackpro.scale.locks=5000",
+            "--locktrackpro.scale.schedules=5000",
+            "--locktrackpro.scale.trips=200000",
+            "--locktrackpro.scale.remarks=50000",
+            // Measure the node, not the per-tenant throttles
+            "--locktrackpro.ratelimit.enabled=false",
+            "--locktrackpro.bulkhead.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.excisemia=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.com.excisemia.config.ScaleDataGenerator=INFO"
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        // Keyed by property name so an argument replaces the default instead of being joined to it
+        Map<String, String> applicationArgs = new LinkedHashMap<>();
+        for (String arg : APPLICATION_DEFAULTS) {
+            applicationArgs.put(arg.split("=", 2)[0], arg);
+        }
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (isLoadTestOption(parts[0])) {
+                options.put(parts[0], parts.length > 1 ? parts[1] : "");
+            } else {
+                applicationArgs.put(arg.split("=", 2)[0], arg);
+            }
+        }
+
+        int users = Integer.parseInt(options.getOrDefault("users", "100"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int rampUpSeconds = Integer.parseInt(options.getOrDefault("rampUp", "10"));
+        long thinkTimeMillis = Long.parseLong(options.getOrDefault("thinkTime", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Scenario scenario = SCENARIOS.get(options.getOrDefault("scenario", "mixed"));
+        if (scenario == null) {
+            throw new IllegalArgumentException("Unknown scenario, expected one of " + SCENARIOS.keySet());
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ExciseMiaApplication.class)
+                .run(applicationArgs.values().toArray(new String[0]));
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Workload workload = Workload.load(context.getBean(JdbcTemplate.class));
+            System.out.printf("Backend on port %d, %d tracking users and %d admins available%n",
+                    port, workload.getTrackingUserCount(), workload.getAdminCount());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            double measuredSeconds = run(scenario, workload, "http://localhost:" + port, recorder, users,
+                    rampUpSeconds, warmupSeconds, durationSeconds, thinkTimeMillis, seed);
+            Map<String, LatencyRecorder.Result> results = recorder.snapshot();
+
+            System.out.printf("%nScenario '%s', %d users, mean think time %d ms, measured %.1f s%n",
+                    scenario.getName(), users, thinkTimeMillis, measuredSeconds);
+            printReport(results, measuredSeconds);
+            if (options.containsKey("report")) {
+                writeCsv(Path.of(options.get("report")), results, measuredSeconds);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static double run(Scenario scenario, Workload workload, String baseUrl, LatencyRecorder recorder,
+                              int users, int rampUpSeconds, int warmupSeconds, int durationSeconds,
+                              long thinkTimeMillis, long seed) throws InterruptedException {
+        ExecutorService executor = newClientExecutor();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failedSessions = new AtomicInteger();
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        long rampUpStepNanos = users > 0 ? TimeUnit.SECONDS.toNanos(rampUpSeconds) / users : 0;
+        for (int i = 0; i < users; i++) {
+            Session session = new Session(httpClient, objectMapper, baseUrl, recorder, running, workload,
+                    seeds.split(), thinkTimeMillis);
+            executor.execute(() -> {
+                try {
+                    scenario.run(session);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    failedSessions.incrementAndGet();
+                    e.printStackTrace();
+                }
+            });
+            TimeUnit.NANOSECONDS.sleep(rampUpStepNanos);
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        recorder.reset();
+        long measureStart = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+        running.set(false);
+
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        if (failedSessions.get() > 0) {
+            System.out.printf("%d sessions ended with an exception%n", failedSessions.get());
+        }
+        return measuredSeconds;
+    }
+
+    // Virtual threads when the runtime has them (Java 21+), otherwise one platform thread per user
+    private static ExecutorService newClientExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            System.out.println("Clients run on virtual threads");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads not available, clients run on platform threads");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static void printReport(Map<String, LatencyRecorder.Result> results, double seconds) {
+        System.out.printf("%-32s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder.Result> entry : results.entrySet()) {
+            LatencyRecorder.Result result = entry.getValue();
+            Histogram h = result.getHistogram();
+            total += result.getCount();
+            System.out.printf("%-32s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), result.getCount(), result.getCount() / seconds, result.getErrors(),
+                    millis(h, 50), millis(h, 95), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1e6);
+        }
+        System.out.printf("%-32s %9d %9.1f%n", "total", total, total / seconds);
+    }
+
+    private static void writeCsv(Path path, Map<String, LatencyRecorder.Result> results, double seconds)
+            throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("endpoint,requests,throughput,errors,p50_ms,p95_ms,p99_ms,p999_ms,max_ms");
+            for (Map.Entry<String, LatencyRecorder.Result> entry : results.entrySet()) {
+                LatencyRecorder.Result result = entry.getValue();
+                Histogram h = result.getHistogram();
+                out.printf("\"%s\",%d,%.2f,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        entry.getKey(), result.getCount(), result.getCount() / seconds, result.getErrors(),
+                        millis(h, 50), millis(h, 95), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1e6);
+            }
+        }
+        System.out.println("Report written to " + path);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static boolean isLoadTestOption(String name) {
+        return List.of("users", "duration", "warmup", "rampUp", "thinkTime", "scenario", "seed", "report").contains(name);
+    }
+
+    private static void register(Scenario scenario) {
+        SCENARIOS.put(scenario.getName(), scenario);
+    }
+}
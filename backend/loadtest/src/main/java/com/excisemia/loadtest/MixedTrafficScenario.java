@@ -0,0 +1,62 @@
+package com.excisemia.loadtest;
+
+import com.excisemia.model.Lock;
+
+import java.util.Map;
+
+// Field traffic: tracking users mostly poll their lock list, move locks through the trip
+// statuses and post remarks; a share of sessions are admins who also pull analytics.
+// Sessions sign in again now and then, as the mobile app does when a token is dropped.
+public class MixedTrafficScenario implements Scenario {
+
+    private static final double ADMIN_SHARE = 0.1;
+    private static final double RESIGNIN_RATE = 0.02;
+
+    private static final Lock.Status[] STATUSES = Lock.Status.values();
+
+    @Override
+    public String getName() {
+        return "mixed";
+    }
+
+    @Override
+    public void run(Session session) throws Exception {
+        boolean admin = session.getRandom().nextDouble() < ADMIN_SHARE;
+        Workload workload = session.getWorkload();
+
+        while (session.isRunning()) {
+            Workload.Account account = admin
+                    ? workload.pickAdmin(session.getRandom())
+                    : workload.pickTrackingUser(session.getRandom());
+            if (!session.signin(account)) {
+                session.think();
+                continue;
+            }
+            session.think();
+
+            while (session.isRunning() && session.getRandom().nextDouble() >= RESIGNIN_RATE) {
+                step(session, admin);
+                session.think();
+            }
+        }
+    }
+
+    private void step(Session session, boolean admin) throws InterruptedException {
+        double r = session.getRandom().nextDouble();
+        Long lockId = session.getWorkload().pickLock(session.getAccount().getVendorId(), session.getRandom());
+
+        if (admin && r < 0.15) {
+            session.get("GET /api/analytics", "/api/analytics");
+        } else if (lockId == null || r < 0.5) {
+            session.get("GET /api/locks", "/api/locks");
+        } else if (r < 0.7) {
+            Lock.Status status = STATUSES[session.getRandom().nextInt(STATUSES.length)];
+            session.put("PUT /api/locks/{id}/status", "/api/locks/" + lockId + "/status?status=" + status.name());
+        } else if (r < 0.85) {
+            session.post("POST /api/remarks", "/api/remarks",
+                    Map.of("lockId", lockId, "message", "Checkpoint " + session.getRandom().nextInt(1000)));
+        } else {
+            session.get("GET /api/remarks/lock/{lockId}", "/api/remarks/lock/" + lockId);
+        }
+    }
+}
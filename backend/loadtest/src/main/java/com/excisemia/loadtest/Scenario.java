@@ -0,0 +1,10 @@
+package com.excisemia.loadtest;
+
+// A scenario is the behaviour of one simulated user. run() loops until the session stops,
+// calling session endpoints and session.think() between actions.
+public interface Scenario {
+
+    String getName();
+
+    void run(Session session) throws Exception;
+}
@@ -0,0 +1,118 @@
+package com.excisemia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One simulated user: its own random stream, credentials and JWT, sharing the HTTP client and recorder
+public class Session {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final AtomicBoolean running;
+    private final Workload workload;
+    private final SplittableRandom random;
+    private final long meanThinkTimeMillis;
+
+    private Workload.Account account;
+    private String token;
+
+    public Session(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, LatencyRecorder recorder,
+                   AtomicBoolean running, Workload workload, SplittableRandom random, long meanThinkTimeMillis) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.running = running;
+        this.workload = workload;
+        this.random = random;
+        this.meanThinkTimeMillis = meanThinkTimeMillis;
+    }
+
+    public boolean signin(Workload.Account account) throws InterruptedException {
+        this.account = account;
+        this.token = null;
+        HttpResponse<String> response = post("POST /api/auth/signin", "/api/auth/signin",
+                Map.of("email", account.getEmail(), "password", Workload.PASSWORD));
+        if (response == null || response.statusCode() != 200) {
+            return false;
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            token = body.path("token").asText(null);
+        } catch (IOException e) {
+            return false;
+        }
+        return token != null;
+    }
+
+    public HttpResponse<String> get(String endpoint, String path) throws InterruptedException {
+        return send(endpoint, request(path).GET());
+    }
+
+    public HttpResponse<String> put(String endpoint, String path) throws InterruptedException {
+        return send(endpoint, request(path).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    public HttpResponse<String> post(String endpoint, String path, Object body) throws InterruptedException {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+        return send(endpoint, request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    // Exponentially distributed pause, capped so one unlucky draw does not idle a user for minutes
+    public void think() throws InterruptedException {
+        if (meanThinkTimeMillis <= 0) {
+            return;
+        }
+        double draw = -Math.log(1.0 - random.nextDouble()) * meanThinkTimeMillis;
+        Thread.sleep((long) Math.min(draw, meanThinkTimeMillis * 10.0));
+    }
+
+    public boolean isRunning() {
+        return running.get() && !Thread.currentThread().isInterrupted();
+    }
+
+    public SplittableRandom getRandom() { return random; }
+    public Workload getWorkload() { return workload; }
+    public Workload.Account getAccount() { return account; }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder builder) throws InterruptedException {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - started, response.statusCode() < 400);
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - started, false);
+            return null;
+        }
+    }
+}
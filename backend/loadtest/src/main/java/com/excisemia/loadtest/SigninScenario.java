@@ -0,0 +1,20 @@
+package com.excisemia.loadtest;
+
+// Shift-start burst: every session signs in, reads its lock list once and signs in again
+public class SigninScenario implements Scenario {
+
+    @Override
+    public String getName() {
+        return "signin";
+    }
+
+    @Override
+    public void run(Session session) throws Exception {
+        while (session.isRunning()) {
+            if (session.signin(session.getWorkload().pickTrackingUser(session.getRandom()))) {
+                session.get("GET /api/locks", "/api/locks");
+            }
+            session.think();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.excisemia.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Accounts and lock ids the simulated users pick from, read once from the seeded database
+public class Workload {
+
+    public static final String PASSWORD = "demo123";
+
+    private final List<Account> trackingUsers = new ArrayList<>();
+    private final List<Account> admins = new ArrayList<>();
+    private final Map<Long, long[]> locksByVendor = new HashMap<>();
+
+    public static Workload load(JdbcTemplate jdbcTemplate) {
+        Workload workload = new Workload();
+        jdbcTemplate.query("SELECT email, role, vendor_id FROM users WHERE is_active = TRUE AND vendor_id <> 1", rs -> {
+            Account account = new Account(rs.getString("email"), rs.getLong("vendor_id"));
+            if ("TRACKING".equals(rs.getString("role"))) {
+                workload.trackingUsers.add(account);
+            } else {
+                workload.admins.add(account);
+            }
+        });
+
+        Map<Long, List<Long>> locks = new HashMap<>();
+        jdbcTemplate.query("SELECT id, vendor_id FROM locks", rs -> {
+            locks.computeIfAbsent(rs.getLong("vendor_id"), key -> new ArrayList<>()).add(rs.getLong("id"));
+        });
+        locks.forEach((vendorId, ids) -> workload.locksByVendor.put(vendorId,
+                ids.stream().mapToLong(Long::longValue).toArray()));
+
+        if (workload.trackingUsers.isEmpty() || workload.admins.isEmpty()) {
+            throw new IllegalStateException("Seeded database has no vendor users to log in as");
+        }
+        return workload;
+    }
+
+    public Account pickTrackingUser(SplittableRandom random) {
+        return trackingUsers.get(random.nextInt(trackingUsers.size()));
+    }
+
+    public Account pickAdmin(SplittableRandom random) {
+        return admins.get(random.nextInt(admins.size()));
+    }
+
+    // Returns null when the vendor has no locks
+    public Long pickLock(long vendorId, SplittableRandom random) {
+        long[] ids = locksByVendor.get(vendorId);
+        if (ids == null || ids.length == 0) {
+            return null;
+        }
+        return ids[random.nextInt(ids.length)];
+    }
+
+    public int getTrackingUserCount() { return trackingUsers.size(); }
+    public int getAdminCount() { return admins.size(); }
+
+    public static class Account {
+        private final String email;
+        private final long vendorId;
+
+        public Account(String email, long vendorId) {
+            this.email = email;
+            this.vendorId = vendorId;
+        }
+
+        public String getEmail() { return email; }
+        public long getVendorId() { return vendorId; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.excisemia.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Read-your-writes across requests. A response to a request that wrote to the primary carries
+// X-Consistency-Token (the commit time); a client that sends it back within the replica lag
+// window has its reads served by the primary.
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "locktrackpro.replica", name = "url")
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+    public static final String HEADER = "X-Consistency-Token";
+
+    // Upper bound on replication delay; a token younger than this pins reads to the primary
+    @Value("${locktrackpro.replica.maxLagMs:2000}")
+    private long maxLagMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isFresh(request.getHeader(HEADER))) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    // Runs after the handler returned, so the write has been committed
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest
+                && ((ServletServerHttpRequest) request).getServletRequest()
+                        .getAttribute(ReplicaRoutingDataSource.WROTE_ATTRIBUTE) != null) {
+            response.getHeaders().set(HEADER, String.valueOf(System.currentTimeMillis()));
+        }
+        return body;
+    }
+
+    boolean isFresh(String token) {
+        if (token == null) {
+            return false;
+        }
+        try {
+            long age = System.currentTimeMillis() - Long.parseLong(token.trim());
+            // Negative ages allow for clock skew between nodes, but a far-future token is ignored
+            return age < maxLagMs && age > -maxLagMs;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
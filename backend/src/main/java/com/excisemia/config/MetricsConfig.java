@@ -0,0 +1,51 @@
+package com.excisemia.config;
+
+import com.excisemia.security.AuthTokenFilter;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private VendorTagGuard vendorTagGuard;
+
+    // Adds the vendor tag to http.server.requests. The security context is already cleared when
+    // the observation stops, so the vendor is read from the request attribute set by AuthTokenFilter.
+    @Bean
+    public ServerRequestObservationConvention vendorServerRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object vendorId = context.getCarrier().getAttribute(AuthTokenFilter.VENDOR_ID_ATTRIBUTE);
+                String vendorTag = vendorId instanceof Long
+                        ? vendorTagGuard.tagValue((Long) vendorId)
+                        : VendorTagGuard.NONE;
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of(VendorTagGuard.TAG_NAME, vendorTag));
+            }
+        };
+    }
+
+    // Adds the vendor tag to spring.data.repository.invocations, which times every repository method
+    @Bean
+    public RepositoryTagsProvider vendorRepositoryTagsProvider() {
+        return new DefaultRepositoryTagsProvider() {
+            @Override
+            public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+                return Tags.of(super.repositoryTags(invocation))
+                        .and(VendorTagGuard.TAG_NAME, vendorTagGuard.currentVendorTag());
+            }
+        };
+    }
+}
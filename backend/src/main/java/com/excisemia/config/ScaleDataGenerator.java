@@ -0,0 +1,368 @@
+package com.excisemia.config;
+
+import com.excisemia.model.Lock;
+import com.excisemia.model.Trip;
+import com.excisemia.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Synthetic production-size dataset for performance work, enabled with --spring.profiles.active=scale.
+// Rows get explicit ids in contiguous per-vendor ranges so foreign keys can be picked in O(1)
+// without reading anything back, and every chunk has its own seed so the output is identical
+// for a given seed regardless of thread count.
+@Component
+@Profile("scale")
+@Order(1)
+public class ScaleDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScaleDataGenerator.class);
+
+    private static final long SYSTEM_VENDOR_ID = 1L;
+    private static final long CHUNK_SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${locktrackpro.scale.seed:42}")
+    private long seed;
+
+    @Value("${locktrackpro.scale.vendors:50}")
+    private int vendorCount;
+
+    @Value("${locktrackpro.scale.users:2000}")
+    private int userCount;
+
+    @Value("${locktrackpro.scale.locks:20000}")
+    private int lockCount;
+
+    @Value("${locktrackpro.scale.schedules:100000}")
+    private int scheduleCount;
+
+    @Value("${locktrackpro.scale.trips:1000000}")
+    private long tripCount;
+
+    @Value("${locktrackpro.scale.remarks:500000}")
+    private long remarkCount;
+
+    // Zipf exponent of the vendor size distribution: a few hot vendors, a long tail
+    @Value("${locktrackpro.scale.skew:1.1}")
+    private double skew;
+
+    @Value("${locktrackpro.scale.historyDays:365}")
+    private int historyDays;
+
+    @Value("${locktrackpro.scale.batchSize:5000}")
+    private int batchSize;
+
+    @Value("${locktrackpro.scale.threads:4}")
+    private int threads;
+
+    // Per-vendor id ranges, index 0 is the system vendor
+    private double[] cumulativeWeights;
+    private long[] userStart, userCounts;
+    private long[] lockStart, lockCounts;
+    private long[] scheduleStart, scheduleCounts;
+    private LocalDateTime now;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vendors", Long.class);
+        if (existing != null && existing > 0) {
+            logger.info("Database already contains data. Skipping scale data generation.");
+            return;
+        }
+
+        logger.info("Generating scale dataset (seed {}): {} vendors, {} users, {} locks, {} schedules, {} trips, {} remarks",
+                seed, vendorCount, userCount, lockCount, scheduleCount, tripCount, remarkCount);
+        long started = System.currentTimeMillis();
+        now = LocalDateTime.now().withNano(0);
+
+        computeVendorWeights();
+        userCounts = allocate(userCount, 3);
+        lockCounts = allocate(lockCount, 1);
+        scheduleCounts = allocate(scheduleCount, 1);
+        userStart = startOffsets(userCounts, 2);
+        lockStart = startOffsets(lockCounts, 1);
+        scheduleStart = startOffsets(scheduleCounts, 1);
+
+        insertVendors();
+        insertUsers();
+        insertLocks();
+        insertSchedules();
+        insertInChunks("trips", tripCount, this::insertTripChunk);
+        insertInChunks("remarks", remarkCount, this::insertRemarkChunk);
+        restartIdentities();
+
+        logger.info("Scale dataset generated in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void computeVendorWeights() {
+        double[] weights = new double[vendorCount + 1];
+        double total = 0;
+        for (int v = 1; v <= vendorCount; v++) {
+            weights[v] = 1.0 / Math.pow(v, skew);
+            total += weights[v];
+        }
+        cumulativeWeights = new double[vendorCount + 1];
+        double running = 0;
+        for (int v = 1; v <= vendorCount; v++) {
+            running += weights[v] / total;
+            cumulativeWeights[v] = running;
+        }
+        cumulativeWeights[vendorCount] = 1.0;
+    }
+
+    // Splits total across tenant vendors by Zipf weight, giving each at least minimum rows
+    private long[] allocate(long total, long minimum) {
+        long[] counts = new long[vendorCount + 1];
+        long assigned = 0;
+        for (int v = 1; v <= vendorCount; v++) {
+            double share = cumulativeWeights[v] - cumulativeWeights[v - 1];
+            counts[v] = Math.max(minimum, (long) Math.floor(share * total));
+            assigned += counts[v];
+        }
+        counts[1] += Math.max(0, total - assigned);
+        return counts;
+    }
+
+    private long[] startOffsets(long[] counts, long firstId) {
+        long[] starts = new long[counts.length];
+        long next = firstId;
+        for (int v = 0; v < counts.length; v++) {
+            starts[v] = next;
+            next += counts[v];
+        }
+        return starts;
+    }
+
+    private long nextId(long[] starts, long[] counts) {
+        return starts[vendorCount] + counts[vendorCount];
+    }
+
+    private int pickVendor(SplittableRandom random) {
+        double r = random.nextDouble();
+        int low = 1, high = vendorCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < r) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long pick(SplittableRandom random, long[] starts, long[] counts, int vendor) {
+        return starts[vendor] + random.nextLong(counts[vendor]);
+    }
+
+    private void insertVendors() {
+        List<Object[]> rows = new ArrayList<>(vendorCount + 1);
+        Timestamp createdAt = Timestamp.valueOf(now.minusDays(historyDays));
+        rows.add(new Object[]{SYSTEM_VENDOR_ID, "LockTrack Pro System", "SYSTEM", "System administration vendor",
+                "system@locktrackpro.com", createdAt});
+        for (int v = 1; v <= vendorCount; v++) {
+            rows.add(new Object[]{vendorId(v), "Scale Vendor " + v, String.format("SV%04d", v),
+                    "Synthetic vendor " + v, "contact@vendor" + v + ".test", createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO vendors (id, vendor_name, vendor_code, description, contact_email, " +
+                "is_active, created_at) VALUES (?, ?, ?, ?, ?, TRUE, ?)", rows);
+        logger.info("Created {} vendors", rows.size());
+    }
+
+    private void insertUsers() {
+        // Encoding is deliberately slow, every synthetic user shares the demo password hash
+        String passwordHash = passwordEncoder.encode("demo123");
+        Timestamp createdAt = Timestamp.valueOf(now.minusDays(historyDays));
+        List<Object[]> rows = new ArrayList<>(batchSize);
+
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, vendor_id, is_active, created_at) " +
+                "VALUES (1, 'System Administrator', 'superadmin@locktrackpro.com', ?, 'SUPERADMIN', ?, TRUE, ?)",
+                passwordHash, SYSTEM_VENDOR_ID, createdAt);
+        for (int v = 1; v <= vendorCount; v++) {
+            for (long i = 0; i < userCounts[v]; i++) {
+                User.Role role = i == 0 ? User.Role.SUPERADMIN : i == 1 ? User.Role.ADMIN : User.Role.TRACKING;
+                rows.add(new Object[]{userStart[v] + i, "User " + v + "-" + i, "user" + i + "@vendor" + v + ".test",
+                        passwordHash, role.name(), vendorId(v), createdAt});
+                if (rows.size() == batchSize) {
+                    flushUsers(rows);
+                }
+            }
+        }
+        flushUsers(rows);
+        logger.info("Created {} users", nextId(userStart, userCounts) - 1);
+    }
+
+    private void flushUsers(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, password, role, vendor_id, is_active, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, TRUE, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertLocks() {
+        SplittableRandom random = new SplittableRandom(seed);
+        Lock.Status[] statuses = Lock.Status.values();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int v = 1; v <= vendorCount; v++) {
+            for (long i = 0; i < lockCounts[v]; i++) {
+                double r = random.nextDouble();
+                Lock.Status status = r < 0.6 ? statuses[0] : r < 0.85 ? statuses[1] : r < 0.95 ? statuses[2] : statuses[3];
+                Long assignedTo = status == Lock.Status.AVAILABLE || userCounts[v] < 3
+                        ? null
+                        : userStart[v] + 2 + random.nextLong(userCounts[v] - 2);
+                rows.add(new Object[]{lockStart[v] + i, String.format("SV%04d-L%06d", v, i), status.name(), assignedTo,
+                        vendorId(v), Timestamp.valueOf(now.minusMinutes(random.nextInt(historyDays * 1440)))});
+                if (rows.size() == batchSize) {
+                    flushLocks(rows);
+                }
+            }
+        }
+        flushLocks(rows);
+        logger.info("Created {} locks", nextId(lockStart, lockCounts) - 1);
+    }
+
+    private void flushLocks(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO locks (id, lock_number, status, assigned_to, vendor_id, last_updated) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertSchedules() {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        LocalDate today = now.toLocalDate();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int v = 1; v <= vendorCount; v++) {
+            for (long i = 0; i < scheduleCounts[v]; i++) {
+                LocalDate date = today.minusDays(historyDays).plusDays(random.nextInt(historyDays + 30));
+                rows.add(new Object[]{scheduleStart[v] + i, Date.valueOf(date), "Route " + random.nextInt(500),
+                        userStart[v] + Math.min(1, userCounts[v] - 1), vendorId(v),
+                        Timestamp.valueOf(date.atStartOfDay().minusDays(1))});
+                if (rows.size() == batchSize) {
+                    flushSchedules(rows);
+                }
+            }
+        }
+        flushSchedules(rows);
+        logger.info("Created {} schedules", nextId(scheduleStart, scheduleCounts) - 1);
+    }
+
+    private void flushSchedules(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO schedules (id, date, note, created_by, vendor_id, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertInChunks(String table, long total, ChunkWriter writer) throws Exception {
+        long chunks = (total + batchSize - 1) / batchSize;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long firstId = chunk * batchSize + 1;
+                int size = (int) Math.min(batchSize, total - chunk * batchSize);
+                SplittableRandom random = new SplittableRandom(seed + table.hashCode() + chunk * CHUNK_SEED_STRIDE);
+                futures.add(executor.submit(() -> {
+                    writer.write(firstId, size, random);
+                    return null;
+                }));
+            }
+            long done = 0;
+            for (Future<?> future : futures) {
+                future.get();
+                if (++done % 200 == 0) {
+                    logger.info("Inserted {} / {} {}", Math.min(done * batchSize, total), total, table);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Created {} {}", total, table);
+    }
+
+    private void insertTripChunk(long firstId, int size, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int v = pickVendor(random);
+            LocalDateTime start = now.minusMinutes(random.nextInt(historyDays * 1440));
+            boolean active = start.isAfter(now.minusHours(12)) && random.nextInt(4) > 0;
+            LocalDateTime end = active ? null : start.plusMinutes(60 + random.nextInt(11 * 60));
+            // Long-tailed distance and detention, mostly short hops with occasional outliers
+            double distance = Math.round(Math.exp(2.5 + random.nextDouble() * 3.5) * 10) / 10.0;
+            int detention = (int) Math.round(-30 * Math.log(1 - random.nextDouble()));
+            rows.add(new Object[]{firstId + i, pick(random, lockStart, lockCounts, v),
+                    pick(random, scheduleStart, scheduleCounts, v), vendorId(v), Timestamp.valueOf(start),
+                    end != null ? Timestamp.valueOf(end) : null, distance, detention,
+                    active ? Trip.Status.ACTIVE.name() : Trip.Status.COMPLETED.name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trips (id, lock_id, schedule_id, vendor_id, start_time, end_time, " +
+                "distance_km, detention_mins, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void insertRemarkChunk(long firstId, int size, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int v = pickVendor(random);
+            long userId = pick(random, userStart, userCounts, v);
+            rows.add(new Object[]{firstId + i, pick(random, lockStart, lockCounts, v), userId,
+                    "User " + v + "-" + (userId - userStart[v]), "Checkpoint " + random.nextInt(1000) + " cleared",
+                    vendorId(v), Timestamp.valueOf(now.minusMinutes(random.nextInt(historyDays * 1440)))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO remarks (id, lock_id, user_id, user_name, message, vendor_id, timestamp) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Explicit ids bypass the identity generators, move them past the generated rows
+    private void restartIdentities() {
+        restartIdentity("vendors", vendorCount + 2L);
+        restartIdentity("users", nextId(userStart, userCounts));
+        restartIdentity("locks", nextId(lockStart, lockCounts));
+        restartIdentity("schedules", nextId(scheduleStart, scheduleCounts));
+        restartIdentity("trips", tripCount + 1);
+        restartIdentity("remarks", remarkCount + 1);
+    }
+
+    private void restartIdentity(String table, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    private long vendorId(int vendorIndex) {
+        return SYSTEM_VENDOR_ID + vendorIndex;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(long firstId, int size, SplittableRandom random);
+    }
+}
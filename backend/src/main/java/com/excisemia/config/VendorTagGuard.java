@@ -0,0 +1,48 @@
+package com.excisemia.config;
+
+import com.excisemia.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class VendorTagGuard {
+    public static final String TAG_NAME = "vendor";
+    public static final String NONE = "none";
+    public static final String OTHER = "other";
+
+    // Every distinct tag value creates a new time series per metric, so only the first
+    // vendors seen get their own series and the long tail is folded into "other"
+    @Value("${locktrackpro.metrics.maxVendorTags:50}")
+    private int maxVendorTags;
+
+    private final Set<Long> taggedVendors = ConcurrentHashMap.newKeySet();
+
+    public String tagValue(Long vendorId) {
+        if (vendorId == null) {
+            return NONE;
+        }
+        if (taggedVendors.contains(vendorId)) {
+            return vendorId.toString();
+        }
+        synchronized (taggedVendors) {
+            if (taggedVendors.size() < maxVendorTags) {
+                taggedVendors.add(vendorId);
+                return vendorId.toString();
+            }
+        }
+        return taggedVendors.contains(vendorId) ? vendorId.toString() : OTHER;
+    }
+
+    public String currentVendorTag() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return tagValue(((UserPrincipal) authentication.getPrincipal()).getVendorId());
+        }
+        return NONE;
+    }
+}
@@ -1,6 +1,8 @@
 package com.excisemia.config;
 
 import com.excisemia.security.AuthTokenFilter;
+import com.excisemia.security.IdempotencyFilter;
+import com.excisemia.security.TenantThrottleFilter;
 import com.excisemia.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -35,6 +37,16 @@ public class WebSecurityConfig {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public TenantThrottleFilter tenantThrottleFilter() {
+        return new TenantThrottleFilter();
+    }
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter() {
+        return new IdempotencyFilter();
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -83,6 +95,8 @@ public class WebSecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(tenantThrottleFilter(), AuthTokenFilter.class);
+        http.addFilterAfter(idempotencyFilter(), TenantThrottleFilter.class);
 
         return http.build();
     }
@@ -1,14 +1,29 @@
 package com.excisemia.controller;
 
 import com.excisemia.dto.AnalyticsResponse;
+import com.excisemia.dto.LeaderboardResponse;
+import com.excisemia.dto.MessageResponse;
+import com.excisemia.dto.TripFactQuery;
+import com.excisemia.dto.TripPercentilesResponse;
+import com.excisemia.model.Trip;
+import com.excisemia.model.TripAnomaly;
 import com.excisemia.security.UserPrincipal;
-import com.excisemia.service.AnalyticsService;
+import com.excisemia.service.AnalyticsCache;
+import com.excisemia.service.LeaderboardService;
+import com.excisemia.service.TripAnomalyService;
+import com.excisemia.service.TripFactCache;
+import com.excisemia.service.TripSketchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,13 +32,99 @@ import java.util.List;
 public class AnalyticsController {
 
     @Autowired
-    private AnalyticsService analyticsService;
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private TripFactCache tripFactCache;
+
+    @Autowired
+    private TripSketchService tripSketchService;
+
+    @Autowired
+    private TripAnomalyService tripAnomalyService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
     public ResponseEntity<List<AnalyticsResponse>> getAnalytics(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<AnalyticsResponse> analytics = analyticsService.getAnalyticsByVendor(userPrincipal.getVendorId());
-        return ResponseEntity.ok(analytics);
+        AnalyticsCache.Result analytics = analyticsCache.get(userPrincipal.getVendorId());
+        // Seconds since the figures were computed, as in an HTTP cache's Age header
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(analytics.getAgeMillis() / 1000))
+                .body(analytics.getValue());
+    }
+
+    // Ad-hoc filter and group-by over the in-memory trip facts, e.g.
+    // ?groupBy=LOCK,WEEK&minDistanceKm=200&status=COMPLETED
+    @GetMapping("/trips")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<?> queryTripFacts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Long> lockId,
+            @RequestParam(required = false) Trip.Status status,
+            @RequestParam(required = false) Double minDistanceKm,
+            @RequestParam(required = false) Double maxDistanceKm,
+            @RequestParam(required = false) Integer minDetentionMins,
+            @RequestParam(required = false) List<TripFactQuery.GroupBy> groupBy,
+            Authentication authentication) {
+        if (!tripFactCache.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Trip facts are still loading"));
+        }
+        TripFactQuery query = new TripFactQuery();
+        query.setFrom(from != null ? from.atStartOfDay() : null);
+        query.setTo(to != null ? to.atStartOfDay() : null);
+        query.setLockIds(lockId != null ? lockId : new ArrayList<>());
+        query.setStatus(status);
+        query.setMinDistanceKm(minDistanceKm);
+        query.setMaxDistanceKm(maxDistanceKm);
+        query.setMinDetentionMins(minDetentionMins);
+        query.setGroupBy(groupBy != null ? groupBy : new ArrayList<>());
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(tripFactCache.query(userPrincipal.getVendorId(), query));
+    }
+
+    // p50/p90/p99 of detention and trip duration for trips completed in [from, to), for one lock or the vendor
+    @GetMapping("/percentiles")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<TripPercentilesResponse> getPercentiles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long lockId, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(tripSketchService.percentiles(userPrincipal.getVendorId(), lockId, from, to));
+    }
+
+    // Outlier trips flagged by TripAnomalyOutboxHandler, newest first; defaults to the last 7 days
+    @GetMapping("/anomalies")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<List<TripAnomaly>> getAnomalies(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long lockId, @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(8);
+        return ResponseEntity.ok(tripAnomalyService.findAnomalies(userPrincipal.getVendorId(), lockId,
+                start.atStartOfDay(), end.atStartOfDay(), limit));
+    }
+
+    // Top k locks or users of a maintained leaderboard, e.g. /leaderboards/LOCK_DETENTION?k=10
+    @GetMapping("/leaderboards/{board}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<?> getLeaderboard(@PathVariable LeaderboardService.Board board,
+                                            @RequestParam(defaultValue = "10") int k, Authentication authentication) {
+        if (!leaderboardService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Leaderboards are still loading"));
+        }
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        LeaderboardResponse leaderboard = leaderboardService.top(userPrincipal.getVendorId(), board, k);
+        return ResponseEntity.ok(leaderboard);
     }
-}
\ No newline at end of file
+}
@@ -10,18 +10,22 @@ import com.excisemia.repository.UserRepository;
 import com.excisemia.repository.VendorRepository;
 import com.excisemia.security.JwtUtils;
 import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.PasswordHashingExecutor;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
@@ -43,15 +47,38 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
+
+    // Password verification and hashing run on the hashing pool, the servlet thread is released
+    // while they wait and the request is answered with 429 when the pool is saturated
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        try {
+            return passwordHashingExecutor.submit(() -> signin(loginRequest));
+        } catch (TaskRejectedException e) {
+            logger.warn("Sign-in rejected, hashing pool saturated: {}", loginRequest.getEmail());
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
+
+    @PostMapping("/signup")
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
+        try {
+            return passwordHashingExecutor.submit(() -> register(signUpRequest));
+        } catch (TaskRejectedException e) {
+            logger.warn("Sign-up rejected, hashing pool saturated: {}", signUpRequest.getEmail());
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
+
+    private ResponseEntity<?> signin(LoginRequest loginRequest) {
         try {
             logger.info("Attempting to authenticate user: {}", loginRequest.getEmail());
             
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
 
             UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
@@ -78,8 +105,7 @@ public class AuthController {
         }
     }
 
-    @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
+    private ResponseEntity<?> register(SignUpRequest signUpRequest) {
         try {
             logger.info("Attempting to register user: {}", signUpRequest.getEmail());
             
@@ -131,6 +157,12 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "1")
+                .body(new MessageResponse("Error: Too many authentication requests, please retry shortly"));
+    }
+
     @PostMapping("/validate-token")
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
         try {
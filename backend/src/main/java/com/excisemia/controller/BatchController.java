@@ -0,0 +1,28 @@
+package com.excisemia.controller;
+
+import com.excisemia.dto.BatchRequest;
+import com.excisemia.dto.BatchResponse;
+import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.BatchService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    @Autowired
+    private BatchService batchService;
+
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest batchRequest,
+                                                      Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        BatchResponse response = batchService.executeBatch(batchRequest, userPrincipal);
+        return ResponseEntity.ok(response);
+    }
+}
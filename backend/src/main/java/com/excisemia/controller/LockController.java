@@ -1,11 +1,16 @@
 package com.excisemia.controller;
 
+import com.excisemia.dto.LockBoardResponse;
 import com.excisemia.dto.LockRequest;
+import com.excisemia.dto.MessageResponse;
 import com.excisemia.model.Lock;
 import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.LockBoardService;
 import com.excisemia.service.LockService;
+import com.excisemia.service.LockStatusCounters;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -21,6 +26,12 @@ public class LockController {
     @Autowired
     private LockService lockService;
 
+    @Autowired
+    private LockStatusCounters lockStatusCounters;
+
+    @Autowired
+    private LockBoardService lockBoardService;
+
     @GetMapping
     public ResponseEntity<List<Lock>> getAllLocks(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -28,6 +39,27 @@ public class LockController {
         return ResponseEntity.ok(locks);
     }
 
+    // Lock counts by status from memory, for the home screen
+    @GetMapping("/summary")
+    public ResponseEntity<?> getLockSummary(Authentication authentication) {
+        if (!lockStatusCounters.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Lock counts are still loading"));
+        }
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(lockStatusCounters.summary(userPrincipal.getVendorId()));
+    }
+
+    // Locks with their assignee, current trip and last remark, in lock number order; pass the
+    // response's nextAfter as `after` for the next page
+    @GetMapping("/board")
+    public ResponseEntity<LockBoardResponse> getLockBoard(@RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "100") int limit,
+                                                          Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(lockBoardService.page(userPrincipal.getVendorId(), after, limit));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
     public ResponseEntity<Lock> createLock(@Valid @RequestBody LockRequest lockRequest, Authentication authentication) {
@@ -36,6 +68,14 @@ public class LockController {
         return ResponseEntity.ok(lock);
     }
 
+    @PostMapping("/claim")
+    public ResponseEntity<?> claimNextAvailableLock(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return lockService.claimNextAvailable(userPrincipal.getVendorId(), userPrincipal.getId())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("No available locks")));
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<Lock> updateLockStatus(@PathVariable Long id, @RequestParam Lock.Status status, Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -1,15 +1,20 @@
 package com.excisemia.controller;
 
+import com.excisemia.dto.MessageResponse;
 import com.excisemia.dto.RemarkRequest;
 import com.excisemia.model.Remark;
 import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.ArchiveService;
 import com.excisemia.service.RemarkService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -20,6 +25,9 @@ public class RemarkController {
     @Autowired
     private RemarkService remarkService;
 
+    @Autowired
+    private ArchiveService archiveService;
+
     @GetMapping
     public ResponseEntity<List<Remark>> getAllRemarks(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -34,6 +42,29 @@ public class RemarkController {
         return ResponseEntity.ok(remarks);
     }
 
+    // Remarks written in [from, to) from the archive tier, optionally for one lock
+    @GetMapping("/archive")
+    public ResponseEntity<List<Remark>> getArchivedRemarks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long lockId, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<Remark> remarks = archiveService.findRemarks(userPrincipal.getVendorId(), lockId,
+                from.atStartOfDay(), to.atStartOfDay());
+        return ResponseEntity.ok(remarks);
+    }
+
+    // Copies cold-storage remarks in [from, to) back into the archive table
+    @PostMapping("/archive/rehydrate")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<MessageResponse> rehydrateRemarks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        int restored = archiveService.rehydrateRemarks(userPrincipal.getVendorId(), from.atStartOfDay(), to.atStartOfDay());
+        return ResponseEntity.ok(new MessageResponse("Restored " + restored + " remarks"));
+    }
+
     @PostMapping
     public ResponseEntity<Remark> createRemark(@Valid @RequestBody RemarkRequest remarkRequest,
                                              Authentication authentication) {
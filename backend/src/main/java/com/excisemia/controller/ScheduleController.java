@@ -1,16 +1,20 @@
 package com.excisemia.controller;
 
+import com.excisemia.dto.AssignmentPlan;
 import com.excisemia.dto.ScheduleRequest;
 import com.excisemia.model.Schedule;
 import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.AssignmentPlanner;
 import com.excisemia.service.ScheduleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -21,6 +25,9 @@ public class ScheduleController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private AssignmentPlanner assignmentPlanner;
+
     @GetMapping
     public ResponseEntity<List<Schedule>> getAllSchedules(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -37,6 +44,22 @@ public class ScheduleController {
         return ResponseEntity.ok(schedule);
     }
 
+    @GetMapping("/plan")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<AssignmentPlan> previewAssignments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(assignmentPlanner.plan(date, userPrincipal.getVendorId()));
+    }
+
+    @PostMapping("/plan")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<AssignmentPlan> applyAssignments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(assignmentPlanner.apply(date, userPrincipal.getVendorId()));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
     public ResponseEntity<?> deleteSchedule(@PathVariable Long id, Authentication authentication) {
@@ -0,0 +1,75 @@
+package com.excisemia.controller;
+
+import com.excisemia.dto.MessageResponse;
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Trip;
+import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.ArchiveService;
+import com.excisemia.service.TripService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/trips")
+public class TripController {
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @GetMapping
+    public ResponseEntity<List<Trip>> getTrips(@RequestParam(defaultValue = "ACTIVE") Trip.Status status,
+                                               Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<Trip> trips = tripService.getTripsByStatusAndVendor(status, userPrincipal.getVendorId());
+        return ResponseEntity.ok(trips);
+    }
+
+    // Trips that started in [from, to) from the archive tier, see ArchiveService
+    @GetMapping("/archive")
+    public ResponseEntity<List<Trip>> getArchivedTrips(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<Trip> trips = archiveService.findTrips(userPrincipal.getVendorId(), from.atStartOfDay(), to.atStartOfDay());
+        return ResponseEntity.ok(trips);
+    }
+
+    // Copies cold-storage trips in [from, to) back into the archive table
+    @PostMapping("/archive/rehydrate")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERADMIN')")
+    public ResponseEntity<MessageResponse> rehydrateTrips(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        int restored = archiveService.rehydrateTrips(userPrincipal.getVendorId(), from.atStartOfDay(), to.atStartOfDay());
+        return ResponseEntity.ok(new MessageResponse("Restored " + restored + " trips"));
+    }
+
+    @PostMapping
+    public ResponseEntity<Trip> startTrip(@Valid @RequestBody TripRequest tripRequest, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Trip trip = tripService.startTrip(tripRequest, userPrincipal.getVendorId(), userPrincipal.getId());
+        return ResponseEntity.ok(trip);
+    }
+
+    @PutMapping("/{id}/complete")
+    public ResponseEntity<Trip> completeTrip(@PathVariable Long id, @Valid @RequestBody TripCompletionRequest completion,
+                                             Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Trip trip = tripService.completeTrip(id, completion, userPrincipal.getVendorId());
+        return ResponseEntity.ok(trip);
+    }
+}
@@ -58,6 +58,24 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @PutMapping("/push-token")
+    public ResponseEntity<?> registerPushToken(@RequestBody Map<String, String> request, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String token = request.get("token");
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        userService.updatePushToken(userPrincipal.getId(), token);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/push-token")
+    public ResponseEntity<?> unregisterPushToken(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        userService.updatePushToken(userPrincipal.getId(), null);
+        return ResponseEntity.ok().build();
+    }
+
     @PutMapping("/{userId}/role")
     @PreAuthorize("hasRole('SUPERADMIN')")
     public ResponseEntity<?> updateUserRole(@PathVariable Long userId, @RequestBody Map<String, String> request, Authentication authentication) {
@@ -1,12 +1,17 @@
 package com.excisemia.controller;
 
+import com.excisemia.dto.VendorDashboardResponse;
 import com.excisemia.dto.VendorRequest;
 import com.excisemia.model.Vendor;
+import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.VendorDashboardService;
 import com.excisemia.service.VendorService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,12 +24,29 @@ public class VendorController {
     @Autowired
     private VendorService vendorService;
 
+    @Autowired
+    private VendorDashboardService vendorDashboardService;
+
     @GetMapping
     public ResponseEntity<List<Vendor>> getAllVendors() {
         List<Vendor> vendors = vendorService.getAllActiveVendors();
         return ResponseEntity.ok(vendors);
     }
 
+    // Lock and trip figures of every active vendor; vendors that take too long are reported as TIMED_OUT
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('SUPERADMIN')")
+    public ResponseEntity<VendorDashboardResponse> getDashboard(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        // Only the system super admin sees every vendor
+        if (!userPrincipal.getVendorId().equals(1L)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(vendorDashboardService.getDashboard());
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('SUPERADMIN')")
     public ResponseEntity<Vendor> createVendor(@Valid @RequestBody VendorRequest vendorRequest) {
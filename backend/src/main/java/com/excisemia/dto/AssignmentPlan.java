@@ -0,0 +1,66 @@
+package com.excisemia.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AssignmentPlan {
+    private LocalDate date;
+    private Boolean applied;
+    private List<Assignment> assignments;
+    private List<Long> unassignedScheduleIds;
+    private Long planningMillis;
+
+    public static class Assignment {
+        private Long scheduleId;
+        private Long lockId;
+        private String lockNumber;
+        private Long userId;
+
+        public Assignment() {}
+
+        public Assignment(Long scheduleId, Long lockId, String lockNumber, Long userId) {
+            this.scheduleId = scheduleId;
+            this.lockId = lockId;
+            this.lockNumber = lockNumber;
+            this.userId = userId;
+        }
+
+        public Long getScheduleId() { return scheduleId; }
+        public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
+
+        public Long getLockId() { return lockId; }
+        public void setLockId(Long lockId) { this.lockId = lockId; }
+
+        public String getLockNumber() { return lockNumber; }
+        public void setLockNumber(String lockNumber) { this.lockNumber = lockNumber; }
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+    }
+
+    // Constructors
+    public AssignmentPlan() {}
+
+    public AssignmentPlan(LocalDate date, List<Assignment> assignments, List<Long> unassignedScheduleIds) {
+        this.date = date;
+        this.applied = false;
+        this.assignments = assignments;
+        this.unassignedScheduleIds = unassignedScheduleIds;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public Boolean getApplied() { return applied; }
+    public void setApplied(Boolean applied) { this.applied = applied; }
+
+    public List<Assignment> getAssignments() { return assignments; }
+    public void setAssignments(List<Assignment> assignments) { this.assignments = assignments; }
+
+    public List<Long> getUnassignedScheduleIds() { return unassignedScheduleIds; }
+    public void setUnassignedScheduleIds(List<Long> unassignedScheduleIds) { this.unassignedScheduleIds = unassignedScheduleIds; }
+
+    public Long getPlanningMillis() { return planningMillis; }
+    public void setPlanningMillis(Long planningMillis) { this.planningMillis = planningMillis; }
+}
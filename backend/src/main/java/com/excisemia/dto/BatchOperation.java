@@ -0,0 +1,68 @@
+package com.excisemia.dto;
+
+import com.excisemia.model.Lock;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public class BatchOperation {
+    @NotNull
+    private Type type;
+
+    // Client-side queue id, echoed back so the handset can match results
+    @Size(max = 100)
+    private String clientRef;
+
+    private Long lockId;
+    private Lock.Status status;
+    private Long userId;
+    private Long scheduleId;
+
+    @Size(max = 1000)
+    private String message;
+
+    private LocalDate date;
+
+    @Size(max = 500)
+    private String note;
+
+    public enum Type {
+        CREATE_REMARK, UPDATE_LOCK_STATUS, ASSIGN_LOCK, CREATE_SCHEDULE, DELETE_SCHEDULE
+    }
+
+    // Constructors
+    public BatchOperation() {}
+
+    public BatchOperation(Type type) {
+        this.type = type;
+    }
+
+    // Getters and Setters
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getClientRef() { return clientRef; }
+    public void setClientRef(String clientRef) { this.clientRef = clientRef; }
+
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Lock.Status getStatus() { return status; }
+    public void setStatus(Lock.Status status) { this.status = status; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getScheduleId() { return scheduleId; }
+    public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+}
@@ -0,0 +1,40 @@
+package com.excisemia.dto;
+
+public class BatchOperationResult {
+    private Integer index;
+    private String clientRef;
+    private Status status;
+    private Object result;
+    private String error;
+
+    public enum Status {
+        OK, FAILED, ROLLED_BACK, SKIPPED
+    }
+
+    // Constructors
+    public BatchOperationResult() {}
+
+    public BatchOperationResult(Integer index, String clientRef, Status status, Object result, String error) {
+        this.index = index;
+        this.clientRef = clientRef;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+
+    public String getClientRef() { return clientRef; }
+    public void setClientRef(String clientRef) { this.clientRef = clientRef; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Object getResult() { return result; }
+    public void setResult(Object result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
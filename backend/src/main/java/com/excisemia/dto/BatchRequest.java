@@ -0,0 +1,37 @@
+package com.excisemia.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchRequest {
+    @NotNull
+    private Mode mode = Mode.PER_OPERATION;
+
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<BatchOperation> operations;
+
+    public enum Mode {
+        PER_OPERATION, ALL_OR_NOTHING
+    }
+
+    // Constructors
+    public BatchRequest() {}
+
+    public BatchRequest(Mode mode, List<BatchOperation> operations) {
+        this.mode = mode;
+        this.operations = operations;
+    }
+
+    // Getters and Setters
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public List<BatchOperation> getOperations() { return operations; }
+    public void setOperations(List<BatchOperation> operations) { this.operations = operations; }
+}
@@ -0,0 +1,40 @@
+package com.excisemia.dto;
+
+import java.util.List;
+
+public class BatchResponse {
+    private BatchRequest.Mode mode;
+    private Boolean committed;
+    private Integer succeeded;
+    private Integer failed;
+    private List<BatchOperationResult> results;
+
+    // Constructors
+    public BatchResponse() {}
+
+    public BatchResponse(BatchRequest.Mode mode, Boolean committed, List<BatchOperationResult> results) {
+        this.mode = mode;
+        this.committed = committed;
+        this.results = results;
+        this.succeeded = (int) results.stream()
+                .filter(r -> r.getStatus() == BatchOperationResult.Status.OK)
+                .count();
+        this.failed = results.size() - this.succeeded;
+    }
+
+    // Getters and Setters
+    public BatchRequest.Mode getMode() { return mode; }
+    public void setMode(BatchRequest.Mode mode) { this.mode = mode; }
+
+    public Boolean getCommitted() { return committed; }
+    public void setCommitted(Boolean committed) { this.committed = committed; }
+
+    public Integer getSucceeded() { return succeeded; }
+    public void setSucceeded(Integer succeeded) { this.succeeded = succeeded; }
+
+    public Integer getFailed() { return failed; }
+    public void setFailed(Integer failed) { this.failed = failed; }
+
+    public List<BatchOperationResult> getResults() { return results; }
+    public void setResults(List<BatchOperationResult> results) { this.results = results; }
+}
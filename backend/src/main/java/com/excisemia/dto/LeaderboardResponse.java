@@ -0,0 +1,52 @@
+package com.excisemia.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LeaderboardResponse {
+    private String board;
+    private List<Entry> entries;
+    private LocalDateTime reconciledAt;
+
+    public static class Entry {
+        private Long id;
+        private String label;
+        private Long score;
+
+        public Entry() {}
+
+        public Entry(Long id, String label, Long score) {
+            this.id = id;
+            this.label = label;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getLabel() { return label; }
+        public void setLabel(String label) { this.label = label; }
+
+        public Long getScore() { return score; }
+        public void setScore(Long score) { this.score = score; }
+    }
+
+    // Constructors
+    public LeaderboardResponse() {}
+
+    public LeaderboardResponse(String board, List<Entry> entries, LocalDateTime reconciledAt) {
+        this.board = board;
+        this.entries = entries;
+        this.reconciledAt = reconciledAt;
+    }
+
+    // Getters and Setters
+    public String getBoard() { return board; }
+    public void setBoard(String board) { this.board = board; }
+
+    public List<Entry> getEntries() { return entries; }
+    public void setEntries(List<Entry> entries) { this.entries = entries; }
+
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+}
@@ -0,0 +1,26 @@
+package com.excisemia.dto;
+
+import com.excisemia.model.LockBoardEntry;
+
+import java.util.List;
+
+public class LockBoardResponse {
+    private List<LockBoardEntry> entries;
+    // Lock number to pass as `after` for the next page, null on the last page
+    private String nextAfter;
+
+    // Constructors
+    public LockBoardResponse() {}
+
+    public LockBoardResponse(List<LockBoardEntry> entries, String nextAfter) {
+        this.entries = entries;
+        this.nextAfter = nextAfter;
+    }
+
+    // Getters and Setters
+    public List<LockBoardEntry> getEntries() { return entries; }
+    public void setEntries(List<LockBoardEntry> entries) { this.entries = entries; }
+
+    public String getNextAfter() { return nextAfter; }
+    public void setNextAfter(String nextAfter) { this.nextAfter = nextAfter; }
+}
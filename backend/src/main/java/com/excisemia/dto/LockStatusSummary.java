@@ -0,0 +1,31 @@
+package com.excisemia.dto;
+
+import com.excisemia.model.Lock;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class LockStatusSummary {
+    private Map<Lock.Status, Long> counts;
+    private Long total;
+    private LocalDateTime reconciledAt;
+
+    // Constructors
+    public LockStatusSummary() {}
+
+    public LockStatusSummary(Map<Lock.Status, Long> counts, Long total, LocalDateTime reconciledAt) {
+        this.counts = counts;
+        this.total = total;
+        this.reconciledAt = reconciledAt;
+    }
+
+    // Getters and Setters
+    public Map<Lock.Status, Long> getCounts() { return counts; }
+    public void setCounts(Map<Lock.Status, Long> counts) { this.counts = counts; }
+
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+}
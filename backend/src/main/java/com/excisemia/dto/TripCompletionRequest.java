@@ -0,0 +1,26 @@
+package com.excisemia.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+public class TripCompletionRequest {
+    @PositiveOrZero
+    private Double distanceKm;
+
+    @PositiveOrZero
+    private Integer detentionMins;
+
+    // Constructors
+    public TripCompletionRequest() {}
+
+    public TripCompletionRequest(Double distanceKm, Integer detentionMins) {
+        this.distanceKm = distanceKm;
+        this.detentionMins = detentionMins;
+    }
+
+    // Getters and Setters
+    public Double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(Double distanceKm) { this.distanceKm = distanceKm; }
+
+    public Integer getDetentionMins() { return detentionMins; }
+    public void setDetentionMins(Integer detentionMins) { this.detentionMins = detentionMins; }
+}
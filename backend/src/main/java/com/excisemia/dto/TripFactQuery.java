@@ -0,0 +1,50 @@
+package com.excisemia.dto;
+
+import com.excisemia.model.Trip;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Filter and grouping for a scan of the in-memory trip facts. Unset filters match every trip;
+// time bounds are on start time, from inclusive and to exclusive.
+public class TripFactQuery {
+    public enum GroupBy {
+        LOCK, STATUS, DAY, WEEK, MONTH
+    }
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Long> lockIds = new ArrayList<>();
+    private Trip.Status status;
+    private Double minDistanceKm;
+    private Double maxDistanceKm;
+    private Integer minDetentionMins;
+    private List<GroupBy> groupBy = new ArrayList<>();
+
+    public TripFactQuery() {}
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+
+    public List<Long> getLockIds() { return lockIds; }
+    public void setLockIds(List<Long> lockIds) { this.lockIds = lockIds; }
+
+    public Trip.Status getStatus() { return status; }
+    public void setStatus(Trip.Status status) { this.status = status; }
+
+    public Double getMinDistanceKm() { return minDistanceKm; }
+    public void setMinDistanceKm(Double minDistanceKm) { this.minDistanceKm = minDistanceKm; }
+
+    public Double getMaxDistanceKm() { return maxDistanceKm; }
+    public void setMaxDistanceKm(Double maxDistanceKm) { this.maxDistanceKm = maxDistanceKm; }
+
+    public Integer getMinDetentionMins() { return minDetentionMins; }
+    public void setMinDetentionMins(Integer minDetentionMins) { this.minDetentionMins = minDetentionMins; }
+
+    public List<GroupBy> getGroupBy() { return groupBy; }
+    public void setGroupBy(List<GroupBy> groupBy) { this.groupBy = groupBy; }
+}
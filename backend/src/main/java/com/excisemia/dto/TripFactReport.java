@@ -0,0 +1,73 @@
+package com.excisemia.dto;
+
+import com.excisemia.model.Trip;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class TripFactReport {
+    private List<Group> groups;
+    private Long scannedTrips;
+    private Long matchedTrips;
+    private Long scanMillis;
+
+    // One result row; keys that were not grouped on are null
+    public static class Group {
+        private Long lockId;
+        private Trip.Status status;
+        private LocalDate period;
+        private Long trips;
+        private Double totalDistanceKm;
+        private Long totalDetentionMins;
+        private Double avgDetentionMins;
+        private Integer maxDetentionMins;
+
+        public Group() {}
+
+        public Long getLockId() { return lockId; }
+        public void setLockId(Long lockId) { this.lockId = lockId; }
+
+        public Trip.Status getStatus() { return status; }
+        public void setStatus(Trip.Status status) { this.status = status; }
+
+        // First day of the day, week (Monday) or month bucket
+        public LocalDate getPeriod() { return period; }
+        public void setPeriod(LocalDate period) { this.period = period; }
+
+        public Long getTrips() { return trips; }
+        public void setTrips(Long trips) { this.trips = trips; }
+
+        public Double getTotalDistanceKm() { return totalDistanceKm; }
+        public void setTotalDistanceKm(Double totalDistanceKm) { this.totalDistanceKm = totalDistanceKm; }
+
+        public Long getTotalDetentionMins() { return totalDetentionMins; }
+        public void setTotalDetentionMins(Long totalDetentionMins) { this.totalDetentionMins = totalDetentionMins; }
+
+        public Double getAvgDetentionMins() { return avgDetentionMins; }
+        public void setAvgDetentionMins(Double avgDetentionMins) { this.avgDetentionMins = avgDetentionMins; }
+
+        public Integer getMaxDetentionMins() { return maxDetentionMins; }
+        public void setMaxDetentionMins(Integer maxDetentionMins) { this.maxDetentionMins = maxDetentionMins; }
+    }
+
+    public TripFactReport() {}
+
+    public TripFactReport(List<Group> groups, Long scannedTrips, Long matchedTrips, Long scanMillis) {
+        this.groups = groups;
+        this.scannedTrips = scannedTrips;
+        this.matchedTrips = matchedTrips;
+        this.scanMillis = scanMillis;
+    }
+
+    public List<Group> getGroups() { return groups; }
+    public void setGroups(List<Group> groups) { this.groups = groups; }
+
+    public Long getScannedTrips() { return scannedTrips; }
+    public void setScannedTrips(Long scannedTrips) { this.scannedTrips = scannedTrips; }
+
+    public Long getMatchedTrips() { return matchedTrips; }
+    public void setMatchedTrips(Long matchedTrips) { this.matchedTrips = matchedTrips; }
+
+    public Long getScanMillis() { return scanMillis; }
+    public void setScanMillis(Long scanMillis) { this.scanMillis = scanMillis; }
+}
@@ -0,0 +1,78 @@
+package com.excisemia.dto;
+
+import java.time.LocalDate;
+
+// Detention and trip duration percentiles in minutes for trips completed in [from, to)
+public class TripPercentilesResponse {
+    private Long lockId;
+    private LocalDate from;
+    private LocalDate to;
+    private Percentiles detentionMins;
+    private Percentiles durationMins;
+
+    public static class Percentiles {
+        private Long count;
+        private Double p50;
+        private Double p90;
+        private Double p99;
+        private Double mean;
+        private Long max;
+
+        public Percentiles() {}
+
+        public Percentiles(Long count, Double p50, Double p90, Double p99, Double mean, Long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.mean = mean;
+            this.max = max;
+        }
+
+        public Long getCount() { return count; }
+        public void setCount(Long count) { this.count = count; }
+
+        public Double getP50() { return p50; }
+        public void setP50(Double p50) { this.p50 = p50; }
+
+        public Double getP90() { return p90; }
+        public void setP90(Double p90) { this.p90 = p90; }
+
+        public Double getP99() { return p99; }
+        public void setP99(Double p99) { this.p99 = p99; }
+
+        public Double getMean() { return mean; }
+        public void setMean(Double mean) { this.mean = mean; }
+
+        public Long getMax() { return max; }
+        public void setMax(Long max) { this.max = max; }
+    }
+
+    // Constructors
+    public TripPercentilesResponse() {}
+
+    public TripPercentilesResponse(Long lockId, LocalDate from, LocalDate to, Percentiles detentionMins,
+                                   Percentiles durationMins) {
+        this.lockId = lockId;
+        this.from = from;
+        this.to = to;
+        this.detentionMins = detentionMins;
+        this.durationMins = durationMins;
+    }
+
+    // Getters and Setters
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public Percentiles getDetentionMins() { return detentionMins; }
+    public void setDetentionMins(Percentiles detentionMins) { this.detentionMins = detentionMins; }
+
+    public Percentiles getDurationMins() { return durationMins; }
+    public void setDurationMins(Percentiles durationMins) { this.durationMins = durationMins; }
+}
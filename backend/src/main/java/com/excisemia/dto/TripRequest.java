@@ -0,0 +1,26 @@
+package com.excisemia.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class TripRequest {
+    // Optional; without it the next available lock is claimed
+    private Long lockId;
+
+    @NotNull
+    private Long scheduleId;
+
+    // Constructors
+    public TripRequest() {}
+
+    public TripRequest(Long lockId, Long scheduleId) {
+        this.lockId = lockId;
+        this.scheduleId = scheduleId;
+    }
+
+    // Getters and Setters
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Long getScheduleId() { return scheduleId; }
+    public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
+}
@@ -0,0 +1,101 @@
+package com.excisemia.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Cross-vendor dashboard for the system super admin. Vendors that did not answer in time are listed with
+// status TIMED_OUT and no figures.
+public class VendorDashboardResponse {
+    private List<VendorSummary> vendors;
+    private Integer completed;
+    private Integer timedOut;
+    private Integer failed;
+    private Long elapsedMillis;
+
+    public static class VendorSummary {
+        public enum Status {
+            OK, TIMED_OUT, FAILED
+        }
+
+        private Long vendorId;
+        private String vendorName;
+        private String vendorCode;
+        private Status status;
+        private String error;
+        private Map<String, Long> locksByStatus;
+        private Long totalTrips;
+        private Long activeTrips;
+        private Double totalDistanceKm;
+        private Long totalDetentionMins;
+        private Long elapsedMillis;
+
+        public VendorSummary() {}
+
+        public VendorSummary(Long vendorId, String vendorName, String vendorCode) {
+            this.vendorId = vendorId;
+            this.vendorName = vendorName;
+            this.vendorCode = vendorCode;
+        }
+
+        public Long getVendorId() { return vendorId; }
+        public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+        public String getVendorName() { return vendorName; }
+        public void setVendorName(String vendorName) { this.vendorName = vendorName; }
+
+        public String getVendorCode() { return vendorCode; }
+        public void setVendorCode(String vendorCode) { this.vendorCode = vendorCode; }
+
+        public Status getStatus() { return status; }
+        public void setStatus(Status status) { this.status = status; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public Map<String, Long> getLocksByStatus() { return locksByStatus; }
+        public void setLocksByStatus(Map<String, Long> locksByStatus) { this.locksByStatus = locksByStatus; }
+
+        public Long getTotalTrips() { return totalTrips; }
+        public void setTotalTrips(Long totalTrips) { this.totalTrips = totalTrips; }
+
+        public Long getActiveTrips() { return activeTrips; }
+        public void setActiveTrips(Long activeTrips) { this.activeTrips = activeTrips; }
+
+        public Double getTotalDistanceKm() { return totalDistanceKm; }
+        public void setTotalDistanceKm(Double totalDistanceKm) { this.totalDistanceKm = totalDistanceKm; }
+
+        public Long getTotalDetentionMins() { return totalDetentionMins; }
+        public void setTotalDetentionMins(Long totalDetentionMins) { this.totalDetentionMins = totalDetentionMins; }
+
+        public Long getElapsedMillis() { return elapsedMillis; }
+        public void setElapsedMillis(Long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    }
+
+    // Constructors
+    public VendorDashboardResponse() {}
+
+    public VendorDashboardResponse(List<VendorSummary> vendors, Integer completed, Integer timedOut, Integer failed,
+                                   Long elapsedMillis) {
+        this.vendors = vendors;
+        this.completed = completed;
+        this.timedOut = timedOut;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters and Setters
+    public List<VendorSummary> getVendors() { return vendors; }
+    public void setVendors(List<VendorSummary> vendors) { this.vendors = vendors; }
+
+    public Integer getCompleted() { return completed; }
+    public void setCompleted(Integer completed) { this.completed = completed; }
+
+    public Integer getTimedOut() { return timedOut; }
+    public void setTimedOut(Integer timedOut) { this.timedOut = timedOut; }
+
+    public Integer getFailed() { return failed; }
+    public void setFailed(Integer failed) { this.failed = failed; }
+
+    public Long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(Long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+}
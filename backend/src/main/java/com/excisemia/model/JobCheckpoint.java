@@ -0,0 +1,61 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Progress of the current run of a cluster job within one vendor. Written in the same transaction
+// as each chunk, so a restarted run continues after the last committed chunk. Cleared when a run finishes.
+@Entity
+@Table(name = "job_checkpoints", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"job_name", "vendor_id"})
+})
+public class JobCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", length = 100, nullable = false)
+    private String jobName;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    // Job-defined position within the vendor, usually the last processed id
+    @Column(name = "last_position", nullable = false)
+    private Long position = 0L;
+
+    @Column(nullable = false)
+    private Boolean done = false;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName, Long vendorId) {
+        this.jobName = jobName;
+        this.vendorId = vendorId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public Boolean getDone() { return done; }
+    public void setDone(Boolean done) { this.done = done; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,71 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per cluster job. A node may run the job only while it owns an unexpired lease, which it
+// takes with a conditional update (see JobLeaseRepository.claim).
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_completed_at")
+    private LocalDateTime lastCompletedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Failed runs since the last completed one; drives the retry backoff
+    @Column(name = "consecutive_failures")
+    private Integer consecutiveFailures;
+
+    // Constructors
+    public JobLease() {}
+
+    public JobLease(String jobName, LocalDateTime now) {
+        this.jobName = jobName;
+        this.leaseUntil = now;
+        this.nextRunAt = now;
+    }
+
+    // Getters and Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    public LocalDateTime getNextRunAt() { return nextRunAt; }
+    public void setNextRunAt(LocalDateTime nextRunAt) { this.nextRunAt = nextRunAt; }
+
+    public LocalDateTime getLastStartedAt() { return lastStartedAt; }
+    public void setLastStartedAt(LocalDateTime lastStartedAt) { this.lastStartedAt = lastStartedAt; }
+
+    public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+    public void setLastCompletedAt(LocalDateTime lastCompletedAt) { this.lastCompletedAt = lastCompletedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Integer getConsecutiveFailures() { return consecutiveFailures; }
+    public void setConsecutiveFailures(Integer consecutiveFailures) { this.consecutiveFailures = consecutiveFailures; }
+}
@@ -34,6 +34,10 @@ public class Lock {
     @Column(name = "current_trip_id")
     private Long currentTripId;
 
+    // User who took the lock with /api/locks/claim; only they can start its trip
+    @Column(name = "claimed_by")
+    private Long claimedBy;
+
     @NotNull
     @Column(name = "vendor_id")
     private Long vendorId;
@@ -75,6 +79,9 @@ public class Lock {
     public Long getCurrentTripId() { return currentTripId; }
     public void setCurrentTripId(Long currentTripId) { this.currentTripId = currentTripId; }
 
+    public Long getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(Long claimedBy) { this.claimedBy = claimedBy; }
+
     public Long getVendorId() { return vendorId; }
     public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
 
@@ -0,0 +1,110 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One lock as the lock board shows it, with its vendor, assignee, current trip and last remark copied in so the
+// board is read with a single indexed query. Maintained by LockBoardOutboxHandler and LockBoardRebuildJob.
+@Entity
+@Table(name = "lock_board", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"lock_id"}),
+    @UniqueConstraint(columnNames = {"vendor_id", "lock_number"})
+})
+public class LockBoardEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lock_id", nullable = false)
+    private Long lockId;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "lock_number", nullable = false)
+    private String lockNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private Lock.Status status;
+
+    @Column(name = "vendor_name")
+    private String vendorName;
+
+    @Column(name = "assigned_to")
+    private Long assignedTo;
+
+    @Column(name = "assignee_name")
+    private String assigneeName;
+
+    @Column(name = "current_trip_id")
+    private Long currentTripId;
+
+    @Column(name = "trip_started_at")
+    private LocalDateTime tripStartedAt;
+
+    @Column(name = "last_remark", length = 500)
+    private String lastRemark;
+
+    @Column(name = "last_remark_by")
+    private String lastRemarkBy;
+
+    @Column(name = "last_remark_at")
+    private LocalDateTime lastRemarkAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public LockBoardEntry() {}
+
+    public LockBoardEntry(Long lockId, Long vendorId) {
+        this.lockId = lockId;
+        this.vendorId = vendorId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public String getLockNumber() { return lockNumber; }
+    public void setLockNumber(String lockNumber) { this.lockNumber = lockNumber; }
+
+    public Lock.Status getStatus() { return status; }
+    public void setStatus(Lock.Status status) { this.status = status; }
+
+    public String getVendorName() { return vendorName; }
+    public void setVendorName(String vendorName) { this.vendorName = vendorName; }
+
+    public Long getAssignedTo() { return assignedTo; }
+    public void setAssignedTo(Long assignedTo) { this.assignedTo = assignedTo; }
+
+    public String getAssigneeName() { return assigneeName; }
+    public void setAssigneeName(String assigneeName) { this.assigneeName = assigneeName; }
+
+    public Long getCurrentTripId() { return currentTripId; }
+    public void setCurrentTripId(Long currentTripId) { this.currentTripId = currentTripId; }
+
+    public LocalDateTime getTripStartedAt() { return tripStartedAt; }
+    public void setTripStartedAt(LocalDateTime tripStartedAt) { this.tripStartedAt = tripStartedAt; }
+
+    public String getLastRemark() { return lastRemark; }
+    public void setLastRemark(String lastRemark) { this.lastRemark = lastRemark; }
+
+    public String getLastRemarkBy() { return lastRemarkBy; }
+    public void setLastRemarkBy(String lastRemarkBy) { this.lastRemarkBy = lastRemarkBy; }
+
+    public LocalDateTime getLastRemarkAt() { return lastRemarkAt; }
+    public void setLastRemarkAt(LocalDateTime lastRemarkAt) { this.lastRemarkAt = lastRemarkAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
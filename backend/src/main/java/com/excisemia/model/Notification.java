@@ -0,0 +1,114 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Queued push notification for one user, created from outbox events and drained by NotificationDispatcher.
+// DEAD rows are the dead letters: rejected by the provider or out of retry attempts.
+@Entity
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_notifications_event", columnList = "event_id"),
+    @Index(name = "idx_notifications_recipient", columnList = "recipient_id")
+})
+public class Notification {
+    public static final String LOCK_ASSIGNED = "LOCK_ASSIGNED";
+    public static final String SCHEDULE_CREATED = "SCHEDULE_CREATED";
+    public static final String TRIP_ANOMALY = "TRIP_ANOMALY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    // Outbox event the notification was created from, used to ignore redelivered events
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(length = 50, nullable = false)
+    private String type;
+
+    @Column(length = 100, nullable = false)
+    private String title;
+
+    @Column(length = 500)
+    private String body;
+
+    @Column(length = 1000)
+    private String data;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum Status {
+        PENDING, SENT, DEAD
+    }
+
+    // Constructors
+    public Notification() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRecipientId() { return recipientId; }
+    public void setRecipientId(Long recipientId) { this.recipientId = recipientId; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public String getData() { return data; }
+    public void setData(String data) { this.data = data; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -0,0 +1,127 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Domain change recorded in the same transaction as the change itself and delivered to
+// in-process handlers by OutboxDispatcher
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbox_aggregate", columnList = "aggregate_type, aggregate_id, status")
+})
+public class OutboxEvent {
+    public static final String LOCK_CREATED = "LOCK_CREATED";
+    public static final String LOCK_STATUS_CHANGED = "LOCK_STATUS_CHANGED";
+    public static final String LOCK_ASSIGNED = "LOCK_ASSIGNED";
+    public static final String REMARK_CREATED = "REMARK_CREATED";
+    public static final String SCHEDULE_CREATED = "SCHEDULE_CREATED";
+    public static final String TRIP_STARTED = "TRIP_STARTED";
+    public static final String TRIP_COMPLETED = "TRIP_COMPLETED";
+    public static final String TRIP_UPDATED = "TRIP_UPDATED";
+    public static final String TRIP_ANOMALY = "TRIP_ANOMALY";
+    public static final String TRIPS_REMOVED = "TRIPS_REMOVED";
+    public static final String USER_DELETED = "USER_DELETED";
+    public static final String VENDOR_UPDATED = "VENDOR_UPDATED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", length = 30, nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "event_type", length = 50, nullable = false)
+    private String eventType;
+
+    @Column(length = 4000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Earliest time the event may be claimed; a claim pushes it forward as a delivery lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Comma-separated names of the handlers that already succeeded, so a retry skips them
+    @Column(name = "handled_by", length = 500)
+    private String handledBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    public enum Status {
+        PENDING, DISPATCHED, PARKED
+    }
+
+    // Constructors
+    public OutboxEvent() {}
+
+    public OutboxEvent(String aggregateType, Long aggregateId, Long vendorId, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.vendorId = vendorId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getHandledBy() { return handledBy; }
+    public void setHandledBy(String handledBy) { this.handledBy = handledBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getDispatchedAt() { return dispatchedAt; }
+    public void setDispatchedAt(LocalDateTime dispatchedAt) { this.dispatchedAt = dispatchedAt; }
+}
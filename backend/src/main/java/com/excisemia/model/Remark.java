@@ -10,7 +10,10 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "remarks")
+@Table(name = "remarks", indexes = {
+    @Index(name = "idx_remarks_vendor_timestamp", columnList = "vendor_id, timestamp"),
+    @Index(name = "idx_remarks_lock_timestamp", columnList = "vendor_id, lock_id, timestamp")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Remark {
     @Id
@@ -9,7 +9,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules", indexes = {
+    @Index(name = "idx_schedules_lock", columnList = "lock_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Schedule {
     @Id
@@ -34,6 +36,17 @@ public class Schedule {
     @JoinColumn(name = "vendor_id", insertable = false, updatable = false)
     private Vendor vendor;
 
+    // Lock and tracking user planned for this schedule (see AssignmentPlanner)
+    @Column(name = "lock_id")
+    private Long lockId;
+
+    @Column(name = "assigned_to")
+    private Long assignedTo;
+
+    // Trip started for this schedule; until then its planned lock is reserved for it
+    @Column(name = "trip_id")
+    private Long tripId;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -67,6 +80,15 @@ public class Schedule {
     public Vendor getVendor() { return vendor; }
     public void setVendor(Vendor vendor) { this.vendor = vendor; }
 
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Long getAssignedTo() { return assignedTo; }
+    public void setAssignedTo(Long assignedTo) { this.assignedTo = assignedTo; }
+
+    public Long getTripId() { return tripId; }
+    public void setTripId(Long tripId) { this.tripId = tripId; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -8,7 +8,10 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "trips")
+@Table(name = "trips", indexes = {
+    @Index(name = "idx_trips_vendor_start", columnList = "vendor_id, start_time"),
+    @Index(name = "idx_trips_vendor_status", columnList = "vendor_id, status")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Trip {
     @Id
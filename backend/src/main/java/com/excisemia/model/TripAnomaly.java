@@ -0,0 +1,109 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A completed trip whose detention or distance was far outside its lock's (or, for locks with too few trips,
+// its vendor's) rolling statistics at the time it completed
+@Entity
+@Table(name = "trip_anomalies", indexes = {
+    @Index(name = "idx_trip_anomalies_vendor_detected", columnList = "vendor_id, detected_at"),
+    @Index(name = "idx_trip_anomalies_lock_detected", columnList = "lock_id, detected_at")
+})
+public class TripAnomaly {
+    public enum Metric {
+        DETENTION, DISTANCE
+    }
+
+    public enum Baseline {
+        LOCK, VENDOR
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "lock_id", nullable = false)
+    private Long lockId;
+
+    @Column(name = "trip_id", nullable = false)
+    private Long tripId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Metric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Baseline baseline;
+
+    @Column(name = "observed", nullable = false)
+    private Double value;
+
+    @Column(name = "expected", nullable = false)
+    private Double expected;
+
+    @Column(name = "std_dev", nullable = false)
+    private Double stdDev;
+
+    @Column(name = "z_score", nullable = false)
+    private Double score;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    // Constructors
+    public TripAnomaly() {}
+
+    public TripAnomaly(Long vendorId, Long lockId, Long tripId, Metric metric, Baseline baseline, Double value,
+                       Double expected, Double stdDev, Double score) {
+        this.vendorId = vendorId;
+        this.lockId = lockId;
+        this.tripId = tripId;
+        this.metric = metric;
+        this.baseline = baseline;
+        this.value = value;
+        this.expected = expected;
+        this.stdDev = stdDev;
+        this.score = score;
+        this.detectedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Long getTripId() { return tripId; }
+    public void setTripId(Long tripId) { this.tripId = tripId; }
+
+    public Metric getMetric() { return metric; }
+    public void setMetric(Metric metric) { this.metric = metric; }
+
+    public Baseline getBaseline() { return baseline; }
+    public void setBaseline(Baseline baseline) { this.baseline = baseline; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+
+    public Double getExpected() { return expected; }
+    public void setExpected(Double expected) { this.expected = expected; }
+
+    public Double getStdDev() { return stdDev; }
+    public void setStdDev(Double stdDev) { this.stdDev = stdDev; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+}
@@ -0,0 +1,81 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One day's QuantileSketch of a trip metric for a lock, or for the whole vendor when lockId is 0.
+// Keyed by the day the trip completed; maintained by TripSketchOutboxHandler.
+@Entity
+@Table(name = "trip_sketches", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"vendor_id", "lock_id", "metric", "sketch_day"})
+})
+public class TripSketch {
+    public static final long VENDOR_WIDE = 0L;
+
+    public enum Metric {
+        DETENTION, DURATION
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "lock_id", nullable = false)
+    private Long lockId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Metric metric;
+
+    @Column(name = "sketch_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount = 0L;
+
+    @Column(nullable = false, length = 8192)
+    private byte[] data;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TripSketch() {}
+
+    public TripSketch(Long vendorId, Long lockId, Metric metric, LocalDate day) {
+        this.vendorId = vendorId;
+        this.lockId = lockId;
+        this.metric = metric;
+        this.day = day;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Metric getMetric() { return metric; }
+    public void setMetric(Metric metric) { this.metric = metric; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public Long getSampleCount() { return sampleCount; }
+    public void setSampleCount(Long sampleCount) { this.sampleCount = sampleCount; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
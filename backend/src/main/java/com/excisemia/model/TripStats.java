@@ -0,0 +1,85 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Exponentially weighted mean and variance of detention and distance over a lock's completed trips, or
+// over the whole vendor's when lockId is 0. Maintained by TripAnomalyOutboxHandler.
+@Entity
+@Table(name = "trip_stats", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"vendor_id", "lock_id"})
+})
+public class TripStats {
+    public static final long VENDOR_WIDE = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "lock_id", nullable = false)
+    private Long lockId;
+
+    @Column(name = "detention_samples", nullable = false)
+    private Long detentionSamples = 0L;
+
+    @Column(name = "detention_mean", nullable = false)
+    private Double detentionMean = 0.0;
+
+    @Column(name = "detention_variance", nullable = false)
+    private Double detentionVariance = 0.0;
+
+    @Column(name = "distance_samples", nullable = false)
+    private Long distanceSamples = 0L;
+
+    @Column(name = "distance_mean", nullable = false)
+    private Double distanceMean = 0.0;
+
+    @Column(name = "distance_variance", nullable = false)
+    private Double distanceVariance = 0.0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TripStats() {}
+
+    public TripStats(Long vendorId, Long lockId) {
+        this.vendorId = vendorId;
+        this.lockId = lockId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public Long getLockId() { return lockId; }
+    public void setLockId(Long lockId) { this.lockId = lockId; }
+
+    public Long getDetentionSamples() { return detentionSamples; }
+    public void setDetentionSamples(Long detentionSamples) { this.detentionSamples = detentionSamples; }
+
+    public Double getDetentionMean() { return detentionMean; }
+    public void setDetentionMean(Double detentionMean) { this.detentionMean = detentionMean; }
+
+    public Double getDetentionVariance() { return detentionVariance; }
+    public void setDetentionVariance(Double detentionVariance) { this.detentionVariance = detentionVariance; }
+
+    public Long getDistanceSamples() { return distanceSamples; }
+    public void setDistanceSamples(Long distanceSamples) { this.distanceSamples = distanceSamples; }
+
+    public Double getDistanceMean() { return distanceMean; }
+    public void setDistanceMean(Double distanceMean) { this.distanceMean = distanceMean; }
+
+    public Double getDistanceVariance() { return distanceVariance; }
+    public void setDistanceVariance(Double distanceVariance) { this.distanceVariance = distanceVariance; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,36 @@
+package com.excisemia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Outbox event already folded into the trip statistics, so a redelivered completion is neither scored
+// nor counted twice. Only needed while the event can still be redelivered; purged with dispatched outbox events.
+@Entity
+@Table(name = "trip_stats_events", indexes = {
+    @Index(name = "idx_trip_stats_events_vendor_applied", columnList = "vendor_id, applied_at")
+})
+public class TripStatsEvent {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    // Constructors
+    public TripStatsEvent() {}
+
+    // Getters and Setters
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+
+    public Long getVendorId() { return vendorId; }
+    public void setVendorId(Long vendorId) { this.vendorId = vendorId; }
+
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+    public void setAppliedAt(LocalDateTime appliedAt) { this.appliedAt = appliedAt; }
+}
@@ -51,7 +51,11 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = false; // Default to inactive
 
-    @ManyToOne()
+    @Column(name = "push_token", length = 200)
+    @JsonIgnore // Device address, only used by NotificationDispatcher
+    private String pushToken;
+
+    @ManyToOne(fetch = FetchType.LAZY) // Never serialized, so skip the extra select on every user load
     @JoinColumn(name = "vendor_id", insertable = false, updatable = false)
     @JsonIgnore // Prevent serialization issues
     private Vendor vendor;
@@ -103,6 +107,9 @@ public class User {
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
 
+    public String getPushToken() { return pushToken; }
+    public void setPushToken(String pushToken) { this.pushToken = pushToken; }
+
     public Vendor getVendor() { return vendor; }
     public void setVendor(Vendor vendor) { this.vendor = vendor; }
 
@@ -0,0 +1,19 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, Long> {
+    List<JobCheckpoint> findByJobName(String jobName);
+
+    @Modifying
+    @Query("DELETE FROM JobCheckpoint c WHERE c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
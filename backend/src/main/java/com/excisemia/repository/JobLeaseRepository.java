@@ -0,0 +1,41 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Succeeds (returns 1) for exactly one node: the row must be due and its previous lease expired
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil, l.lastStartedAt = :now " +
+           "WHERE l.jobName = :jobName AND l.leaseUntil < :now AND l.nextRunAt <= :now")
+    int claim(@Param("jobName") String jobName, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :leaseUntil WHERE l.jobName = :jobName AND l.owner = :owner " +
+           "AND l.leaseUntil >= :now")
+    int renew(@Param("jobName") String jobName, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :now, l.nextRunAt = :nextRunAt, l.lastCompletedAt = :completedAt, " +
+           "l.lastError = :error, l.consecutiveFailures = 0 WHERE l.jobName = :jobName AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                @Param("nextRunAt") LocalDateTime nextRunAt, @Param("completedAt") LocalDateTime completedAt,
+                @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :now, l.nextRunAt = :nextRunAt, l.lastError = :error, " +
+           "l.consecutiveFailures = :failures WHERE l.jobName = :jobName AND l.owner = :owner")
+    int fail(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+             @Param("nextRunAt") LocalDateTime nextRunAt, @Param("failures") int failures,
+             @Param("error") String error);
+}
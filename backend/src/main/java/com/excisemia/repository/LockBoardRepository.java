@@ -0,0 +1,35 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.LockBoardEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LockBoardRepository extends JpaRepository<LockBoardEntry, Long> {
+
+    // Row locks in lock id order, so two projections of overlapping locks cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM LockBoardEntry e WHERE e.lockId IN :lockIds ORDER BY e.lockId")
+    List<LockBoardEntry> findByLockIdInForUpdate(@Param("lockIds") Collection<Long> lockIds);
+
+    // Keyset page over the (vendor_id, lock_number) unique index
+    @Query("SELECT e FROM LockBoardEntry e WHERE e.vendorId = :vendorId AND e.lockNumber > :after " +
+           "ORDER BY e.lockNumber")
+    List<LockBoardEntry> findPage(@Param("vendorId") Long vendorId, @Param("after") String after, Pageable pageable);
+
+    @Query("SELECT e.lockId FROM LockBoardEntry e WHERE e.assignedTo IN :userIds")
+    List<Long> findLockIdsAssignedTo(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("UPDATE LockBoardEntry e SET e.vendorName = :vendorName WHERE e.vendorId = :vendorId")
+    int updateVendorName(@Param("vendorId") Long vendorId, @Param("vendorName") String vendorName);
+}
@@ -1,18 +1,65 @@
 package com.excisemia.repository;
 
 import com.excisemia.model.Lock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LockRepository extends JpaRepository<Lock, Long> {
+    // Locks planned for an open schedule (see AssignmentPlanner) are kept out of claims until its trip starts
+    String NOT_PLANNED = "NOT EXISTS (SELECT s.id FROM Schedule s WHERE s.lockId = l.id AND s.tripId IS NULL " +
+            "AND s.date >= CURRENT_DATE) ";
+
     List<Lock> findByVendorId(Long vendorId);
     Optional<Lock> findByLockNumberAndVendorId(String lockNumber, Long vendorId);
     List<Lock> findByAssignedToAndVendorId(Long assignedTo, Long vendorId);
     List<Lock> findByStatusAndVendorId(Lock.Status status, Long vendorId);
     Boolean existsByLockNumberAndVendorId(String lockNumber, Long vendorId);
     Optional<Lock> findByIdAndVendorId(Long id, Long vendorId);
-}
\ No newline at end of file
+
+    @Query("SELECT l.id FROM Lock l WHERE l.vendorId = :vendorId AND l.status = AVAILABLE " +
+           "AND l.currentTripId IS NULL AND " + NOT_PLANNED + "ORDER BY l.id")
+    List<Long> findClaimableIds(@Param("vendorId") Long vendorId);
+
+    // Flips an AVAILABLE lock in one statement; 0 means another claim or status change got there first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Lock l SET l.status = :status, l.claimedBy = :claimedBy, l.lastUpdated = :now " +
+           "WHERE l.id = :id AND l.vendorId = :vendorId AND l.status = AVAILABLE AND l.currentTripId IS NULL " +
+           "AND " + NOT_PLANNED)
+    int claimIfAvailable(@Param("id") Long id, @Param("vendorId") Long vendorId, @Param("status") Lock.Status status,
+                         @Param("claimedBy") Long claimedBy, @Param("now") LocalDateTime now);
+
+    // Attaches a new trip in one statement; 0 means another trip got the lock first, someone else claimed it or
+    // it is planned for another open schedule
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Lock l SET l.currentTripId = :tripId, l.status = :status, l.claimedBy = NULL, " +
+           "l.lastUpdated = :now WHERE l.id = :id AND l.vendorId = :vendorId AND l.currentTripId IS NULL " +
+           "AND (l.claimedBy IS NULL OR l.claimedBy = :userId) " +
+           "AND NOT EXISTS (SELECT s.id FROM Schedule s WHERE s.lockId = l.id AND s.tripId IS NULL " +
+           "AND s.date >= CURRENT_DATE AND s.id <> :scheduleId)")
+    int attachTripIfFree(@Param("id") Long id, @Param("vendorId") Long vendorId, @Param("tripId") Long tripId,
+                         @Param("status") Lock.Status status, @Param("userId") Long userId,
+                         @Param("scheduleId") Long scheduleId, @Param("now") LocalDateTime now);
+
+    // Cross-node fallback when the pool is empty; lock timeout -2 is SKIP LOCKED, so concurrent
+    // claimers on other nodes are handed different rows
+    @org.springframework.data.jpa.repository.Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT l FROM Lock l WHERE l.vendorId = :vendorId AND l.status = AVAILABLE " +
+           "AND l.currentTripId IS NULL AND " + NOT_PLANNED + "ORDER BY l.id")
+    List<Lock> findClaimableForUpdate(@Param("vendorId") Long vendorId, Pageable pageable);
+
+    @Query("SELECT l.id FROM Lock l WHERE l.vendorId = :vendorId AND l.id > :afterId ORDER BY l.id")
+    List<Long> findIdsAfter(@Param("vendorId") Long vendorId, @Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED, so several instances can drain the queue side by side
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM Notification n WHERE n.status = PENDING AND n.nextAttemptAt <= :now ORDER BY n.id")
+    List<Notification> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :leaseUntil, n.attempts = n.attempts + 1 WHERE n.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :now, n.lastError = NULL WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now,
+                 @Param("status") Notification.Status status);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :nextAttemptAt, n.lastError = :error WHERE n.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.lastError = :error WHERE n.id IN :ids")
+    int markDead(@Param("ids") Collection<Long> ids, @Param("error") String error,
+                 @Param("status") Notification.Status status);
+
+    @Query("SELECT DISTINCT n.eventId FROM Notification n WHERE n.eventId IN :eventIds")
+    List<Long> findExistingEventIds(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.status = PENDING")
+    long countPending();
+
+    long countByStatus(Notification.Status status);
+
+    List<Notification> findByRecipientIdOrderByIdAsc(Long recipientId);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.vendorId = :vendorId AND n.status = SENT " +
+           "AND n.sentAt < :before ORDER BY n.id")
+    List<Long> findSentIdsBefore(@Param("vendorId") Long vendorId, @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+}
@@ -0,0 +1,75 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // The oldest undelivered event of each aggregate, if it is due, skipping rows another dispatcher
+    // has locked (lock timeout -2 is SKIP LOCKED). Any earlier event that is not DISPATCHED, whether
+    // leased, in retry backoff or PARKED, blocks the rest of its aggregate, so locking the head row
+    // serializes claims per aggregate and a second node cannot take a later event out of order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = PENDING " +
+           "AND e.nextAttemptAt <= :now AND NOT EXISTS (SELECT 1 FROM OutboxEvent p " +
+           "WHERE p.aggregateType = e.aggregateType AND p.aggregateId = e.aggregateId " +
+           "AND p.status <> DISPATCHED AND p.id < e.id) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Undelivered events queued behind claimed heads. They need no row lock of their own: while the
+    // head is undelivered no other dispatcher can claim them.
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status <> DISPATCHED AND e.aggregateId IN :aggregateIds " +
+           "AND e.id > :afterId ORDER BY e.id")
+    List<OutboxEvent> findQueuedBehind(@Param("aggregateIds") List<Long> aggregateIds, @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.dispatchedAt = :now, e.lastError = NULL WHERE e.id IN :ids")
+    int markDispatched(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now,
+                       @Param("status") OutboxEvent.Status status);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.status = PENDING")
+    long countPending();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    long countByStatus(OutboxEvent.Status status);
+
+    // Change feed for per-node caches: events after afterId whatever their delivery status
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId AND e.eventType IN :types ORDER BY e.id")
+    List<OutboxEvent> findAfter(@Param("afterId") Long afterId, @Param("types") List<String> types, Pageable pageable);
+
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.id > :afterId AND e.eventType IN :types")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("types") List<String> types);
+
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e")
+    Long findMaxId();
+
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e WHERE e.createdAt < :before")
+    Long findMaxIdCreatedBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.vendorId = :vendorId AND e.status = DISPATCHED " +
+           "AND e.dispatchedAt < :before ORDER BY e.id")
+    List<Long> findDispatchedIdsBefore(@Param("vendorId") Long vendorId, @Param("before") LocalDateTime before,
+                                       Pageable pageable);
+}
@@ -2,13 +2,34 @@ package com.excisemia.repository;
 
 import com.excisemia.model.Remark;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RemarkRepository extends JpaRepository<Remark, Long> {
-    List<Remark> findByLockIdAndVendorIdOrderByTimestampDesc(Long lockId, Long vendorId);
     List<Remark> findByUserIdAndVendorIdOrderByTimestampDesc(Long userId, Long vendorId);
-    List<Remark> findByVendorIdOrderByTimestampDesc(Long vendorId);
-}
\ No newline at end of file
+
+    // Bounded on timestamp so PostgreSQL only scans the partitions in the hot window
+    List<Remark> findByLockIdAndVendorIdAndTimestampGreaterThanEqualOrderByTimestampDesc(Long lockId, Long vendorId,
+                                                                                         LocalDateTime since);
+    List<Remark> findByVendorIdAndTimestampGreaterThanEqualOrderByTimestampDesc(Long vendorId, LocalDateTime since);
+
+    // Newest remark of each lock in the hot window, as columns so the vendor is not loaded with it
+    @Query("SELECT r.lockId AS lockId, r.message AS message, r.userName AS userName, r.timestamp AS timestamp " +
+           "FROM Remark r WHERE r.timestamp >= :since AND r.id IN (SELECT MAX(r2.id) FROM Remark r2 " +
+           "WHERE r2.lockId IN :lockIds AND r2.timestamp >= :since GROUP BY r2.lockId)")
+    List<LatestRemark> findLatestByLockIds(@Param("lockIds") Collection<Long> lockIds,
+                                           @Param("since") LocalDateTime since);
+
+    interface LatestRemark {
+        Long getLockId();
+        String getMessage();
+        String getUserName();
+        LocalDateTime getTimestamp();
+    }
+}
@@ -2,6 +2,9 @@ package com.excisemia.repository;
 
 import com.excisemia.model.Schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,4 +17,14 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findByDateAndVendorIdOrderByCreatedAtDesc(LocalDate date, Long vendorId);
     List<Schedule> findByCreatedByAndVendorIdOrderByDateDesc(Long createdBy, Long vendorId);
     Optional<Schedule> findByIdAndVendorId(Long id, Long vendorId);
+
+    // Locks planned for schedules of today or later that have not started their trip yet
+    @Query("SELECT s.lockId FROM Schedule s WHERE s.vendorId = :vendorId AND s.lockId IS NOT NULL " +
+           "AND s.tripId IS NULL AND s.date >= CURRENT_DATE")
+    List<Long> findReservedLockIds(@Param("vendorId") Long vendorId);
+
+    // Releases the schedule's planned lock once its trip has started
+    @Modifying
+    @Query("UPDATE Schedule s SET s.tripId = :tripId WHERE s.id = :id")
+    int markStarted(@Param("id") Long id, @Param("tripId") Long tripId);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.TripAnomaly;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TripAnomalyRepository extends JpaRepository<TripAnomaly, Long> {
+
+    @Query("SELECT a FROM TripAnomaly a WHERE a.vendorId = :vendorId AND (:lockId IS NULL OR a.lockId = :lockId) " +
+           "AND a.detectedAt >= :from AND a.detectedAt < :to ORDER BY a.detectedAt DESC, a.id DESC")
+    List<TripAnomaly> findRecent(@Param("vendorId") Long vendorId, @Param("lockId") Long lockId,
+                                 @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("SELECT a.id FROM TripAnomaly a WHERE a.vendorId = :vendorId AND a.detectedAt < :before ORDER BY a.id")
+    List<Long> findIdsDetectedBefore(@Param("vendorId") Long vendorId, @Param("before") LocalDateTime before,
+                                     Pageable pageable);
+}
@@ -1,17 +1,60 @@
 package com.excisemia.repository;
 
 import com.excisemia.model.Trip;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
-    List<Trip> findByLockIdAndVendorId(Long lockId, Long vendorId);
-    List<Trip> findByScheduleIdAndVendorId(Long scheduleId, Long vendorId);
+    // Live reads are bounded on start_time so PostgreSQL only scans the partitions in the hot window
+    List<Trip> findByLockIdAndVendorIdAndStartTimeGreaterThanEqual(Long lockId, Long vendorId, LocalDateTime since);
+    List<Trip> findByScheduleIdAndVendorIdAndStartTimeGreaterThanEqual(Long scheduleId, Long vendorId,
+                                                                       LocalDateTime since);
+    List<Trip> findByStatusAndVendorIdAndStartTimeGreaterThanEqual(Trip.Status status, Long vendorId,
+                                                                   LocalDateTime since);
+    List<Trip> findByVendorIdAndStartTimeGreaterThanEqual(Long vendorId, LocalDateTime since);
+    Optional<Trip> findByIdAndVendorIdAndStartTimeGreaterThanEqual(Long id, Long vendorId, LocalDateTime since);
+
+    // Active trips are never archived, so they can sit in any partition and are read without the bound
     List<Trip> findByStatusAndVendorId(Trip.Status status, Long vendorId);
-    List<Trip> findByVendorId(Long vendorId);
-    Optional<Trip> findByIdAndVendorId(Long id, Long vendorId);
-}
\ No newline at end of file
+    Optional<Trip> findByIdAndVendorIdAndStatus(Long id, Long vendorId, Trip.Status status);
+
+    // Keyset pages for the maintenance jobs, one vendor at a time
+    @Query("SELECT t FROM Trip t WHERE t.vendorId = :vendorId AND t.status = ACTIVE " +
+           "AND t.startTime >= :startedAfter AND t.startTime < :startedBefore AND t.id > :afterId ORDER BY t.id")
+    List<Trip> findStaleActive(@Param("vendorId") Long vendorId, @Param("startedAfter") LocalDateTime startedAfter,
+                               @Param("startedBefore") LocalDateTime startedBefore, @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    @Query("SELECT t FROM Trip t WHERE t.vendorId = :vendorId AND t.status = COMPLETED " +
+           "AND t.detentionMins IS NULL AND t.endTime IS NOT NULL AND t.startTime >= :startedAfter " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<Trip> findCompletedWithoutDetention(@Param("vendorId") Long vendorId,
+                                             @Param("startedAfter") LocalDateTime startedAfter,
+                                             @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT t.id FROM Trip t WHERE t.vendorId = :vendorId AND t.status = COMPLETED " +
+           "AND t.endTime < :endedBefore ORDER BY t.id")
+    List<Long> findCompletedIdsEndedBefore(@Param("vendorId") Long vendorId,
+                                           @Param("endedBefore") LocalDateTime endedBefore, Pageable pageable);
+
+    @Query("SELECT t.lockId AS lockId, COUNT(t) AS totalTrips, " +
+           "COALESCE(SUM(t.distanceKm), 0.0) AS totalDistance, " +
+           "COALESCE(SUM(t.detentionMins), 0) AS totalDetentionTime " +
+           "FROM Trip t WHERE t.vendorId = :vendorId AND t.startTime >= :since GROUP BY t.lockId")
+    List<LockTripStats> summarizeByLockForVendor(@Param("vendorId") Long vendorId, @Param("since") LocalDateTime since);
+
+    interface LockTripStats {
+        Long getLockId();
+        Long getTotalTrips();
+        Double getTotalDistance();
+        Long getTotalDetentionTime();
+    }
+}
@@ -0,0 +1,28 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.TripSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TripSketchRepository extends JpaRepository<TripSketch, Long> {
+
+    // Locked, so two nodes delivering events of the same vendor do not overwrite each other's counts
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TripSketch s WHERE s.vendorId = :vendorId AND s.lockId IN :lockIds AND s.day IN :days")
+    List<TripSketch> findForUpdate(@Param("vendorId") Long vendorId, @Param("lockIds") Collection<Long> lockIds,
+                                   @Param("days") Collection<LocalDate> days);
+
+    @Query("SELECT s FROM TripSketch s WHERE s.vendorId = :vendorId AND s.lockId = :lockId " +
+           "AND s.day >= :from AND s.day < :to")
+    List<TripSketch> findInRange(@Param("vendorId") Long vendorId, @Param("lockId") Long lockId,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,24 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.TripStatsEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TripStatsEventRepository extends JpaRepository<TripStatsEvent, Long> {
+
+    @Query("SELECT e.eventId FROM TripStatsEvent e WHERE e.eventId IN :eventIds")
+    List<Long> findExistingEventIds(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT e.eventId FROM TripStatsEvent e WHERE e.vendorId = :vendorId AND e.appliedAt < :before " +
+           "ORDER BY e.eventId")
+    List<Long> findIdsAppliedBefore(@Param("vendorId") Long vendorId, @Param("before") LocalDateTime before,
+                                    Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.excisemia.repository;
+
+import com.excisemia.model.TripStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TripStatsRepository extends JpaRepository<TripStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TripStats s WHERE s.vendorId = :vendorId AND s.lockId IN :lockIds")
+    List<TripStats> findForUpdate(@Param("vendorId") Long vendorId, @Param("lockIds") Collection<Long> lockIds);
+}
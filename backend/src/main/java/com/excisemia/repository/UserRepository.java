@@ -4,8 +4,12 @@ import com.excisemia.model.User;
 import com.excisemia.model.Vendor;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +21,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(User.Role role);
     List<User> findByVendorIdAndRole(Long vendorId, User.Role role);
     Optional<Vendor> findByEmailAndVendorId(String email, Long vendorId);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.isActive = true AND u.pushToken IS NOT NULL")
+    List<Long> findPushRecipients(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id FROM User u WHERE u.vendorId = :vendorId AND u.role = :role " +
+           "AND u.isActive = true AND u.pushToken IS NOT NULL")
+    List<Long> findPushRecipientsByVendorAndRole(@Param("vendorId") Long vendorId, @Param("role") User.Role role);
+
+    // [id, pushToken] pairs
+    @Query("SELECT u.id, u.pushToken FROM User u WHERE u.id IN :ids AND u.pushToken IS NOT NULL")
+    List<Object[]> findPushTokens(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE User u SET u.pushToken = NULL WHERE u.pushToken IN :tokens")
+    int clearPushTokens(@Param("tokens") Collection<String> tokens);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.excisemia.repository;
 
 import com.excisemia.model.Vendor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,7 @@ public interface VendorRepository extends JpaRepository<Vendor, Long> {
     List<Vendor> findByIsActiveTrue();
     Boolean existsByVendorCode(String vendorCode);
     Boolean existsByVendorName(String vendorName);
+
+    @Query("SELECT v.id FROM Vendor v ORDER BY v.id")
+    List<Long> findAllIds();
 }
\ No newline at end of file
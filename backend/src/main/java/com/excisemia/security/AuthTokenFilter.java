@@ -18,6 +18,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
+    // Outlives the security context, so metrics recorded after the chain unwinds can still see the tenant
+    public static final String VENDOR_ID_ATTRIBUTE = "locktrackpro.vendorId";
+
     @Autowired
     private JwtUtils jwtUtils;
 
@@ -52,6 +55,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails instanceof UserPrincipal) {
+                    request.setAttribute(VENDOR_ID_ATTRIBUTE, ((UserPrincipal) userDetails).getVendorId());
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -0,0 +1,218 @@
+package com.excisemia.security;
+
+import com.excisemia.dto.MessageResponse;
+import com.excisemia.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${locktrackpro.idempotency.waitTimeoutMs:30000}")
+    private long waitTimeoutMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WRITE_METHODS.contains(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!StringUtils.hasText(idempotencyKey) || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeMessage(response, HttpStatus.BAD_REQUEST, "Error: Invalid Idempotency-Key header!");
+            return;
+        }
+
+        String storeKey = scope() + '|' + request.getMethod() + '|' + request.getRequestURI() + '|' + idempotencyKey;
+        // The body is read up front to fingerprint it, the chain gets a request that serves it again
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String bodyHash = sha256(cachedRequest.body);
+
+        // A released reservation means the original attempt failed, so a waiter may take over once
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyStore.Reservation reservation = idempotencyStore.reserve(storeKey, bodyHash);
+            if (reservation == null) {
+                response.setHeader("Retry-After", "1");
+                writeMessage(response, HttpStatus.SERVICE_UNAVAILABLE,
+                        "Error: Too many idempotent requests in progress, retry shortly!");
+                return;
+            }
+            if (reservation.isOwner()) {
+                execute(cachedRequest, response, filterChain, reservation);
+                return;
+            }
+            if (!bodyHash.equals(reservation.getBodyHash())) {
+                writeMessage(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Error: Idempotency-Key was already used with a different request body!");
+                return;
+            }
+
+            IdempotencyStore.CachedResponse cached = awaitResponse(reservation);
+            if (cached != null) {
+                replay(response, cached);
+                return;
+            }
+            if (!reservation.getResponse().isDone()) {
+                writeMessage(response, HttpStatus.CONFLICT,
+                        "Error: A request with this Idempotency-Key is still in progress!");
+                return;
+            }
+        }
+
+        writeMessage(response, HttpStatus.CONFLICT,
+                "Error: A request with this Idempotency-Key is still in progress!");
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         IdempotencyStore.Reservation reservation) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+
+            int status = responseWrapper.getStatus();
+            if (status < 500) {
+                idempotencyStore.complete(reservation, new IdempotencyStore.CachedResponse(
+                        status, responseWrapper.getContentType(), responseWrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(reservation);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private IdempotencyStore.CachedResponse awaitResponse(IdempotencyStore.Reservation reservation) {
+        try {
+            return reservation.getResponse().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Gave up waiting for in-flight idempotent request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyStore.CachedResponse cached) throws IOException {
+        response.setStatus(cached.getStatus());
+        if (cached.getContentType() != null) {
+            response.setContentType(cached.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+    }
+
+    private void writeMessage(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new MessageResponse(message));
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keys are only unique per caller, so two users can never replay each other's responses
+    private String scope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return "user:" + ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        return "anonymous";
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return input.available() == 0; }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Asynchronous reads are not supported");
+                }
+
+                @Override
+                public int read() { return input.read(); }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) { return input.read(buffer, offset, length); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
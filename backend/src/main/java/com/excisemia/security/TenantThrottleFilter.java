@@ -0,0 +1,114 @@
+package com.excisemia.security;
+
+import com.excisemia.config.VendorTagGuard;
+import com.excisemia.dto.MessageResponse;
+import com.excisemia.service.TenantRateLimiter;
+import com.excisemia.service.VendorBulkhead;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Runs after AuthTokenFilter so the caller's vendor and user are known. Unauthenticated
+// requests pass through; sign-in has its own admission control on the hashing pool.
+public class TenantThrottleFilter extends OncePerRequestFilter {
+    public static final String METRIC_NAME = "tenant.throttled";
+
+    @Autowired
+    private TenantRateLimiter rateLimiter;
+
+    @Autowired
+    private VendorBulkhead bulkhead;
+
+    @Autowired
+    private VendorTagGuard vendorTagGuard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        UserPrincipal principal = currentPrincipal();
+        if (principal == null || principal.getVendorId() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Long vendorId = principal.getVendorId();
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (rateLimiter.isEnabled()) {
+            TenantRateLimiter.EndpointRule rule = rateLimiter.ruleFor(method, path);
+            long waitNanos = rateLimiter.tryAcquireUser(principal.getId(), rule);
+            String reason = "user_rate";
+            if (waitNanos == 0) {
+                waitNanos = rateLimiter.tryAcquireVendor(vendorId, rule);
+                reason = "vendor_rate";
+                // A rejected request must not count against the user's own budget
+                if (waitNanos > 0) {
+                    rateLimiter.refundUser(principal.getId(), rule);
+                }
+            }
+            if (waitNanos > 0) {
+                reject(response, vendorId, reason, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                        "Error: Rate limit exceeded, please retry later");
+                return;
+            }
+        }
+
+        if (!bulkhead.isGuarded(method, path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(vendorId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, vendorId, "bulkhead", 1, "Error: Too many concurrent requests for this vendor");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release(vendorId);
+        }
+    }
+
+    private void reject(HttpServletResponse response, Long vendorId, String reason, long retryAfterSeconds,
+                        String message) throws IOException {
+        meterRegistry.counter(METRIC_NAME, "reason", reason,
+                VendorTagGuard.TAG_NAME, vendorTagGuard.tagValue(vendorId)).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new MessageResponse(message));
+    }
+
+    private UserPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return (UserPrincipal) authentication.getPrincipal();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.AnalyticsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Stale-while-revalidate cache in front of AnalyticsService.getAnalyticsByVendor. A result younger than
+// freshSeconds is served as is; an older one is served at once while a single background refresh recomputes it.
+// Past maxStaleSeconds the caller waits for the recompute instead. Concurrent misses for the same vendor are
+// coalesced: the first caller computes on its own thread and the rest wait for its result.
+@Component
+public class AnalyticsCache {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsCache.class);
+    public static final String METRIC_NAME = "analytics.cache";
+
+    @Value("${locktrackpro.analytics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.analytics.cache.freshSeconds:30}")
+    private long freshSeconds;
+
+    @Value("${locktrackpro.analytics.cache.maxStaleSeconds:600}")
+    private long maxStaleSeconds;
+
+    @Value("${locktrackpro.analytics.cache.refreshThreads:2}")
+    private int refreshThreads;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    // Vendors with a background refresh queued or running, so a burst of stale reads schedules only one
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshThreads);
+        executor.setMaxPoolSize(refreshThreads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("analytics-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), METRIC_NAME + ".refresh", Tags.empty())
+                .bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public Result get(Long vendorId) {
+        if (!enabled) {
+            return new Result(analyticsService.getAnalyticsByVendor(vendorId), 0L);
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(vendorId);
+        if (entry != null) {
+            long ageMillis = now - entry.computedAt;
+            if (ageMillis < freshSeconds * 1000) {
+                count("hit");
+                return new Result(entry.value, ageMillis);
+            }
+            if (ageMillis < maxStaleSeconds * 1000) {
+                count("stale");
+                refreshAsync(vendorId);
+                return new Result(entry.value, ageMillis);
+            }
+        }
+        count("miss");
+        Entry loaded = load(vendorId);
+        return new Result(loaded.value, Math.max(0L, System.currentTimeMillis() - loaded.computedAt));
+    }
+
+    // Computes the vendor's analytics unless a computation is already running, in which case its result is shared
+    private Entry load(Long vendorId) {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(vendorId, mine);
+        if (running != null) {
+            count("coalesced");
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Entry entry = new Entry(analyticsService.getAnalyticsByVendor(vendorId), System.currentTimeMillis());
+            entries.put(vendorId, entry);
+            mine.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(vendorId, mine);
+        }
+    }
+
+    private void refreshAsync(Long vendorId) {
+        if (!refreshing.add(vendorId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load(vendorId);
+                    count("refreshed");
+                } catch (RuntimeException e) {
+                    // The stale result keeps being served until a refresh succeeds or it passes maxStaleSeconds
+                    logger.warn("Analytics refresh for vendor {} failed: {}", vendorId, e.getMessage());
+                } finally {
+                    refreshing.remove(vendorId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.remove(vendorId);
+            logger.debug("Analytics refresh for vendor {} skipped, refresh queue is full", vendorId);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter(METRIC_NAME, "result", result).increment();
+    }
+
+    private static class Entry {
+        private final List<AnalyticsResponse> value;
+        private final long computedAt;
+
+        Entry(List<AnalyticsResponse> value, long computedAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+        }
+    }
+
+    public static class Result {
+        private final List<AnalyticsResponse> value;
+        private final long ageMillis;
+
+        Result(List<AnalyticsResponse> value, long ageMillis) {
+            this.value = value;
+            this.ageMillis = ageMillis;
+        }
+
+        public List<AnalyticsResponse> getValue() {
+            return value;
+        }
+
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+    }
+}
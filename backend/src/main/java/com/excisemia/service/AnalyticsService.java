@@ -2,13 +2,15 @@ package com.excisemia.service;
 
 import com.excisemia.dto.AnalyticsResponse;
 import com.excisemia.model.Lock;
-import com.excisemia.model.Trip;
 import com.excisemia.repository.LockRepository;
 import com.excisemia.repository.TripRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,20 +22,26 @@ public class AnalyticsService {
     @Autowired
     private TripRepository tripRepository;
 
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Transactional(readOnly = true)
     public List<AnalyticsResponse> getAnalyticsByVendor(Long vendorId) {
         List<Lock> locks = lockRepository.findByVendorId(vendorId);
-        
+
+        // One grouped query for all locks instead of loading every trip per lock
+        Map<Long, TripRepository.LockTripStats> statsByLock = tripRepository
+                .summarizeByLockForVendor(vendorId, partitionManager.hotWindowStart())
+                .stream()
+                .collect(Collectors.toMap(TripRepository.LockTripStats::getLockId, Function.identity()));
+
         return locks.stream().map(lock -> {
-            List<Trip> trips = tripRepository.findByLockIdAndVendorId(lock.getId(), vendorId);
-            
-            Long totalTrips = (long) trips.size();
-            Double totalDistance = trips.stream()
-                    .mapToDouble(trip -> trip.getDistanceKm() != null ? trip.getDistanceKm() : 0.0)
-                    .sum();
-            Integer totalDetentionTime = trips.stream()
-                    .mapToInt(trip -> trip.getDetentionMins() != null ? trip.getDetentionMins() : 0)
-                    .sum();
-            
+            TripRepository.LockTripStats stats = statsByLock.get(lock.getId());
+
+            Long totalTrips = stats != null ? stats.getTotalTrips() : 0L;
+            Double totalDistance = stats != null ? stats.getTotalDistance() : 0.0;
+            Integer totalDetentionTime = stats != null ? stats.getTotalDetentionTime().intValue() : 0;
+
             return new AnalyticsResponse(
                     lock.getId(),
                     lock.getLockNumber(),
@@ -43,4 +51,4 @@ public class AnalyticsService {
             );
         }).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
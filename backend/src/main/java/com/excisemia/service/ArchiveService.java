@@ -0,0 +1,200 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Remark;
+import com.excisemia.model.Trip;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Archive tier for trips and remarks. PartitionArchiveJob moves rows older than the archive cutoff out of the
+// live tables and ColdStorageJob later exports them to cold segments; reads here cover a date range across the
+// cold segments, the archive tables and whatever live rows predate the cutoff but have not been moved yet.
+@Service
+public class ArchiveService {
+    private static final String TRIP_COLUMNS = String.join(", ", ColdStorageService.TRIP_SCHEMA.columns);
+    private static final String REMARK_COLUMNS = String.join(", ", ColdStorageService.REMARK_SCHEMA.columns);
+
+    @Value("${locktrackpro.archive.maxRangeDays:366}")
+    private long maxRangeDays;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private ColdStorageService coldStorageService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Moves up to limit completed trips that started before cutoff, returns how many moved
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int archiveTrips(Long vendorId, LocalDateTime cutoff, int limit) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM trips WHERE vendor_id = ? AND status = ? " +
+                "AND start_time < ? ORDER BY start_time LIMIT ?", Long.class,
+                vendorId, Trip.Status.COMPLETED.name(), Timestamp.valueOf(cutoff), limit);
+        int moved = move("trips", TRIP_COLUMNS, "start_time", ids, cutoff);
+        outboxService.recordTripsRemoved(vendorId, ids);
+        return moved;
+    }
+
+    // Moves up to limit remarks written before cutoff, returns how many moved
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int archiveRemarks(Long vendorId, LocalDateTime cutoff, int limit) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM remarks WHERE vendor_id = ? AND timestamp < ? " +
+                "ORDER BY timestamp LIMIT ?", Long.class, vendorId, Timestamp.valueOf(cutoff), limit);
+        return move("remarks", REMARK_COLUMNS, "timestamp", ids, cutoff);
+    }
+
+    // Trips that started in [from, to), newest first
+    @Transactional(readOnly = true)
+    public List<Trip> findTrips(Long vendorId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        String where = " WHERE vendor_id = ? AND start_time >= ? AND start_time < ?";
+        List<Trip> trips = new ArrayList<>(jdbcTemplate.query("SELECT " + TRIP_COLUMNS + " FROM trips_archive" + where,
+                TRIP_MAPPER, vendorId, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        LocalDateTime liveTo = liveTail(to);
+        if (liveTo != null && from.isBefore(liveTo)) {
+            trips.addAll(jdbcTemplate.query("SELECT " + TRIP_COLUMNS + " FROM trips" + where,
+                    TRIP_MAPPER, vendorId, Timestamp.valueOf(from), Timestamp.valueOf(liveTo)));
+        }
+        Map<Long, Trip> byId = new LinkedHashMap<>();
+        trips.forEach(trip -> byId.put(trip.getId(), trip));
+        for (Object[] row : coldStorageService.find(ColdStorageService.TRIPS, vendorId, null, from, to)) {
+            byId.putIfAbsent((Long) row[0], trip(row));
+        }
+        trips = new ArrayList<>(byId.values());
+        trips.sort(Comparator.comparing(Trip::getStartTime).reversed());
+        return trips;
+    }
+
+    // Remarks written in [from, to), optionally for one lock, newest first
+    @Transactional(readOnly = true)
+    public List<Remark> findRemarks(Long vendorId, Long lockId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        String where = " WHERE vendor_id = ? AND timestamp >= ? AND timestamp < ?"
+                + (lockId != null ? " AND lock_id = ?" : "");
+        List<Remark> remarks = new ArrayList<>(jdbcTemplate.query(
+                "SELECT " + REMARK_COLUMNS + " FROM remarks_archive" + where, REMARK_MAPPER,
+                params(vendorId, from, to, lockId)));
+        LocalDateTime liveTo = liveTail(to);
+        if (liveTo != null && from.isBefore(liveTo)) {
+            remarks.addAll(jdbcTemplate.query("SELECT " + REMARK_COLUMNS + " FROM remarks" + where, REMARK_MAPPER,
+                    params(vendorId, from, liveTo, lockId)));
+        }
+        Map<Long, Remark> byId = new LinkedHashMap<>();
+        remarks.forEach(remark -> byId.put(remark.getId(), remark));
+        for (Object[] row : coldStorageService.find(ColdStorageService.REMARKS, vendorId, lockId, from, to)) {
+            byId.putIfAbsent((Long) row[0], remark(row));
+        }
+        remarks = new ArrayList<>(byId.values());
+        remarks.sort(Comparator.comparing(Remark::getTimestamp).reversed());
+        return remarks;
+    }
+
+    // Restores cold trips that started in [from, to) into the archive table, returns how many were restored
+    public int rehydrateTrips(Long vendorId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return coldStorageService.rehydrate(ColdStorageService.TRIPS, vendorId, from, to);
+    }
+
+    public int rehydrateRemarks(Long vendorId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return coldStorageService.rehydrate(ColdStorageService.REMARKS, vendorId, from, to);
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Archive range start must be before its end");
+        }
+        if (from.plusDays(maxRangeDays).isBefore(to)) {
+            throw new RuntimeException("Archive range is limited to " + maxRangeDays + " days");
+        }
+    }
+
+    private int move(String table, String columns, String timeColumn, List<Long> ids, LocalDateTime cutoff) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // The time bound lets PostgreSQL prune the delete to the partitions before the cutoff
+        String in = " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") AND "
+                + timeColumn + " < ?";
+        Object[] params = new Object[ids.size() + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            params[i] = ids.get(i);
+        }
+        params[ids.size()] = Timestamp.valueOf(cutoff);
+        jdbcTemplate.update("INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns + " FROM " + table
+                + in, params);
+        return jdbcTemplate.update("DELETE FROM " + table + in, params);
+    }
+
+    // Live rows before the cutoff are waiting for the next archive run
+    private LocalDateTime liveTail(LocalDateTime to) {
+        LocalDateTime cutoff = partitionManager.archiveCutoff();
+        if (cutoff == null) {
+            return null;
+        }
+        return to.isBefore(cutoff) ? to : cutoff;
+    }
+
+    private static Object[] params(Long vendorId, LocalDateTime from, LocalDateTime to, Long lockId) {
+        return lockId != null
+                ? new Object[]{vendorId, Timestamp.valueOf(from), Timestamp.valueOf(to), lockId}
+                : new Object[]{vendorId, Timestamp.valueOf(from), Timestamp.valueOf(to)};
+    }
+
+    // Cold rows come back in ColdStorageService schema column order
+    private static Trip trip(Object[] row) {
+        Trip trip = new Trip((Long) row[1], (Long) row[2], (Long) row[3]);
+        trip.setId((Long) row[0]);
+        trip.setStartTime((LocalDateTime) row[4]);
+        trip.setEndTime((LocalDateTime) row[5]);
+        trip.setDistanceKm((Double) row[6]);
+        trip.setDetentionMins((Integer) row[7]);
+        trip.setStatus(Trip.Status.valueOf((String) row[8]));
+        return trip;
+    }
+
+    private static Remark remark(Object[] row) {
+        Remark remark = new Remark((Long) row[1], (Long) row[2], (String) row[3], (String) row[4], (Long) row[5]);
+        remark.setId((Long) row[0]);
+        remark.setTimestamp((LocalDateTime) row[6]);
+        return remark;
+    }
+
+    private static final RowMapper<Trip> TRIP_MAPPER = (rs, rowNum) -> {
+        Trip trip = new Trip(rs.getLong("lock_id"), rs.getLong("schedule_id"), rs.getLong("vendor_id"));
+        trip.setId(rs.getLong("id"));
+        trip.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+        Timestamp end = rs.getTimestamp("end_time");
+        trip.setEndTime(end != null ? end.toLocalDateTime() : null);
+        trip.setDistanceKm(rs.getObject("distance_km", Double.class));
+        trip.setDetentionMins(rs.getObject("detention_mins", Integer.class));
+        trip.setStatus(Trip.Status.valueOf(rs.getString("status")));
+        return trip;
+    };
+
+    private static final RowMapper<Remark> REMARK_MAPPER = (rs, rowNum) -> {
+        Remark remark = new Remark(rs.getLong("lock_id"), rs.getLong("user_id"), rs.getString("user_name"),
+                rs.getString("message"), rs.getLong("vendor_id"));
+        remark.setId(rs.getLong("id"));
+        remark.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        return remark;
+    };
+}
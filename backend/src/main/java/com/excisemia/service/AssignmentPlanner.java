@@ -0,0 +1,223 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.AssignmentPlan;
+import com.excisemia.model.Lock;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Plans a lock and a tracking user for every unplanned schedule of a date.
+// Locks are ranked by how long they have been idle and how little distance they have covered;
+// users are handed schedules from a min-heap on their load for the day, so work is spread evenly.
+// Planning is O(n log n) in memory over five queries; applying is a handful of JDBC batches.
+// A planned lock is reserved: claims and trips for other schedules skip it until its own trip starts.
+@Service
+public class AssignmentPlanner {
+
+    // Share of the lock score given to idle time; the rest goes to low cumulative distance
+    @Value("${locktrackpro.planner.idleWeight:0.5}")
+    private double idleWeight;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public AssignmentPlan plan(LocalDate date, Long vendorId) {
+        long started = System.nanoTime();
+        AssignmentPlan plan = computePlan(date, vendorId).plan;
+        plan.setPlanningMillis(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return plan;
+    }
+
+    // Plans and writes the result in one transaction. Every row is updated conditionally, so a plan
+    // that raced with another change fails as a whole instead of double-booking a lock.
+    @Transactional
+    public AssignmentPlan apply(LocalDate date, Long vendorId) {
+        long started = System.nanoTime();
+        PlanResult result = computePlan(date, vendorId);
+        List<AssignmentPlan.Assignment> assignments = result.plan.getAssignments();
+        if (!assignments.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> scheduleRows = new ArrayList<>(assignments.size());
+            List<Object[]> lockRows = new ArrayList<>(assignments.size());
+            List<OutboxEvent> events = new ArrayList<>(assignments.size());
+            for (AssignmentPlan.Assignment assignment : assignments) {
+                scheduleRows.add(new Object[] {assignment.getLockId(), assignment.getUserId(),
+                        assignment.getScheduleId(), vendorId});
+                lockRows.add(new Object[] {assignment.getUserId(), Timestamp.valueOf(now),
+                        assignment.getLockId(), vendorId, assignment.getScheduleId()});
+                events.add(outboxService.event(OutboxService.LOCK, assignment.getLockId(), vendorId,
+                        OutboxEvent.LOCK_ASSIGNED, OutboxService.payload("lockId", assignment.getLockId(),
+                                "lockNumber", assignment.getLockNumber(),
+                                "previousAssignee", result.previousAssignees.get(assignment.getLockId()),
+                                "assignedTo", assignment.getUserId(), "scheduleId", assignment.getScheduleId(),
+                                "date", date)));
+            }
+            requireAllUpdated(jdbcTemplate.batchUpdate("UPDATE schedules SET lock_id = ?, assigned_to = ? " +
+                    "WHERE id = ? AND vendor_id = ? AND lock_id IS NULL", scheduleRows));
+            requireAllUpdated(jdbcTemplate.batchUpdate("UPDATE locks SET assigned_to = ?, last_updated = ? " +
+                    "WHERE id = ? AND vendor_id = ? AND status = 'AVAILABLE' AND current_trip_id IS NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM schedules s WHERE s.lock_id = locks.id AND s.trip_id IS NULL " +
+                    "AND s.date >= CURRENT_DATE AND s.id <> ?)", lockRows));
+            outboxService.recordAll(events);
+        }
+        result.plan.setApplied(true);
+        result.plan.setPlanningMillis(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return result.plan;
+    }
+
+    private PlanResult computePlan(LocalDate date, Long vendorId) {
+        List<Schedule> schedules = scheduleRepository.findByDateAndVendorIdOrderByCreatedAtDesc(date, vendorId);
+        // Locks held by open schedules of any date stay reserved for them
+        Set<Long> plannedLocks = new HashSet<>(scheduleRepository.findReservedLockIds(vendorId));
+        Map<Long, Integer> load = new HashMap<>();
+        List<Schedule> open = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            if (schedule.getLockId() != null) {
+                plannedLocks.add(schedule.getLockId());
+            } else {
+                open.add(schedule);
+            }
+            if (schedule.getAssignedTo() != null) {
+                load.merge(schedule.getAssignedTo(), 1, Integer::sum);
+            }
+        }
+        // Oldest requests get the best locks
+        open.sort(Comparator.comparing(Schedule::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Schedule::getId));
+
+        List<Lock> locks = lockRepository.findByStatusAndVendorId(Lock.Status.AVAILABLE, vendorId).stream()
+                .filter(lock -> lock.getCurrentTripId() == null && !plannedLocks.contains(lock.getId()))
+                .collect(Collectors.toList());
+        Map<Long, Double> distance = new HashMap<>();
+        if (!open.isEmpty() && !locks.isEmpty()) {
+            LocalDateTime since = partitionManager.hotWindowStart();
+            for (TripRepository.LockTripStats stats : tripRepository.summarizeByLockForVendor(vendorId, since)) {
+                distance.put(stats.getLockId(), stats.getTotalDistance());
+            }
+        }
+        List<Long> users = userRepository.findByVendorIdAndRole(vendorId, User.Role.TRACKING).stream()
+                .filter(user -> Boolean.TRUE.equals(user.getIsActive()))
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+        PlanResult result = new PlanResult();
+        result.plan = assign(date, open, locks, distance, users, load, idleWeight, LocalDateTime.now());
+        for (Lock lock : locks) {
+            result.previousAssignees.put(lock.getId(), lock.getAssignedTo());
+        }
+        return result;
+    }
+
+    static AssignmentPlan assign(LocalDate date, List<Schedule> schedules, List<Lock> locks, Map<Long, Double> distance,
+                                 List<Long> users, Map<Long, Integer> existingLoad, double idleWeight,
+                                 LocalDateTime now) {
+        List<Lock> ranked = rankLocks(locks, distance, idleWeight, now);
+
+        // [load, userId]; ties go to the lower id so plans are reproducible
+        PriorityQueue<long[]> byLoad = new PriorityQueue<>((a, b) -> a[0] != b[0]
+                ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (Long userId : users) {
+            byLoad.add(new long[] {existingLoad.getOrDefault(userId, 0), userId});
+        }
+
+        List<AssignmentPlan.Assignment> assignments = new ArrayList<>();
+        List<Long> unassigned = new ArrayList<>();
+        int next = 0;
+        for (Schedule schedule : schedules) {
+            if (next == ranked.size() || byLoad.isEmpty()) {
+                unassigned.add(schedule.getId());
+                continue;
+            }
+            Lock lock = ranked.get(next++);
+            long[] user = byLoad.poll();
+            assignments.add(new AssignmentPlan.Assignment(schedule.getId(), lock.getId(), lock.getLockNumber(), user[1]));
+            user[0]++;
+            byLoad.add(user);
+        }
+        return new AssignmentPlan(date, assignments, unassigned);
+    }
+
+    // Highest score first: long idle and low distance, each scaled to 0..1 across the candidates
+    private static List<Lock> rankLocks(List<Lock> locks, Map<Long, Double> distance, double idleWeight,
+                                        LocalDateTime now) {
+        Map<Long, Double> idle = new HashMap<>();
+        double maxIdle = 0;
+        double maxDistance = 0;
+        for (Lock lock : locks) {
+            // Never touched counts as idle for as long as the longest-idle lock
+            double minutes = lock.getLastUpdated() == null ? Double.NaN
+                    : Math.max(0, Duration.between(lock.getLastUpdated(), now).toMinutes());
+            idle.put(lock.getId(), minutes);
+            if (!Double.isNaN(minutes)) {
+                maxIdle = Math.max(maxIdle, minutes);
+            }
+            maxDistance = Math.max(maxDistance, distance.getOrDefault(lock.getId(), 0.0));
+        }
+
+        Map<Long, Double> score = new HashMap<>();
+        for (Lock lock : locks) {
+            double minutes = idle.get(lock.getId());
+            double idleShare = Double.isNaN(minutes) || maxIdle == 0 ? 1.0 : minutes / maxIdle;
+            double distanceShare = maxDistance == 0 ? 0.0 : distance.getOrDefault(lock.getId(), 0.0) / maxDistance;
+            score.put(lock.getId(), idleWeight * idleShare - (1 - idleWeight) * distanceShare);
+        }
+        List<Lock> ranked = new ArrayList<>(locks);
+        ranked.sort(Comparator.comparing((Lock lock) -> score.get(lock.getId())).reversed().thenComparing(Lock::getId));
+        return ranked;
+    }
+
+    private static void requireAllUpdated(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                throw new RuntimeException("Schedules or locks changed while planning, please plan again");
+            }
+        }
+    }
+
+    private static class PlanResult {
+        private AssignmentPlan plan;
+        private final Map<Long, Long> previousAssignees = new HashMap<>();
+    }
+}
@@ -0,0 +1,172 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.BatchOperation;
+import com.excisemia.dto.BatchOperationResult;
+import com.excisemia.dto.BatchRequest;
+import com.excisemia.dto.BatchResponse;
+import com.excisemia.dto.RemarkRequest;
+import com.excisemia.dto.ScheduleRequest;
+import com.excisemia.model.User;
+import com.excisemia.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class BatchService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private RemarkService remarkService;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public BatchResponse executeBatch(BatchRequest batchRequest, UserPrincipal userPrincipal) {
+        if (batchRequest.getMode() == BatchRequest.Mode.ALL_OR_NOTHING) {
+            return executeAllOrNothing(batchRequest.getOperations(), userPrincipal);
+        }
+        return executePerOperation(batchRequest.getOperations(), userPrincipal);
+    }
+
+    private BatchResponse executePerOperation(List<BatchOperation> operations, UserPrincipal userPrincipal) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            try {
+                Object result = transactionTemplate.execute(status -> applyOperation(operation, userPrincipal));
+                results.add(new BatchOperationResult(i, operation.getClientRef(),
+                        BatchOperationResult.Status.OK, result, null));
+            } catch (RuntimeException e) {
+                logger.warn("Batch operation {} ({}) failed: {}", i, operation.getType(), e.getMessage());
+                results.add(new BatchOperationResult(i, operation.getClientRef(),
+                        BatchOperationResult.Status.FAILED, null, e.getMessage()));
+            }
+        }
+
+        return new BatchResponse(BatchRequest.Mode.PER_OPERATION, true, results);
+    }
+
+    private BatchResponse executeAllOrNothing(List<BatchOperation> operations, UserPrincipal userPrincipal) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Object> applied = new ArrayList<>(operations.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < operations.size(); i++) {
+                    try {
+                        applied.add(applyOperation(operations.get(i), userPrincipal));
+                    } catch (RuntimeException e) {
+                        throw new BatchAbortedException(i, e.getMessage());
+                    }
+                }
+            });
+        } catch (BatchAbortedException e) {
+            logger.warn("Batch rolled back at operation {}: {}", e.getIndex(), e.getMessage());
+            return new BatchResponse(BatchRequest.Mode.ALL_OR_NOTHING, false,
+                    rolledBackResults(operations, e.getIndex(), e.getMessage()));
+        } catch (RuntimeException e) {
+            // Commit itself failed (e.g. constraint violation on flush), nothing was applied
+            logger.warn("Batch commit failed: {}", e.getMessage());
+            return new BatchResponse(BatchRequest.Mode.ALL_OR_NOTHING, false,
+                    rolledBackResults(operations, -1, e.getMessage()));
+        }
+
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(new BatchOperationResult(i, operations.get(i).getClientRef(),
+                    BatchOperationResult.Status.OK, applied.get(i), null));
+        }
+        return new BatchResponse(BatchRequest.Mode.ALL_OR_NOTHING, true, results);
+    }
+
+    private List<BatchOperationResult> rolledBackResults(List<BatchOperation> operations, int failedIndex, String error) {
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationResult.Status status;
+            if (failedIndex < 0 || i == failedIndex) {
+                status = BatchOperationResult.Status.FAILED;
+            } else if (i < failedIndex) {
+                status = BatchOperationResult.Status.ROLLED_BACK;
+            } else {
+                status = BatchOperationResult.Status.SKIPPED;
+            }
+            results.add(new BatchOperationResult(i, operations.get(i).getClientRef(), status, null,
+                    status == BatchOperationResult.Status.FAILED ? error : null));
+        }
+        return results;
+    }
+
+    private Object applyOperation(BatchOperation operation, UserPrincipal userPrincipal) {
+        Long vendorId = userPrincipal.getVendorId();
+
+        switch (operation.getType()) {
+            case CREATE_REMARK:
+                require(operation.getLockId(), "lockId");
+                if (operation.getMessage() == null || operation.getMessage().trim().isEmpty()) {
+                    throw new RuntimeException("message is required");
+                }
+                return remarkService.createRemark(
+                        new RemarkRequest(operation.getLockId(), operation.getMessage()), userPrincipal);
+            case UPDATE_LOCK_STATUS:
+                require(operation.getLockId(), "lockId");
+                require(operation.getStatus(), "status");
+                return lockService.updateLockStatus(operation.getLockId(), operation.getStatus(), vendorId);
+            case ASSIGN_LOCK:
+                requireAdmin(userPrincipal);
+                require(operation.getLockId(), "lockId");
+                require(operation.getUserId(), "userId");
+                return lockService.assignLock(operation.getLockId(), operation.getUserId(), vendorId);
+            case CREATE_SCHEDULE:
+                requireAdmin(userPrincipal);
+                require(operation.getDate(), "date");
+                return scheduleService.createSchedule(
+                        new ScheduleRequest(operation.getDate(), operation.getNote()), userPrincipal.getId(), vendorId);
+            case DELETE_SCHEDULE:
+                requireAdmin(userPrincipal);
+                require(operation.getScheduleId(), "scheduleId");
+                scheduleService.deleteSchedule(operation.getScheduleId(), vendorId);
+                return null;
+            default:
+                throw new RuntimeException("Unsupported operation: " + operation.getType());
+        }
+    }
+
+    private void require(Object value, String field) {
+        if (value == null) {
+            throw new RuntimeException(field + " is required");
+        }
+    }
+
+    // Mirrors the @PreAuthorize rules on the single-operation endpoints
+    private void requireAdmin(UserPrincipal userPrincipal) {
+        if (userPrincipal.getRole() != User.Role.ADMIN && userPrincipal.getRole() != User.Role.SUPERADMIN) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+
+    private static class BatchAbortedException extends RuntimeException {
+        private final int index;
+
+        BatchAbortedException(int index, String message) {
+            super(message);
+            this.index = index;
+        }
+
+        int getIndex() { return index; }
+    }
+}
@@ -0,0 +1,20 @@
+package com.excisemia.service;
+
+import java.time.Duration;
+
+// Periodic maintenance work run by JobScheduler on one node of the cluster at a time.
+// Work is split per vendor and processed in chunks; each chunk commits together with its checkpoint.
+public interface ClusterJob {
+    String getName();
+
+    // Minimum time between the end of one run and the start of the next
+    Duration getInterval();
+
+    // Processes the next chunk of a vendor's work after position (0 on a fresh start) inside the
+    // scheduler's transaction, and returns the new position, or null once the vendor has nothing left.
+    Long processChunk(Long vendorId, long position, int chunkSize);
+
+    // Runs once every vendor is done, in its own transaction while the lease is still held
+    default void afterRun() {
+    }
+}
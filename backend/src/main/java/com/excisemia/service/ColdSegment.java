@@ -0,0 +1,328 @@
+package com.excisemia.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// File format of a cold-storage segment: one vendor's rows of one table for one month, stored column by column.
+// Rows are sorted by (lock, time) and cut into row groups, and every column of every group is its own deflated
+// block. The footer holds each block's offset and length plus the lock and time range of each group, so a lookup
+// reads the footer, skips groups whose ranges cannot match, decodes the lock and time blocks of the rest and only
+// then the other columns of groups that have hits.
+//
+//   MAGIC | blocks | footer | footer offset (long) | MAGIC
+final class ColdSegment {
+    private static final byte[] MAGIC = "LTCS".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int TRAILER = Long.BYTES + 4;
+
+    enum Type { LONG, INT, DOUBLE, TIME, STRING }
+
+    static final class Schema {
+        final String table;
+        final String[] columns;
+        final Type[] types;
+        final int idColumn;
+        final int lockColumn;
+        final int timeColumn;
+
+        Schema(String table, String[] columns, Type[] types, int idColumn, int lockColumn, int timeColumn) {
+            this.table = table;
+            this.columns = columns;
+            this.types = types;
+            this.idColumn = idColumn;
+            this.lockColumn = lockColumn;
+            this.timeColumn = timeColumn;
+        }
+    }
+
+    // Matching rows of one lookup and how many column blocks it had to read
+    static final class Scan {
+        final List<Object[]> rows = new ArrayList<>();
+        int blocksRead;
+    }
+
+    private static final class Group {
+        int rows;
+        long minLock;
+        long maxLock;
+        long minTime;
+        long maxTime;
+        long[] offsets;
+        int[] lengths;
+    }
+
+    private ColdSegment() {
+    }
+
+    // Writes rows to path through a temporary file, replacing any previous segment atomically
+    static void write(Path path, Schema schema, long vendorId, YearMonth month, List<Object[]> rows, int groupRows)
+            throws IOException {
+        List<Object[]> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.<Object[]>comparingLong(row -> (Long) row[schema.lockColumn])
+                .thenComparingLong(row -> micros((LocalDateTime) row[schema.timeColumn]))
+                .thenComparingLong(row -> (Long) row[schema.idColumn]));
+
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = writeFully(channel, ByteBuffer.wrap(MAGIC), 0);
+            List<Group> groups = new ArrayList<>();
+            for (int start = 0; start < sorted.size(); start += groupRows) {
+                List<Object[]> slice = sorted.subList(start, Math.min(start + groupRows, sorted.size()));
+                Group group = new Group();
+                group.rows = slice.size();
+                group.minLock = (Long) slice.get(0)[schema.lockColumn];
+                group.maxLock = (Long) slice.get(slice.size() - 1)[schema.lockColumn];
+                group.minTime = Long.MAX_VALUE;
+                group.maxTime = Long.MIN_VALUE;
+                for (Object[] row : slice) {
+                    long time = micros((LocalDateTime) row[schema.timeColumn]);
+                    group.minTime = Math.min(group.minTime, time);
+                    group.maxTime = Math.max(group.maxTime, time);
+                }
+                group.offsets = new long[schema.columns.length];
+                group.lengths = new int[schema.columns.length];
+                for (int c = 0; c < schema.columns.length; c++) {
+                    byte[] block = encode(slice, c, schema.types[c]);
+                    group.offsets[c] = position;
+                    group.lengths[c] = block.length;
+                    position = writeFully(channel, ByteBuffer.wrap(block), position);
+                }
+                groups.add(group);
+            }
+            long footerOffset = position;
+            position = writeFully(channel, ByteBuffer.wrap(footer(schema, vendorId, month, sorted.size(), groups)),
+                    position);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER).putLong(footerOffset).put(MAGIC);
+            trailer.flip();
+            writeFully(channel, trailer, position);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Rows with the given lock (any when null) and time in [from, to)
+    static Scan read(Path path, Schema schema, Long lockId, LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromMicros = micros(from);
+        long toMicros = micros(to);
+        Scan scan = new Scan();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Group> groups = readFooter(channel, schema);
+            for (Group group : groups) {
+                if (lockId != null && (lockId < group.minLock || lockId > group.maxLock)) {
+                    continue;
+                }
+                if (group.maxTime < fromMicros || group.minTime >= toMicros) {
+                    continue;
+                }
+                Object[] locks = decode(readBlock(channel, group, schema.lockColumn), group.rows, Type.LONG);
+                Object[] times = decode(readBlock(channel, group, schema.timeColumn), group.rows, Type.TIME);
+                scan.blocksRead += 2;
+                boolean[] match = new boolean[group.rows];
+                int hits = 0;
+                for (int r = 0; r < group.rows; r++) {
+                    long time = micros((LocalDateTime) times[r]);
+                    match[r] = (lockId == null || lockId.equals(locks[r])) && time >= fromMicros && time < toMicros;
+                    hits += match[r] ? 1 : 0;
+                }
+                if (hits == 0) {
+                    continue;
+                }
+                Object[][] columns = new Object[schema.columns.length][];
+                for (int c = 0; c < schema.columns.length; c++) {
+                    if (c == schema.lockColumn) {
+                        columns[c] = locks;
+                    } else if (c == schema.timeColumn) {
+                        columns[c] = times;
+                    } else {
+                        columns[c] = decode(readBlock(channel, group, c), group.rows, schema.types[c]);
+                        scan.blocksRead++;
+                    }
+                }
+                for (int r = 0; r < group.rows; r++) {
+                    if (match[r]) {
+                        Object[] row = new Object[schema.columns.length];
+                        for (int c = 0; c < row.length; c++) {
+                            row[c] = columns[c][r];
+                        }
+                        scan.rows.add(row);
+                    }
+                }
+            }
+        }
+        return scan;
+    }
+
+    private static List<Group> readFooter(FileChannel channel, Schema schema) throws IOException {
+        long size = channel.size();
+        ByteBuffer trailer = readFully(channel, size - TRAILER, TRAILER);
+        long footerOffset = trailer.getLong();
+        byte[] magic = new byte[MAGIC.length];
+        trailer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a cold-storage segment");
+        }
+        ByteBuffer footer = readFully(channel, footerOffset, (int) (size - TRAILER - footerOffset));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer.array()));
+        if (in.readInt() != VERSION || !schema.table.equals(in.readUTF())) {
+            throw new IOException("Segment does not hold " + schema.table + " version " + VERSION);
+        }
+        in.readLong();
+        in.readUTF();
+        in.readInt();
+        int columnCount = in.readInt();
+        for (int c = 0; c < columnCount; c++) {
+            String name = in.readUTF();
+            if (c >= schema.columns.length || !schema.columns[c].equals(name)
+                    || schema.types[c].ordinal() != in.readByte()) {
+                throw new IOException("Segment columns do not match " + schema.table);
+            }
+        }
+        int groupCount = in.readInt();
+        List<Group> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            Group group = new Group();
+            group.rows = in.readInt();
+            group.minLock = in.readLong();
+            group.maxLock = in.readLong();
+            group.minTime = in.readLong();
+            group.maxTime = in.readLong();
+            group.offsets = new long[columnCount];
+            group.lengths = new int[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                group.offsets[c] = in.readLong();
+                group.lengths[c] = in.readInt();
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private static byte[] footer(Schema schema, long vendorId, YearMonth month, int rowCount, List<Group> groups)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+        out.writeUTF(schema.table);
+        out.writeLong(vendorId);
+        out.writeUTF(month.toString());
+        out.writeInt(rowCount);
+        out.writeInt(schema.columns.length);
+        for (int c = 0; c < schema.columns.length; c++) {
+            out.writeUTF(schema.columns[c]);
+            out.writeByte(schema.types[c].ordinal());
+        }
+        out.writeInt(groups.size());
+        for (Group group : groups) {
+            out.writeInt(group.rows);
+            out.writeLong(group.minLock);
+            out.writeLong(group.maxLock);
+            out.writeLong(group.minTime);
+            out.writeLong(group.maxTime);
+            for (int c = 0; c < schema.columns.length; c++) {
+                out.writeLong(group.offsets[c]);
+                out.writeInt(group.lengths[c]);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // Values are written one after another, each behind a presence flag
+    private static byte[] encode(List<Object[]> rows, int column, Type type) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream deflated = new DeflaterOutputStream(bytes, deflater);
+             DataOutputStream out = new DataOutputStream(deflated)) {
+            for (Object[] row : rows) {
+                Object value = row[column];
+                out.writeBoolean(value != null);
+                if (value == null) {
+                    continue;
+                }
+                switch (type) {
+                    case LONG -> out.writeLong((Long) value);
+                    case INT -> out.writeInt((Integer) value);
+                    case DOUBLE -> out.writeDouble((Double) value);
+                    case TIME -> out.writeLong(micros((LocalDateTime) value));
+                    case STRING -> out.writeUTF((String) value);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object[] decode(byte[] block, int rows, Type type) throws IOException {
+        Object[] values = new Object[rows];
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(block)))) {
+            for (int r = 0; r < rows; r++) {
+                if (!in.readBoolean()) {
+                    continue;
+                }
+                values[r] = switch (type) {
+                    case LONG -> in.readLong();
+                    case INT -> in.readInt();
+                    case DOUBLE -> in.readDouble();
+                    case TIME -> time(in.readLong());
+                    case STRING -> in.readUTF();
+                };
+            }
+        }
+        return values;
+    }
+
+    private static byte[] readBlock(FileChannel channel, Group group, int column) throws IOException {
+        return readFully(channel, group.offsets[column], group.lengths[column]).array();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Segment is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime time(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
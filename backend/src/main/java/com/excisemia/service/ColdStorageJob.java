@@ -0,0 +1,43 @@
+package com.excisemia.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Exports archived trips and remarks older than locktrackpro.coldstore.afterMonths to cold segments, one vendor
+// month per table and chunk; chunkSize does not apply since a segment always holds a whole month. Exported rows
+// leave the archive tables, so the position only counts chunks.
+@Component
+public class ColdStorageJob implements ClusterJob {
+    public static final String NAME = "cold-storage-export";
+
+    @Value("${locktrackpro.coldstore.intervalMinutes:1440}")
+    private long intervalMinutes;
+
+    @Autowired
+    private ColdStorageService coldStorageService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        LocalDateTime cutoff = coldStorageService.exportCutoff();
+        if (cutoff == null) {
+            return null;
+        }
+        boolean trips = coldStorageService.exportOldestMonth(ColdStorageService.TRIPS, vendorId, cutoff);
+        boolean remarks = coldStorageService.exportOldestMonth(ColdStorageService.REMARKS, vendorId, cutoff);
+        return trips || remarks ? position + 1 : null;
+    }
+}
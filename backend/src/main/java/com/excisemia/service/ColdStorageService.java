@@ -0,0 +1,261 @@
+package com.excisemia.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cold tier below the archive tables: each vendor's archived trips and remarks of one month are exported to a
+// columnar, deflated segment file (see ColdSegment) under locktrackpro.coldstore.dir, laid out as
+// <dir>/<table>/vendor-<id>/<yyyy-MM>.seg. The directory has to be shared storage when several nodes run.
+//
+// Exports merge with an existing segment by id, so re-running an export whose delete did not commit, or one
+// that picks up rows archived late, rewrites the same segment. Segments are never deleted by rehydration.
+//
+// Rehydration restores into the archive tables, not the live ones: rows that old would sit before the archive
+// cutoff, outside every live read, and be moved out again by the next archive run. Each rehydrated month is
+// pinned with a <yyyy-MM>.pin file next to its segment and is not exported again for pinDays.
+@Service
+public class ColdStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(ColdStorageService.class);
+
+    public static final String TRIPS = "trips";
+    public static final String REMARKS = "remarks";
+
+    static final ColdSegment.Schema TRIP_SCHEMA = new ColdSegment.Schema(TRIPS,
+            new String[]{"id", "lock_id", "schedule_id", "vendor_id", "start_time", "end_time", "distance_km",
+                    "detention_mins", "status"},
+            new ColdSegment.Type[]{ColdSegment.Type.LONG, ColdSegment.Type.LONG, ColdSegment.Type.LONG,
+                    ColdSegment.Type.LONG, ColdSegment.Type.TIME, ColdSegment.Type.TIME, ColdSegment.Type.DOUBLE,
+                    ColdSegment.Type.INT, ColdSegment.Type.STRING},
+            0, 1, 4);
+
+    static final ColdSegment.Schema REMARK_SCHEMA = new ColdSegment.Schema(REMARKS,
+            new String[]{"id", "lock_id", "user_id", "user_name", "message", "vendor_id", "timestamp"},
+            new ColdSegment.Type[]{ColdSegment.Type.LONG, ColdSegment.Type.LONG, ColdSegment.Type.LONG,
+                    ColdSegment.Type.STRING, ColdSegment.Type.STRING, ColdSegment.Type.LONG, ColdSegment.Type.TIME},
+            0, 1, 6);
+
+    @Value("${locktrackpro.coldstore.dir:cold-storage}")
+    private String directory;
+
+    // Whole months kept in the archive tables before export, 0 disables the cold tier
+    @Value("${locktrackpro.coldstore.afterMonths:24}")
+    private int afterMonths;
+
+    @Value("${locktrackpro.coldstore.rowGroupSize:4096}")
+    private int rowGroupSize;
+
+    // Days a rehydrated month stays in the archive tables before it may be exported again
+    @Value("${locktrackpro.coldstore.pinDays:30}")
+    private long pinDays;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Start of the oldest month kept in the archive tables. Null when the cold tier is off.
+    public LocalDateTime exportCutoff() {
+        if (afterMonths <= 0) {
+            return null;
+        }
+        return LocalDate.now().withDayOfMonth(1).minusMonths(afterMonths).atStartOfDay();
+    }
+
+    // Exports the vendor's oldest unpinned archived month before the cutoff, returns false when there is none
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean exportOldestMonth(String table, Long vendorId, LocalDateTime cutoff) {
+        ColdSegment.Schema schema = schema(table);
+        String time = timeColumn(schema);
+        YearMonth month;
+        Timestamp after = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+        while (true) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(" + time + ") FROM " + table + "_archive " +
+                    "WHERE vendor_id = ? AND " + time + " >= ? AND " + time + " < ?", Timestamp.class,
+                    vendorId, after, Timestamp.valueOf(cutoff));
+            if (oldest == null) {
+                return false;
+            }
+            month = YearMonth.from(oldest.toLocalDateTime());
+            if (!isPinned(table, vendorId, month)) {
+                break;
+            }
+            after = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        }
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        List<Object[]> rows = jdbcTemplate.query("SELECT " + String.join(", ", schema.columns) + " FROM " + table +
+                "_archive WHERE vendor_id = ? AND " + time + " >= ? AND " + time + " < ?",
+                (rs, rowNum) -> row(rs, schema), vendorId, start, end);
+
+        Path path = segmentPath(table, vendorId, month);
+        Map<Long, Object[]> merged = new LinkedHashMap<>();
+        try {
+            if (Files.exists(path)) {
+                for (Object[] row : ColdSegment.read(path, schema, null, month.atDay(1).atStartOfDay(),
+                        month.plusMonths(1).atDay(1).atStartOfDay()).rows) {
+                    merged.put((Long) row[schema.idColumn], row);
+                }
+            }
+            for (Object[] row : rows) {
+                merged.put((Long) row[schema.idColumn], row);
+            }
+            ColdSegment.write(path, schema, vendorId, month, new ArrayList<>(merged.values()), rowGroupSize);
+            Files.deleteIfExists(pinPath(table, vendorId, month));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write cold segment " + path, e);
+        }
+        // The segment is durable before the rows go; a rollback here leaves them to be merged again next run
+        jdbcTemplate.update("DELETE FROM " + table + "_archive WHERE vendor_id = ? AND " + time + " >= ? AND "
+                + time + " < ?", vendorId, start, end);
+        meterRegistry.counter("coldstore.exported", "table", table).increment(rows.size());
+        logger.info("Exported {} {} of vendor {} for {} to {}", rows.size(), table, vendorId, month, path);
+        return true;
+    }
+
+    // Rows of the vendor with time in [from, to), optionally for one lock, in no particular order
+    public List<Object[]> find(String table, Long vendorId, Long lockId, LocalDateTime from, LocalDateTime to) {
+        ColdSegment.Schema schema = schema(table);
+        List<Object[]> rows = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); month.atDay(1).atStartOfDay().isBefore(to);
+             month = month.plusMonths(1)) {
+            Path path = segmentPath(table, vendorId, month);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try {
+                ColdSegment.Scan scan = ColdSegment.read(path, schema, lockId, from, to);
+                meterRegistry.counter("coldstore.blocks.read", "table", table).increment(scan.blocksRead);
+                rows.addAll(scan.rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read cold segment " + path, e);
+            }
+        }
+        return rows;
+    }
+
+    // Copies the range back into the archive table and pins its months, skipping rows that are live or archived
+    // already
+    @Transactional
+    public int rehydrate(String table, Long vendorId, LocalDateTime from, LocalDateTime to) {
+        ColdSegment.Schema schema = schema(table);
+        List<Object[]> rows = find(table, vendorId, null, from, to);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        String time = timeColumn(schema);
+        Set<Long> present = new HashSet<>();
+        for (String source : List.of(table, table + "_archive")) {
+            present.addAll(jdbcTemplate.queryForList("SELECT id FROM " + source + " WHERE vendor_id = ? AND " + time +
+                    " >= ? AND " + time + " < ?", Long.class, vendorId, Timestamp.valueOf(from),
+                    Timestamp.valueOf(to)));
+        }
+        List<Object[]> restore = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (present.add((Long) row[schema.idColumn])) {
+                Object[] params = new Object[row.length];
+                for (int c = 0; c < row.length; c++) {
+                    params[c] = row[c] instanceof LocalDateTime ? Timestamp.valueOf((LocalDateTime) row[c]) : row[c];
+                }
+                restore.add(params);
+            }
+        }
+        pin(table, vendorId, from, to);
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + "_archive (" + String.join(", ", schema.columns) +
+                ") VALUES (" + String.join(", ", Collections.nCopies(schema.columns.length, "?")) + ")", restore);
+        meterRegistry.counter("coldstore.rehydrated", "table", table).increment(restore.size());
+        return restore.size();
+    }
+
+    Path segmentPath(String table, Long vendorId, YearMonth month) {
+        return Paths.get(directory, table, "vendor-" + vendorId, month + ".seg");
+    }
+
+    private Path pinPath(String table, Long vendorId, YearMonth month) {
+        return Paths.get(directory, table, "vendor-" + vendorId, month + ".pin");
+    }
+
+    // Written before the rows are restored, so a month is never exported while its rehydration commits
+    private void pin(String table, Long vendorId, LocalDateTime from, LocalDateTime to) {
+        for (YearMonth month = YearMonth.from(from); month.atDay(1).atStartOfDay().isBefore(to);
+             month = month.plusMonths(1)) {
+            Path path = pinPath(table, vendorId, month);
+            try {
+                Files.write(path, new byte[0]);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not pin cold month " + path, e);
+            }
+        }
+    }
+
+    private boolean isPinned(String table, Long vendorId, YearMonth month) {
+        Path path = pinPath(table, vendorId, month);
+        try {
+            return Files.exists(path) && Files.getLastModifiedTime(path).toInstant()
+                    .isAfter(Instant.now().minus(Duration.ofDays(pinDays)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read cold pin " + path, e);
+        }
+    }
+
+    static ColdSegment.Schema schema(String table) {
+        switch (table) {
+            case TRIPS:
+                return TRIP_SCHEMA;
+            case REMARKS:
+                return REMARK_SCHEMA;
+            default:
+                throw new RuntimeException("Unknown cold storage table: " + table);
+        }
+    }
+
+    private static String timeColumn(ColdSegment.Schema schema) {
+        return schema.columns[schema.timeColumn];
+    }
+
+    private static Object[] row(ResultSet rs, ColdSegment.Schema schema) throws SQLException {
+        Object[] row = new Object[schema.columns.length];
+        for (int c = 0; c < row.length; c++) {
+            String column = schema.columns[c];
+            switch (schema.types[c]) {
+                case LONG -> row[c] = rs.getObject(column, Long.class);
+                case INT -> row[c] = rs.getObject(column, Integer.class);
+                case DOUBLE -> row[c] = rs.getObject(column, Double.class);
+                case STRING -> row[c] = rs.getString(column);
+                case TIME -> {
+                    Timestamp value = rs.getTimestamp(column);
+                    row[c] = value != null ? value.toLocalDateTime() : null;
+                }
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,65 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fills in detention for completed trips that were closed without one
+@Component
+public class DetentionRecomputeJob implements ClusterJob {
+    public static final String NAME = "detention-recompute";
+
+    @Value("${locktrackpro.jobs.detention.intervalMinutes:60}")
+    private long intervalMinutes;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        // Completed trips before the hot window have been archived
+        List<Trip> trips = tripRepository.findCompletedWithoutDetention(vendorId, partitionManager.hotWindowStart(),
+                position, PageRequest.of(0, chunkSize));
+        for (Trip trip : trips) {
+            trip.setDetentionMins(tripService.detentionMinutes(trip.getStartTime(), trip.getEndTime()));
+        }
+        tripRepository.saveAll(trips);
+        List<OutboxEvent> events = new ArrayList<>(trips.size());
+        for (Trip trip : trips) {
+            events.add(outboxService.event(OutboxService.LOCK, trip.getLockId(), vendorId, OutboxEvent.TRIP_UPDATED,
+                    OutboxService.payload("tripId", trip.getId(), "detentionMins", trip.getDetentionMins(),
+                            "completedOn", trip.getEndTime() != null ? trip.getEndTime().toLocalDate().toString() : null)));
+        }
+        if (!events.isEmpty()) {
+            outboxService.recordAll(events);
+        }
+        return trips.size() < chunkSize ? null : trips.get(trips.size() - 1).getId();
+    }
+}
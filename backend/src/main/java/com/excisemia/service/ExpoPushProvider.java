@@ -0,0 +1,107 @@
+package com.excisemia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sends through the Expo push service, which is what the mobile app registers its tokens with
+// (services/notifications.ts)
+@Component
+@ConditionalOnProperty(name = "locktrackpro.notifications.provider", havingValue = "expo")
+public class ExpoPushProvider implements PushProvider {
+
+    @Value("${locktrackpro.notifications.expo.url:https://exp.host/--/api/v2/push/send}")
+    private String url;
+
+    @Value("${locktrackpro.notifications.expo.accessToken:}")
+    private String accessToken;
+
+    @Value("${locktrackpro.notifications.expo.timeoutMs:10000}")
+    private long timeoutMs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public String getName() {
+        return "expo";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        // Expo accepts at most 100 messages per request
+        return 100;
+    }
+
+    @Override
+    public List<PushResult> send(List<PushMessage> messages) throws Exception {
+        List<Map<String, Object>> body = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("to", message.getToken());
+            entry.put("title", message.getTitle());
+            entry.put("body", message.getBody());
+            entry.put("data", message.getData());
+            entry.put("sound", "default");
+            body.add(entry);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (!accessToken.isEmpty()) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+        int status = response.statusCode();
+        if (status == 429 || status >= 500) {
+            throw new RuntimeException("Expo push service returned " + status);
+        }
+        List<PushResult> results = new ArrayList<>(messages.size());
+        if (status != 200) {
+            for (int i = 0; i < messages.size(); i++) {
+                results.add(PushResult.rejected("Expo push service returned " + status));
+            }
+            return results;
+        }
+
+        JsonNode tickets = objectMapper.readTree(response.body()).path("data");
+        for (int i = 0; i < messages.size(); i++) {
+            JsonNode ticket = tickets.path(i);
+            if ("ok".equals(ticket.path("status").asText())) {
+                results.add(PushResult.delivered());
+                continue;
+            }
+            String error = ticket.path("details").path("error").asText("");
+            String message = ticket.path("message").asText("Missing push ticket");
+            if ("DeviceNotRegistered".equals(error)) {
+                results.add(PushResult.unregistered(message));
+            } else if ("MessageRateExceeded".equals(error) || ticket.isMissingNode()) {
+                results.add(PushResult.retry(message));
+            } else {
+                results.add(PushResult.rejected(error.isEmpty() ? message : error + ": " + message));
+            }
+        }
+        return results;
+    }
+}
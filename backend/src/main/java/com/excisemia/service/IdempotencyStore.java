@@ -0,0 +1,118 @@
+package com.excisemia.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class IdempotencyStore {
+
+    @Value("${locktrackpro.idempotency.ttlSeconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${locktrackpro.idempotency.maxEntries:10000}")
+    private int maxEntries;
+
+    // Insertion order is expiry order, since every entry lives for ttlSeconds. Releasing or expiring a
+    // key removes it from the order too, so the map never holds more than maxEntries.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    // Claims the key for execution. If another request already owns it, the reservation
+    // carries that request's (possibly still pending) response and body hash instead.
+    // Returns null when the store is full of requests that are still executing: their keys
+    // cannot be dropped without letting a retry run the write twice.
+    public synchronized Reservation reserve(String key, String bodyHash) {
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt > now) {
+            return new Reservation(existing, false);
+        }
+        if (existing != null) {
+            entries.remove(key);
+        }
+        if (!makeRoom(now)) {
+            return null;
+        }
+        Entry entry = new Entry(key, bodyHash, now + ttlSeconds * 1000);
+        entries.put(key, entry);
+        return new Reservation(entry, true);
+    }
+
+    public void complete(Reservation reservation, CachedResponse response) {
+        reservation.entry.response.complete(response);
+    }
+
+    // The original execution did not produce a replayable response, let the next retry run again
+    public void release(Reservation reservation) {
+        synchronized (this) {
+            entries.remove(reservation.entry.key, reservation.entry);
+        }
+        reservation.entry.response.complete(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries from the head, then the oldest completed ones until there is room. Pending
+    // entries are skipped; there are at most as many as requests in flight, so the scan stays short.
+    private boolean makeRoom(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt > now && entries.size() < maxEntries) {
+                break;
+            }
+            if (entry.expiresAt <= now || entry.response.isDone()) {
+                iterator.remove();
+            }
+        }
+        return entries.size() < maxEntries;
+    }
+
+    public static class Reservation {
+        private final Entry entry;
+        private final boolean owner;
+
+        Reservation(Entry entry, boolean owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() { return owner; }
+        public String getBodyHash() { return entry.bodyHash; }
+        public CompletableFuture<CachedResponse> getResponse() { return entry.response; }
+    }
+
+    public static class CachedResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public CachedResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() { return status; }
+        public String getContentType() { return contentType; }
+        public byte[] getBody() { return body; }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final String bodyHash;
+        private final long expiresAt;
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+
+        Entry(String key, String bodyHash, long expiresAt) {
+            this.key = key;
+            this.bodyHash = bodyHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.excisemia.service;
+
+import com.excisemia.model.JobCheckpoint;
+import com.excisemia.model.JobLease;
+import com.excisemia.repository.JobCheckpointRepository;
+import com.excisemia.repository.JobLeaseRepository;
+import com.excisemia.repository.VendorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Runs ClusterJobs so that each run executes on exactly one node. Every node polls, but only the
+// node whose conditional update takes the job_leases row runs the job. Each chunk renews the lease
+// and saves the vendor checkpoint in the chunk's own transaction: a node that lost its lease cannot
+// commit work, and a run that dies part way is resumed from the checkpoints by whichever node
+// claims the job next.
+@Component
+public class JobScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    @Value("${locktrackpro.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.jobs.leaseSeconds:120}")
+    private long leaseSeconds;
+
+    @Value("${locktrackpro.jobs.chunkSize:500}")
+    private int chunkSize;
+
+    // A failed run is retried after baseBackoffSeconds, doubling with each further failure up to maxBackoffSeconds
+    @Value("${locktrackpro.jobs.baseBackoffSeconds:30}")
+    private long baseBackoffSeconds;
+
+    @Value("${locktrackpro.jobs.maxBackoffSeconds:1800}")
+    private long maxBackoffSeconds;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<ClusterJob> jobs = new ArrayList<>();
+
+    private final String nodeId = nodeId();
+    private final Set<String> knownLeases = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean stopping;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    @Scheduled(fixedDelayString = "${locktrackpro.jobs.pollIntervalMs:15000}",
+               initialDelayString = "${locktrackpro.jobs.pollIntervalMs:15000}")
+    public void runDueJobs() {
+        if (!enabled) {
+            return;
+        }
+        for (ClusterJob job : jobs) {
+            try {
+                runIfDue(job);
+            } catch (RuntimeException e) {
+                logger.error("Job {} could not be scheduled: {}", job.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    // Returns whether this node claimed and ran the job
+    public boolean runIfDue(ClusterJob job) {
+        if (!tryClaim(job.getName(), nodeId)) {
+            return false;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "completed";
+        try {
+            run(job);
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                jobCheckpointRepository.deleteByJobName(job.getName());
+                jobLeaseRepository.release(job.getName(), nodeId, now, now.plus(job.getInterval()), now, null);
+            });
+        } catch (LeaseLostException e) {
+            outcome = "lease_lost";
+            logger.warn("Job {} lost its lease on {}, another node will resume it", job.getName(), nodeId);
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            logger.error("Job {} failed: {}", job.getName(), e.getMessage(), e);
+            String error = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage();
+            // Due again after the backoff, continuing from the checkpoints
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                Integer previous = jobLeaseRepository.findById(job.getName())
+                        .map(JobLease::getConsecutiveFailures).orElse(null);
+                int failures = (previous != null ? previous : 0) + 1;
+                jobLeaseRepository.fail(job.getName(), nodeId, now, now.plusSeconds(backoffSeconds(failures)),
+                        failures, error);
+            });
+        } finally {
+            sample.stop(meterRegistry.timer("jobs.run", "job", job.getName(), "outcome", outcome));
+        }
+        return true;
+    }
+
+    private long backoffSeconds(int failures) {
+        long backoff = baseBackoffSeconds << Math.min(failures - 1, 20);
+        return Math.min(backoff, maxBackoffSeconds);
+    }
+
+    public boolean tryClaim(String jobName, String owner) {
+        ensureLease(jobName);
+        Integer claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            return jobLeaseRepository.claim(jobName, owner, now, now.plusSeconds(leaseSeconds));
+        });
+        return claimed != null && claimed == 1;
+    }
+
+    private void run(ClusterJob job) {
+        Map<Long, JobCheckpoint> checkpoints = jobCheckpointRepository.findByJobName(job.getName()).stream()
+                .collect(Collectors.toMap(JobCheckpoint::getVendorId, Function.identity()));
+        if (!checkpoints.isEmpty()) {
+            logger.info("Resuming job {} from {} vendor checkpoints", job.getName(), checkpoints.size());
+        }
+        for (Long vendorId : vendorRepository.findAllIds()) {
+            JobCheckpoint checkpoint = checkpoints.getOrDefault(vendorId, new JobCheckpoint(job.getName(), vendorId));
+            while (!checkpoint.getDone()) {
+                if (stopping) {
+                    throw new RuntimeException("Node is shutting down");
+                }
+                checkpoint = processChunk(job, checkpoint);
+                meterRegistry.counter("jobs.chunks", "job", job.getName()).increment();
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            renewLease(job);
+            job.afterRun();
+        });
+    }
+
+    private JobCheckpoint processChunk(ClusterJob job, JobCheckpoint checkpoint) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = renewLease(job);
+            Long next = job.processChunk(checkpoint.getVendorId(), checkpoint.getPosition(), chunkSize);
+            JobCheckpoint updated = new JobCheckpoint(job.getName(), checkpoint.getVendorId());
+            updated.setId(checkpoint.getId());
+            updated.setPosition(next != null ? next : checkpoint.getPosition());
+            updated.setDone(next == null);
+            updated.setUpdatedAt(now);
+            return jobCheckpointRepository.save(updated);
+        });
+    }
+
+    // The update holds the lease row lock until commit, so no other node can claim the job mid-transaction
+    private LocalDateTime renewLease(ClusterJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jobLeaseRepository.renew(job.getName(), nodeId, now, now.plusSeconds(leaseSeconds)) != 1) {
+            throw new LeaseLostException();
+        }
+        return now;
+    }
+
+    private void ensureLease(String jobName) {
+        if (knownLeases.contains(jobName)) {
+            return;
+        }
+        if (!jobLeaseRepository.existsById(jobName)) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jobLeaseRepository.save(new JobLease(jobName, LocalDateTime.now().minusSeconds(1))));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+            }
+        }
+        knownLeases.add(jobName);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String nodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Job lease lost");
+        }
+    }
+}
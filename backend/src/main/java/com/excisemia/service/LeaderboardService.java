@@ -0,0 +1,245 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LeaderboardResponse;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.OutboxEventRepository;
+import com.excisemia.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Per-node top-k leaderboards per vendor over the hot window (see PartitionManager), kept current by following
+// outbox_events like TripFactCache and rebuilt from the database every reconcileMinutes. As there, the feed
+// position only moves past events older than settleSeconds, so an event that took a lower id but commits late
+// is still applied. Events newer than that are read again on the next poll; their ids are remembered until the
+// position passes them, so each is counted once. A rebuild reads the tables and the ids of the events they
+// already include in one snapshot. Counters only grow between rebuilds, so a trip archived in the meantime
+// keeps counting until the next one.
+@Service
+public class LeaderboardService {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+    private static final List<String> EVENTS =
+            List.of(OutboxEvent.TRIP_COMPLETED, OutboxEvent.TRIP_UPDATED, OutboxEvent.REMARK_CREATED);
+
+    public enum Board {
+        // Completed trips per lock
+        LOCK_TRIPS,
+        // Total detention minutes per lock
+        LOCK_DETENTION,
+        // Remarks written per user
+        USER_REMARKS
+    }
+
+    @Value("${locktrackpro.leaderboards.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.leaderboards.size:50}")
+    private int size;
+
+    @Value("${locktrackpro.leaderboards.reconcileMinutes:60}")
+    private long reconcileMinutes;
+
+    @Value("${locktrackpro.leaderboards.feedBatchSize:5000}")
+    private int feedBatchSize;
+
+    @Value("${locktrackpro.leaderboards.settleSeconds:10}")
+    private long settleSeconds;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Map<Long, Map<Board, TopK>> boards = new ConcurrentHashMap<>();
+    private final AtomicLong feedPosition = new AtomicLong();
+    // Events after feedPosition that are already counted
+    private final Set<Long> applied = new HashSet<>();
+    private volatile LocalDateTime reconciledAt;
+    private TransactionTemplate snapshot;
+
+    @PostConstruct
+    public void start() {
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        // One snapshot for every statement of the rebuild on PostgreSQL
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Scheduled(fixedDelayString = "${locktrackpro.leaderboards.feedIntervalMs:1000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (reconciledAt == null || reconciledAt.isBefore(LocalDateTime.now().minusMinutes(reconcileMinutes))) {
+                reconcile();
+            }
+            while (applyFeed() == feedBatchSize) {
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Leaderboard refresh failed, retrying next poll: {}", e.getMessage());
+        }
+    }
+
+    // Rebuilds every board from the live tables
+    public synchronized void reconcile() {
+        long started = System.currentTimeMillis();
+        Map<Long, Map<Board, TopK>> rebuilt = new ConcurrentHashMap<>();
+        Set<Long> included = new HashSet<>();
+        Long position = snapshot.execute(status -> {
+            Long settled = outboxEventRepository.findMaxIdCreatedBefore(
+                    LocalDateTime.now().minusSeconds(settleSeconds));
+            // Unsettled events visible to the rebuild are in its totals already, the feed must skip them
+            included.addAll(outboxEventRepository.findIdsAfter(settled != null ? settled : 0L, EVENTS));
+            Timestamp since = Timestamp.valueOf(partitionManager.hotWindowStart());
+            jdbcTemplate.query("SELECT vendor_id, lock_id, COUNT(*) AS trips, SUM(detention_mins) AS detention " +
+                    "FROM trips WHERE status = 'COMPLETED' AND start_time >= ? GROUP BY vendor_id, lock_id",
+                    (RowCallbackHandler) rs -> {
+                        Map<Board, TopK> vendor = vendorBoards(rebuilt, rs.getLong("vendor_id"));
+                        vendor.get(Board.LOCK_TRIPS).increment(rs.getLong("lock_id"), rs.getLong("trips"));
+                        vendor.get(Board.LOCK_DETENTION).increment(rs.getLong("lock_id"), rs.getLong("detention"));
+                    }, since);
+            jdbcTemplate.query("SELECT vendor_id, user_id, COUNT(*) AS remarks FROM remarks WHERE timestamp >= ? " +
+                    "GROUP BY vendor_id, user_id", (RowCallbackHandler) rs ->
+                    vendorBoards(rebuilt, rs.getLong("vendor_id")).get(Board.USER_REMARKS)
+                            .increment(rs.getLong("user_id"), rs.getLong("remarks")), since);
+            return settled;
+        });
+        boards = rebuilt;
+        feedPosition.set(position != null ? position : 0L);
+        applied.clear();
+        applied.addAll(included);
+        reconciledAt = LocalDateTime.now();
+        meterRegistry.counter("leaderboards.reconciled").increment();
+        logger.info("Rebuilt leaderboards for {} vendors in {} ms", rebuilt.size(), System.currentTimeMillis() - started);
+    }
+
+    // Applies the events of one batch after the feed position that are not counted yet, returns how many
+    // settled events the position moved past
+    public synchronized int applyFeed() {
+        if (reconciledAt == null) {
+            return 0;
+        }
+        List<OutboxEvent> events = outboxEventRepository.findAfter(feedPosition.get(), EVENTS,
+                PageRequest.of(0, feedBatchSize));
+        for (OutboxEvent event : events) {
+            if (!applied.add(event.getId())) {
+                continue;
+            }
+            Map<String, Object> payload = outboxService.readPayload(event);
+            Map<Board, TopK> vendor = vendorBoards(boards, event.getVendorId());
+            switch (event.getEventType()) {
+                case OutboxEvent.TRIP_COMPLETED -> {
+                    vendor.get(Board.LOCK_TRIPS).increment(event.getAggregateId(), 1);
+                    vendor.get(Board.LOCK_DETENTION).increment(event.getAggregateId(), minutes(payload));
+                }
+                // Detention recompute filling in a value the completion did not have
+                case OutboxEvent.TRIP_UPDATED ->
+                        vendor.get(Board.LOCK_DETENTION).increment(event.getAggregateId(), minutes(payload));
+                case OutboxEvent.REMARK_CREATED -> {
+                    if (payload.get("userId") != null) {
+                        vendor.get(Board.USER_REMARKS).increment(((Number) payload.get("userId")).longValue(), 1);
+                    }
+                }
+                default -> { }
+            }
+        }
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(settleSeconds);
+        int passed = 0;
+        for (OutboxEvent event : events) {
+            if (!event.getCreatedAt().isBefore(settled)) {
+                break;
+            }
+            feedPosition.set(event.getId());
+            passed++;
+        }
+        long position = feedPosition.get();
+        applied.removeIf(id -> id <= position);
+        return passed;
+    }
+
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    public LeaderboardResponse top(Long vendorId, Board board, int k) {
+        if (reconciledAt == null) {
+            throw new IllegalStateException("Leaderboards are still loading");
+        }
+        Map<Board, TopK> vendor = boards.get(vendorId);
+        List<long[]> top = vendor != null ? vendor.get(board).top(Math.max(1, Math.min(k, size))) : List.of();
+        List<Long> ids = top.stream().map(entry -> entry[0]).collect(Collectors.toList());
+        Map<Long, String> labels = new HashMap<>();
+        if (!ids.isEmpty()) {
+            if (board == Board.USER_REMARKS) {
+                userRepository.findAllById(ids).forEach(user -> labels.put(user.getId(), user.getName()));
+            } else {
+                lockRepository.findAllById(ids).forEach(lock -> labels.put(lock.getId(), lock.getLockNumber()));
+            }
+        }
+        List<LeaderboardResponse.Entry> entries = new ArrayList<>(top.size());
+        for (long[] entry : top) {
+            entries.add(new LeaderboardResponse.Entry(entry[0], labels.get(entry[0]), entry[1]));
+        }
+        return new LeaderboardResponse(board.name(), entries, reconciledAt);
+    }
+
+    private Map<Board, TopK> vendorBoards(Map<Long, Map<Board, TopK>> target, Long vendorId) {
+        return target.computeIfAbsent(vendorId, v -> {
+            Map<Board, TopK> vendor = new EnumMap<>(Board.class);
+            for (Board board : Board.values()) {
+                vendor.put(board, new TopK(size));
+            }
+            return vendor;
+        });
+    }
+
+    private static long minutes(Map<String, Object> payload) {
+        Object detention = payload.get("detentionMins");
+        return detention != null ? ((Number) detention).longValue() : 0L;
+    }
+}
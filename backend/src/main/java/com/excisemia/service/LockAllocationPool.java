@@ -0,0 +1,223 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Lock;
+import com.excisemia.repository.LockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Per-vendor queue of lock ids believed to be AVAILABLE. Claiming polls a candidate from the queue, under a
+// short per-vendor lock, instead of listing the vendor's locks; the candidate is only a hint, LockService
+// confirms it with a conditional update, so ids made stale by this or another node are simply dropped.
+// A vendor's queue is loaded from the database on first use and reloaded every refreshSeconds. Loads run on a
+// background thread, one at a time per vendor, and the current queue keeps being served until the new one is in.
+// The loaded ids replace the queue in one step, together with the ids offered and minus the ids polled while
+// the query ran, so a reload neither loses a returned lock nor hands out one that was just taken.
+@Component
+public class LockAllocationPool {
+    private static final Logger logger = LoggerFactory.getLogger(LockAllocationPool.class);
+
+    @Value("${locktrackpro.lockpool.refreshSeconds:60}")
+    private long refreshSeconds;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    private final ConcurrentHashMap<Long, VendorPool> pools = new ConcurrentHashMap<>();
+    // Vendors with a reload queued or running, so a burst of claims schedules only one
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("lock-pool-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    // Next candidate id for the vendor, or null when the pool is empty
+    public Long poll(Long vendorId) {
+        return pool(vendorId).poll();
+    }
+
+    public void offer(Long vendorId, Long lockId) {
+        pool(vendorId).offer(lockId);
+    }
+
+    // Makes the lock claimable once the surrounding transaction commits
+    public void offerAfterCommit(Lock lock) {
+        if (lock.getStatus() != Lock.Status.AVAILABLE || lock.getCurrentTripId() != null) {
+            return;
+        }
+        Long vendorId = lock.getVendorId();
+        Long lockId = lock.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(vendorId, lockId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(vendorId, lockId);
+            }
+        });
+    }
+
+    // Returns a polled id to the pool if the claiming transaction does not commit
+    public void returnOnRollback(Long vendorId, Long lockId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    offer(vendorId, lockId);
+                }
+            }
+        });
+    }
+
+    // Schedules a reload, e.g. after the database had locks the pool did not know about
+    public void invalidate(Long vendorId) {
+        refreshAsync(vendorId);
+    }
+
+    public int size(Long vendorId) {
+        VendorPool pool = pools.get(vendorId);
+        return pool == null ? 0 : pool.size();
+    }
+
+    private VendorPool pool(Long vendorId) {
+        VendorPool pool = pools.get(vendorId);
+        if (pool == null) {
+            // Claims fall back to the database until the first load is in
+            pool = pools.computeIfAbsent(vendorId,
+                    v -> new VendorPool(System.nanoTime() - refreshSeconds * 1_000_000_000L));
+            refreshAsync(vendorId);
+        } else if (System.nanoTime() - pool.loadedAt >= refreshSeconds * 1_000_000_000L) {
+            refreshAsync(vendorId);
+        }
+        return pool;
+    }
+
+    private void refreshAsync(Long vendorId) {
+        if (!refreshing.add(vendorId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reload(vendorId);
+                } catch (RuntimeException e) {
+                    logger.warn("Lock pool reload for vendor {} failed: {}", vendorId, e.getMessage());
+                } finally {
+                    refreshing.remove(vendorId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.remove(vendorId);
+            logger.debug("Lock pool reload for vendor {} skipped, reload queue is full", vendorId);
+        }
+    }
+
+    private void reload(Long vendorId) {
+        VendorPool pool = pools.computeIfAbsent(vendorId, v -> new VendorPool(System.nanoTime()));
+        pool.startLoad();
+        try {
+            pool.finishLoad(lockRepository.findClaimableIds(vendorId), System.nanoTime());
+        } finally {
+            pool.endLoad();
+        }
+    }
+
+    private static class VendorPool {
+        private final ArrayDeque<Long> queue = new ArrayDeque<>();
+        // Keeps an id from being queued twice
+        private final Set<Long> members = new HashSet<>();
+        // Non-null while a reload query runs
+        private Set<Long> offeredDuringLoad;
+        private Set<Long> polledDuringLoad;
+        private volatile long loadedAt;
+
+        VendorPool(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized Long poll() {
+            Long lockId = queue.poll();
+            if (lockId != null) {
+                members.remove(lockId);
+                if (polledDuringLoad != null) {
+                    offeredDuringLoad.remove(lockId);
+                    polledDuringLoad.add(lockId);
+                }
+            }
+            return lockId;
+        }
+
+        synchronized void offer(Long lockId) {
+            if (members.add(lockId)) {
+                queue.offer(lockId);
+            }
+            if (offeredDuringLoad != null) {
+                polledDuringLoad.remove(lockId);
+                offeredDuringLoad.add(lockId);
+            }
+        }
+
+        synchronized int size() {
+            return members.size();
+        }
+
+        synchronized void startLoad() {
+            offeredDuringLoad = new HashSet<>();
+            polledDuringLoad = new HashSet<>();
+        }
+
+        synchronized void finishLoad(List<Long> loaded, long now) {
+            queue.clear();
+            members.clear();
+            for (Long lockId : loaded) {
+                if (!polledDuringLoad.contains(lockId) && members.add(lockId)) {
+                    queue.offer(lockId);
+                }
+            }
+            for (Long lockId : offeredDuringLoad) {
+                if (members.add(lockId)) {
+                    queue.offer(lockId);
+                }
+            }
+            loadedAt = now;
+        }
+
+        synchronized void endLoad() {
+            offeredDuringLoad = null;
+            polledDuringLoad = null;
+        }
+    }
+}
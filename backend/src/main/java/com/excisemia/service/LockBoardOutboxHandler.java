@@ -0,0 +1,65 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the lock board current. Lock, trip and remark events re-project their lock, a deleted user re-projects
+// the locks assigned to them, and a renamed vendor has its name rewritten on all of its rows in one statement.
+@Component
+public class LockBoardOutboxHandler implements OutboxEventHandler {
+    private static final Set<String> LOCK_EVENTS = Set.of(OutboxEvent.LOCK_CREATED, OutboxEvent.LOCK_STATUS_CHANGED,
+            OutboxEvent.LOCK_ASSIGNED, OutboxEvent.TRIP_STARTED, OutboxEvent.TRIP_COMPLETED, OutboxEvent.REMARK_CREATED);
+
+    @Autowired
+    private LockBoardService lockBoardService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return "lock-board";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return LOCK_EVENTS.contains(eventType) || OutboxEvent.USER_DELETED.equals(eventType)
+                || OutboxEvent.VENDOR_UPDATED.equals(eventType);
+    }
+
+    @Override
+    @Transactional
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> lockIds = new LinkedHashSet<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        Map<Long, String> vendorNames = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            if (LOCK_EVENTS.contains(event.getEventType())) {
+                lockIds.add(event.getAggregateId());
+            } else if (OutboxEvent.USER_DELETED.equals(event.getEventType())) {
+                userIds.add(event.getAggregateId());
+            } else if (OutboxEvent.VENDOR_UPDATED.equals(event.getEventType())) {
+                // Later renames in the batch win
+                vendorNames.put(event.getAggregateId(), (String) outboxService.readPayload(event).get("vendorName"));
+            }
+        }
+        lockIds.addAll(lockBoardService.findLockIdsAssignedTo(userIds));
+        int written = lockBoardService.project(lockIds);
+        for (Map.Entry<Long, String> vendor : vendorNames.entrySet()) {
+            written += lockBoardService.renameVendor(vendor.getKey(), vendor.getValue());
+        }
+        meterRegistry.counter("lockboard.rows.written").increment(written);
+    }
+}
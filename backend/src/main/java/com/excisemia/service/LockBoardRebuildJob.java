@@ -0,0 +1,43 @@
+package com.excisemia.service;
+
+import com.excisemia.repository.LockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Re-projects every lock onto the lock board. The first run fills the board for locks that predate it or were
+// written around the services, later runs repair anything a missed or parked event left behind.
+@Component
+public class LockBoardRebuildJob implements ClusterJob {
+    public static final String NAME = "lock-board-rebuild";
+
+    @Value("${locktrackpro.jobs.lockBoard.intervalMinutes:1440}")
+    private long intervalMinutes;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private LockBoardService lockBoardService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        List<Long> lockIds = lockRepository.findIdsAfter(vendorId, position, PageRequest.of(0, chunkSize));
+        lockBoardService.project(lockIds);
+        return lockIds.size() < chunkSize ? null : lockIds.get(lockIds.size() - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LockBoardResponse;
+import com.excisemia.model.Lock;
+import com.excisemia.model.LockBoardEntry;
+import com.excisemia.repository.LockBoardRepository;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.RemarkRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The lock board read model. Rows are rewritten from the live tables rather than patched from event payloads,
+// so projecting a lock again is harmless. A projection locks the board rows before it reads the live tables.
+// Projections of the same lock therefore run one after the other, and the last one to commit has read the newest
+// state. An event that arrives late or twice cannot roll a row back to an older snapshot.
+@Service
+public class LockBoardService {
+
+    @Value("${locktrackpro.lockboard.maxPageSize:500}")
+    private int maxPageSize;
+
+    @Autowired
+    private LockBoardRepository lockBoardRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private RemarkRepository remarkRepository;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    // Rewrites the board rows of the given locks, returns how many were written
+    @Transactional
+    public int project(Collection<Long> lockIds) {
+        if (lockIds.isEmpty()) {
+            return 0;
+        }
+        // Locks with no row yet are inserted; a concurrent insert of the same lock fails on the unique lock_id and
+        // its event is retried against the row that won
+        Map<Long, LockBoardEntry> entries = lockBoardRepository.findByLockIdInForUpdate(lockIds).stream()
+                .collect(Collectors.toMap(LockBoardEntry::getLockId, Function.identity()));
+        List<Lock> locks = lockRepository.findAllById(lockIds);
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> tripIds = new HashSet<>();
+        for (Lock lock : locks) {
+            if (lock.getAssignedTo() != null) {
+                userIds.add(lock.getAssignedTo());
+            }
+            if (lock.getCurrentTripId() != null) {
+                tripIds.add(lock.getCurrentTripId());
+            }
+        }
+        Map<Long, String> names = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> names.put(user.getId(), user.getName()));
+        }
+        Map<Long, LocalDateTime> tripStarts = new HashMap<>();
+        if (!tripIds.isEmpty()) {
+            tripRepository.findAllById(tripIds).forEach(trip -> tripStarts.put(trip.getId(), trip.getStartTime()));
+        }
+        Map<Long, RemarkRepository.LatestRemark> remarks = remarkRepository
+                .findLatestByLockIds(lockIds, partitionManager.hotWindowStart()).stream()
+                .collect(Collectors.toMap(RemarkRepository.LatestRemark::getLockId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LockBoardEntry> changed = new ArrayList<>(locks.size());
+        for (Lock lock : locks) {
+            LockBoardEntry entry = entries.computeIfAbsent(lock.getId(),
+                    id -> new LockBoardEntry(id, lock.getVendorId()));
+            entry.setVendorId(lock.getVendorId());
+            entry.setLockNumber(lock.getLockNumber());
+            entry.setStatus(lock.getStatus());
+            entry.setVendorName(lock.getVendor() != null ? lock.getVendor().getVendorName() : null);
+            entry.setAssignedTo(lock.getAssignedTo());
+            entry.setAssigneeName(names.get(lock.getAssignedTo()));
+            entry.setCurrentTripId(lock.getCurrentTripId());
+            entry.setTripStartedAt(tripStarts.get(lock.getCurrentTripId()));
+            // A lock with no remark in the hot window keeps the one already on its row
+            RemarkRepository.LatestRemark remark = remarks.get(lock.getId());
+            if (remark != null) {
+                entry.setLastRemark(remark.getMessage());
+                entry.setLastRemarkBy(remark.getUserName());
+                entry.setLastRemarkAt(remark.getTimestamp());
+            }
+            entry.setUpdatedAt(now);
+            changed.add(entry);
+        }
+        lockBoardRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    // Locks assigned to any of the users, for re-projecting them after the users change
+    @Transactional(readOnly = true)
+    public List<Long> findLockIdsAssignedTo(Collection<Long> userIds) {
+        return userIds.isEmpty() ? List.of() : lockBoardRepository.findLockIdsAssignedTo(userIds);
+    }
+
+    @Transactional
+    public int renameVendor(Long vendorId, String vendorName) {
+        return lockBoardRepository.updateVendorName(vendorId, vendorName);
+    }
+
+    // One page of the vendor's board in lock number order, starting after the given lock number
+    @Transactional(readOnly = true)
+    public LockBoardResponse page(Long vendorId, String after, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        List<LockBoardEntry> entries = lockBoardRepository.findPage(vendorId, after != null ? after : "",
+                PageRequest.of(0, size));
+        String next = entries.size() == size ? entries.get(entries.size() - 1).getLockNumber() : null;
+        return new LockBoardResponse(entries, next);
+    }
+}
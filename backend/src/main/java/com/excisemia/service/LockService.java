@@ -1,47 +1,147 @@
 package com.excisemia.service;
 
 import com.excisemia.model.Lock;
+import com.excisemia.model.OutboxEvent;
 import com.excisemia.repository.LockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class LockService {
+    // Rows locked per database fallback; the conditional update can still refuse one, e.g. a lock planned since
+    private static final int DATABASE_CANDIDATES = 5;
 
     @Autowired
     private LockRepository lockRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LockAllocationPool lockAllocationPool;
+
+    @Autowired
+    private LockStatusCounters lockStatusCounters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
     public List<Lock> getLocksByVendor(Long vendorId) {
         return lockRepository.findByVendorId(vendorId);
     }
 
+    @Transactional
     public Lock createLock(String lockNumber, Long vendorId) {
         if (lockRepository.existsByLockNumberAndVendorId(lockNumber, vendorId)) {
             throw new RuntimeException("Lock number already exists for this vendor");
         }
         
-        Lock lock = new Lock(lockNumber, vendorId);
-        return lockRepository.save(lock);
+        Lock lock = lockRepository.save(new Lock(lockNumber, vendorId));
+        outboxService.record(OutboxService.LOCK, lock.getId(), vendorId, OutboxEvent.LOCK_CREATED,
+                OutboxService.payload("lockId", lock.getId(), "lockNumber", lockNumber, "status", lock.getStatus()));
+        lockAllocationPool.offerAfterCommit(lock);
+        lockStatusCounters.transitionAfterCommit(vendorId, null, lock.getStatus());
+        return lock;
     }
 
+    @Transactional
     public Lock updateLockStatus(Long id, Lock.Status status, Long vendorId) {
         Lock lock = lockRepository.findByIdAndVendorId(id, vendorId)
                 .orElseThrow(() -> new RuntimeException("Lock not found or access denied"));
         
+        if (status == Lock.Status.AVAILABLE && lock.getCurrentTripId() != null) {
+            throw new RuntimeException("Lock has an active trip, complete the trip first");
+        }
+
+        Lock.Status previous = lock.getStatus();
         lock.setStatus(status);
-        return lockRepository.save(lock);
+        if (status == Lock.Status.AVAILABLE) {
+            // Handing the lock back releases any claim on it
+            lock.setClaimedBy(null);
+        }
+        lock = lockRepository.save(lock);
+        outboxService.record(OutboxService.LOCK, id, vendorId, OutboxEvent.LOCK_STATUS_CHANGED,
+                OutboxService.payload("lockId", id, "previousStatus", previous, "status", status,
+                        "assignedTo", lock.getAssignedTo()));
+        lockAllocationPool.offerAfterCommit(lock);
+        lockStatusCounters.transitionAfterCommit(vendorId, previous, status);
+        return lock;
+    }
+
+    // Takes the next AVAILABLE lock of the vendor and marks it IN_TRANSIT. Candidates come from the
+    // in-memory pool and are confirmed with a conditional update; when the pool runs dry the database
+    // is asked directly with SKIP LOCKED. The lock is recorded as claimed by userId, so nobody else can start a
+    // trip on it. Empty when the vendor has no available lock.
+    @Transactional
+    public Optional<Lock> claimNextAvailable(Long vendorId, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        Long candidate;
+        while ((candidate = lockAllocationPool.poll(vendorId)) != null) {
+            if (lockRepository.claimIfAvailable(candidate, vendorId, Lock.Status.IN_TRANSIT, userId, now) == 1) {
+                lockAllocationPool.returnOnRollback(vendorId, candidate);
+                meterRegistry.counter("locks.claims", "source", "pool").increment();
+                return Optional.of(claimed(candidate, vendorId));
+            }
+            // Stale entry: claimed or changed elsewhere since it was queued
+        }
+
+        List<Lock> unpooled = lockRepository.findClaimableForUpdate(vendorId, PageRequest.of(0, DATABASE_CANDIDATES));
+        if (!unpooled.isEmpty()) {
+            // Made available by another node; reload so the pool picks up the rest
+            lockAllocationPool.invalidate(vendorId);
+        }
+        for (Lock lock : unpooled) {
+            if (lockRepository.claimIfAvailable(lock.getId(), vendorId, Lock.Status.IN_TRANSIT, userId, now) == 1) {
+                meterRegistry.counter("locks.claims", "source", "database").increment();
+                return Optional.of(claimed(lock.getId(), vendorId));
+            }
+        }
+        meterRegistry.counter("locks.claims", "source", "none").increment();
+        return Optional.empty();
+    }
+
+    private Lock claimed(Long lockId, Long vendorId) {
+        // The claim was a bulk update, so a copy loaded earlier in this transaction still shows the old row.
+        // Refreshing through a reference reads the row once whether or not it was loaded before.
+        Lock lock = entityManager.getReference(Lock.class, lockId);
+        entityManager.refresh(lock);
+        lock = Hibernate.unproxy(lock, Lock.class);
+        outboxService.record(OutboxService.LOCK, lockId, vendorId, OutboxEvent.LOCK_STATUS_CHANGED,
+                OutboxService.payload("lockId", lockId, "previousStatus", Lock.Status.AVAILABLE,
+                        "status", lock.getStatus(), "assignedTo", lock.getAssignedTo()));
+        lockStatusCounters.transitionAfterCommit(vendorId, Lock.Status.AVAILABLE, lock.getStatus());
+        return lock;
     }
 
+    @Transactional
     public Lock assignLock(Long lockId, Long userId, Long vendorId) {
         Lock lock = lockRepository.findByIdAndVendorId(lockId, vendorId)
                 .orElseThrow(() -> new RuntimeException("Lock not found or access denied"));
         
+        Long previous = lock.getAssignedTo();
         lock.setAssignedTo(userId);
-        return lockRepository.save(lock);
+        lock = lockRepository.save(lock);
+        outboxService.record(OutboxService.LOCK, lockId, vendorId, OutboxEvent.LOCK_ASSIGNED,
+                OutboxService.payload("lockId", lockId, "lockNumber", lock.getLockNumber(),
+                        "previousAssignee", previous, "assignedTo", userId));
+        return lock;
     }
 
+    @Transactional(readOnly = true)
     public List<Lock> getLocksByUserAndVendor(Long userId, Long vendorId) {
         return lockRepository.findByAssignedToAndVendorId(userId, vendorId);
     }
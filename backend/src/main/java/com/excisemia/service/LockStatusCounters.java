@@ -0,0 +1,131 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LockStatusSummary;
+import com.excisemia.model.Lock;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-node lock counts per vendor and status, so the home screen summary needs no database access. Transitions
+// are applied once their transaction commits, and the counts are rebuilt with one GROUP BY every reconcileSeconds.
+// A transition that commits while the rebuild query runs may be counted twice or not at all until the next
+// rebuild, as may changes made on other nodes.
+@Component
+public class LockStatusCounters {
+    private static final Logger logger = LoggerFactory.getLogger(LockStatusCounters.class);
+    private static final Lock.Status[] STATUSES = Lock.Status.values();
+
+    @Value("${locktrackpro.lockcounters.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile Map<Long, LongAdder[]> counters = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reconciledAt;
+
+    @Scheduled(fixedDelayString = "${locktrackpro.lockcounters.reconcileSeconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.warn("Lock status reconcile failed, retrying next run: {}", e.getMessage());
+        }
+    }
+
+    // Rebuilds every vendor's counts from the locks table
+    public synchronized void reconcile() {
+        Map<Long, LongAdder[]> rebuilt = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT vendor_id, status, COUNT(*) AS locks FROM locks GROUP BY vendor_id, status",
+                (RowCallbackHandler) rs -> vendorCounters(rebuilt, rs.getLong("vendor_id"))
+                        [Lock.Status.valueOf(rs.getString("status")).ordinal()].add(rs.getLong("locks")));
+        Map<Long, LongAdder[]> previous = counters;
+        counters = rebuilt;
+        reconciledAt = LocalDateTime.now();
+        long drift = 0;
+        for (Map.Entry<Long, LongAdder[]> vendor : rebuilt.entrySet()) {
+            LongAdder[] old = previous.get(vendor.getKey());
+            for (Lock.Status status : STATUSES) {
+                drift += Math.abs(vendor.getValue()[status.ordinal()].sum()
+                        - (old != null ? old[status.ordinal()].sum() : 0L));
+            }
+        }
+        meterRegistry.counter("locks.counters.drift").increment(drift);
+    }
+
+    // Moves one lock from previous (null for a new lock) to current once the surrounding transaction commits
+    public void transitionAfterCommit(Long vendorId, Lock.Status previous, Lock.Status current) {
+        if (previous == current) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transition(vendorId, previous, current);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                transition(vendorId, previous, current);
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    public LockStatusSummary summary(Long vendorId) {
+        if (reconciledAt == null) {
+            throw new IllegalStateException("Lock counts are still loading");
+        }
+        LongAdder[] vendor = counters.get(vendorId);
+        Map<Lock.Status, Long> counts = new EnumMap<>(Lock.Status.class);
+        long total = 0;
+        for (Lock.Status status : STATUSES) {
+            // Clamped, a transition can land before the rebuild that counts the lock it moves
+            long count = vendor != null ? Math.max(0L, vendor[status.ordinal()].sum()) : 0L;
+            counts.put(status, count);
+            total += count;
+        }
+        return new LockStatusSummary(counts, total, reconciledAt);
+    }
+
+    private void transition(Long vendorId, Lock.Status previous, Lock.Status current) {
+        LongAdder[] vendor = vendorCounters(counters, vendorId);
+        if (previous != null) {
+            vendor[previous.ordinal()].decrement();
+        }
+        vendor[current.ordinal()].increment();
+    }
+
+    private static LongAdder[] vendorCounters(Map<Long, LongAdder[]> target, Long vendorId) {
+        return target.computeIfAbsent(vendorId, v -> {
+            LongAdder[] vendor = new LongAdder[STATUSES.length];
+            for (int i = 0; i < vendor.length; i++) {
+                vendor[i] = new LongAdder();
+            }
+            return vendor;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.excisemia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stand-in that accepts every message and only logs it, for development and tests
+@Component
+@ConditionalOnProperty(name = "locktrackpro.notifications.provider", havingValue = "log", matchIfMissing = true)
+public class LoggingPushProvider implements PushProvider {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingPushProvider.class);
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return 500;
+    }
+
+    @Override
+    public List<PushResult> send(List<PushMessage> messages) {
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            logger.debug("Push to user {}: {} - {}", message.getRecipientId(), message.getTitle(), message.getBody());
+            results.add(PushResult.delivered());
+        }
+        delivered.addAndGet(messages.size());
+        return results;
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+}
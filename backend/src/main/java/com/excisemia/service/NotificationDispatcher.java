@@ -0,0 +1,314 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Notification;
+import com.excisemia.repository.NotificationRepository;
+import com.excisemia.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Drains the notification queue off the request path. Each batch is claimed and leased in a short
+// transaction, coalesced into one push per recipient, sent to the provider in parallel chunks, and
+// the outcome is written back in bulk: sent, retried with exponential backoff, or dead-lettered.
+@Component
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Value("${locktrackpro.notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.notifications.batchSize:1000}")
+    private int batchSize;
+
+    @Value("${locktrackpro.notifications.sendConcurrency:4}")
+    private int sendConcurrency;
+
+    @Value("${locktrackpro.notifications.leaseSeconds:60}")
+    private long leaseSeconds;
+
+    @Value("${locktrackpro.notifications.maxAttempts:8}")
+    private int maxAttempts;
+
+    @Value("${locktrackpro.notifications.baseBackoffMs:2000}")
+    private long baseBackoffMs;
+
+    @Value("${locktrackpro.notifications.maxBackoffMs:600000}")
+    private long maxBackoffMs;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PushProvider pushProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService sendExecutor;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long lastGaugeRefresh;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadNumber = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "push-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("notifications.pending", pending, AtomicLong::get)
+                .description("Notifications waiting to be pushed")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${locktrackpro.notifications.pollIntervalMs:250}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (dispatchBatch() == batchSize) {
+            }
+            refreshGauge();
+        } catch (RuntimeException e) {
+            logger.error("Notification dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public int dispatchBatch() {
+        List<Notification> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Notification> due = notificationRepository.claimDue(now, PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                notificationRepository.lease(ids(due), now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<Notification>> byRecipient = batch.stream()
+                .collect(Collectors.groupingBy(Notification::getRecipientId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, String> tokens = new HashMap<>();
+        for (Object[] row : userRepository.findPushTokens(byRecipient.keySet())) {
+            tokens.put((Long) row[0], (String) row[1]);
+        }
+
+        Outcomes outcomes = new Outcomes();
+        List<PushMessage> messages = new ArrayList<>();
+        for (Map.Entry<Long, List<Notification>> entry : byRecipient.entrySet()) {
+            String token = tokens.get(entry.getKey());
+            if (token == null) {
+                outcomes.dead(entry.getValue(), "Recipient has no push token");
+            } else {
+                messages.add(coalesce(entry.getKey(), token, entry.getValue()));
+            }
+        }
+        send(messages, byRecipient, outcomes);
+
+        complete(outcomes);
+        return batch.size();
+    }
+
+    private void send(List<PushMessage> messages, Map<Long, List<Notification>> byRecipient, Outcomes outcomes) {
+        int chunkSize = Math.max(1, pushProvider.getMaxBatchSize());
+        List<List<PushMessage>> chunks = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            chunks.add(messages.subList(from, Math.min(from + chunkSize, messages.size())));
+        }
+
+        List<Future<List<PushResult>>> futures = new ArrayList<>();
+        for (List<PushMessage> chunk : chunks) {
+            futures.add(sendExecutor.submit(() -> pushProvider.send(chunk)));
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+            List<PushMessage> chunk = chunks.get(i);
+            List<PushResult> results;
+            try {
+                results = futures.get(i).get();
+                if (results == null || results.size() != chunk.size()) {
+                    throw new IllegalStateException("Provider returned " + (results == null ? 0 : results.size())
+                            + " results for " + chunk.size() + " messages");
+                }
+            } catch (Exception e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                logger.warn("Push provider {} failed on {} messages: {}", pushProvider.getName(), chunk.size(),
+                        cause.getMessage());
+                PushResult retry = PushResult.retry(pushProvider.getName() + ": " + cause.getMessage());
+                results = chunk.stream().map(message -> retry).collect(Collectors.toList());
+            }
+            for (int j = 0; j < chunk.size(); j++) {
+                PushMessage message = chunk.get(j);
+                PushResult result = results.get(j);
+                List<Notification> notifications = byRecipient.get(message.getRecipientId());
+                switch (result.getOutcome()) {
+                    case DELIVERED -> outcomes.sent.addAll(notifications);
+                    case RETRY -> outcomes.retry(notifications, result.getError());
+                    case REJECTED -> outcomes.dead(notifications, result.getError());
+                    case UNREGISTERED -> {
+                        outcomes.dead(notifications, result.getError());
+                        outcomes.unregisteredTokens.add(message.getToken());
+                    }
+                }
+            }
+        }
+    }
+
+    // Several pending notifications for one user become a single push
+    private PushMessage coalesce(Long recipientId, String token, List<Notification> notifications) {
+        List<Long> notificationIds = ids(notifications);
+        Notification latest = notifications.get(notifications.size() - 1);
+        if (notifications.size() == 1) {
+            Map<String, Object> data = readData(latest);
+            data.put("notificationIds", notificationIds);
+            return new PushMessage(recipientId, token, latest.getTitle(), latest.getBody(), data, notificationIds);
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("types", notifications.stream().map(Notification::getType).distinct().collect(Collectors.toList()));
+        data.put("notificationIds", notificationIds);
+        return new PushMessage(recipientId, token, notifications.size() + " new updates",
+                latest.getBody() + " (+" + (notifications.size() - 1) + " more)", data, notificationIds);
+    }
+
+    private Map<String, Object> readData(Notification notification) {
+        if (notification.getData() == null) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(notification.getData(),
+                    objectMapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, Object.class));
+        } catch (Exception e) {
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private void complete(Outcomes outcomes) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!outcomes.sent.isEmpty()) {
+                notificationRepository.markSent(ids(outcomes.sent), now, Notification.Status.SENT);
+            }
+            // Grouped so a provider outage costs one update per attempt count rather than one per row
+            Map<String, List<Long>> dead = new HashMap<>();
+            Map<Integer, Map<String, List<Long>>> retries = new HashMap<>();
+            for (Map.Entry<Notification, String> entry : outcomes.retries.entrySet()) {
+                // attempts was incremented by the lease, the in-memory copy predates it
+                int attempts = entry.getKey().getAttempts() + 1;
+                String error = truncate(entry.getValue());
+                if (attempts >= maxAttempts) {
+                    dead.computeIfAbsent(error, e -> new ArrayList<>()).add(entry.getKey().getId());
+                } else {
+                    retries.computeIfAbsent(attempts, a -> new HashMap<>())
+                            .computeIfAbsent(error, e -> new ArrayList<>()).add(entry.getKey().getId());
+                }
+            }
+            for (Map.Entry<Notification, String> entry : outcomes.dead.entrySet()) {
+                dead.computeIfAbsent(truncate(entry.getValue()), e -> new ArrayList<>()).add(entry.getKey().getId());
+            }
+            retries.forEach((attempts, byError) -> byError.forEach((error, ids) ->
+                    notificationRepository.scheduleRetry(ids, now.plus(Duration.ofMillis(backoffMillis(attempts))), error)));
+            dead.forEach((error, ids) -> notificationRepository.markDead(ids, error, Notification.Status.DEAD));
+            if (!outcomes.unregisteredTokens.isEmpty()) {
+                userRepository.clearPushTokens(outcomes.unregisteredTokens);
+            }
+        });
+
+        Timer deliveryLag = Timer.builder("notifications.delivery.lag")
+                .description("Time from queueing a notification to its delivery")
+                .register(meterRegistry);
+        for (Notification notification : outcomes.sent) {
+            deliveryLag.record(Duration.between(notification.getCreatedAt(), now));
+        }
+        long exhausted = outcomes.retries.keySet().stream()
+                .filter(notification -> notification.getAttempts() + 1 >= maxAttempts).count();
+        meterRegistry.counter("notifications.sent", "outcome", "delivered").increment(outcomes.sent.size());
+        meterRegistry.counter("notifications.sent", "outcome", "retried").increment(outcomes.retries.size() - exhausted);
+        meterRegistry.counter("notifications.sent", "outcome", "dead").increment(outcomes.dead.size() + exhausted);
+        if (outcomes.dead.size() + exhausted > 0) {
+            logger.warn("Dead-lettered {} notifications", outcomes.dead.size() + exhausted);
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = baseBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    private void refreshGauge() {
+        long now = System.currentTimeMillis();
+        if (now - lastGaugeRefresh < Duration.ofSeconds(5).toMillis()) {
+            return;
+        }
+        lastGaugeRefresh = now;
+        pending.set(notificationRepository.countPending());
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private static List<Long> ids(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getId).collect(Collectors.toList());
+    }
+
+    private static class Outcomes {
+        private final List<Notification> sent = new ArrayList<>();
+        private final Map<Notification, String> retries = new LinkedHashMap<>();
+        private final Map<Notification, String> dead = new LinkedHashMap<>();
+        private final Set<String> unregisteredTokens = new HashSet<>();
+
+        void retry(List<Notification> notifications, String error) {
+            notifications.forEach(notification -> retries.put(notification, error));
+        }
+
+        void dead(List<Notification> notifications, String error) {
+            notifications.forEach(notification -> dead.put(notification, error));
+        }
+    }
+}
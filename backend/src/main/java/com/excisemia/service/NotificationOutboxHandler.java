@@ -0,0 +1,145 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Notification;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.TripAnomaly;
+import com.excisemia.model.User;
+import com.excisemia.repository.NotificationRepository;
+import com.excisemia.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Turns lock assignments, new schedules and trip anomalies into queued notifications. Only users with a
+// registered push token get one, and events that already produced notifications (outbox redelivery) are skipped.
+@Component
+public class NotificationOutboxHandler implements OutboxEventHandler {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getName() {
+        return "notifications";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxEvent.LOCK_ASSIGNED.equals(eventType) || OutboxEvent.SCHEDULE_CREATED.equals(eventType)
+                || OutboxEvent.TRIP_ANOMALY.equals(eventType);
+    }
+
+    @Override
+    @Transactional
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> seen = new HashSet<>(notificationRepository.findExistingEventIds(
+                events.stream().map(OutboxEvent::getId).collect(Collectors.toList())));
+        List<OutboxEvent> fresh = events.stream().filter(event -> !seen.contains(event.getId())).collect(Collectors.toList());
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<OutboxEvent, Map<String, Object>> payloads = new HashMap<>();
+        Set<Long> assignees = new HashSet<>();
+        for (OutboxEvent event : fresh) {
+            Map<String, Object> payload = outboxService.readPayload(event);
+            payloads.put(event, payload);
+            if (OutboxEvent.LOCK_ASSIGNED.equals(event.getEventType()) && payload.get("assignedTo") != null) {
+                assignees.add(((Number) payload.get("assignedTo")).longValue());
+            }
+        }
+        Set<Long> reachableAssignees = assignees.isEmpty() ? Set.of()
+                : new HashSet<>(userRepository.findPushRecipients(assignees));
+        Map<Long, List<Long>> trackingUsersByVendor = new HashMap<>();
+        Map<Long, List<Long>> adminsByVendor = new HashMap<>();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (OutboxEvent event : fresh) {
+            Map<String, Object> payload = payloads.get(event);
+            if (OutboxEvent.LOCK_ASSIGNED.equals(event.getEventType())) {
+                Object assignedTo = payload.get("assignedTo");
+                if (assignedTo == null || !reachableAssignees.contains(((Number) assignedTo).longValue())) {
+                    continue;
+                }
+                rows.add(row(((Number) assignedTo).longValue(), event, Notification.LOCK_ASSIGNED, "Lock assigned",
+                        "Lock " + payload.get("lockNumber") + " has been assigned to you",
+                        data(Notification.LOCK_ASSIGNED, "lockId", payload.get("lockId")), now));
+            } else if (OutboxEvent.TRIP_ANOMALY.equals(event.getEventType())) {
+                List<Long> recipients = adminsByVendor.computeIfAbsent(event.getVendorId(),
+                        vendorId -> userRepository.findPushRecipientsByVendorAndRole(vendorId, User.Role.ADMIN));
+                String body = anomalyBody(payload);
+                String data = data(Notification.TRIP_ANOMALY, "tripId", payload.get("tripId"));
+                for (Long recipient : recipients) {
+                    rows.add(row(recipient, event, Notification.TRIP_ANOMALY, "Trip anomaly", body, data, now));
+                }
+            } else {
+                List<Long> recipients = trackingUsersByVendor.computeIfAbsent(event.getVendorId(),
+                        vendorId -> userRepository.findPushRecipientsByVendorAndRole(vendorId, User.Role.TRACKING));
+                Object note = payload.get("note");
+                String body = "Schedule for " + payload.get("date") + (note != null ? ": " + note : "");
+                String data = data(Notification.SCHEDULE_CREATED, "scheduleId", payload.get("scheduleId"));
+                for (Long recipient : recipients) {
+                    rows.add(row(recipient, event, Notification.SCHEDULE_CREATED, "New schedule", body, data, now));
+                }
+            }
+        }
+
+        // A schedule can fan out to every tracking user of a vendor, so rows go in as one JDBC batch
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO notifications (recipient_id, vendor_id, event_id, type, title, body, " +
+                    "data, status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)", rows);
+        }
+    }
+
+    private static String anomalyBody(Map<String, Object> payload) {
+        double value = ((Number) payload.get("value")).doubleValue();
+        double expected = ((Number) payload.get("expected")).doubleValue();
+        if (TripAnomaly.Metric.DETENTION.name().equals(payload.get("metric"))) {
+            return String.format("Trip %s was detained %.0f min, usually %.0f min",
+                    payload.get("tripId"), value, expected);
+        }
+        return String.format("Trip %s covered %.0f km, usually %.0f km", payload.get("tripId"), value, expected);
+    }
+
+    private Object[] row(Long recipientId, OutboxEvent event, String type, String title, String body, String data,
+                         LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return new Object[] {recipientId, event.getVendorId(), event.getId(), type, title,
+                body.length() > 500 ? body.substring(0, 500) : body, data, Notification.Status.PENDING.name(),
+                timestamp, timestamp};
+    }
+
+    private String data(String type, String key, Object value) {
+        try {
+            return objectMapper.writeValueAsString(OutboxService.payload("type", type, key, value));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize notification data: " + e.getMessage(), e);
+        }
+    }
+}
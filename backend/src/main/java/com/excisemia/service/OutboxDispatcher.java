@@ -0,0 +1,277 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Drains the outbox in batches. A claim leases the events (pushes next_attempt_at forward) in its
+// own short transaction, handlers run outside it, and the outcome is written back afterwards, so a
+// crash mid-delivery only means the lease expires and the batch is delivered again.
+@Component
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Value("${locktrackpro.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.outbox.batchSize:200}")
+    private int batchSize;
+
+    @Value("${locktrackpro.outbox.leaseSeconds:60}")
+    private long leaseSeconds;
+
+    @Value("${locktrackpro.outbox.maxAttempts:10}")
+    private int maxAttempts;
+
+    @Value("${locktrackpro.outbox.baseBackoffMs:1000}")
+    private long baseBackoffMs;
+
+    @Value("${locktrackpro.outbox.maxBackoffMs:300000}")
+    private long maxBackoffMs;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<OutboxEventHandler> handlers = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private volatile long lastGaugeRefresh;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not yet dispatched or parked")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest pending outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${locktrackpro.outbox.pollIntervalMs:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // A full batch means there is probably more waiting
+            while (dispatchBatch() == batchSize) {
+            }
+            refreshGauges();
+        } catch (RuntimeException e) {
+            logger.error("Outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public int dispatchBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = claim(now);
+            if (!due.isEmpty()) {
+                outboxEventRepository.lease(ids(due), now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Set<String>> handled = new HashMap<>();
+        for (OutboxEvent event : batch) {
+            handled.put(event.getId(), handlerNames(event.getHandledBy()));
+        }
+        Set<OutboxEvent> failed = new LinkedHashSet<>();
+        String error = null;
+        for (OutboxEventHandler handler : handlers) {
+            // A handler that already succeeded on an event in an earlier attempt does not see it again
+            List<OutboxEvent> events = batch.stream()
+                    .filter(event -> handler.supports(event.getEventType()))
+                    .filter(event -> !handled.get(event.getId()).contains(handler.getName()))
+                    .collect(Collectors.toList());
+            if (events.isEmpty()) {
+                continue;
+            }
+            try {
+                handler.handle(events);
+                for (OutboxEvent event : events) {
+                    handled.get(event.getId()).add(handler.getName());
+                }
+            } catch (Exception e) {
+                logger.warn("Outbox handler {} failed on {} events: {}",
+                        handler.getName(), events.size(), e.getMessage());
+                failed.addAll(events);
+                error = handler.getName() + ": " + e.getMessage();
+            }
+        }
+
+        complete(batch, handled, failed, error);
+        return batch.size();
+    }
+
+    // Due aggregate heads plus the events queued behind them, up to batchSize, in id order
+    private List<OutboxEvent> claim(LocalDateTime now) {
+        List<OutboxEvent> heads = outboxEventRepository.claimDue(now, PageRequest.of(0, batchSize));
+        if (heads.isEmpty() || heads.size() == batchSize) {
+            return heads;
+        }
+        Set<String> claimed = heads.stream().map(OutboxDispatcher::aggregate).collect(Collectors.toSet());
+        Set<Long> headIds = new HashSet<>(ids(heads));
+        List<Long> aggregateIds = heads.stream().map(OutboxEvent::getAggregateId).distinct()
+                .collect(Collectors.toList());
+        Long afterId = heads.stream().map(OutboxEvent::getId).min(Long::compare).orElseThrow();
+
+        List<OutboxEvent> due = new ArrayList<>(heads);
+        Set<String> stopped = new HashSet<>();
+        List<OutboxEvent> queued = outboxEventRepository.findQueuedBehind(aggregateIds, afterId,
+                PageRequest.of(0, batchSize));
+        for (OutboxEvent event : queued) {
+            if (due.size() == batchSize) {
+                break;
+            }
+            String aggregate = aggregate(event);
+            if (!claimed.contains(aggregate) || headIds.contains(event.getId()) || stopped.contains(aggregate)) {
+                continue;
+            }
+            if (event.getStatus() != OutboxEvent.Status.PENDING) {
+                // Nothing behind a parked event may overtake it
+                stopped.add(aggregate);
+                continue;
+            }
+            due.add(event);
+        }
+        due.sort(Comparator.comparing(OutboxEvent::getId));
+        return due;
+    }
+
+    private void complete(List<OutboxEvent> batch, Map<Long, Set<String>> handled, Set<OutboxEvent> failed,
+                          String error) {
+        LocalDateTime now = LocalDateTime.now();
+        // Once an event of an aggregate fails, every later event of that aggregate in the batch waits
+        // behind it, even if all of its own handlers succeeded
+        Map<String, Long> firstFailure = new HashMap<>();
+        for (OutboxEvent event : failed) {
+            firstFailure.merge(aggregate(event), event.getId(), Math::min);
+        }
+        List<OutboxEvent> held = new ArrayList<>();
+        List<OutboxEvent> delivered = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            if (failed.contains(event)) {
+                continue;
+            }
+            Long failure = firstFailure.get(aggregate(event));
+            if (failure != null && failure < event.getId()) {
+                held.add(event);
+            } else {
+                delivered.add(event);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markDispatched(ids(delivered), now, OutboxEvent.Status.DISPATCHED);
+            }
+            for (OutboxEvent event : failed) {
+                // attempts was incremented by the lease, the in-memory copy predates it
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+                event.setHandledBy(String.join(",", handled.get(event.getId())));
+                if (attempts >= maxAttempts) {
+                    event.setStatus(OutboxEvent.Status.PARKED);
+                    logger.error("Outbox event {} ({}) parked after {} attempts: {}",
+                            event.getId(), event.getEventType(), attempts, error);
+                } else {
+                    event.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMillis(attempts))));
+                }
+                outboxEventRepository.save(event);
+            }
+            for (OutboxEvent event : held) {
+                // Not its own failure: the attempt taken by the lease is given back, and the event
+                // is claimed again with the failed one
+                event.setHandledBy(String.join(",", handled.get(event.getId())));
+                event.setNextAttemptAt(now);
+                outboxEventRepository.save(event);
+            }
+        });
+
+        for (OutboxEvent event : delivered) {
+            Timer.builder("outbox.delivery.lag")
+                    .description("Time from recording an outbox event to its delivery")
+                    .tag("type", event.getEventType())
+                    .register(meterRegistry)
+                    .record(Duration.between(event.getCreatedAt(), now));
+        }
+        meterRegistry.counter("outbox.events", "outcome", "dispatched").increment(delivered.size());
+        long parked = failed.stream().filter(event -> event.getStatus() == OutboxEvent.Status.PARKED).count();
+        meterRegistry.counter("outbox.events", "outcome", "retried").increment(failed.size() - parked);
+        meterRegistry.counter("outbox.events", "outcome", "parked").increment(parked);
+        meterRegistry.counter("outbox.events", "outcome", "held").increment(held.size());
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = baseBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    private void refreshGauges() {
+        long now = System.currentTimeMillis();
+        if (now - lastGaugeRefresh < Duration.ofSeconds(5).toMillis()) {
+            return;
+        }
+        lastGaugeRefresh = now;
+        pending.set(outboxEventRepository.countPending());
+        LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+        oldestPendingAgeSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds()));
+    }
+
+    private static String aggregate(OutboxEvent event) {
+        return event.getAggregateType() + ":" + event.getAggregateId();
+    }
+
+    private static Set<String> handlerNames(String handledBy) {
+        Set<String> names = new HashSet<>();
+        if (handledBy != null && !handledBy.isEmpty()) {
+            names.addAll(Arrays.asList(handledBy.split(",")));
+        }
+        return names;
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,19 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+
+import java.util.List;
+
+// In-process consumer of outbox events. Delivery is at least once: events are redelivered to a
+// handler that failed on them, and to every handler after a crash before the outcome is written,
+// so handlers must tolerate seeing an event again.
+public interface OutboxEventHandler {
+
+    String getName();
+
+    boolean supports(String eventType);
+
+    // Events arrive in id order, so events of one aggregate are in the order they were recorded.
+    // Throwing fails every event passed in; handlers that succeeded on them are not called again.
+    void handle(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,101 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+    // Aggregate types. Remarks and trips belong to their lock's aggregate so that everything
+    // that happens to one lock is delivered in order.
+    public static final String LOCK = "LOCK";
+    public static final String SCHEDULE = "SCHEDULE";
+    public static final String USER = "USER";
+    public static final String VENDOR = "VENDOR";
+
+    // Keeps a TRIPS_REMOVED payload well inside the 4000 character column
+    private static final int REMOVED_TRIPS_PER_EVENT = 150;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Must join the caller's transaction so the event commits or rolls back with the change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(String aggregateType, Long aggregateId, Long vendorId, String eventType,
+                              Map<String, Object> payload) {
+        return outboxEventRepository.save(event(aggregateType, aggregateId, vendorId, eventType, payload));
+    }
+
+    // Set-based variant for bulk writers: one JDBC batch instead of an insert per event
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<OutboxEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            rows.add(new Object[] {event.getAggregateType(), event.getAggregateId(), event.getVendorId(),
+                    event.getEventType(), event.getPayload(), event.getStatus().name(),
+                    Timestamp.valueOf(event.getNextAttemptAt()), Timestamp.valueOf(event.getCreatedAt())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (aggregate_type, aggregate_id, vendor_id, event_type, " +
+                "payload, status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)", rows);
+    }
+
+    // Trips deleted or moved to the archive in bulk, announced in groups so per-node trip caches drop them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTripsRemoved(Long vendorId, List<Long> tripIds) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int from = 0; from < tripIds.size(); from += REMOVED_TRIPS_PER_EVENT) {
+            List<Long> group = tripIds.subList(from, Math.min(tripIds.size(), from + REMOVED_TRIPS_PER_EVENT));
+            events.add(event(VENDOR, vendorId, vendorId, OutboxEvent.TRIPS_REMOVED, payload("tripIds", group)));
+        }
+        if (!events.isEmpty()) {
+            recordAll(events);
+        }
+    }
+
+    public OutboxEvent event(String aggregateType, Long aggregateId, Long vendorId, String eventType,
+                             Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox payload: " + e.getMessage(), e);
+        }
+        return new OutboxEvent(aggregateType, aggregateId, vendorId, eventType, json);
+    }
+
+    // Alternating keys and values; unlike Map.of, values may be null
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
+            payload.put(String.valueOf(keysAndValues[i]), keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+
+    public Map<String, Object> readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(),
+                    objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read outbox payload: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.excisemia.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Moves completed trips and remarks older than the archive cutoff into trips_archive / remarks_archive, then lets
+// PartitionManager drop the monthly partitions that are left empty. Moved rows drop out of the next query, so
+// the position only counts chunks.
+@Component
+public class PartitionArchiveJob implements ClusterJob {
+    public static final String NAME = "partition-archive";
+
+    @Value("${locktrackpro.archive.intervalMinutes:360}")
+    private long intervalMinutes;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        LocalDateTime cutoff = partitionManager.archiveCutoff();
+        if (cutoff == null) {
+            return null;
+        }
+        int trips = archiveService.archiveTrips(vendorId, cutoff, chunkSize);
+        int remarks = archiveService.archiveRemarks(vendorId, cutoff, chunkSize);
+        meterRegistry.counter("jobs.archived", "table", "trips").increment(trips);
+        meterRegistry.counter("jobs.archived", "table", "remarks").increment(remarks);
+        return trips == chunkSize || remarks == chunkSize ? position + 1 : null;
+    }
+
+    @Override
+    public void afterRun() {
+        partitionManager.maintain();
+    }
+}
@@ -0,0 +1,155 @@
+package com.excisemia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Trips and remarks are partitioned by month on start_time / timestamp. On PostgreSQL that is native range
+// partitioning, set up once with db/postgres/partition-trips-remarks.sql; this class then creates partitions
+// ahead of time and drops the ones PartitionArchiveJob has emptied. Elsewhere (H2 in dev and tests) the tables
+// stay plain and the same month bounds are served by the (vendor_id, time) indexes.
+//
+// Rows older than the archive cutoff belong in trips_archive / remarks_archive. Live reads are bounded by
+// hotWindowStart() so the planner can prune every partition before it.
+@Component
+@Order(0)
+public class PartitionManager implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionManager.class);
+    private static final LocalDateTime UNBOUNDED = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Partitioned table -> partition key column
+    public static final Map<String, String> TABLES = new LinkedHashMap<>();
+    static {
+        TABLES.put("trips", "start_time");
+        TABLES.put("remarks", "timestamp");
+    }
+
+    // Whole months kept in the live tables before rows move to the archive, 0 keeps everything live
+    @Value("${locktrackpro.archive.retentionMonths:12}")
+    private int retentionMonths;
+
+    @Value("${locktrackpro.partitioning.monthsAhead:3}")
+    private int monthsAhead;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean nativePartitioning;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        nativePartitioning = detectNativePartitioning();
+        ensureArchiveTables();
+        if (nativePartitioning) {
+            logger.info("Trips and remarks use native monthly partitions, created {} months ahead", monthsAhead);
+            createUpcomingPartitions();
+        }
+    }
+
+    public boolean isNativePartitioning() {
+        return nativePartitioning;
+    }
+
+    // Start of the oldest live month; rows before it are archived. Null when archiving is off.
+    public LocalDateTime archiveCutoff() {
+        if (retentionMonths <= 0) {
+            return null;
+        }
+        return LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+    }
+
+    // Lower bound for live reads on trips and remarks
+    public LocalDateTime hotWindowStart() {
+        LocalDateTime cutoff = archiveCutoff();
+        return cutoff != null ? cutoff : UNBOUNDED;
+    }
+
+    // Called after each archive run: keeps partitions ahead of the clock and drops emptied months
+    public void maintain() {
+        if (!nativePartitioning) {
+            return;
+        }
+        createUpcomingPartitions();
+        LocalDateTime cutoff = archiveCutoff();
+        if (cutoff != null) {
+            dropEmptyPartitionsBefore(YearMonth.from(cutoff));
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (String table : TABLES.keySet()) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                YearMonth month = current.plusMonths(i);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month) + " PARTITION OF " + table
+                        + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+        }
+    }
+
+    private void dropEmptyPartitionsBefore(YearMonth cutoff) {
+        for (String table : TABLES.keySet()) {
+            Pattern pattern = Pattern.compile(table + "_p(\\d{6})");
+            List<String> partitions = jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, table);
+            for (String partition : partitions) {
+                Matcher matcher = pattern.matcher(partition);
+                if (!matcher.matches() || !YearMonth.parse(matcher.group(1), SUFFIX).isBefore(cutoff)) {
+                    continue;
+                }
+                // Active trips are never archived, so a month can stay behind until they complete
+                Boolean empty = jdbcTemplate.queryForObject(
+                        "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+                if (Boolean.TRUE.equals(empty)) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    logger.info("Dropped archived partition {}", partition);
+                }
+            }
+        }
+    }
+
+    private void ensureArchiveTables() {
+        for (Map.Entry<String, String> table : TABLES.entrySet()) {
+            String archive = table.getKey() + "_archive";
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archive + " AS SELECT * FROM " + table.getKey()
+                    + " WITH NO DATA");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + archive + "_vendor_time ON " + archive
+                    + " (vendor_id, " + table.getValue() + ")");
+        }
+    }
+
+    private boolean detectNativePartitioning() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return false;
+        }
+        Integer partitioned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table t JOIN pg_class c ON c.oid = t.partrelid " +
+                "WHERE c.relname IN ('trips', 'remarks')", Integer.class);
+        return partitioned != null && partitioned == TABLES.size();
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+}
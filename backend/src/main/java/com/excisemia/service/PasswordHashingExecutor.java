@@ -0,0 +1,92 @@
+package com.excisemia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// BCrypt is deliberately CPU-bound, so sign-in and sign-up run on a pool sized to the cores
+// instead of on Tomcat threads. The queue is bounded and overflow is rejected immediately,
+// which keeps an auth burst from occupying the threads the tracking endpoints need.
+@Component
+public class PasswordHashingExecutor {
+    public static final String METRIC_NAME = "auth.hashing";
+
+    // 0 means one thread per available processor
+    @Value("${locktrackpro.auth.hashingThreads:0}")
+    private int threads;
+
+    @Value("${locktrackpro.auth.hashingQueueCapacity:64}")
+    private int queueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TaskDecorator taskDecorator;
+
+    private ThreadPoolTaskExecutor executor;
+    private Counter rejected;
+    private Timer queueWait;
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("auth-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        if (taskDecorator != null) {
+            executor.setTaskDecorator(taskDecorator);
+        }
+        executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), METRIC_NAME, Tags.empty()).bindTo(meterRegistry);
+        rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Sign-in and sign-up requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+        queueWait = Timer.builder(METRIC_NAME + ".queue.wait")
+                .description("Time a hashing task waited for a thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Only takes effect when set before the bean starts
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    // Throws TaskRejectedException when every thread is busy and the queue is full
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submitCompletable(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            });
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+}
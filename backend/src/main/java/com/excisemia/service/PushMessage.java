@@ -0,0 +1,31 @@
+package com.excisemia.service;
+
+import java.util.List;
+import java.util.Map;
+
+// One push to one device; it may carry several coalesced notifications for the same recipient
+public class PushMessage {
+    private final Long recipientId;
+    private final String token;
+    private final String title;
+    private final String body;
+    private final Map<String, Object> data;
+    private final List<Long> notificationIds;
+
+    public PushMessage(Long recipientId, String token, String title, String body, Map<String, Object> data,
+                       List<Long> notificationIds) {
+        this.recipientId = recipientId;
+        this.token = token;
+        this.title = title;
+        this.body = body;
+        this.data = data;
+        this.notificationIds = notificationIds;
+    }
+
+    public Long getRecipientId() { return recipientId; }
+    public String getToken() { return token; }
+    public String getTitle() { return title; }
+    public String getBody() { return body; }
+    public Map<String, Object> getData() { return data; }
+    public List<Long> getNotificationIds() { return notificationIds; }
+}
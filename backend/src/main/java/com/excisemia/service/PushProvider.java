@@ -0,0 +1,14 @@
+package com.excisemia.service;
+
+import java.util.List;
+
+// Delivery backend for NotificationDispatcher, selected with locktrackpro.notifications.provider
+public interface PushProvider {
+    String getName();
+
+    // Largest number of messages the provider accepts in one send call
+    int getMaxBatchSize();
+
+    // One result per message, in the same order. Throwing marks the whole batch for retry.
+    List<PushResult> send(List<PushMessage> messages) throws Exception;
+}
@@ -0,0 +1,32 @@
+package com.excisemia.service;
+
+public class PushResult {
+    public enum Outcome {
+        // Accepted by the provider
+        DELIVERED,
+        // Transient failure (throttling, timeout, provider outage); retried with backoff
+        RETRY,
+        // Permanent failure for this message; dead-lettered without retrying
+        REJECTED,
+        // The device token is no longer valid; dead-lettered and the token is cleared
+        UNREGISTERED
+    }
+
+    private static final PushResult DELIVERED = new PushResult(Outcome.DELIVERED, null);
+
+    private final Outcome outcome;
+    private final String error;
+
+    private PushResult(Outcome outcome, String error) {
+        this.outcome = outcome;
+        this.error = error;
+    }
+
+    public static PushResult delivered() { return DELIVERED; }
+    public static PushResult retry(String error) { return new PushResult(Outcome.RETRY, error); }
+    public static PushResult rejected(String error) { return new PushResult(Outcome.REJECTED, error); }
+    public static PushResult unregistered(String error) { return new PushResult(Outcome.UNREGISTERED, error); }
+
+    public Outcome getOutcome() { return outcome; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,163 @@
+package com.excisemia.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Mergeable histogram of non-negative whole minutes with about 1% relative error on quantiles. Values below
+// EXACT_LIMIT get a bucket each; above it bucket i covers [EXACT_LIMIT * GAMMA^(i - EXACT_LIMIT), ... * GAMMA),
+// so every bucket is at most 2% wide and a quantile is reported as its bucket's midpoint. Values are capped at
+// MAX_VALUE, which bounds a sketch to MAX_BUCKETS counters; serialized, only non-empty buckets are written as
+// varints, a few hundred bytes for a typical day and never more than about 4 KB.
+public final class QuantileSketch {
+    private static final byte VERSION = 1;
+    static final int EXACT_LIMIT = 64;
+    static final double GAMMA = 1.02;
+    static final long MAX_VALUE = 10_000_000L;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    static final int MAX_BUCKETS = bucket(MAX_VALUE) + 1;
+
+    private long[] counts = new long[0];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void add(long value) {
+        value = Math.max(0, Math.min(value, MAX_VALUE));
+        int index = bucket(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(MAX_BUCKETS, Math.max(index + 1, counts.length * 2)));
+        }
+        counts[index]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Long getMin() {
+        return count > 0 ? min : null;
+    }
+
+    public Long getMax() {
+        return count > 0 ? max : null;
+    }
+
+    public Double getMean() {
+        return count > 0 ? (double) sum / count : null;
+    }
+
+    // Smallest value with at least q of the values at or below it, null when empty
+    public Double quantile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, midpoint(i)));
+            }
+        }
+        return (double) max;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        writeVarLong(out, count);
+        if (count == 0) {
+            return out.toByteArray();
+        }
+        writeVarLong(out, sum);
+        writeVarLong(out, min);
+        writeVarLong(out, max);
+        int previous = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (in.get() != VERSION) {
+            throw new RuntimeException("Unsupported sketch version: " + data[0]);
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = readVarLong(in);
+        if (sketch.count == 0) {
+            return sketch;
+        }
+        sketch.sum = readVarLong(in);
+        sketch.min = readVarLong(in);
+        sketch.max = readVarLong(in);
+        sketch.counts = new long[bucket(sketch.max) + 1];
+        int index = -1;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            sketch.counts[index] = readVarLong(in);
+        }
+        return sketch;
+    }
+
+    static int bucket(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        return EXACT_LIMIT + (int) (Math.log((double) value / EXACT_LIMIT) / LOG_GAMMA);
+    }
+
+    private static double midpoint(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        double lower = EXACT_LIMIT * Math.pow(GAMMA, index - EXACT_LIMIT);
+        return lower * (1 + GAMMA) / 2;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.excisemia.service;
 
 import com.excisemia.dto.RemarkRequest;
+import com.excisemia.model.OutboxEvent;
 import com.excisemia.model.Remark;
 import com.excisemia.repository.RemarkRepository;
 import com.excisemia.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,14 +17,25 @@ public class RemarkService {
     @Autowired
     private RemarkRepository remarkRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Transactional(readOnly = true)
     public List<Remark> getRemarksByVendor(Long vendorId) {
-        return remarkRepository.findByVendorIdOrderByTimestampDesc(vendorId);
+        return remarkRepository.findByVendorIdAndTimestampGreaterThanEqualOrderByTimestampDesc(vendorId,
+                partitionManager.hotWindowStart());
     }
 
+    @Transactional(readOnly = true)
     public List<Remark> getRemarksByLockAndVendor(Long lockId, Long vendorId) {
-        return remarkRepository.findByLockIdAndVendorIdOrderByTimestampDesc(lockId, vendorId);
+        return remarkRepository.findByLockIdAndVendorIdAndTimestampGreaterThanEqualOrderByTimestampDesc(lockId, vendorId,
+                partitionManager.hotWindowStart());
     }
 
+    @Transactional
     public Remark createRemark(RemarkRequest remarkRequest, UserPrincipal userPrincipal) {
         Remark remark = new Remark(
                 remarkRequest.getLockId(),
@@ -31,6 +44,10 @@ public class RemarkService {
                 remarkRequest.getMessage(),
                 userPrincipal.getVendorId()
         );
-        return remarkRepository.save(remark);
+        remark = remarkRepository.save(remark);
+        outboxService.record(OutboxService.LOCK, remark.getLockId(), remark.getVendorId(), OutboxEvent.REMARK_CREATED,
+                OutboxService.payload("remarkId", remark.getId(), "lockId", remark.getLockId(),
+                        "userId", remark.getUserId(), "message", remark.getMessage()));
+        return remark;
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.excisemia.service;
+
+import com.excisemia.repository.NotificationRepository;
+import com.excisemia.repository.OutboxEventRepository;
+import com.excisemia.repository.TripAnomalyRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.TripSketchEventRepository;
+import com.excisemia.repository.TripStatsEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Deletes dispatched outbox events with their sketch and statistics dedupe entries, sent notifications, old anomalies
+// and, when tripDays is set, old completed trips.
+// Deleted rows drop out of the next query, so the position only counts chunks.
+@Component
+public class RetentionPurgeJob implements ClusterJob {
+    public static final String NAME = "retention-purge";
+
+    @Value("${locktrackpro.jobs.retention.intervalMinutes:60}")
+    private long intervalMinutes;
+
+    @Value("${locktrackpro.outbox.retentionHours:24}")
+    private long outboxRetentionHours;
+
+    @Value("${locktrackpro.notifications.retentionHours:72}")
+    private long notificationRetentionHours;
+
+    @Value("${locktrackpro.anomaly.retentionDays:90}")
+    private long anomalyRetentionDays;
+
+    // 0 keeps trips forever
+    @Value("${locktrackpro.jobs.retention.tripDays:0}")
+    private long tripRetentionDays;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripSketchEventRepository tripSketchEventRepository;
+
+    @Autowired
+    private TripStatsEventRepository tripStatsEventRepository;
+
+    @Autowired
+    private TripAnomalyRepository tripAnomalyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dispatchedBefore = now.minusHours(outboxRetentionHours);
+        Pageable page = PageRequest.of(0, chunkSize);
+        boolean more = purge("outbox_events", outboxEventRepository,
+                outboxEventRepository.findDispatchedIdsBefore(vendorId, dispatchedBefore, page), chunkSize);
+        more |= purge("trip_sketch_events", tripSketchEventRepository,
+                tripSketchEventRepository.findIdsAppliedBefore(vendorId, dispatchedBefore, page), chunkSize);
+        more |= purge("trip_stats_events", tripStatsEventRepository,
+                tripStatsEventRepository.findIdsAppliedBefore(vendorId, dispatchedBefore, page), chunkSize);
+        more |= purge("notifications", notificationRepository, notificationRepository.findSentIdsBefore(vendorId,
+                now.minusHours(notificationRetentionHours), page), chunkSize);
+        more |= purge("trip_anomalies", tripAnomalyRepository, tripAnomalyRepository.findIdsDetectedBefore(vendorId,
+                now.minusDays(anomalyRetentionDays), page), chunkSize);
+        if (tripRetentionDays > 0) {
+            List<Long> tripIds = tripRepository.findCompletedIdsEndedBefore(vendorId,
+                    now.minusDays(tripRetentionDays), page);
+            more |= purge("trips", tripRepository, tripIds, chunkSize);
+            outboxService.recordTripsRemoved(vendorId, tripIds);
+        }
+        return more ? position + 1 : null;
+    }
+
+    private boolean purge(String table, JpaRepository<?, Long> repository, List<Long> ids, int chunkSize) {
+        if (!ids.isEmpty()) {
+            repository.deleteAllByIdInBatch(ids);
+            meterRegistry.counter("jobs.purged", "table", table).increment(ids.size());
+        }
+        return ids.size() == chunkSize;
+    }
+}
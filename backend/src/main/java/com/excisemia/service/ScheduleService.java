@@ -1,10 +1,12 @@
 package com.excisemia.service;
 
 import com.excisemia.dto.ScheduleRequest;
+import com.excisemia.model.OutboxEvent;
 import com.excisemia.model.Schedule;
 import com.excisemia.repository.ScheduleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,10 +16,15 @@ public class ScheduleService {
     @Autowired
     private ScheduleRepository scheduleRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional(readOnly = true)
     public List<Schedule> getSchedulesByVendor(Long vendorId) {
         return scheduleRepository.findByVendorIdOrderByDateDesc(vendorId);
     }
 
+    @Transactional
     public Schedule createSchedule(ScheduleRequest scheduleRequest, Long createdBy, Long vendorId) {
         Schedule schedule = new Schedule(
                 scheduleRequest.getDate(),
@@ -25,9 +32,14 @@ public class ScheduleService {
                 createdBy,
                 vendorId
         );
-        return scheduleRepository.save(schedule);
+        schedule = scheduleRepository.save(schedule);
+        outboxService.record(OutboxService.SCHEDULE, schedule.getId(), vendorId, OutboxEvent.SCHEDULE_CREATED,
+                OutboxService.payload("scheduleId", schedule.getId(), "date", schedule.getDate(),
+                        "note", schedule.getNote(), "createdBy", createdBy));
+        return schedule;
     }
 
+    @Transactional
     public void deleteSchedule(Long id, Long vendorId) {
         Schedule schedule = scheduleRepository.findByIdAndVendorId(id, vendorId)
                 .orElseThrow(() -> new RuntimeException("Schedule not found or access denied"));
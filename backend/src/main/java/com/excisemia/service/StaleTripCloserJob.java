@@ -0,0 +1,55 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Trip;
+import com.excisemia.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Completes trips that have been ACTIVE longer than staleAfterHours, frees their lock and derives detention
+@Component
+public class StaleTripCloserJob implements ClusterJob {
+    public static final String NAME = "stale-trip-closer";
+
+    @Value("${locktrackpro.jobs.staleTrips.intervalMinutes:15}")
+    private long intervalMinutes;
+
+    @Value("${locktrackpro.jobs.staleTrips.staleAfterHours:48}")
+    private long staleAfterHours;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public Long processChunk(Long vendorId, long position, int chunkSize) {
+        // A trip goes stale long before it leaves the hot window, so only trips left while this job was switched
+        // off for the whole window are out of reach
+        List<Trip> stale = tripRepository.findStaleActive(vendorId, partitionManager.hotWindowStart(),
+                LocalDateTime.now().minusHours(staleAfterHours), position, PageRequest.of(0, chunkSize));
+        for (Trip trip : stale) {
+            tripService.closeStaleTrip(trip, NAME);
+        }
+        return stale.size() < chunkSize ? null : stale.get(stale.size() - 1).getId();
+    }
+}
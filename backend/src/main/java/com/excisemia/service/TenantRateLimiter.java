@@ -0,0 +1,173 @@
+package com.excisemia.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets per vendor and per user, kept as a single AtomicLong each using the generic cell
+// rate algorithm: the value is the time at which the bucket would be full again, and taking a
+// token is one compare-and-set that pushes it forward by the emission interval.
+// Buckets that have refilled are swept on a timer. maxBuckets is a hard cap: while the map is
+// full, callers without a bucket are turned away until the next sweep frees room.
+@Component
+public class TenantRateLimiter {
+
+    @Value("${locktrackpro.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.ratelimit.vendorPerSecond:200}")
+    private double vendorPerSecond;
+
+    @Value("${locktrackpro.ratelimit.userPerSecond:20}")
+    private double userPerSecond;
+
+    // Bucket size expressed as seconds of sustained rate
+    @Value("${locktrackpro.ratelimit.burstSeconds:5}")
+    private double burstSeconds;
+
+    // Comma-separated "METHOD /path/pattern=vendorPerSecond/userPerSecond" overrides, first match wins
+    @Value("${locktrackpro.ratelimit.endpoints:}")
+    private String endpointOverrides;
+
+    @Value("${locktrackpro.ratelimit.maxBuckets:100000}")
+    private int maxBuckets;
+
+    @Value("${locktrackpro.ratelimit.sweepIntervalMs:10000}")
+    private long sweepIntervalMs;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<EndpointRule> rules = new ArrayList<>();
+    private EndpointRule defaultRule;
+
+    @PostConstruct
+    public void init() {
+        defaultRule = new EndpointRule("default", null, null, vendorPerSecond, userPerSecond);
+        for (String override : StringUtils.commaDelimitedListToStringArray(endpointOverrides)) {
+            if (StringUtils.hasText(override)) {
+                rules.add(parse(override.trim()));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public EndpointRule ruleFor(String method, String path) {
+        for (EndpointRule rule : rules) {
+            if (rule.method.equals(method) && pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+    public long tryAcquireVendor(Long vendorId, EndpointRule rule) {
+        return tryAcquire("v:" + vendorId + '|' + rule.name, rule.vendorIntervalNanos);
+    }
+
+    public long tryAcquireUser(Long userId, EndpointRule rule) {
+        return tryAcquire("u:" + userId + '|' + rule.name, rule.userIntervalNanos);
+    }
+
+    // Gives back a user token taken for a request the vendor bucket then turned away
+    public void refundUser(Long userId, EndpointRule rule) {
+        refund("u:" + userId + '|' + rule.name, rule.userIntervalNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private long tryAcquire(String key, long intervalNanos) {
+        if (intervalNanos <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        // Allowing the refill time to run this far ahead of now is what admits a burst
+        long burstNanos = Math.max(intervalNanos, (long) (burstSeconds * TimeUnit.SECONDS.toNanos(1)));
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // New keys are rare next to hits, so creating them under one lock keeps the cap exact
+            synchronized (buckets) {
+                bucket = buckets.get(key);
+                if (bucket == null) {
+                    if (buckets.size() >= maxBuckets) {
+                        return TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs);
+                    }
+                    bucket = new AtomicLong(now);
+                    buckets.put(key, bucket);
+                }
+            }
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private void refund(String key, long intervalNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null && intervalNanos > 0) {
+            bucket.addAndGet(-intervalNanos);
+        }
+    }
+
+    // A bucket whose refill time has passed is indistinguishable from a new one, so it can be
+    // dropped. A caller still holding a dropped bucket only loses that one token's accounting.
+    @Scheduled(fixedDelayString = "${locktrackpro.ratelimit.sweepIntervalMs:10000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private EndpointRule parse(String override) {
+        int equals = override.lastIndexOf('=');
+        int space = override.indexOf(' ');
+        int slash = override.indexOf('/', equals);
+        if (equals < 0 || space < 0 || space > equals || slash < 0) {
+            throw new IllegalArgumentException("Invalid rate limit rule: " + override);
+        }
+        String method = override.substring(0, space).trim().toUpperCase();
+        String pattern = override.substring(space + 1, equals).trim();
+        double vendorRate = Double.parseDouble(override.substring(equals + 1, slash).trim());
+        double userRate = Double.parseDouble(override.substring(slash + 1).trim());
+        return new EndpointRule(method + ' ' + pattern, method, pattern, vendorRate, userRate);
+    }
+
+    public static class EndpointRule {
+        private final String name;
+        private final String method;
+        private final String pattern;
+        private final long vendorIntervalNanos;
+        private final long userIntervalNanos;
+
+        // A rate of 0 disables that bucket
+        EndpointRule(String name, String method, String pattern, double vendorPerSecond, double userPerSecond) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.vendorIntervalNanos = vendorPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / vendorPerSecond) : 0;
+            this.userIntervalNanos = userPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / userPerSecond) : 0;
+        }
+
+        public String getName() { return name; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.excisemia.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running top-k over counters that only grow. Every key's score is kept in a hash map; the best `capacity`
+// keys sit in a min-heap with the weakest at the root, indexed by key so a key already in the heap is found and
+// moved in O(log k). Because scores never drop, a key can only enter the heap by overtaking the root.
+// Ties go to the lower key. Not thread-safe on its own; callers synchronize on the instance.
+final class TopK {
+    private final int capacity;
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final long[] heapKeys;
+    private final long[] heapScores;
+    private int size;
+
+    TopK(int capacity) {
+        this.capacity = capacity;
+        this.heapKeys = new long[capacity];
+        this.heapScores = new long[capacity];
+    }
+
+    synchronized void increment(long key, long delta) {
+        if (delta <= 0) {
+            return;
+        }
+        long score = scores.merge(key, delta, Long::sum);
+        Integer position = positions.get(key);
+        if (position != null) {
+            heapScores[position] = score;
+            siftDown(position);
+        } else if (size < capacity) {
+            heapKeys[size] = key;
+            heapScores[size] = score;
+            positions.put(key, size);
+            siftUp(size++);
+        } else if (weaker(heapKeys[0], heapScores[0], key, score)) {
+            positions.remove(heapKeys[0]);
+            heapKeys[0] = key;
+            heapScores[0] = score;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    // The best k keys as {key, score}, best first
+    synchronized List<long[]> top(int k) {
+        long[][] entries = new long[size][];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new long[] {heapKeys[i], heapScores[i]};
+        }
+        Arrays.sort(entries, Comparator.<long[]>comparingLong(e -> -e[1]).thenComparingLong(e -> e[0]));
+        List<long[]> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            top.add(entries[i]);
+        }
+        return top;
+    }
+
+    synchronized long score(long key) {
+        return scores.getOrDefault(key, 0L);
+    }
+
+    synchronized int keys() {
+        return scores.size();
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!weaker(heapKeys[index], heapScores[index], heapKeys[parent], heapScores[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int weakest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (weaker(heapKeys[child], heapScores[child], heapKeys[weakest], heapScores[weakest])) {
+                    weakest = child;
+                }
+            }
+            if (weakest == index) {
+                return;
+            }
+            swap(index, weakest);
+            index = weakest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = heapKeys[a];
+        long score = heapScores[a];
+        heapKeys[a] = heapKeys[b];
+        heapScores[a] = heapScores[b];
+        heapKeys[b] = key;
+        heapScores[b] = score;
+        positions.put(heapKeys[a], a);
+        positions.put(heapKeys[b], b);
+    }
+
+    private static boolean weaker(long key, long score, long otherKey, long otherScore) {
+        return score < otherScore || (score == otherScore && key > otherKey);
+    }
+}
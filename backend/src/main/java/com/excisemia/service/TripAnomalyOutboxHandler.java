@@ -0,0 +1,221 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.TripAnomaly;
+import com.excisemia.model.TripStats;
+import com.excisemia.repository.TripAnomalyRepository;
+import com.excisemia.repository.TripStatsEventRepository;
+import com.excisemia.repository.TripStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Streaming outlier detection on trip completions. Runs off the completion path as an outbox handler. Each
+// completed trip is scored against the rolling statistics of its lock, or of its vendor while the lock has fewer
+// than warmupTrips, before it is folded into both. A trip whose detention is more than zThreshold standard
+// deviations above the mean, or whose distance is that far off in either direction, is stored as a TripAnomaly
+// and published as a TRIP_ANOMALY outbox event in the same transaction.
+//
+// Statistics are exponentially weighted with weight alpha, so each lock costs one fixed-size row. Applied event ids
+// are kept in trip_stats_events, as for the sketches, so a redelivered event is skipped for the lock and the vendor
+// alike. Outbox ids are not commit-ordered, so a high-water mark would drop an event that commits after a later one.
+@Component
+public class TripAnomalyOutboxHandler implements OutboxEventHandler {
+
+    @Value("${locktrackpro.anomaly.alpha:0.1}")
+    private double alpha;
+
+    @Value("${locktrackpro.anomaly.zThreshold:3.0}")
+    private double zThreshold;
+
+    @Value("${locktrackpro.anomaly.warmupTrips:10}")
+    private long warmupTrips;
+
+    // Floors on the standard deviation, so a lock with very regular trips does not flag every small change
+    @Value("${locktrackpro.anomaly.minStdDetentionMins:5}")
+    private double minStdDetentionMins;
+
+    @Value("${locktrackpro.anomaly.minStdDistanceKm:5}")
+    private double minStdDistanceKm;
+
+    @Autowired
+    private TripStatsRepository tripStatsRepository;
+
+    @Autowired
+    private TripAnomalyRepository tripAnomalyRepository;
+
+    @Autowired
+    private TripStatsEventRepository tripStatsEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return "trip-anomalies";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxEvent.TRIP_COMPLETED.equals(eventType);
+    }
+
+    @Override
+    @Transactional
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> seen = new HashSet<>(tripStatsEventRepository.findExistingEventIds(
+                events.stream().map(OutboxEvent::getId).collect(Collectors.toList())));
+        List<OutboxEvent> fresh = events.stream().filter(event -> !seen.contains(event.getId()))
+                .collect(Collectors.toList());
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<OutboxEvent>> byVendor = new LinkedHashMap<>();
+        for (OutboxEvent event : fresh) {
+            byVendor.computeIfAbsent(event.getVendorId(), v -> new ArrayList<>()).add(event);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TripAnomaly> anomalies = new ArrayList<>();
+        for (Map.Entry<Long, List<OutboxEvent>> vendor : byVendor.entrySet()) {
+            Long vendorId = vendor.getKey();
+            Set<Long> lockIds = new LinkedHashSet<>();
+            lockIds.add(TripStats.VENDOR_WIDE);
+            vendor.getValue().forEach(event -> lockIds.add(event.getAggregateId()));
+            Map<Long, TripStats> stats = new HashMap<>();
+            for (TripStats row : tripStatsRepository.findForUpdate(vendorId, lockIds)) {
+                stats.put(row.getLockId(), row);
+            }
+            for (Long lockId : lockIds) {
+                stats.computeIfAbsent(lockId, id -> new TripStats(vendorId, id));
+            }
+
+            TripStats vendorStats = stats.get(TripStats.VENDOR_WIDE);
+            for (OutboxEvent event : vendor.getValue()) {
+                TripStats lockStats = stats.get(event.getAggregateId());
+                Map<String, Object> payload = outboxService.readPayload(event);
+                Long tripId = ((Number) payload.get("tripId")).longValue();
+                Number detention = (Number) payload.get("detentionMins");
+                if (detention != null) {
+                    TripAnomaly anomaly = scoreDetention(lockStats, vendorStats, tripId, detention.doubleValue());
+                    if (anomaly != null) {
+                        anomalies.add(anomaly);
+                    }
+                    updateDetention(lockStats, detention.doubleValue());
+                    updateDetention(vendorStats, detention.doubleValue());
+                }
+                Number distance = (Number) payload.get("distanceKm");
+                if (distance != null) {
+                    TripAnomaly anomaly = scoreDistance(lockStats, vendorStats, tripId, distance.doubleValue());
+                    if (anomaly != null) {
+                        anomalies.add(anomaly);
+                    }
+                    updateDistance(lockStats, distance.doubleValue());
+                    updateDistance(vendorStats, distance.doubleValue());
+                }
+            }
+            for (TripStats row : stats.values()) {
+                row.setUpdatedAt(now);
+            }
+            tripStatsRepository.saveAll(stats.values());
+        }
+        Timestamp appliedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("INSERT INTO trip_stats_events (event_id, vendor_id, applied_at) VALUES (?, ?, ?)",
+                fresh.stream().map(event -> new Object[] {event.getId(), event.getVendorId(), appliedAt})
+                        .collect(Collectors.toList()));
+
+        if (anomalies.isEmpty()) {
+            return;
+        }
+        tripAnomalyRepository.saveAll(anomalies);
+        List<OutboxEvent> alerts = new ArrayList<>(anomalies.size());
+        for (TripAnomaly anomaly : anomalies) {
+            alerts.add(outboxService.event(OutboxService.LOCK, anomaly.getLockId(), anomaly.getVendorId(),
+                    OutboxEvent.TRIP_ANOMALY, OutboxService.payload("anomalyId", anomaly.getId(),
+                            "tripId", anomaly.getTripId(), "lockId", anomaly.getLockId(), "metric", anomaly.getMetric(),
+                            "baseline", anomaly.getBaseline(), "value", anomaly.getValue(),
+                            "expected", anomaly.getExpected(), "score", anomaly.getScore())));
+            meterRegistry.counter("analytics.anomalies", "metric", anomaly.getMetric().name()).increment();
+        }
+        outboxService.recordAll(alerts);
+    }
+
+    private TripAnomaly scoreDetention(TripStats lock, TripStats vendor, Long tripId, double value) {
+        boolean useLock = lock.getDetentionSamples() >= warmupTrips;
+        TripStats baseline = useLock ? lock : vendor;
+        if (baseline.getDetentionSamples() < warmupTrips) {
+            return null;
+        }
+        double std = Math.max(minStdDetentionMins, Math.sqrt(baseline.getDetentionVariance()));
+        double score = (value - baseline.getDetentionMean()) / std;
+        // Only overstaying is an anomaly; an unusually short detention is good news
+        if (score <= zThreshold) {
+            return null;
+        }
+        return new TripAnomaly(lock.getVendorId(), lock.getLockId(), tripId, TripAnomaly.Metric.DETENTION,
+                useLock ? TripAnomaly.Baseline.LOCK : TripAnomaly.Baseline.VENDOR, value,
+                baseline.getDetentionMean(), std, score);
+    }
+
+    private TripAnomaly scoreDistance(TripStats lock, TripStats vendor, Long tripId, double value) {
+        boolean useLock = lock.getDistanceSamples() >= warmupTrips;
+        TripStats baseline = useLock ? lock : vendor;
+        if (baseline.getDistanceSamples() < warmupTrips) {
+            return null;
+        }
+        double std = Math.max(minStdDistanceKm, Math.sqrt(baseline.getDistanceVariance()));
+        double score = (value - baseline.getDistanceMean()) / std;
+        if (Math.abs(score) <= zThreshold) {
+            return null;
+        }
+        return new TripAnomaly(lock.getVendorId(), lock.getLockId(), tripId, TripAnomaly.Metric.DISTANCE,
+                useLock ? TripAnomaly.Baseline.LOCK : TripAnomaly.Baseline.VENDOR, value,
+                baseline.getDistanceMean(), std, score);
+    }
+
+    private void updateDetention(TripStats stats, double value) {
+        double[] next = ewma(stats.getDetentionSamples(), stats.getDetentionMean(), stats.getDetentionVariance(),
+                value);
+        stats.setDetentionMean(next[0]);
+        stats.setDetentionVariance(next[1]);
+        stats.setDetentionSamples(stats.getDetentionSamples() + 1);
+    }
+
+    private void updateDistance(TripStats stats, double value) {
+        double[] next = ewma(stats.getDistanceSamples(), stats.getDistanceMean(), stats.getDistanceVariance(), value);
+        stats.setDistanceMean(next[0]);
+        stats.setDistanceVariance(next[1]);
+        stats.setDistanceSamples(stats.getDistanceSamples() + 1);
+    }
+
+    // Incremental exponentially weighted mean and variance; the first sample starts the mean with no variance
+    private double[] ewma(long samples, double mean, double variance, double value) {
+        if (samples == 0) {
+            return new double[] {value, 0.0};
+        }
+        double diff = value - mean;
+        double increment = alpha * diff;
+        return new double[] {mean + increment, (1 - alpha) * (variance + diff * increment)};
+    }
+}
@@ -0,0 +1,30 @@
+package com.excisemia.service;
+
+import com.excisemia.model.TripAnomaly;
+import com.excisemia.repository.TripAnomalyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class TripAnomalyService {
+
+    @Value("${locktrackpro.anomaly.maxResults:1000}")
+    private int maxResults;
+
+    @Autowired
+    private TripAnomalyRepository tripAnomalyRepository;
+
+    // Newest first, optionally for one lock
+    public List<TripAnomaly> findAnomalies(Long vendorId, Long lockId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("from must be before to");
+        }
+        return tripAnomalyRepository.findRecent(vendorId, lockId, from, to,
+                PageRequest.of(0, Math.max(1, Math.min(limit, maxResults))));
+    }
+}
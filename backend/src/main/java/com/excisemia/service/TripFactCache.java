@@ -0,0 +1,239 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripFactQuery;
+import com.excisemia.dto.TripFactReport;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-node, in-memory copy of trip facts for ad-hoc analytics (see TripFactStore). The live trips table is
+// loaded once after startup; afterwards each node follows the outbox_events table as a change feed and reloads
+// the trips named by trip events. A named trip that is no longer in the table was purged or archived and is
+// dropped; RetentionPurgeJob and PartitionArchiveJob name the trips they remove with TRIPS_REMOVED events.
+// Events are read whatever their delivery status, so every node sees every change, not only the node that
+// dispatches it. The feed position only moves past events older than settleSeconds: a transaction that took a
+// lower id but commits late is still picked up, and re-reading an event is harmless because the trip is
+// reloaded from the table.
+@Component
+public class TripFactCache {
+    private static final Logger logger = LoggerFactory.getLogger(TripFactCache.class);
+    private static final List<String> TRIP_EVENTS = List.of(OutboxEvent.TRIP_STARTED, OutboxEvent.TRIP_COMPLETED,
+            OutboxEvent.TRIP_UPDATED, OutboxEvent.TRIPS_REMOVED);
+    private static final String TRIP_FACT_COLUMNS =
+            "id, vendor_id, lock_id, start_time, distance_km, detention_mins, status";
+    private static final int LOOKUP_BATCH = 1000;
+
+    @Value("${locktrackpro.analytics.facts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locktrackpro.analytics.facts.parallelism:0}")
+    private int parallelism;
+
+    @Value("${locktrackpro.analytics.facts.chunkRows:65536}")
+    private int chunkRows;
+
+    @Value("${locktrackpro.analytics.facts.settleSeconds:10}")
+    private long settleSeconds;
+
+    @Value("${locktrackpro.analytics.facts.feedBatchSize:5000}")
+    private int feedBatchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, TripFactStore> stores = new ConcurrentHashMap<>();
+    private final AtomicLong feedPosition = new AtomicLong();
+    private ForkJoinPool scanPool;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        Gauge.builder("analytics.facts.trips", stores,
+                        s -> s.values().stream().mapToLong(TripFactStore::size).sum())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    // Loads in the background so a large table does not hold up startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                logger.error("Loading trip facts failed: {}", e.getMessage(), e);
+            }
+        }, "trip-fact-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public synchronized void reload() {
+        long started = System.currentTimeMillis();
+        // Taken before the load, so changes committed while loading are replayed from the feed
+        Long position = outboxEventRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusSeconds(settleSeconds));
+        Map<Long, TripFactStore> loaded = new ConcurrentHashMap<>();
+        AtomicLong rows = new AtomicLong();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + TRIP_FACT_COLUMNS + " FROM trips ORDER BY id");
+            statement.setFetchSize(10_000);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            upsert(loaded, rs);
+            rows.incrementAndGet();
+        });
+        stores.clear();
+        stores.putAll(loaded);
+        feedPosition.set(position != null ? position : 0L);
+        ready = true;
+        logger.info("Loaded {} trip facts for {} vendors in {} ms", rows.get(), loaded.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${locktrackpro.analytics.facts.feedIntervalMs:1000}",
+               initialDelayString = "${locktrackpro.analytics.facts.feedIntervalMs:1000}")
+    public void followFeed() {
+        if (!enabled || !ready) {
+            return;
+        }
+        try {
+            applyFeed();
+        } catch (RuntimeException e) {
+            logger.warn("Trip fact feed failed, retrying next poll: {}", e.getMessage());
+        }
+    }
+
+    // Applies one batch of trip events after the feed position, returns how many events were read
+    public synchronized int applyFeed() {
+        List<OutboxEvent> events = outboxEventRepository.findAfter(feedPosition.get(), TRIP_EVENTS,
+                PageRequest.of(0, feedBatchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> vendorByTrip = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            Map<String, Object> payload = outboxService.readPayload(event);
+            if (OutboxEvent.TRIPS_REMOVED.equals(event.getEventType())) {
+                for (Object tripId : (List<?>) payload.get("tripIds")) {
+                    vendorByTrip.put(((Number) tripId).longValue(), event.getVendorId());
+                }
+            } else if (payload.get("tripId") != null) {
+                vendorByTrip.put(((Number) payload.get("tripId")).longValue(), event.getVendorId());
+            }
+        }
+        List<Long> tripIds = new ArrayList<>(vendorByTrip.keySet());
+        Set<Long> found = new HashSet<>();
+        for (int from = 0; from < tripIds.size(); from += LOOKUP_BATCH) {
+            List<Long> batch = tripIds.subList(from, Math.min(tripIds.size(), from + LOOKUP_BATCH));
+            String in = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query("SELECT " + TRIP_FACT_COLUMNS + " FROM trips WHERE id IN (" + in + ")",
+                    (RowCallbackHandler) rs -> {
+                        upsert(stores, rs);
+                        found.add(rs.getLong("id"));
+                    }, batch.toArray());
+        }
+        removeMissing(vendorByTrip, found);
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(settleSeconds);
+        for (OutboxEvent event : events) {
+            if (!event.getCreatedAt().isBefore(settled)) {
+                break;
+            }
+            feedPosition.set(event.getId());
+        }
+        meterRegistry.counter("analytics.facts.feed.events").increment(events.size());
+        return events.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public TripFactReport query(Long vendorId, TripFactQuery query) {
+        if (!ready) {
+            throw new IllegalStateException("Trip facts are still loading");
+        }
+        TripFactStore store = stores.get(vendorId);
+        if (store == null) {
+            return new TripFactReport(new ArrayList<>(), 0L, 0L, 0L);
+        }
+        TripFactReport report = store.scan(query, scanPool, chunkRows);
+        meterRegistry.timer("analytics.facts.scan").record(Duration.ofMillis(report.getScanMillis()));
+        return report;
+    }
+
+    // Trips the feed named that are gone from the table were purged or archived
+    private void removeMissing(Map<Long, Long> vendorByTrip, Set<Long> found) {
+        Map<Long, List<Long>> missingByVendor = new HashMap<>();
+        for (Map.Entry<Long, Long> trip : vendorByTrip.entrySet()) {
+            if (!found.contains(trip.getKey())) {
+                missingByVendor.computeIfAbsent(trip.getValue(), v -> new ArrayList<>()).add(trip.getKey());
+            }
+        }
+        long removed = 0;
+        for (Map.Entry<Long, List<Long>> vendor : missingByVendor.entrySet()) {
+            TripFactStore store = stores.get(vendor.getKey());
+            if (store != null) {
+                removed += store.removeAll(vendor.getValue().stream().mapToLong(Long::longValue).toArray());
+            }
+        }
+        meterRegistry.counter("analytics.facts.removed").increment(removed);
+    }
+
+    private static void upsert(Map<Long, TripFactStore> target, ResultSet rs) throws SQLException {
+        long vendorId = rs.getLong("vendor_id");
+        target.computeIfAbsent(vendorId, v -> new TripFactStore()).upsert(rs.getLong("id"), rs.getLong("lock_id"),
+                rs.getTimestamp("start_time").toLocalDateTime(), rs.getObject("distance_km", Double.class),
+                rs.getObject("detention_mins", Integer.class),
+                rs.getString("status") != null ? Trip.Status.valueOf(rs.getString("status")) : Trip.Status.ACTIVE);
+    }
+}
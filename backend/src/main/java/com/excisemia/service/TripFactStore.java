@@ -0,0 +1,414 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripFactQuery;
+import com.excisemia.dto.TripFactReport;
+import com.excisemia.model.Trip;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// One vendor's trip facts held column-wise in primitive arrays, sorted by trip id. A scan splits the rows into
+// chunks that are filtered and aggregated in parallel, each into its own open-addressing group table keyed by
+// a packed long, and the per-chunk tables are merged at the end. Scans share a read lock; upserts take the
+// write lock, which is held only for an array write or, when the arrays are full, one copy. Removals compact
+// the arrays in one pass under the write lock.
+public class TripFactStore {
+    private static final int NO_DETENTION = Integer.MIN_VALUE;
+    private static final Trip.Status[] STATUSES = Trip.Status.values();
+
+    // Group key layout: lock id in the high 40 bits, status in 2 bits, time bucket in the low 22 bits
+    private static final int LOCK_SHIFT = 24;
+    private static final int STATUS_SHIFT = 22;
+    private static final long BUCKET_MASK = (1L << STATUS_SHIFT) - 1;
+
+    private long[] ids;
+    private long[] lockIds;
+    private long[] startSeconds;
+    private double[] distanceKm;
+    private int[] detentionMins;
+    private byte[] statuses;
+    private int size;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TripFactStore() {
+        this(1024);
+    }
+
+    public TripFactStore(int capacity) {
+        capacity = Math.max(16, capacity);
+        ids = new long[capacity];
+        lockIds = new long[capacity];
+        startSeconds = new long[capacity];
+        distanceKm = new double[capacity];
+        detentionMins = new int[capacity];
+        statuses = new byte[capacity];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inserts the trip or overwrites its facts. Ids normally arrive in increasing order and are appended.
+    public void upsert(long id, long lockId, LocalDateTime startTime, Double distance, Integer detention,
+                       Trip.Status status) {
+        if (lockId < 0 || lockId >= 1L << (Long.SIZE - LOCK_SHIFT - 1)) {
+            throw new IllegalArgumentException("Lock id out of range for trip facts: " + lockId);
+        }
+        lock.writeLock().lock();
+        try {
+            int index = size > 0 && id > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                index = -index - 1;
+                if (size == ids.length) {
+                    grow();
+                }
+                if (index < size) {
+                    shift(index);
+                }
+                size++;
+                ids[index] = id;
+            }
+            lockIds[index] = lockId;
+            startSeconds[index] = startTime.toEpochSecond(ZoneOffset.UTC);
+            distanceKm[index] = distance != null ? distance : Double.NaN;
+            detentionMins[index] = detention != null ? detention : NO_DETENTION;
+            statuses[index] = (byte) status.ordinal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops the given trips in one compacting pass from the first of them, returns how many were held
+    public int removeAll(long[] removedIds) {
+        long[] sorted = removedIds.clone();
+        Arrays.sort(sorted);
+        lock.writeLock().lock();
+        try {
+            int first = Arrays.binarySearch(ids, 0, size, sorted.length > 0 ? sorted[0] : Long.MAX_VALUE);
+            int kept = first < 0 ? -first - 1 : first;
+            for (int index = kept; index < size; index++) {
+                if (Arrays.binarySearch(sorted, ids[index]) >= 0) {
+                    continue;
+                }
+                ids[kept] = ids[index];
+                lockIds[kept] = lockIds[index];
+                startSeconds[kept] = startSeconds[index];
+                distanceKm[kept] = distanceKm[index];
+                detentionMins[kept] = detentionMins[index];
+                statuses[kept] = statuses[index];
+                kept++;
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public TripFactReport scan(TripFactQuery query, ExecutorService executor, int chunkRows) {
+        long started = System.nanoTime();
+        Filter filter = new Filter(query);
+        Groups merged = new Groups(16);
+        int scanned;
+        lock.readLock().lock();
+        try {
+            scanned = size;
+            List<Callable<Groups>> tasks = new ArrayList<>();
+            for (int start = 0; start < size; start += chunkRows) {
+                int from = start;
+                int to = Math.min(size, start + chunkRows);
+                tasks.add(() -> scanChunk(filter, from, to));
+            }
+            if (tasks.size() == 1) {
+                merged.mergeFrom(tasks.get(0).call());
+            } else {
+                for (Future<Groups> future : executor.invokeAll(tasks)) {
+                    merged.mergeFrom(future.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Trip fact scan interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Trip fact scan failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException("Trip fact scan failed: " + e.getMessage(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<TripFactReport.Group> groups = merged.toGroups(filter);
+        long matched = groups.stream().mapToLong(TripFactReport.Group::getTrips).sum();
+        return new TripFactReport(groups, (long) scanned, matched, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // The hot loop: plain array reads and compares, no allocation per row
+    private Groups scanChunk(Filter f, int from, int to) {
+        long[] locks = lockIds;
+        long[] starts = startSeconds;
+        double[] distances = distanceKm;
+        int[] detentions = detentionMins;
+        byte[] status = statuses;
+        Groups groups = new Groups(64);
+        long monthStartDay = Long.MAX_VALUE;
+        long monthEndDay = Long.MIN_VALUE;
+        long monthBucket = 0;
+        for (int i = from; i < to; i++) {
+            long start = starts[i];
+            if (start < f.fromSeconds || start >= f.toSeconds) {
+                continue;
+            }
+            if (f.status >= 0 && status[i] != f.status) {
+                continue;
+            }
+            double distance = distances[i];
+            if (f.distanceBounded && !(distance >= f.minDistance && distance <= f.maxDistance)) {
+                continue;
+            }
+            int detention = detentions[i];
+            if (f.minDetention != NO_DETENTION && (detention == NO_DETENTION || detention < f.minDetention)) {
+                continue;
+            }
+            long lockId = locks[i];
+            if (f.lockIds != null && Arrays.binarySearch(f.lockIds, lockId) < 0) {
+                continue;
+            }
+            long key = 0;
+            if (f.byLock) {
+                key |= lockId << LOCK_SHIFT;
+            }
+            if (f.byStatus) {
+                key |= (long) status[i] << STATUS_SHIFT;
+            }
+            if (f.period != null) {
+                long day = Math.floorDiv(start, 86_400L);
+                switch (f.period) {
+                    case DAY -> key |= day;
+                    // Epoch day 4 (1970-01-05) is a Monday
+                    case WEEK -> key |= Math.floorDiv(day + 3, 7);
+                    default -> {
+                        if (day < monthStartDay || day >= monthEndDay) {
+                            LocalDate first = LocalDate.ofEpochDay(day).withDayOfMonth(1);
+                            monthStartDay = first.toEpochDay();
+                            monthEndDay = first.plusMonths(1).toEpochDay();
+                            monthBucket = (first.getYear() - 1970L) * 12 + first.getMonthValue() - 1;
+                        }
+                        key |= monthBucket;
+                    }
+                }
+            }
+            groups.add(key, distance, detention);
+        }
+        return groups;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        lockIds = Arrays.copyOf(lockIds, capacity);
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        distanceKm = Arrays.copyOf(distanceKm, capacity);
+        detentionMins = Arrays.copyOf(detentionMins, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    private void shift(int index) {
+        int length = size - index;
+        System.arraycopy(ids, index, ids, index + 1, length);
+        System.arraycopy(lockIds, index, lockIds, index + 1, length);
+        System.arraycopy(startSeconds, index, startSeconds, index + 1, length);
+        System.arraycopy(distanceKm, index, distanceKm, index + 1, length);
+        System.arraycopy(detentionMins, index, detentionMins, index + 1, length);
+        System.arraycopy(statuses, index, statuses, index + 1, length);
+    }
+
+    // The query reduced to primitives the scan loop can compare directly
+    private static final class Filter {
+        final long fromSeconds;
+        final long toSeconds;
+        final int status;
+        final boolean distanceBounded;
+        final double minDistance;
+        final double maxDistance;
+        final int minDetention;
+        final long[] lockIds;
+        final boolean byLock;
+        final boolean byStatus;
+        final TripFactQuery.GroupBy period;
+
+        Filter(TripFactQuery query) {
+            fromSeconds = query.getFrom() != null ? query.getFrom().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+            toSeconds = query.getTo() != null ? query.getTo().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+            status = query.getStatus() != null ? query.getStatus().ordinal() : -1;
+            distanceBounded = query.getMinDistanceKm() != null || query.getMaxDistanceKm() != null;
+            minDistance = query.getMinDistanceKm() != null ? query.getMinDistanceKm() : Double.NEGATIVE_INFINITY;
+            maxDistance = query.getMaxDistanceKm() != null ? query.getMaxDistanceKm() : Double.POSITIVE_INFINITY;
+            minDetention = query.getMinDetentionMins() != null ? query.getMinDetentionMins() : NO_DETENTION;
+            lockIds = query.getLockIds() == null || query.getLockIds().isEmpty() ? null
+                    : query.getLockIds().stream().mapToLong(Long::longValue).sorted().toArray();
+            List<TripFactQuery.GroupBy> groupBy = query.getGroupBy() != null ? query.getGroupBy() : List.of();
+            byLock = groupBy.contains(TripFactQuery.GroupBy.LOCK);
+            byStatus = groupBy.contains(TripFactQuery.GroupBy.STATUS);
+            List<TripFactQuery.GroupBy> periods = groupBy.stream()
+                    .filter(g -> g == TripFactQuery.GroupBy.DAY || g == TripFactQuery.GroupBy.WEEK
+                            || g == TripFactQuery.GroupBy.MONTH)
+                    .distinct().toList();
+            if (periods.size() > 1) {
+                throw new RuntimeException("Group by at most one of DAY, WEEK and MONTH");
+            }
+            period = periods.isEmpty() ? null : periods.get(0);
+        }
+    }
+
+    // Open-addressing table from packed group key to running aggregates
+    private static final class Groups {
+        private long[] keys;
+        private boolean[] used;
+        private long[] counts;
+        private double[] distances;
+        private long[] detentions;
+        private long[] detentionCounts;
+        private int[] maxDetentions;
+        private int filled;
+
+        Groups(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(16, capacity) - 1) << 1);
+        }
+
+        void add(long key, double distance, int detention) {
+            int slot = slot(key);
+            counts[slot]++;
+            if (!Double.isNaN(distance)) {
+                distances[slot] += distance;
+            }
+            if (detention != NO_DETENTION) {
+                detentions[slot] += detention;
+                detentionCounts[slot]++;
+                maxDetentions[slot] = Math.max(maxDetentions[slot], detention);
+            }
+        }
+
+        void mergeFrom(Groups other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (!other.used[i]) {
+                    continue;
+                }
+                int slot = slot(other.keys[i]);
+                counts[slot] += other.counts[i];
+                distances[slot] += other.distances[i];
+                detentions[slot] += other.detentions[i];
+                detentionCounts[slot] += other.detentionCounts[i];
+                maxDetentions[slot] = Math.max(maxDetentions[slot], other.maxDetentions[i]);
+            }
+        }
+
+        List<TripFactReport.Group> toGroups(Filter filter) {
+            List<TripFactReport.Group> groups = new ArrayList<>(filled);
+            for (int i = 0; i < keys.length; i++) {
+                if (!used[i]) {
+                    continue;
+                }
+                long key = keys[i];
+                TripFactReport.Group group = new TripFactReport.Group();
+                if (filter.byLock) {
+                    group.setLockId(key >>> LOCK_SHIFT);
+                }
+                if (filter.byStatus) {
+                    group.setStatus(STATUSES[(int) ((key >>> STATUS_SHIFT) & 3)]);
+                }
+                if (filter.period != null) {
+                    long bucket = key & BUCKET_MASK;
+                    group.setPeriod(switch (filter.period) {
+                        case DAY -> LocalDate.ofEpochDay(bucket);
+                        case WEEK -> LocalDate.ofEpochDay(bucket * 7 - 3);
+                        default -> LocalDate.of(1970 + (int) (bucket / 12), (int) (bucket % 12) + 1, 1);
+                    });
+                }
+                group.setTrips(counts[i]);
+                group.setTotalDistanceKm(distances[i]);
+                group.setTotalDetentionMins(detentions[i]);
+                group.setAvgDetentionMins(detentionCounts[i] > 0 ? (double) detentions[i] / detentionCounts[i] : null);
+                group.setMaxDetentionMins(detentionCounts[i] > 0 ? maxDetentions[i] : null);
+                groups.add(group);
+            }
+            groups.sort(Comparator.comparing(TripFactReport.Group::getLockId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(TripFactReport.Group::getPeriod, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(TripFactReport.Group::getStatus, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return groups;
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (filled + 1 > keys.length >> 1) {
+                rehash();
+                return slot(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            maxDetentions[slot] = Integer.MIN_VALUE;
+            filled++;
+            return slot;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            long[] oldCounts = counts;
+            double[] oldDistances = distances;
+            long[] oldDetentions = detentions;
+            long[] oldDetentionCounts = detentionCounts;
+            int[] oldMax = maxDetentions;
+            allocate(oldKeys.length << 1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(oldKeys[i]);
+                    counts[slot] = oldCounts[i];
+                    distances[slot] = oldDistances[i];
+                    detentions[slot] = oldDetentions[i];
+                    detentionCounts[slot] = oldDetentionCounts[i];
+                    maxDetentions[slot] = oldMax[i];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            counts = new long[capacity];
+            distances = new double[capacity];
+            detentions = new long[capacity];
+            detentionCounts = new long[capacity];
+            maxDetentions = new int[capacity];
+            filled = 0;
+        }
+
+        private static int mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class TripService {
+
+    @Value("${locktrackpro.trips.allowedTripMins:480}")
+    private long allowedTripMins;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LockStatusCounters lockStatusCounters;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public List<Trip> getTripsByStatusAndVendor(Trip.Status status, Long vendorId) {
+        if (status == Trip.Status.ACTIVE) {
+            return tripRepository.findByStatusAndVendorId(status, vendorId);
+        }
+        return tripRepository.findByStatusAndVendorIdAndStartTimeGreaterThanEqual(status, vendorId,
+                partitionManager.hotWindowStart());
+    }
+
+    // userId is the user starting the trip; a lock claimed by someone else cannot be started
+    @Transactional
+    public Trip startTrip(TripRequest tripRequest, Long vendorId, Long userId) {
+        Schedule schedule = scheduleRepository.findByIdAndVendorId(tripRequest.getScheduleId(), vendorId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found or access denied"));
+        // Without an explicit lock, use the one planned for the schedule or claim the next available one
+        Long lockId = tripRequest.getLockId() != null ? tripRequest.getLockId() : schedule.getLockId();
+        Lock lock = lockId == null
+                ? lockService.claimNextAvailable(vendorId, userId).orElseThrow(() -> new RuntimeException("No available locks"))
+                : lockRepository.findByIdAndVendorId(lockId, vendorId)
+                        .orElseThrow(() -> new RuntimeException("Lock not found or access denied"));
+        if (lock.getCurrentTripId() != null) {
+            throw new RuntimeException("Lock already has an active trip");
+        }
+        if (lock.getClaimedBy() != null && !lock.getClaimedBy().equals(userId)) {
+            throw new RuntimeException("Lock is claimed by another user");
+        }
+
+        Trip trip = tripRepository.save(new Trip(lock.getId(), tripRequest.getScheduleId(), vendorId));
+        Lock.Status previous = lock.getStatus();
+        // The checks above are only a fast path; the conditional update decides between concurrent starts and
+        // claims, and the loser's trip insert rolls back with the exception
+        if (lockRepository.attachTripIfFree(lock.getId(), vendorId, trip.getId(), Lock.Status.IN_TRANSIT, userId,
+                schedule.getId(), LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Lock already has an active trip, is claimed by another user " +
+                    "or is planned for another schedule");
+        }
+        scheduleRepository.markStarted(schedule.getId(), trip.getId());
+        // The update bypassed the loaded copy, so it is detached rather than saved back with stale columns
+        entityManager.detach(lock);
+        lock.setCurrentTripId(trip.getId());
+        lock.setStatus(Lock.Status.IN_TRANSIT);
+        lock.setClaimedBy(null);
+
+        outboxService.record(OutboxService.LOCK, lock.getId(), vendorId, OutboxEvent.TRIP_STARTED,
+                OutboxService.payload("tripId", trip.getId(), "lockId", lock.getId(),
+                        "scheduleId", trip.getScheduleId(), "assignedTo", lock.getAssignedTo()));
+        recordStatusChange(lock, previous);
+        return trip;
+    }
+
+    @Transactional
+    public Trip completeTrip(Long tripId, TripCompletionRequest completion, Long vendorId) {
+        // Only an active trip started before the hot window needs the unbounded read
+        Trip trip = tripRepository.findByIdAndVendorIdAndStartTimeGreaterThanEqual(tripId, vendorId,
+                        partitionManager.hotWindowStart())
+                .or(() -> tripRepository.findByIdAndVendorIdAndStatus(tripId, vendorId, Trip.Status.ACTIVE))
+                .orElseThrow(() -> new RuntimeException("Trip not found or access denied"));
+        if (trip.getStatus() != Trip.Status.ACTIVE) {
+            throw new RuntimeException("Trip is already completed");
+        }
+        return close(trip, LocalDateTime.now(), completion.getDistanceKm(), completion.getDetentionMins(), null);
+    }
+
+    // Used by StaleTripCloserJob for trips nobody completed; detention is derived from the duration
+    @Transactional
+    public Trip closeStaleTrip(Trip trip, String closedBy) {
+        LocalDateTime endTime = LocalDateTime.now();
+        return close(trip, endTime, trip.getDistanceKm(), detentionMinutes(trip.getStartTime(), endTime), closedBy);
+    }
+
+    // Minutes a trip ran beyond the allowed trip time
+    public Integer detentionMinutes(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return null;
+        }
+        return (int) Math.max(0, Duration.between(startTime, endTime).toMinutes() - allowedTripMins);
+    }
+
+    private Trip close(Trip trip, LocalDateTime endTime, Double distanceKm, Integer detentionMins, String closedBy) {
+        Long tripId = trip.getId();
+        Long vendorId = trip.getVendorId();
+        trip.setStatus(Trip.Status.COMPLETED);
+        trip.setEndTime(endTime);
+        trip.setDistanceKm(distanceKm);
+        trip.setDetentionMins(detentionMins);
+        trip = tripRepository.save(trip);
+
+        Lock lock = lockRepository.findByIdAndVendorId(trip.getLockId(), vendorId).orElse(null);
+        Lock.Status previous = null;
+        if (lock != null && tripId.equals(lock.getCurrentTripId())) {
+            previous = lock.getStatus();
+            lock.setCurrentTripId(null);
+            lock.setStatus(Lock.Status.REACHED);
+            lockRepository.save(lock);
+        }
+
+        outboxService.record(OutboxService.LOCK, trip.getLockId(), vendorId, OutboxEvent.TRIP_COMPLETED,
+                OutboxService.payload("tripId", tripId, "lockId", trip.getLockId(),
+                        "scheduleId", trip.getScheduleId(), "distanceKm", trip.getDistanceKm(),
+                        "detentionMins", trip.getDetentionMins(),
+                        "durationMins", trip.getStartTime() != null
+                                ? Duration.between(trip.getStartTime(), endTime).toMinutes() : null,
+                        "closedBy", closedBy));
+        if (previous != null) {
+            recordStatusChange(lock, previous);
+        }
+        return trip;
+    }
+
+    private void recordStatusChange(Lock lock, Lock.Status previous) {
+        if (previous == lock.getStatus()) {
+            return;
+        }
+        outboxService.record(OutboxService.LOCK, lock.getId(), lock.getVendorId(), OutboxEvent.LOCK_STATUS_CHANGED,
+                OutboxService.payload("lockId", lock.getId(), "previousStatus", previous, "status", lock.getStatus(),
+                        "assignedTo", lock.getAssignedTo()));
+        lockStatusCounters.transitionAfterCommit(lock.getVendorId(), previous, lock.getStatus());
+    }
+}
@@ -0,0 +1,154 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.TripSketch;
+import com.excisemia.repository.TripSketchEventRepository;
+import com.excisemia.repository.TripSketchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Folds completed trips into the daily detention and duration sketches of their lock and of their vendor.
+// A batch touches each sketch row once. Applied event ids are written in the same transaction as the
+// sketches, so a redelivered event is skipped instead of being counted again.
+@Component
+public class TripSketchOutboxHandler implements OutboxEventHandler {
+
+    @Autowired
+    private TripSketchRepository tripSketchRepository;
+
+    @Autowired
+    private TripSketchEventRepository tripSketchEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return "trip-sketches";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxEvent.TRIP_COMPLETED.equals(eventType) || OutboxEvent.TRIP_UPDATED.equals(eventType);
+    }
+
+    @Override
+    @Transactional
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> seen = new HashSet<>(tripSketchEventRepository.findExistingEventIds(
+                events.stream().map(OutboxEvent::getId).collect(Collectors.toList())));
+        List<OutboxEvent> fresh = events.stream().filter(event -> !seen.contains(event.getId())).collect(Collectors.toList());
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Key, QuantileSketch>> updatesByVendor = new LinkedHashMap<>();
+        for (OutboxEvent event : fresh) {
+            Map<String, Object> payload = outboxService.readPayload(event);
+            Map<Key, QuantileSketch> updates = updatesByVendor.computeIfAbsent(event.getVendorId(), v -> new LinkedHashMap<>());
+            // TRIP_UPDATED comes from the detention recompute, which only fills in detention that was missing
+            LocalDate day = payload.get("completedOn") != null
+                    ? LocalDate.parse((String) payload.get("completedOn")) : event.getCreatedAt().toLocalDate();
+            add(updates, event.getAggregateId(), TripSketch.Metric.DETENTION, day, payload.get("detentionMins"));
+            if (OutboxEvent.TRIP_COMPLETED.equals(event.getEventType())) {
+                add(updates, event.getAggregateId(), TripSketch.Metric.DURATION, day, payload.get("durationMins"));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Map<Key, QuantileSketch>> vendor : updatesByVendor.entrySet()) {
+            Map<Key, QuantileSketch> updates = vendor.getValue();
+            if (updates.isEmpty()) {
+                continue;
+            }
+            Set<Long> lockIds = updates.keySet().stream().map(key -> key.lockId).collect(Collectors.toSet());
+            Set<LocalDate> days = updates.keySet().stream().map(key -> key.day).collect(Collectors.toSet());
+            Map<Key, TripSketch> rows = new HashMap<>();
+            for (TripSketch row : tripSketchRepository.findForUpdate(vendor.getKey(), lockIds, days)) {
+                rows.put(new Key(row.getLockId(), row.getMetric(), row.getDay()), row);
+            }
+            List<TripSketch> changed = new ArrayList<>();
+            for (Map.Entry<Key, QuantileSketch> update : updates.entrySet()) {
+                Key key = update.getKey();
+                TripSketch row = rows.get(key);
+                QuantileSketch sketch = update.getValue();
+                if (row == null) {
+                    row = new TripSketch(vendor.getKey(), key.lockId, key.metric, key.day);
+                } else {
+                    QuantileSketch stored = QuantileSketch.fromBytes(row.getData());
+                    stored.merge(sketch);
+                    sketch = stored;
+                }
+                row.setData(sketch.toBytes());
+                row.setSampleCount(sketch.getCount());
+                row.setUpdatedAt(now);
+                changed.add(row);
+            }
+            tripSketchRepository.saveAll(changed);
+        }
+
+        Timestamp appliedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("INSERT INTO trip_sketch_events (event_id, vendor_id, applied_at) VALUES (?, ?, ?)",
+                fresh.stream().map(event -> new Object[] {event.getId(), event.getVendorId(), appliedAt})
+                        .collect(Collectors.toList()));
+        meterRegistry.counter("analytics.sketches.events").increment(fresh.size());
+    }
+
+    private static void add(Map<Key, QuantileSketch> updates, Long lockId, TripSketch.Metric metric, LocalDate day,
+                            Object value) {
+        if (value == null) {
+            return;
+        }
+        long minutes = ((Number) value).longValue();
+        updates.computeIfAbsent(new Key(lockId, metric, day), k -> new QuantileSketch()).add(minutes);
+        updates.computeIfAbsent(new Key(TripSketch.VENDOR_WIDE, metric, day), k -> new QuantileSketch()).add(minutes);
+    }
+
+    private static final class Key {
+        final Long lockId;
+        final TripSketch.Metric metric;
+        final LocalDate day;
+
+        Key(Long lockId, TripSketch.Metric metric, LocalDate day) {
+            this.lockId = lockId;
+            this.metric = metric;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return lockId.equals(other.lockId) && metric == other.metric && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lockId, metric, day);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripPercentilesResponse;
+import com.excisemia.model.TripSketch;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.TripSketchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Percentiles over any day range, answered by merging the stored daily sketches (see TripSketchOutboxHandler)
+@Service
+public class TripSketchService {
+
+    @Value("${locktrackpro.analytics.sketches.maxRangeDays:366}")
+    private long maxRangeDays;
+
+    @Autowired
+    private TripSketchRepository tripSketchRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    // Vendor-wide when lockId is null
+    public TripPercentilesResponse percentiles(Long vendorId, Long lockId, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxRangeDays) {
+            throw new RuntimeException("Range is limited to " + maxRangeDays + " days");
+        }
+        if (lockId != null && lockRepository.findByIdAndVendorId(lockId, vendorId).isEmpty()) {
+            throw new RuntimeException("Lock not found or access denied");
+        }
+        Map<TripSketch.Metric, QuantileSketch> merged = new EnumMap<>(TripSketch.Metric.class);
+        for (TripSketch.Metric metric : TripSketch.Metric.values()) {
+            merged.put(metric, new QuantileSketch());
+        }
+        for (TripSketch row : tripSketchRepository.findInRange(vendorId,
+                lockId != null ? lockId : TripSketch.VENDOR_WIDE, from, to)) {
+            merged.get(row.getMetric()).merge(QuantileSketch.fromBytes(row.getData()));
+        }
+        return new TripPercentilesResponse(lockId, from, to, percentiles(merged.get(TripSketch.Metric.DETENTION)),
+                percentiles(merged.get(TripSketch.Metric.DURATION)));
+    }
+
+    private static TripPercentilesResponse.Percentiles percentiles(QuantileSketch sketch) {
+        return new TripPercentilesResponse.Percentiles(sketch.getCount(), sketch.quantile(0.5), sketch.quantile(0.9),
+                sketch.quantile(0.99), sketch.getMean(), sketch.getMax());
+    }
+}
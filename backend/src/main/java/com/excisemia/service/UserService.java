@@ -1,9 +1,11 @@
 package com.excisemia.service;
 
+import com.excisemia.model.OutboxEvent;
 import com.excisemia.model.User;
 import com.excisemia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,24 +15,32 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<User> getUsersByVendor(Long vendorId) {
         return userRepository.findByVendorId(vendorId);
     }
 
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Transactional
     public void updateUserRole(Long userId, String role) {
         User user = getUserById(userId);
         try {
@@ -42,22 +52,40 @@ public class UserService {
         }
     }
 
+    @Transactional
     public void activateUser(Long userId) {
         User user = getUserById(userId);
         user.setIsActive(true);
         userRepository.save(user);
     }
 
+    @Transactional
     public void deactivateUser(Long userId) {
         User user = getUserById(userId);
         user.setIsActive(false);
         userRepository.save(user);
     }
 
-    public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new RuntimeException("User not found");
+    // A device belongs to whoever registered it last, so the token is taken off any other user first
+    @Transactional
+    public void updatePushToken(Long userId, String pushToken) {
+        User user = getUserById(userId);
+        if (pushToken != null) {
+            if (pushToken.length() > 200) {
+                throw new RuntimeException("Push token is too long");
+            }
+            userRepository.clearPushTokens(List.of(pushToken));
         }
-        userRepository.deleteById(userId);
+        user.setPushToken(pushToken);
+        userRepository.save(user);
+    }
+
+    @Transactional
+    public void deleteUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        userRepository.delete(user);
+        outboxService.record(OutboxService.USER, userId, user.getVendorId(), OutboxEvent.USER_DELETED,
+                OutboxService.payload("userId", userId));
     }
 }
\ No newline at end of file
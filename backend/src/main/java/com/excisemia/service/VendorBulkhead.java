@@ -0,0 +1,76 @@
+package com.excisemia.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps how many DB-heavy requests one vendor can have in flight, so a single integration
+// cannot hold every pooled connection while the other vendors queue behind it
+@Component
+public class VendorBulkhead {
+
+    @Value("${locktrackpro.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    // Keep below spring.datasource.hikari.maximum-pool-size so one vendor always leaves connections free
+    @Value("${locktrackpro.bulkhead.maxConcurrentPerVendor:6}")
+    private int maxConcurrentPerVendor;
+
+    @Value("${locktrackpro.bulkhead.maxWaitMs:50}")
+    private long maxWaitMs;
+
+    @Value("${locktrackpro.bulkhead.endpoints:GET /api/analytics/**,GET /api/locks,GET /api/remarks/**,GET /api/schedules,GET /api/users/**,POST /api/batch}")
+    private String endpoints;
+
+    private final ConcurrentHashMap<Long, Semaphore> permits = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String[]> guarded = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        for (String endpoint : StringUtils.commaDelimitedListToStringArray(endpoints)) {
+            String[] parts = endpoint.trim().split("\\s+", 2);
+            if (parts.length == 2) {
+                guarded.add(new String[]{parts[0].toUpperCase(), parts[1]});
+            }
+        }
+    }
+
+    public boolean isGuarded(String method, String path) {
+        if (!enabled) {
+            return false;
+        }
+        for (String[] endpoint : guarded) {
+            if (endpoint[0].equals(method) && pathMatcher.match(endpoint[1], path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every successful acquire must be paired with release
+    public boolean tryAcquire(Long vendorId) throws InterruptedException {
+        return permits(vendorId).tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void release(Long vendorId) {
+        permits(vendorId).release();
+    }
+
+    public int inFlight(Long vendorId) {
+        Semaphore semaphore = permits.get(vendorId);
+        return semaphore != null ? maxConcurrentPerVendor - semaphore.availablePermits() : 0;
+    }
+
+    private Semaphore permits(Long vendorId) {
+        return permits.computeIfAbsent(vendorId, id -> new Semaphore(maxConcurrentPerVendor));
+    }
+}
@@ -0,0 +1,243 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.VendorDashboardResponse;
+import com.excisemia.dto.VendorDashboardResponse.VendorSummary;
+import com.excisemia.model.Vendor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Lock status counts and trip totals for every active vendor, for the system super admin. Vendors are
+// summarized in parallel on a pool of `concurrency` threads, which is also the most connections the dashboard
+// takes from the database pool. Each vendor runs in its own read-only transaction and gets vendorTimeoutMs from
+// the moment it starts, never past the request deadline; a statement still running then is cancelled with
+// Statement.cancel, so a slow vendor frees its thread and connection for the vendors queued behind it. The
+// request waits at most timeoutMs overall; vendors still queued or running then are reported as TIMED_OUT.
+@Service
+public class VendorDashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(VendorDashboardService.class);
+    public static final String METRIC_NAME = "dashboard.fanout";
+
+    @Value("${locktrackpro.dashboard.concurrency:4}")
+    private int concurrency;
+
+    @Value("${locktrackpro.dashboard.queueCapacity:1000}")
+    private int queueCapacity;
+
+    // Has to be below timeoutMs, so one slow vendor cannot use up the whole request
+    @Value("${locktrackpro.dashboard.vendorTimeoutMs:1500}")
+    private long vendorTimeoutMs;
+
+    @Value("${locktrackpro.dashboard.timeoutMs:3000}")
+    private long timeoutMs;
+
+    @Autowired
+    private VendorService vendorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolTaskExecutor executor;
+    private ThreadPoolTaskScheduler watchdog;
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void start() {
+        if (vendorTimeoutMs <= 0 || vendorTimeoutMs >= timeoutMs) {
+            throw new IllegalStateException("locktrackpro.dashboard.vendorTimeoutMs (" + vendorTimeoutMs +
+                    ") must be positive and below locktrackpro.dashboard.timeoutMs (" + timeoutMs + ")");
+        }
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("vendor-fanout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), METRIC_NAME, Tags.empty()).bindTo(meterRegistry);
+
+        watchdog = new ThreadPoolTaskScheduler();
+        watchdog.setPoolSize(1);
+        watchdog.setThreadNamePrefix("vendor-fanout-watchdog-");
+        watchdog.initialize();
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        watchdog.shutdown();
+    }
+
+    public VendorDashboardResponse getDashboard() {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<Vendor> vendors = vendorService.getAllActiveVendors();
+
+        List<Future<VendorSummary>> futures = new ArrayList<>(vendors.size());
+        for (Vendor vendor : vendors) {
+            try {
+                futures.add(executor.submit(() -> summarize(vendor, deadline)));
+            } catch (TaskRejectedException e) {
+                futures.add(null);
+            }
+        }
+
+        List<VendorSummary> summaries = new ArrayList<>(vendors.size());
+        int completed = 0;
+        int timedOut = 0;
+        int failed = 0;
+        for (int i = 0; i < vendors.size(); i++) {
+            Vendor vendor = vendors.get(i);
+            Future<VendorSummary> future = futures.get(i);
+            VendorSummary summary;
+            if (future == null) {
+                summary = unavailable(vendor, VendorSummary.Status.FAILED, "Dashboard is busy");
+            } else {
+                try {
+                    summary = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    summary = unavailable(vendor, VendorSummary.Status.TIMED_OUT, null);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof QueryTimeoutException) {
+                        summary = unavailable(vendor, VendorSummary.Status.TIMED_OUT, e.getCause().getMessage());
+                    } else {
+                        logger.warn("Dashboard summary for vendor {} failed: {}", vendor.getId(),
+                                e.getCause().getMessage());
+                        summary = unavailable(vendor, VendorSummary.Status.FAILED, e.getCause().getMessage());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(true);
+                    summary = unavailable(vendor, VendorSummary.Status.TIMED_OUT, null);
+                }
+            }
+            switch (summary.getStatus()) {
+                case OK -> completed++;
+                case TIMED_OUT -> timedOut++;
+                case FAILED -> failed++;
+            }
+            summaries.add(summary);
+        }
+        meterRegistry.counter(METRIC_NAME + ".vendors", "outcome", "ok").increment(completed);
+        meterRegistry.counter(METRIC_NAME + ".vendors", "outcome", "timed_out").increment(timedOut);
+        meterRegistry.counter(METRIC_NAME + ".vendors", "outcome", "failed").increment(failed);
+        return new VendorDashboardResponse(summaries, completed, timedOut, failed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // One vendor's figures in a read-only transaction, so it can be served by the replica. Gives up with a
+    // QueryTimeoutException at vendorTimeoutMs from now or at requestDeadline (System.nanoTime), whichever is first.
+    public VendorSummary summarize(Vendor vendor, long requestDeadline) {
+        long started = System.nanoTime();
+        long deadline = Math.min(started + TimeUnit.MILLISECONDS.toNanos(vendorTimeoutMs), requestDeadline);
+        VendorSummary summary;
+        try {
+            summary = readOnly.execute(status -> {
+                VendorSummary result = new VendorSummary(vendor.getId(), vendor.getVendorName(), vendor.getVendorCode());
+                Map<String, Long> locksByStatus = new LinkedHashMap<>();
+                query("SELECT status, COUNT(*) AS locks FROM locks WHERE vendor_id = ? GROUP BY status ORDER BY status",
+                        deadline, rs -> {
+                            locksByStatus.put(rs.getString("status"), rs.getLong("locks"));
+                        }, vendor.getId());
+                result.setLocksByStatus(locksByStatus);
+                query("SELECT COUNT(*) AS trips, COUNT(CASE WHEN status = 'ACTIVE' THEN 1 END) AS active, " +
+                        "COALESCE(SUM(distance_km), 0) AS distance, COALESCE(SUM(detention_mins), 0) AS detention " +
+                        "FROM trips WHERE vendor_id = ? AND start_time >= ?", deadline, rs -> {
+                            result.setTotalTrips(rs.getLong("trips"));
+                            result.setActiveTrips(rs.getLong("active"));
+                            result.setTotalDistanceKm(rs.getDouble("distance"));
+                            result.setTotalDetentionMins(rs.getLong("detention"));
+                        }, vendor.getId(), Timestamp.valueOf(partitionManager.hotWindowStart()));
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // Depending on the driver, a cancelled statement fails itself or the rollback after it
+            if (System.nanoTime() - deadline >= 0) {
+                throw new QueryTimeoutException("Vendor summary ran past its deadline");
+            }
+            throw e;
+        }
+        summary.setStatus(VendorSummary.Status.OK);
+        summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return summary;
+    }
+
+    // Runs one statement, cancelling it through the driver if it is still running at the deadline. JDBC query
+    // timeouts only have whole seconds, and interrupting the thread does not stop a statement.
+    void query(String sql, long deadline, RowCallbackHandler handler, Object... args) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException("Vendor summary ran past its deadline");
+        }
+        jdbcTemplate.execute(sql, (PreparedStatementCallback<Void>) statement -> {
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            ScheduledFuture<?> cancel = watchdog.schedule(() -> {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Could not cancel dashboard statement: {}", e.getMessage());
+                }
+            }, Instant.now().plusNanos(remaining));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    handler.processRow(rs);
+                }
+            } finally {
+                cancel.cancel(false);
+            }
+            return null;
+        });
+    }
+
+    private static VendorSummary unavailable(Vendor vendor, VendorSummary.Status status, String error) {
+        VendorSummary summary = new VendorSummary(vendor.getId(), vendor.getVendorName(), vendor.getVendorCode());
+        summary.setStatus(status);
+        summary.setError(error);
+        return summary;
+    }
+}
@@ -1,10 +1,12 @@
 package com.excisemia.service;
 
 import com.excisemia.dto.VendorRequest;
+import com.excisemia.model.OutboxEvent;
 import com.excisemia.model.Vendor;
 import com.excisemia.repository.VendorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,10 +16,15 @@ public class VendorService {
     @Autowired
     private VendorRepository vendorRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional(readOnly = true)
     public List<Vendor> getAllActiveVendors() {
         return vendorRepository.findByIsActiveTrue();
     }
 
+    @Transactional
     public Vendor createVendor(VendorRequest vendorRequest) {
         if (vendorRepository.existsByVendorCode(vendorRequest.getVendorCode())) {
             throw new RuntimeException("Vendor code already exists");
@@ -38,22 +45,31 @@ public class VendorService {
         return vendorRepository.save(vendor);
     }
 
+    @Transactional(readOnly = true)
     public Vendor getVendorById(Long id) {
         return vendorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vendor not found"));
     }
 
+    @Transactional
     public Vendor updateVendor(Long id, VendorRequest vendorRequest) {
         Vendor vendor = getVendorById(id);
+        boolean renamed = !vendorRequest.getVendorName().equals(vendor.getVendorName());
         
         vendor.setVendorName(vendorRequest.getVendorName());
         vendor.setDescription(vendorRequest.getDescription());
         vendor.setContactEmail(vendorRequest.getContactEmail());
         vendor.setContactPhone(vendorRequest.getContactPhone());
         
-        return vendorRepository.save(vendor);
+        vendor = vendorRepository.save(vendor);
+        if (renamed) {
+            outboxService.record(OutboxService.VENDOR, id, id, OutboxEvent.VENDOR_UPDATED,
+                    OutboxService.payload("vendorId", id, "vendorName", vendor.getVendorName()));
+        }
+        return vendor;
     }
 
+    @Transactional
     public void deactivateVendor(Long id) {
         Vendor vendor = getVendorById(id);
         vendor.setIsActive(false);
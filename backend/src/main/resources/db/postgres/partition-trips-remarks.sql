@@ -0,0 +1,98 @@
+-- Converts trips and remarks into tables range-partitioned by month on start_time / timestamp, and creates
+-- the archive tables that PartitionArchiveJob moves old rows into.
+--
+-- Run once against the production database with the application stopped:
+--   psql "$DATABASE_URL" -f partition-trips-remarks.sql
+-- Afterwards PartitionManager creates the upcoming monthly partitions and drops the ones the archive job has
+-- emptied. Hibernate (ddl-auto=update) treats the partitioned parents as existing tables because of
+-- hibernate.hbm2ddl.extra_physical_table_types in application-prod.properties.
+--
+-- The archive tables can be moved to a tablespace on compressed storage with
+--   ALTER TABLE trips_archive SET TABLESPACE archive; ALTER TABLE remarks_archive SET TABLESPACE archive;
+
+BEGIN;
+
+CREATE OR REPLACE FUNCTION locktrackpro_create_month_partition(parent text, month date) RETURNS void AS $$
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   parent || '_p' || to_char(month, 'YYYYMM'), parent,
+                   date_trunc('month', month), date_trunc('month', month) + interval '1 month');
+END;
+$$ LANGUAGE plpgsql;
+
+-- Trips. The primary key has to include the partition key.
+ALTER TABLE trips RENAME TO trips_unpartitioned;
+ALTER TABLE trips_unpartitioned RENAME CONSTRAINT trips_pkey TO trips_unpartitioned_pkey;
+
+CREATE TABLE trips (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY,
+    lock_id        bigint       NOT NULL,
+    schedule_id    bigint       NOT NULL,
+    vendor_id      bigint       NOT NULL REFERENCES vendors (id),
+    start_time     timestamp(6) NOT NULL,
+    end_time       timestamp(6),
+    distance_km    float8,
+    detention_mins integer,
+    status         varchar(20) CHECK (status IN ('ACTIVE', 'COMPLETED')),
+    PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+
+CREATE INDEX idx_trips_vendor_start ON trips (vendor_id, start_time);
+CREATE INDEX idx_trips_vendor_status ON trips (vendor_id, status);
+
+-- Rows outside every monthly partition land here; PartitionManager keeps it empty by creating months ahead
+CREATE TABLE trips_default PARTITION OF trips DEFAULT;
+
+SELECT locktrackpro_create_month_partition('trips', month::date)
+FROM generate_series(date_trunc('month', COALESCE((SELECT MIN(start_time) FROM trips_unpartitioned), now())),
+                     date_trunc('month', now()) + interval '3 months', interval '1 month') AS month;
+
+INSERT INTO trips (id, lock_id, schedule_id, vendor_id, start_time, end_time, distance_km, detention_mins, status)
+SELECT id, lock_id, schedule_id, vendor_id, start_time, end_time, distance_km, detention_mins, status
+FROM trips_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('trips', 'id'), COALESCE((SELECT MAX(id) FROM trips), 0) + 1, false);
+
+-- Remarks
+ALTER TABLE remarks RENAME TO remarks_unpartitioned;
+ALTER TABLE remarks_unpartitioned RENAME CONSTRAINT remarks_pkey TO remarks_unpartitioned_pkey;
+
+CREATE TABLE remarks (
+    id        bigint GENERATED BY DEFAULT AS IDENTITY,
+    lock_id   bigint        NOT NULL,
+    user_id   bigint        NOT NULL,
+    user_name varchar(100)  NOT NULL,
+    message   varchar(1000) NOT NULL,
+    vendor_id bigint        NOT NULL REFERENCES vendors (id),
+    timestamp timestamp(6)  NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE INDEX idx_remarks_vendor_timestamp ON remarks (vendor_id, timestamp);
+CREATE INDEX idx_remarks_lock_timestamp ON remarks (vendor_id, lock_id, timestamp);
+
+CREATE TABLE remarks_default PARTITION OF remarks DEFAULT;
+
+SELECT locktrackpro_create_month_partition('remarks', month::date)
+FROM generate_series(date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM remarks_unpartitioned), now())),
+                     date_trunc('month', now()) + interval '3 months', interval '1 month') AS month;
+
+INSERT INTO remarks (id, lock_id, user_id, user_name, message, vendor_id, timestamp)
+SELECT id, lock_id, user_id, user_name, message, vendor_id, timestamp
+FROM remarks_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('remarks', 'id'), COALESCE((SELECT MAX(id) FROM remarks), 0) + 1, false);
+
+-- Archive tier. Append-only, so pages are packed full.
+CREATE TABLE IF NOT EXISTS trips_archive (LIKE trips INCLUDING DEFAULTS) WITH (fillfactor = 100);
+ALTER TABLE trips_archive ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE INDEX IF NOT EXISTS idx_trips_archive_vendor_time ON trips_archive (vendor_id, start_time);
+
+CREATE TABLE IF NOT EXISTS remarks_archive (LIKE remarks INCLUDING DEFAULTS) WITH (fillfactor = 100);
+ALTER TABLE remarks_archive ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE INDEX IF NOT EXISTS idx_remarks_archive_vendor_time ON remarks_archive (vendor_id, timestamp);
+
+COMMIT;
+
+-- Once the application has been verified against the partitioned tables:
+--   DROP TABLE trips_unpartitioned; DROP TABLE remarks_unpartitioned;
@@ -0,0 +1,93 @@
+package com.excisemia.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Two embedded H2 databases stand in for the primary and the replica; DATABASE() tells them apart.
+// Only the primary gets a schema, so the startup data check that would read the replica is mocked out.
+@SpringBootTest(properties = {
+        "locktrackpro.replica.url=jdbc:h2:mem:locktrackpro-replica;DB_CLOSE_DELAY=-1",
+        "locktrackpro.replica.maxLagMs=2000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final String PRIMARY = "LOCKTRACKPRO-TEST";
+    private static final String REPLICA = "LOCKTRACKPRO-REPLICA";
+
+    @MockBean
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ConsistencyTokenAdvice consistencyTokenAdvice;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals(REPLICA, databaseIn(true));
+        assertEquals(PRIMARY, databaseIn(false));
+        assertEquals(PRIMARY, jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    @Test
+    void readsAfterAWriteInTheSameRequestGoToThePrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/locks/1/status");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertEquals(REPLICA, databaseIn(true));
+        assertEquals(PRIMARY, databaseIn(false));
+        assertEquals(PRIMARY, databaseIn(true));
+        assertNotNull(request.getAttribute(ReplicaRoutingDataSource.WROTE_ATTRIBUTE));
+    }
+
+    @Test
+    void freshConsistencyTokenPinsReadsToThePrimary() {
+        assertEquals(PRIMARY, databaseForRequestWithToken(String.valueOf(System.currentTimeMillis())));
+        assertEquals(REPLICA, databaseForRequestWithToken(String.valueOf(System.currentTimeMillis() - 60_000)));
+        assertEquals(REPLICA, databaseForRequestWithToken("not-a-token"));
+    }
+
+    private String databaseForRequestWithToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/locks");
+        request.addHeader(ConsistencyTokenAdvice.HEADER, token);
+        HttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            consistencyTokenAdvice.preHandle(request, response, new Object());
+            return databaseIn(true);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
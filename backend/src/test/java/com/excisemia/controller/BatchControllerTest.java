@@ -0,0 +1,80 @@
+package com.excisemia.controller;
+
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.JwtUtils;
+import com.excisemia.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oversizeBatchesAreRejectedBeforeAnyOperationRuns() throws Exception {
+        Long vendorId = uniqueVendor(vendorRepository, "Oversize").getId();
+        User officer = new User("Officer " + vendorId, "oversize" + vendorId + "@vendor.test", "x", User.Role.TRACKING,
+                vendorId);
+        officer.setIsActive(true);
+        officer = userRepository.save(officer);
+        Long lockId = lock(lockRepository, vendorId, "OVERSIZE").getId();
+        String operation = "{\"type\":\"CREATE_REMARK\",\"lockId\":" + lockId + ",\"message\":\"Seal checked\"}";
+
+        assertEquals(400, batch(officer, 501, operation).getResponse().getStatus());
+        assertEquals(0, remarks(lockId));
+
+        assertEquals(200, batch(officer, 500, operation).getResponse().getStatus());
+        assertEquals(500, remarks(lockId));
+    }
+
+    private MvcResult batch(User user, int operations, String operation) throws Exception {
+        UserPrincipal principal = UserPrincipal.create(user);
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        String body = "{\"mode\":\"PER_OPERATION\",\"operations\":["
+                + String.join(",", Collections.nCopies(operations, operation)) + "]}";
+        return mockMvc.perform(post("/api/batch").header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+    }
+
+    private int remarks(Long lockId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM remarks WHERE lock_id = ?", Integer.class, lockId);
+    }
+}
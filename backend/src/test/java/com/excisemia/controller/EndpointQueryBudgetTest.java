@@ -0,0 +1,276 @@
+package com.excisemia.controller;
+
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.RemarkRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.JwtUtils;
+import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.LeaderboardService;
+import com.excisemia.service.LockStatusCounters;
+import com.excisemia.service.TripFactCache;
+import com.excisemia.support.QueryCountingConfig;
+import com.excisemia.support.QueryRecorder;
+import com.excisemia.support.TestDataSeeder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// Calls every endpoint against a small and a large dataset and fails when an endpoint's
+// SQL statement count grows with the data (an N+1) or exceeds its declared budget.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfig.class)
+class EndpointQueryBudgetTest {
+    private static final Logger logger = LoggerFactory.getLogger(EndpointQueryBudgetTest.class);
+
+    private static final int SMALL_SCALE = 1;
+    private static final int LARGE_SCALE = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private RemarkRepository remarkRepository;
+
+    @Autowired
+    private TripFactCache tripFactCache;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private LockStatusCounters lockStatusCounters;
+
+    private TestDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new TestDataSeeder(jdbcTemplate, vendorRepository, userRepository, lockRepository,
+                scheduleRepository, tripRepository, remarkRepository, passwordEncoder.encode("demo123"));
+        // The fact cache loads in the background after startup; wait for it instead of racing the 503
+        tripFactCache.reload();
+        leaderboardService.reconcile();
+        lockStatusCounters.reconcile();
+    }
+
+    @Test
+    void statementCountsStayFlatAndWithinBudget() throws Exception {
+        Map<String, QueryRecorder.Recording> small = measure(seeder.seed(SMALL_SCALE));
+        Map<String, QueryRecorder.Recording> large = measure(seeder.seed(LARGE_SCALE));
+
+        List<String> failures = new ArrayList<>();
+        StringBuilder report = new StringBuilder(String.format("%n%-40s %8s %8s %8s %10s%n",
+                "endpoint", "small", "large", "budget", "db ms"));
+        for (EndpointCheck check : endpoints()) {
+            int smallCount = small.get(check.name).getStatementCount();
+            QueryRecorder.Recording largeRecording = large.get(check.name);
+            int largeCount = largeRecording.getStatementCount();
+            report.append(String.format("%-40s %8d %8d %8d %10d%n",
+                    check.name, smallCount, largeCount, check.budget, largeRecording.getElapsedMillis()));
+
+            if (largeCount > smallCount) {
+                failures.add(check.name + ": statement count grows with data size (" + smallCount + " -> "
+                        + largeCount + ")\n    " + String.join("\n    ", largeRecording.getQueries()));
+            }
+            if (largeCount > check.budget) {
+                failures.add(check.name + ": " + largeCount + " statements exceed the budget of " + check.budget);
+            }
+        }
+        logger.info("Statement counts per endpoint:{}", report);
+
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures) + "\n" + report);
+    }
+
+    private Map<String, QueryRecorder.Recording> measure(TestDataSeeder.Dataset dataset) throws Exception {
+        Map<String, QueryRecorder.Recording> recordings = new LinkedHashMap<>();
+        for (EndpointCheck check : endpoints()) {
+            MockHttpServletRequestBuilder request = check.request.apply(dataset);
+
+            QueryRecorder.start();
+            MvcResult result;
+            try {
+                result = mockMvc.perform(request).andReturn();
+                if (result.getRequest().isAsyncStarted()) {
+                    result = mockMvc.perform(asyncDispatch(result)).andReturn();
+                }
+            } finally {
+                recordings.put(check.name, QueryRecorder.stop());
+            }
+
+            int status = result.getResponse().getStatus();
+            assertTrue(status < 400, check.name + " returned HTTP " + status + ": "
+                    + result.getResponse().getContentAsString());
+        }
+        return recordings;
+    }
+
+    // Reads run before writes so every read sees the full seeded dataset
+    private List<EndpointCheck> endpoints() {
+        List<EndpointCheck> checks = new ArrayList<>();
+        checks.add(new EndpointCheck("GET /api/locks", 3,
+                d -> as(get("/api/locks"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/locks/summary", 1,
+                d -> as(get("/api/locks/summary"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/locks/board", 2,
+                d -> as(get("/api/locks/board").param("limit", "50"), d.getTrackingUser())));
+        checks.add(new EndpointCheck("GET /api/remarks", 3,
+                d -> as(get("/api/remarks"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/remarks/lock/{lockId}", 3,
+                d -> as(get("/api/remarks/lock/" + d.getLockId()), d.getTrackingUser())));
+        checks.add(new EndpointCheck("GET /api/schedules", 3,
+                d -> as(get("/api/schedules"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/analytics", 4,
+                d -> as(get("/api/analytics"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/analytics/trips", 1,
+                d -> as(get("/api/analytics/trips").param("groupBy", "LOCK", "MONTH"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/analytics/percentiles", 4,
+                d -> as(get("/api/analytics/percentiles").param("from", LocalDate.now().minusDays(30).toString())
+                        .param("to", LocalDate.now().plusDays(1).toString()).param("lockId", String.valueOf(d.getLockId())),
+                        d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/analytics/anomalies", 2,
+                d -> as(get("/api/analytics/anomalies"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/analytics/leaderboards/{board}", 2,
+                d -> as(get("/api/analytics/leaderboards/LOCK_TRIPS"), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/trips", 3,
+                d -> as(get("/api/trips"), d.getTrackingUser())));
+        checks.add(new EndpointCheck("GET /api/trips/archive", 3,
+                d -> as(get("/api/trips/archive").param("from", LocalDate.now().minusYears(2).toString())
+                        .param("to", LocalDate.now().minusYears(1).toString()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/remarks/archive", 3,
+                d -> as(get("/api/remarks/archive").param("from", LocalDate.now().minusYears(2).toString())
+                        .param("to", LocalDate.now().minusYears(1).toString()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("GET /api/users (vendor)", 2,
+                d -> as(get("/api/users"), d.getVendorSuperAdmin())));
+        checks.add(new EndpointCheck("GET /api/users (system)", 2,
+                d -> as(get("/api/users"), d.getSystemAdmin())));
+        checks.add(new EndpointCheck("GET /api/users/vendor/{vendorId}", 2,
+                d -> as(get("/api/users/vendor/" + d.getVendorId()), d.getSystemAdmin())));
+        checks.add(new EndpointCheck("GET /api/users/profile", 2,
+                d -> as(get("/api/users/profile"), d.getTrackingUser())));
+        checks.add(new EndpointCheck("GET /api/vendors", 1,
+                d -> get("/api/vendors")));
+        checks.add(new EndpointCheck("POST /api/auth/signin", 2,
+                d -> post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + d.getVendorAdmin().getEmail() + "\",\"password\":\"demo123\"}")));
+        checks.add(new EndpointCheck("POST /api/auth/validate-token", 3,
+                d -> post("/api/auth/validate-token").header("Authorization", "Bearer " + token(d.getVendorAdmin()))));
+        // Writes include one outbox insert per domain event they record. The claim goes first, before anything
+        // loads the vendor's lock pool, so it always takes the database path; it claims the dataset lock for the
+        // tracking user, who starts its trip below.
+        checks.add(new EndpointCheck("POST /api/locks/claim", 5,
+                d -> as(post("/api/locks/claim"), d.getTrackingUser())));
+        checks.add(new EndpointCheck("POST /api/locks", 4,
+                d -> as(post("/api/locks"), d.getVendorAdmin()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lockNumber\":\"NEW-LOCK\"}")));
+        checks.add(new EndpointCheck("PUT /api/locks/{id}/status", 5,
+                d -> as(put("/api/locks/" + d.getLockId() + "/status").param("status", "IN_TRANSIT"),
+                        d.getTrackingUser())));
+        checks.add(new EndpointCheck("GET /api/schedules/plan", 7,
+                d -> as(get("/api/schedules/plan").param("date", LocalDate.now().toString()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("POST /api/schedules/plan", 10,
+                d -> as(post("/api/schedules/plan").param("date", LocalDate.now().toString()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("PUT /api/locks/{id}/assign", 4,
+                d -> as(put("/api/locks/" + d.getLockId() + "/assign")
+                        .param("userId", d.getTrackingUser().getId().toString()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("POST /api/remarks", 3,
+                d -> as(post("/api/remarks"), d.getTrackingUser()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lockId\":" + d.getLockId() + ",\"message\":\"Seal verified\"}")));
+        checks.add(new EndpointCheck("POST /api/schedules", 3,
+                d -> as(post("/api/schedules"), d.getVendorAdmin()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"date\":\"" + LocalDate.now().plusDays(7) + "\",\"note\":\"Extra run\"}")));
+        checks.add(new EndpointCheck("POST /api/trips", 8,
+                d -> as(post("/api/trips"), d.getTrackingUser()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lockId\":" + d.getLockId() + ",\"scheduleId\":" + d.getScheduleId() + "}")));
+        checks.add(new EndpointCheck("PUT /api/trips/{id}/complete", 6,
+                d -> as(put("/api/trips/" + d.getActiveTripId() + "/complete"), d.getTrackingUser())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"distanceKm\":42.5,\"detentionMins\":15}")));
+        checks.add(new EndpointCheck("DELETE /api/schedules/{id}", 4,
+                d -> as(delete("/api/schedules/" + d.getScheduleId()), d.getVendorAdmin())));
+        checks.add(new EndpointCheck("POST /api/batch", 7,
+                d -> as(post("/api/batch"), d.getVendorAdmin()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mode\":\"ALL_OR_NOTHING\",\"operations\":["
+                                + "{\"type\":\"CREATE_REMARK\",\"lockId\":" + d.getLockId() + ",\"message\":\"Queued\"},"
+                                + "{\"type\":\"UPDATE_LOCK_STATUS\",\"lockId\":" + d.getLockId() + ",\"status\":\"REACHED\"}]}")));
+        checks.add(new EndpointCheck("PUT /api/users/push-token", 4,
+                d -> as(put("/api/users/push-token"), d.getTrackingUser()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"ExponentPushToken[budget]\"}")));
+        checks.add(new EndpointCheck("PUT /api/users/{userId}/deactivate", 3,
+                d -> as(put("/api/users/" + d.getTrackingUser().getId() + "/deactivate"), d.getSystemAdmin())));
+        return checks;
+    }
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request, User user) {
+        return request.header("Authorization", "Bearer " + token(user));
+    }
+
+    private String token(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static class EndpointCheck {
+        private final String name;
+        private final int budget;
+        private final Function<TestDataSeeder.Dataset, MockHttpServletRequestBuilder> request;
+
+        EndpointCheck(String name, int budget, Function<TestDataSeeder.Dataset, MockHttpServletRequestBuilder> request) {
+            this.name = name;
+            this.budget = budget;
+            this.request = request;
+        }
+    }
+}
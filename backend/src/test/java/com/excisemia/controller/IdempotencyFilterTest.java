@@ -0,0 +1,82 @@
+package com.excisemia.controller;
+
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.IdempotencyFilter;
+import com.excisemia.security.JwtUtils;
+import com.excisemia.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retriesReplayAndReusedKeysWithAnotherBodyAreRejected() throws Exception {
+        Long vendorId = uniqueVendor(vendorRepository, "Retry").getId();
+        User officer = new User("Officer " + vendorId, "retry" + vendorId + "@vendor.test", "x", User.Role.TRACKING, vendorId);
+        officer.setIsActive(true);
+        officer = userRepository.save(officer);
+        Long lockId = lock(lockRepository, vendorId, "RETRY").getId();
+        String key = "remark-" + vendorId;
+        String body = "{\"lockId\":" + lockId + ",\"message\":\"Seal checked\"}";
+
+        MvcResult first = remark(officer, key, body);
+        assertEquals(200, first.getResponse().getStatus());
+        assertNull(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        MvcResult retry = remark(officer, key, body);
+        assertEquals(200, retry.getResponse().getStatus());
+        assertEquals("true", retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+
+        MvcResult reused = remark(officer, key, "{\"lockId\":" + lockId + ",\"message\":\"Seal broken\"}");
+        assertEquals(422, reused.getResponse().getStatus());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM remarks WHERE lock_id = ?",
+                Integer.class, lockId));
+    }
+
+    private MvcResult remark(User user, String key, String body) throws Exception {
+        UserPrincipal principal = UserPrincipal.create(user);
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return mockMvc.perform(post("/api/remarks").header("Authorization", "Bearer " + token)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+    }
+}
@@ -0,0 +1,148 @@
+package com.excisemia.controller;
+
+import com.excisemia.config.VendorTagGuard;
+import com.excisemia.model.User;
+import com.excisemia.security.TenantThrottleFilter;
+import com.excisemia.security.UserPrincipal;
+import com.excisemia.service.TenantRateLimiter;
+import com.excisemia.service.VendorBulkhead;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantThrottleFilterTest {
+
+    private static final FilterChain OK = (request, response) -> { };
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void usersAreCheckedBeforeTheVendorAndGetTheirTokenBackWhenTheVendorRefuses() throws Exception {
+        TenantRateLimiter limiter = limiter(true, 1, 1);
+        TenantThrottleFilter filter = filter(limiter, bulkhead(false, 1));
+        TenantRateLimiter.EndpointRule rule = limiter.ruleFor("GET", "/api/locks");
+
+        assertEquals(200, request(filter, 1L, 7L, "/api/locks", OK).getStatus());
+        MockHttpServletResponse refused = request(filter, 2L, 7L, "/api/locks", OK);
+        assertEquals(429, refused.getStatus());
+        assertEquals("1", refused.getHeader("Retry-After"));
+        assertEquals(1.0, throttled("vendor_rate"));
+        assertEquals(0, limiter.tryAcquireUser(2L, rule));
+
+        // An exhausted user is turned away without touching the vendor bucket
+        assertEquals(429, request(filter, 1L, 8L, "/api/locks", OK).getStatus());
+        assertEquals(1.0, throttled("user_rate"));
+        assertEquals(0, limiter.tryAcquireVendor(8L, rule));
+    }
+
+    @Test
+    void theBulkheadCapsConcurrentGuardedRequestsPerVendor() throws Exception {
+        VendorBulkhead bulkhead = bulkhead(true, 1);
+        TenantThrottleFilter filter = filter(limiter(false, 1, 1), bulkhead);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> held =
+                    executor.submit(() -> request(filter, 1L, 7L, "/api/locks", blocking));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            assertEquals(1, bulkhead.inFlight(7L));
+
+            assertEquals(429, request(filter, 2L, 7L, "/api/locks", OK).getStatus());
+            assertEquals(1.0, throttled("bulkhead"));
+            // Other vendors and unguarded endpoints are not affected
+            assertEquals(200, request(filter, 3L, 8L, "/api/locks", OK).getStatus());
+            assertEquals(200, request(filter, 2L, 7L, "/api/trips", OK).getStatus());
+
+            release.countDown();
+            assertEquals(200, held.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(0, bulkhead.inFlight(7L));
+            assertEquals(200, request(filter, 2L, 7L, "/api/locks", OK).getStatus());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private MockHttpServletResponse request(TenantThrottleFilter filter, Long userId, Long vendorId, String path,
+                                            FilterChain chain) throws Exception {
+        UserPrincipal principal = new UserPrincipal(userId, "User " + userId, userId + "@vendor.test", "x",
+                User.Role.TRACKING, vendorId, true, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+        return response;
+    }
+
+    private double throttled(String reason) {
+        return meterRegistry.get(TenantThrottleFilter.METRIC_NAME).tag("reason", reason).counter().count();
+    }
+
+    private TenantThrottleFilter filter(TenantRateLimiter limiter, VendorBulkhead bulkhead) {
+        VendorTagGuard vendorTagGuard = new VendorTagGuard();
+        ReflectionTestUtils.setField(vendorTagGuard, "maxVendorTags", 0);
+        TenantThrottleFilter filter = new TenantThrottleFilter();
+        ReflectionTestUtils.setField(filter, "rateLimiter", limiter);
+        ReflectionTestUtils.setField(filter, "bulkhead", bulkhead);
+        ReflectionTestUtils.setField(filter, "vendorTagGuard", vendorTagGuard);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        return filter;
+    }
+
+    private static TenantRateLimiter limiter(boolean enabled, double perSecond, double burstSeconds) {
+        TenantRateLimiter limiter = new TenantRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", enabled);
+        ReflectionTestUtils.setField(limiter, "vendorPerSecond", perSecond);
+        ReflectionTestUtils.setField(limiter, "userPerSecond", perSecond);
+        ReflectionTestUtils.setField(limiter, "burstSeconds", burstSeconds);
+        ReflectionTestUtils.setField(limiter, "endpointOverrides", "");
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 100);
+        ReflectionTestUtils.setField(limiter, "sweepIntervalMs", 10000L);
+        limiter.init();
+        return limiter;
+    }
+
+    private static VendorBulkhead bulkhead(boolean enabled, int maxConcurrentPerVendor) {
+        VendorBulkhead bulkhead = new VendorBulkhead();
+        ReflectionTestUtils.setField(bulkhead, "enabled", enabled);
+        ReflectionTestUtils.setField(bulkhead, "maxConcurrentPerVendor", maxConcurrentPerVendor);
+        ReflectionTestUtils.setField(bulkhead, "maxWaitMs", 0L);
+        ReflectionTestUtils.setField(bulkhead, "endpoints", "GET /api/locks");
+        bulkhead.init();
+        return bulkhead;
+    }
+}
@@ -0,0 +1,88 @@
+package com.excisemia.service;
+
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "locktrackpro.analytics.cache.enabled=true",
+        "locktrackpro.analytics.cache.freshSeconds=1",
+        "locktrackpro.analytics.cache.maxStaleSeconds=60"
+})
+@ActiveProfiles("test")
+class AnalyticsCacheTest {
+
+    @SpyBean
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Test
+    void concurrentReadsShareOneComputationAndStaleReadsRefreshInTheBackground() throws Exception {
+        Long vendorId = uniqueVendor(vendorRepository, "Cache").getId();
+        lock(lockRepository, vendorId, "CACHE");
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return invocation.callRealMethod();
+        }).when(analyticsService).getAnalyticsByVendor(vendorId);
+
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AnalyticsCache.Result>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return analyticsCache.get(vendorId);
+            }));
+        }
+        start.countDown();
+        AnalyticsCache.Result first = results.get(0).get();
+        for (Future<AnalyticsCache.Result> result : results) {
+            assertSame(first.getValue(), result.get().getValue());
+        }
+        callers.shutdown();
+        verify(analyticsService, times(1)).getAnalyticsByVendor(vendorId);
+        assertEquals(1, first.getValue().size());
+
+        // Past the freshness window the old result is served at once and recomputed once in the background
+        Thread.sleep(1100);
+        long started = System.currentTimeMillis();
+        AnalyticsCache.Result stale = analyticsCache.get(vendorId);
+        AnalyticsCache.Result alsoStale = analyticsCache.get(vendorId);
+        assertTrue(System.currentTimeMillis() - started < 200);
+        assertSame(first.getValue(), stale.getValue());
+        assertTrue(alsoStale.getAgeMillis() >= 1000);
+        verify(analyticsService, timeout(2000).times(2)).getAnalyticsByVendor(vendorId);
+        Thread.sleep(400);
+        assertTrue(analyticsCache.get(vendorId).getAgeMillis() < 1000);
+        verify(analyticsService, times(2)).getAnalyticsByVendor(vendorId);
+    }
+}
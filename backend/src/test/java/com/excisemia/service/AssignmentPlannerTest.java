@@ -0,0 +1,95 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.AssignmentPlan;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssignmentPlannerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 2);
+    private static final LocalDateTime NOW = DATE.atStartOfDay();
+
+    @Test
+    void spreadsSchedulesEvenlyOnTopOfExistingLoad() {
+        List<Schedule> schedules = schedules(3000);
+        List<Lock> locks = new ArrayList<>();
+        for (long id = 1; id <= 4000; id++) {
+            locks.add(lock(id, NOW.minusMinutes(id)));
+        }
+        List<Long> users = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            users.add(id);
+        }
+        Map<Long, Integer> existing = Map.of(1L, 12, 2L, 5);
+
+        AssignmentPlan plan = AssignmentPlanner.assign(DATE, schedules, locks, Map.of(), users, existing, 0.5, NOW);
+
+        assertEquals(3000, plan.getAssignments().size());
+        assertTrue(plan.getUnassignedScheduleIds().isEmpty());
+        Map<Long, Integer> load = new HashMap<>(existing);
+        for (AssignmentPlan.Assignment assignment : plan.getAssignments()) {
+            load.merge(assignment.getUserId(), 1, Integer::sum);
+        }
+        // 3017 schedules over 300 users: user 1 already has more than its share and gets nothing
+        assertEquals(12, load.get(1L));
+        int min = load.values().stream().mapToInt(Integer::intValue).min().orElseThrow();
+        int max = load.entrySet().stream().filter(e -> e.getKey() != 1L).mapToInt(Map.Entry::getValue).max().orElseThrow();
+        assertTrue(max - min <= 1, "loads differ by " + (max - min));
+        assertEquals(3000, plan.getAssignments().stream().map(AssignmentPlan.Assignment::getLockId)
+                .collect(HashSet::new, HashSet::add, HashSet::addAll).size());
+    }
+
+    @Test
+    void prefersLongIdleLocksWithLittleDistance() {
+        Lock idleFresh = lock(1, NOW.minusDays(10));
+        Lock recent = lock(2, NOW.minusDays(1));
+        Lock idleWorn = lock(3, NOW.minusDays(10));
+        Map<Long, Double> distance = Map.of(3L, 1200.0, 2L, 0.0);
+
+        AssignmentPlan plan = AssignmentPlanner.assign(DATE, schedules(2), List.of(idleWorn, recent, idleFresh),
+                distance, List.of(7L), Map.of(), 0.5, NOW);
+
+        assertEquals(List.of(1L, 2L), plan.getAssignments().stream().map(AssignmentPlan.Assignment::getLockId).toList());
+    }
+
+    @Test
+    void schedulesBeyondTheAvailableLocksStayUnassigned() {
+        List<Schedule> schedules = schedules(3);
+
+        AssignmentPlan plan = AssignmentPlanner.assign(DATE, schedules, List.of(lock(1, null)), Map.of(),
+                List.of(7L, 8L), Map.of(), 0.5, NOW);
+
+        assertEquals(1, plan.getAssignments().size());
+        assertEquals(schedules.get(0).getId(), plan.getAssignments().get(0).getScheduleId());
+        assertEquals(List.of(schedules.get(1).getId(), schedules.get(2).getId()), plan.getUnassignedScheduleIds());
+    }
+
+    private static List<Schedule> schedules(int count) {
+        List<Schedule> schedules = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Schedule schedule = new Schedule(DATE, "Route " + id, 1L, 1L);
+            schedule.setId(id);
+            schedules.add(schedule);
+        }
+        return schedules;
+    }
+
+    private static Lock lock(long id, LocalDateTime lastUpdated) {
+        Lock lock = new Lock("LOCK-" + id, 1L);
+        lock.setId(id);
+        lock.setLastUpdated(lastUpdated);
+        return lock;
+    }
+}
@@ -0,0 +1,124 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.BatchOperation;
+import com.excisemia.dto.BatchOperationResult;
+import com.excisemia.dto.BatchRequest;
+import com.excisemia.dto.BatchResponse;
+import com.excisemia.model.Lock;
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchServiceTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void perOperationBatchesKeepTheOperationsThatSucceed() {
+        Long vendorId = uniqueVendor(vendorRepository, "Batch").getId();
+        UserPrincipal officer = officer(vendorId);
+        Lock lock = lock(lockRepository, vendorId, "BATCH");
+
+        BatchResponse response = batchService.executeBatch(new BatchRequest(BatchRequest.Mode.PER_OPERATION,
+                partiallyFailing(lock.getId())), officer);
+
+        assertTrue(response.getCommitted());
+        assertEquals(List.of(BatchOperationResult.Status.OK, BatchOperationResult.Status.FAILED,
+                BatchOperationResult.Status.OK), statuses(response));
+        assertEquals("message is required", response.getResults().get(1).getError());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(1, remarks(lock.getId()));
+        assertEquals(Lock.Status.REACHED, lockRepository.findById(lock.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void allOrNothingBatchesRollBackOnTheFirstFailure() {
+        Long vendorId = uniqueVendor(vendorRepository, "Atomic").getId();
+        UserPrincipal officer = officer(vendorId);
+        Lock lock = lock(lockRepository, vendorId, "ATOMIC");
+        Lock.Status before = lock.getStatus();
+
+        BatchResponse response = batchService.executeBatch(new BatchRequest(BatchRequest.Mode.ALL_OR_NOTHING,
+                partiallyFailing(lock.getId())), officer);
+
+        assertFalse(response.getCommitted());
+        assertEquals(List.of(BatchOperationResult.Status.ROLLED_BACK, BatchOperationResult.Status.FAILED,
+                BatchOperationResult.Status.SKIPPED), statuses(response));
+        assertEquals("message is required", response.getResults().get(1).getError());
+        assertEquals(0, response.getSucceeded());
+        assertEquals(0, remarks(lock.getId()));
+        assertEquals(before, lockRepository.findById(lock.getId()).orElseThrow().getStatus());
+
+        // Without the failing operation the same batch commits as a whole
+        List<BatchOperation> valid = partiallyFailing(lock.getId());
+        valid.remove(1);
+        response = batchService.executeBatch(new BatchRequest(BatchRequest.Mode.ALL_OR_NOTHING, valid), officer);
+        assertTrue(response.getCommitted());
+        assertEquals(1, remarks(lock.getId()));
+        assertEquals(Lock.Status.REACHED, lockRepository.findById(lock.getId()).orElseThrow().getStatus());
+    }
+
+    // A remark, a remark without a message and a status change, in that order
+    private static List<BatchOperation> partiallyFailing(Long lockId) {
+        BatchOperation remark = new BatchOperation(BatchOperation.Type.CREATE_REMARK);
+        remark.setClientRef("remark");
+        remark.setLockId(lockId);
+        remark.setMessage("Seal checked");
+        BatchOperation empty = new BatchOperation(BatchOperation.Type.CREATE_REMARK);
+        empty.setClientRef("empty");
+        empty.setLockId(lockId);
+        BatchOperation status = new BatchOperation(BatchOperation.Type.UPDATE_LOCK_STATUS);
+        status.setClientRef("status");
+        status.setLockId(lockId);
+        status.setStatus(Lock.Status.REACHED);
+        return new ArrayList<>(List.of(remark, empty, status));
+    }
+
+    private static List<BatchOperationResult.Status> statuses(BatchResponse response) {
+        return response.getResults().stream().map(BatchOperationResult::getStatus).collect(Collectors.toList());
+    }
+
+    private int remarks(Long lockId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM remarks WHERE lock_id = ?", Integer.class, lockId);
+    }
+
+    private UserPrincipal officer(Long vendorId) {
+        User officer = new User("Officer " + vendorId, "batch" + vendorId + "@vendor.test", "x", User.Role.TRACKING,
+                vendorId);
+        officer.setIsActive(true);
+        return UserPrincipal.create(userRepository.save(officer));
+    }
+}
@@ -0,0 +1,130 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Trip;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ColdStorageTest {
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private ColdStorageJob coldStorageJob;
+
+    @Autowired
+    private PartitionArchiveJob partitionArchiveJob;
+
+    @Autowired
+    private ColdStorageService coldStorageService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void lockLookupsReadOnlyTheMatchingRowGroups() throws Exception {
+        YearMonth month = YearMonth.of(2020, 3);
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            rows.add(new Object[]{id, id % 10, 5L, 9L, start.plusMinutes(id * 40), null,
+                    id % 3 == 0 ? null : id * 1.5, (int) id % 60, "COMPLETED"});
+        }
+        Path path = tempDir.resolve("segment.seg");
+        ColdSegment.write(path, ColdStorageService.TRIP_SCHEMA, 9L, month, rows, 100);
+
+        ColdSegment.Scan all = ColdSegment.read(path, ColdStorageService.TRIP_SCHEMA, null, start, start.plusMonths(1));
+        assertEquals(1000, all.rows.size());
+        assertEquals(10 * 9, all.blocksRead);
+
+        // Sorted by lock, so lock 4 lives in one group of 100 rows
+        ColdSegment.Scan lock = ColdSegment.read(path, ColdStorageService.TRIP_SCHEMA, 4L, start, start.plusMonths(1));
+        assertEquals(100, lock.rows.size());
+        assertEquals(9, lock.blocksRead);
+        Object[] row = lock.rows.stream().filter(r -> r[0].equals(34L)).findFirst().orElseThrow();
+        assertEquals(start.plusMinutes(40 * 34), row[4]);
+        assertNull(row[5]);
+        assertEquals(34 * 1.5, row[6]);
+
+        ColdSegment.Scan window = ColdSegment.read(path, ColdStorageService.TRIP_SCHEMA, 4L,
+                start.plusMinutes(40 * 100), start.plusMinutes(40 * 200));
+        assertEquals(List.of(104L, 114L, 124L, 134L, 144L, 154L, 164L, 174L, 184L, 194L),
+                window.rows.stream().map(r -> (Long) r[0]).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void archivedMonthsAreExportedAndCanBeRehydrated() {
+        Long vendorId = uniqueVendor(vendorRepository, "Cold").getId();
+        LocalDateTime old = coldStorageService.exportCutoff().minusMonths(3).plusDays(2);
+        long firstId = 9_000_000L + vendorId * 10;
+        for (long i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO trips_archive (id, lock_id, schedule_id, vendor_id, start_time, " +
+                    "end_time, distance_km, detention_mins, status) VALUES (?, ?, 1, ?, ?, ?, 12.5, 0, 'COMPLETED')",
+                    firstId + i, 40 + i, vendorId, Timestamp.valueOf(old.plusHours(i)),
+                    Timestamp.valueOf(old.plusHours(i + 1)));
+        }
+        jdbcTemplate.update("INSERT INTO remarks_archive (id, lock_id, user_id, user_name, message, vendor_id, " +
+                "timestamp) VALUES (?, 41, 1, 'Auditor', 'Seal intact', ?, ?)", firstId, vendorId,
+                Timestamp.valueOf(old));
+
+        assertTrue(jobScheduler.runIfDue(coldStorageJob));
+
+        Integer archived = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trips_archive WHERE vendor_id = ?",
+                Integer.class, vendorId);
+        assertEquals(0, archived);
+        assertTrue(Files.exists(coldStorageService.segmentPath("trips", vendorId, YearMonth.from(old))));
+        LocalDateTime from = old.minusDays(2);
+        LocalDateTime to = from.plusMonths(1);
+        List<Trip> trips = archiveService.findTrips(vendorId, from, to);
+        assertEquals(List.of(firstId + 2, firstId + 1, firstId),
+                trips.stream().map(Trip::getId).collect(Collectors.toList()));
+        assertEquals(12.5, trips.get(0).getDistanceKm());
+        assertEquals("Seal intact", archiveService.findRemarks(vendorId, 41L, from, to).get(0).getMessage());
+
+        assertEquals(3, archiveService.rehydrateTrips(vendorId, from, to));
+        assertEquals(0, archiveService.rehydrateTrips(vendorId, from, to));
+        // Neither the archive run nor the next export takes the pinned month away again
+        transactionTemplate.executeWithoutResult(status -> {
+            assertNull(partitionArchiveJob.processChunk(vendorId, 0, 500));
+            assertNull(coldStorageJob.processChunk(vendorId, 0, 500));
+        });
+        assertEquals(Long.valueOf(41), jdbcTemplate.queryForObject("SELECT lock_id FROM trips_archive WHERE id = ?",
+                Long.class, firstId + 1));
+        // Archived and cold copies are reported once
+        assertEquals(3, archiveService.findTrips(vendorId, from, to).size());
+    }
+}
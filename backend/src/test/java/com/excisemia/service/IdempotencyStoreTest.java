@@ -0,0 +1,55 @@
+package com.excisemia.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private static final IdempotencyStore.CachedResponse OK = new IdempotencyStore.CachedResponse(200, null, new byte[0]);
+
+    @Test
+    void releasedAndExpiredKeysLeaveTheStore() {
+        IdempotencyStore store = store(86400, 3);
+        for (int i = 0; i < 10; i++) {
+            store.release(store.reserve("released-" + i, "hash"));
+        }
+        assertEquals(0, store.size());
+
+        IdempotencyStore expiring = store(0, 3);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(expiring.reserve("expired-" + i, "hash").isOwner());
+        }
+        assertEquals(1, expiring.size());
+    }
+
+    @Test
+    void pendingReservationsAreNeverEvicted() {
+        IdempotencyStore store = store(86400, 2);
+        IdempotencyStore.Reservation first = store.reserve("a", "hash");
+        assertTrue(store.reserve("b", "hash").isOwner());
+
+        // Both keys are still executing, so there is no room and nothing may be dropped
+        assertNull(store.reserve("c", "hash"));
+        IdempotencyStore.Reservation retry = store.reserve("a", "hash");
+        assertFalse(retry.isOwner());
+        assertEquals(2, store.size());
+
+        // Once the first request has its response, the oldest completed key makes room
+        store.complete(first, OK);
+        assertTrue(store.reserve("c", "hash").isOwner());
+        assertFalse(store.reserve("b", "hash").isOwner());
+        assertEquals(2, store.size());
+    }
+
+    private static IdempotencyStore store(long ttlSeconds, int maxEntries) {
+        IdempotencyStore store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttlSeconds", ttlSeconds);
+        ReflectionTestUtils.setField(store, "maxEntries", maxEntries);
+        return store;
+    }
+}
@@ -0,0 +1,198 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.Vendor;
+import com.excisemia.model.JobLease;
+import com.excisemia.repository.JobCheckpointRepository;
+import com.excisemia.repository.JobLeaseRepository;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JobSchedulerTest {
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private FlakyJob flakyJob;
+
+    @Autowired
+    private StaleTripCloserJob staleTripCloserJob;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void leaseIsHeldByOneNodeAtATime() {
+        assertTrue(jobScheduler.tryClaim("lease-test", "node-a"));
+        assertFalse(jobScheduler.tryClaim("lease-test", "node-b"));
+        assertFalse(jobScheduler.tryClaim("lease-test", "node-a"));
+    }
+
+    @Test
+    void interruptedRunResumesFromCheckpointsAfterABackoff() {
+        Long first = vendor().getId();
+        Long second = vendor().getId();
+        flakyJob.arm(Set.of(first, second), second, 2);
+
+        LocalDateTime failedAt = LocalDateTime.now();
+        assertTrue(jobScheduler.runIfDue(flakyJob));
+        assertEquals(List.of(first + ":0", first + ":1", first + ":2", second + ":0", second + ":1"), flakyJob.calls);
+        assertFalse(jobCheckpointRepository.findByJobName(FlakyJob.NAME).isEmpty());
+        assertRetryAfter(failedAt, 30, 1);
+        assertFalse(jobScheduler.runIfDue(flakyJob));
+
+        // Each further failure doubles the wait
+        makeDue();
+        flakyJob.calls.clear();
+        failedAt = LocalDateTime.now();
+        assertTrue(jobScheduler.runIfDue(flakyJob));
+        assertEquals(List.of(second + ":1"), flakyJob.calls);
+        assertRetryAfter(failedAt, 60, 2);
+
+        makeDue();
+        flakyJob.calls.clear();
+        assertTrue(jobScheduler.runIfDue(flakyJob));
+        assertEquals(List.of(second + ":1", second + ":2"), flakyJob.calls);
+        assertTrue(jobCheckpointRepository.findByJobName(FlakyJob.NAME).isEmpty());
+        assertEquals(0, jobLeaseRepository.findById(FlakyJob.NAME).orElseThrow().getConsecutiveFailures());
+
+        // Not due again until the interval has passed
+        assertFalse(jobScheduler.runIfDue(flakyJob));
+    }
+
+    @Test
+    void staleTripsAreClosedAndTheirLockFreed() {
+        Long vendorId = vendor().getId();
+        Lock lock = lock(lockRepository, vendorId, "STALE");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Night run", 1L, vendorId));
+        Trip trip = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        jdbcTemplate.update("UPDATE trips SET start_time = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(3)), trip.getId());
+
+        assertTrue(jobScheduler.runIfDue(staleTripCloserJob));
+
+        Trip closed = tripRepository.findById(trip.getId()).orElseThrow();
+        assertEquals(Trip.Status.COMPLETED, closed.getStatus());
+        assertTrue(closed.getDetentionMins() >= 3 * 24 * 60 - 480 - 1);
+        Lock freed = lockRepository.findById(lock.getId()).orElseThrow();
+        assertNull(freed.getCurrentTripId());
+        assertEquals(Lock.Status.REACHED, freed.getStatus());
+    }
+
+    private void assertRetryAfter(LocalDateTime failedAt, long seconds, int failures) {
+        JobLease lease = jobLeaseRepository.findById(FlakyJob.NAME).orElseThrow();
+        assertEquals(failures, lease.getConsecutiveFailures());
+        assertFalse(lease.getNextRunAt().isBefore(failedAt.plusSeconds(seconds)));
+        assertTrue(lease.getNextRunAt().isBefore(LocalDateTime.now().plusSeconds(seconds)));
+    }
+
+    private void makeDue() {
+        jdbcTemplate.update("UPDATE job_leases SET next_run_at = ?, lease_until = ? WHERE job_name = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)),
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), FlakyJob.NAME);
+    }
+
+    private Vendor vendor() {
+        return uniqueVendor(vendorRepository, "Job Vendor");
+    }
+
+    @TestConfiguration
+    static class JobConfig {
+        @Bean
+        FlakyJob flakyJob() {
+            return new FlakyJob();
+        }
+    }
+
+    // Three chunks per vendor; the first attempts at the second vendor's middle chunk fail
+    static class FlakyJob implements ClusterJob {
+        static final String NAME = "flaky-test-job";
+
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private volatile Set<Long> vendors = Set.of();
+        private volatile Long failOnVendor;
+        private volatile int failuresLeft;
+
+        void arm(Set<Long> vendors, Long failOnVendor, int failures) {
+            this.vendors = vendors;
+            this.failOnVendor = failOnVendor;
+            this.failuresLeft = failures;
+            calls.clear();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Duration getInterval() {
+            return Duration.ofHours(1);
+        }
+
+        @Override
+        public Long processChunk(Long vendorId, long position, int chunkSize) {
+            if (!vendors.contains(vendorId)) {
+                return null;
+            }
+            calls.add(vendorId + ":" + position);
+            if (vendorId.equals(failOnVendor) && position == 1 && failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Simulated crash");
+            }
+            return position < 2 ? position + 1 : null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LeaderboardResponse;
+import com.excisemia.dto.RemarkRequest;
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaderboardTest {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private RemarkService remarkService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void heapKeepsTheSameTopKAsAFullSort() {
+        TopK topK = new TopK(10);
+        Map<Long, Long> scores = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(500);
+            long delta = 1 + random.nextInt(key < 20 ? 20 : 5);
+            topK.increment(key, delta);
+            scores.merge(key, delta, Long::sum);
+        }
+        List<Long> expected = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(10).map(Map.Entry::getKey).collect(Collectors.toList());
+        assertEquals(expected, topK.top(10).stream().map(entry -> entry[0]).collect(Collectors.toList()));
+        assertEquals(expected.subList(0, 3), topK.top(3).stream().map(entry -> entry[0]).collect(Collectors.toList()));
+    }
+
+    @Test
+    void boardsFollowTheFeedAndReconcileWithTheDatabase() {
+        Long vendorId = uniqueVendor(vendorRepository, "Board").getId();
+        Lock busy = lock(lockRepository, vendorId, "BUSY");
+        Lock quiet = lock(lockRepository, vendorId, "QUIET");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Board run", 1L, vendorId));
+        User officer = userRepository.save(new User("Officer " + vendorId, "officer" + vendorId + "@vendor.test", "x",
+                User.Role.TRACKING, vendorId));
+        complete(quiet, schedule, vendorId, 90);
+        leaderboardService.reconcile();
+
+        for (int i = 0; i < 3; i++) {
+            complete(busy, schedule, vendorId, 5);
+        }
+        remarkService.createRemark(new RemarkRequest(busy.getId(), "Seal checked"), UserPrincipal.create(officer));
+        // None of the events has settled, so every poll reads them again; each counts once, and the completion
+        // the rebuild already saw not at all
+        leaderboardService.applyFeed();
+        leaderboardService.applyFeed();
+
+        LeaderboardResponse trips = leaderboardService.top(vendorId, LeaderboardService.Board.LOCK_TRIPS, 10);
+        assertEquals(List.of(busy.getId(), quiet.getId()), ids(trips));
+        assertEquals("BUSY", trips.getEntries().get(0).getLabel());
+        assertEquals(List.of(3L, 1L), trips.getEntries().stream().map(LeaderboardResponse.Entry::getScore)
+                .collect(Collectors.toList()));
+        LeaderboardResponse detention = leaderboardService.top(vendorId, LeaderboardService.Board.LOCK_DETENTION, 1);
+        assertEquals(List.of(quiet.getId()), ids(detention));
+        LeaderboardResponse remarks = leaderboardService.top(vendorId, LeaderboardService.Board.USER_REMARKS, 10);
+        assertEquals(List.of(officer.getId()), ids(remarks));
+
+        // A rebuild from the tables agrees with the incrementally maintained boards
+        leaderboardService.reconcile();
+        assertEquals(3L, leaderboardService.top(vendorId, LeaderboardService.Board.LOCK_TRIPS, 10)
+                .getEntries().get(0).getScore());
+        assertEquals(90L, leaderboardService.top(vendorId, LeaderboardService.Board.LOCK_DETENTION, 10)
+                .getEntries().stream().max(Comparator.comparing(LeaderboardResponse.Entry::getScore)).orElseThrow().getScore());
+    }
+
+    private void complete(Lock lock, Schedule schedule, Long vendorId, int detentionMins) {
+        Trip trip = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(trip.getId(), new TripCompletionRequest(10.0, detentionMins), vendorId);
+    }
+
+    private static List<Long> ids(LeaderboardResponse board) {
+        return board.getEntries().stream().map(LeaderboardResponse.Entry::getId).collect(Collectors.toList());
+    }
+}
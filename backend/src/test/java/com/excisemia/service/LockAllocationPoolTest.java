@@ -0,0 +1,47 @@
+package com.excisemia.service;
+
+import com.excisemia.repository.LockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LockAllocationPoolTest {
+
+    @Test
+    void aReloadKeepsIdsReturnedAndDropsIdsTakenWhileItsQueryRan() {
+        LockRepository lockRepository = mock(LockRepository.class);
+        LockAllocationPool pool = new LockAllocationPool();
+        ReflectionTestUtils.setField(pool, "refreshSeconds", 3600L);
+        ReflectionTestUtils.setField(pool, "lockRepository", lockRepository);
+        // Reloads are driven by the test rather than the background thread
+        @SuppressWarnings("unchecked")
+        Set<Long> refreshing = (Set<Long>) ReflectionTestUtils.getField(pool, "refreshing");
+        refreshing.add(7L);
+
+        List<Long> taken = new ArrayList<>();
+        when(lockRepository.findClaimableIds(7L)).thenReturn(List.of(1L, 2L)).thenAnswer(invocation -> {
+            // A claim and a rolled back claim land while the query runs; the snapshot still lists the claimed id
+            taken.add(pool.poll(7L));
+            pool.offer(7L, 9L);
+            return List.of(1L, 2L, 3L);
+        });
+        ReflectionTestUtils.invokeMethod(pool, "reload", 7L);
+        assertEquals(2, pool.size(7L));
+        ReflectionTestUtils.invokeMethod(pool, "reload", 7L);
+
+        assertEquals(List.of(1L), taken);
+        assertEquals(3, pool.size(7L));
+        assertEquals(2L, pool.poll(7L));
+        assertEquals(3L, pool.poll(7L));
+        assertEquals(9L, pool.poll(7L));
+        assertNull(pool.poll(7L));
+    }
+}
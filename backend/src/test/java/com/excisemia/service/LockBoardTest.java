@@ -0,0 +1,185 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LockBoardResponse;
+import com.excisemia.dto.RemarkRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.dto.VendorRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.LockBoardEntry;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.User;
+import com.excisemia.model.Vendor;
+import com.excisemia.repository.LockBoardRepository;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import com.excisemia.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LockBoardTest {
+
+    @Autowired
+    private LockBoardService lockBoardService;
+
+    @Autowired
+    private LockBoardRebuildJob lockBoardRebuildJob;
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private RemarkService remarkService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VendorService vendorService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockBoardRepository lockBoardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void boardFollowsLockTripRemarkUserAndVendorChanges() {
+        Vendor vendor = uniqueVendor(vendorRepository, "Yard");
+        Long vendorId = vendor.getId();
+        User officer = userRepository.save(new User("Officer " + vendorId, "yard" + vendorId + "@vendor.test", "x",
+                User.Role.TRACKING, vendorId));
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Yard run", 1L, vendorId));
+        Lock first = lockService.createLock("A", vendorId);
+        lockService.createLock("B", vendorId);
+        lockService.createLock("C", vendorId);
+        lockService.assignLock(first.getId(), officer.getId(), vendorId);
+        Trip trip = tripService.startTrip(new TripRequest(first.getId(), schedule.getId()), vendorId, null);
+        remarkService.createRemark(new RemarkRequest(first.getId(), "Seal intact"), UserPrincipal.create(officer));
+        drainOutbox();
+
+        LockBoardResponse page = lockBoardService.page(vendorId, null, 2);
+        assertEquals(List.of("A", "B"), lockNumbers(page));
+        LockBoardEntry entry = page.getEntries().get(0);
+        assertEquals(Lock.Status.IN_TRANSIT, entry.getStatus());
+        assertEquals(vendor.getVendorName(), entry.getVendorName());
+        assertEquals(officer.getName(), entry.getAssigneeName());
+        assertEquals(trip.getId(), entry.getCurrentTripId());
+        assertNotNull(entry.getTripStartedAt());
+        assertEquals("Seal intact", entry.getLastRemark());
+        assertEquals(officer.getName(), entry.getLastRemarkBy());
+        assertEquals(List.of("C"), lockNumbers(lockBoardService.page(vendorId, page.getNextAfter(), 2)));
+
+        // Redelivery rewrites the same rows; user and vendor changes reach every affected row
+        userService.deleteUser(officer.getId());
+        VendorRequest rename = new VendorRequest("Harbour " + vendorId, vendor.getVendorCode(), vendor.getContactEmail());
+        vendorService.updateVendor(vendorId, rename);
+        drainOutbox();
+        LockBoardResponse renamed = lockBoardService.page(vendorId, null, 10);
+        assertEquals(3, renamed.getEntries().size());
+        assertNull(renamed.getEntries().get(0).getAssigneeName());
+        assertEquals("Seal intact", renamed.getEntries().get(0).getLastRemark());
+        assertEquals(List.of("Harbour " + vendorId), renamed.getEntries().stream()
+                .map(LockBoardEntry::getVendorName).distinct().collect(Collectors.toList()));
+        assertNull(renamed.getNextAfter());
+
+        // Locks written around the services are filled in by the rebuild job
+        lock(lockRepository, vendorId, "D");
+        assertEquals(3, lockBoardService.page(vendorId, null, 10).getEntries().size());
+        assertNull(lockBoardRebuildJob.processChunk(vendorId, 0, 500));
+        LockBoardResponse rebuilt = lockBoardService.page(vendorId, null, 10);
+        assertEquals(4, rebuilt.getEntries().size());
+        assertEquals(Lock.Status.AVAILABLE, rebuilt.getEntries().get(3).getStatus());
+    }
+
+    @Test
+    void aProjectionWaitsForTheOneHoldingItsRowsAndReadsTheNewerState() throws Exception {
+        Long vendorId = uniqueVendor(vendorRepository, "Serial").getId();
+        Lock lock = lockService.createLock("S", vendorId);
+        drainOutbox();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // An older projection holds the row while the lock changes underneath it
+            Future<?> older = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                lockBoardRepository.findByLockIdInForUpdate(List.of(lock.getId()));
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            lockService.updateLockStatus(lock.getId(), Lock.Status.REACHED, vendorId);
+
+            CountDownLatch projected = new CountDownLatch(1);
+            Thread newer = new Thread(() -> {
+                lockBoardService.project(List.of(lock.getId()));
+                projected.countDown();
+            });
+            newer.start();
+            assertFalse(projected.await(300, TimeUnit.MILLISECONDS));
+            release.countDown();
+            older.get(10, TimeUnit.SECONDS);
+            assertTrue(projected.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertEquals(Lock.Status.REACHED, lockBoardService.page(vendorId, null, 10).getEntries().get(0).getStatus());
+    }
+
+    private void drainOutbox() {
+        while (outboxDispatcher.dispatchBatch() > 0) {
+        }
+    }
+
+    private static List<String> lockNumbers(LockBoardResponse page) {
+        return page.getEntries().stream().map(LockBoardEntry::getLockNumber).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,281 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.User;
+import com.excisemia.model.Vendor;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LockClaimTest {
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private LockAllocationPool lockAllocationPool;
+
+    @Autowired
+    private AssignmentPlanner assignmentPlanner;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelClaimsHandOutEachLockOnce() throws Exception {
+        Long vendorId = vendor();
+        Set<Long> available = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            available.add(lock(vendorId).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit((Callable<List<Long>>) () -> {
+                List<Long> claimed = new ArrayList<>();
+                Optional<Lock> lock;
+                while ((lock = lockService.claimNextAvailable(vendorId, null)).isPresent()) {
+                    claimed.add(lock.get().getId());
+                }
+                return claimed;
+            }));
+        }
+        List<Long> claimed = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            claimed.addAll(future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(20, claimed.size());
+        assertEquals(available, new HashSet<>(claimed));
+        assertTrue(lockRepository.findByStatusAndVendorId(Lock.Status.AVAILABLE, vendorId).isEmpty());
+    }
+
+    @Test
+    void concurrentStartsOnOneLockCreateOneTrip() throws Exception {
+        Long vendorId = vendor();
+        Long lockId = lock(vendorId).getId();
+        Long scheduleId = scheduleRepository.save(new Schedule(LocalDate.now(), "Race run", 1L, vendorId)).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Trip>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return tripService.startTrip(new TripRequest(lockId, scheduleId), vendorId, null);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        List<Long> started = new ArrayList<>();
+        for (Future<Trip> future : futures) {
+            Trip trip = future.get();
+            if (trip != null) {
+                started.add(trip.getId());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, started.size());
+        assertEquals(List.of(started.get(0)), jdbcTemplate.queryForList(
+                "SELECT id FROM trips WHERE lock_id = ? AND status = 'ACTIVE'", Long.class, lockId));
+        assertEquals(started.get(0), lockRepository.findById(lockId).orElseThrow().getCurrentTripId());
+    }
+
+    @Test
+    void claimedLocksCanOnlyBeStartedByTheirClaimer() throws Exception {
+        Long vendorId = vendor();
+        Long lockId = lock(vendorId).getId();
+        Long scheduleId = scheduleRepository.save(new Schedule(LocalDate.now(), "Claim run", 1L, vendorId)).getId();
+
+        assertEquals(lockId, lockService.claimNextAvailable(vendorId, 101L).orElseThrow().getId());
+        assertThrows(RuntimeException.class,
+                () -> tripService.startTrip(new TripRequest(lockId, scheduleId), vendorId, 102L));
+        Trip trip = tripService.startTrip(new TripRequest(lockId, scheduleId), vendorId, 101L);
+        Lock started = lockRepository.findById(lockId).orElseThrow();
+        assertEquals(trip.getId(), started.getCurrentTripId());
+        assertNull(started.getClaimedBy());
+
+        // A claim racing an explicit start: never both
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int round = 0; round < 5; round++) {
+            Long raced = lock(vendorId).getId();
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Boolean> claim = executor.submit(() -> {
+                start.await();
+                return lockService.claimNextAvailable(vendorId, 201L).isPresent();
+            });
+            Future<Boolean> explicit = executor.submit(() -> {
+                start.await();
+                try {
+                    tripService.startTrip(new TripRequest(raced, scheduleId), vendorId, 202L);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+            start.countDown();
+            assertTrue(claim.get() ^ explicit.get(), "round " + round);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void staleEntriesAreSkippedAndUnpooledLocksFoundInTheDatabase() {
+        Long vendorId = vendor();
+        Long first = lock(vendorId).getId();
+        Long second = lock(vendorId).getId();
+        Long third = lock(vendorId).getId();
+        // A reload keeps the current queue in service until it finishes
+        lockAllocationPool.invalidate(vendorId);
+        assertEquals(3, lockAllocationPool.size(vendorId));
+        assertEquals(first, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+
+        // Changes made behind the pool's back, as another node would
+        jdbcTemplate.update("UPDATE locks SET status = 'REACHED' WHERE id = ?", second);
+        jdbcTemplate.update("INSERT INTO locks (lock_number, status, vendor_id) VALUES (?, 'AVAILABLE', ?)",
+                "UNPOOLED-" + System.nanoTime(), vendorId);
+        Long unpooled = lockRepository.findClaimableIds(vendorId).stream().filter(id -> !id.equals(third))
+                .findFirst().orElseThrow();
+
+        assertEquals(third, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+        assertEquals(unpooled, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+        assertTrue(lockService.claimNextAvailable(vendorId, null).isEmpty());
+    }
+
+    @Test
+    void plannedLocksAreReservedForTheirSchedule() {
+        Long vendorId = vendor();
+        User tracker = new User("Planner " + System.nanoTime(), "planner" + System.nanoTime() + "@vendor.test",
+                "x", User.Role.TRACKING, vendorId);
+        tracker.setIsActive(true);
+        userRepository.save(tracker);
+        Long planned = lock(vendorId).getId();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Long scheduleId = scheduleRepository.save(new Schedule(tomorrow, "Planned run", 1L, vendorId)).getId();
+        assertEquals(planned, assignmentPlanner.apply(tomorrow, vendorId).getAssignments().get(0).getLockId());
+        Long free = lock(vendorId).getId();
+
+        // Claims, trips for other schedules and plans for other dates all pass the reserved lock by
+        assertEquals(free, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+        assertTrue(lockService.claimNextAvailable(vendorId, null).isEmpty());
+        Long otherId = scheduleRepository.save(new Schedule(LocalDate.now(), "Other run", 1L, vendorId)).getId();
+        assertThrows(RuntimeException.class,
+                () -> tripService.startTrip(new TripRequest(planned, otherId), vendorId, null));
+        assertTrue(assignmentPlanner.apply(LocalDate.now(), vendorId).getAssignments().isEmpty());
+
+        Trip trip = tripService.startTrip(new TripRequest(null, scheduleId), vendorId, null);
+        assertEquals(planned, trip.getLockId());
+        assertEquals(trip.getId(), scheduleRepository.findById(scheduleId).orElseThrow().getTripId());
+    }
+
+    @Test
+    void rolledBackClaimReturnsTheLockToThePool() {
+        Long vendorId = vendor();
+        Long lockId = lock(vendorId).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(lockId, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(lockId, lockService.claimNextAvailable(vendorId, null).orElseThrow().getId());
+    }
+
+    @Test
+    void aClaimUpdatesTheLockAlreadyLoadedInTheTransaction() {
+        Long vendorId = vendor();
+        Long lockId = lock(vendorId).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Lock loaded = lockRepository.findById(lockId).orElseThrow();
+            loaded.setAssignedTo(301L);
+            Lock claimed = lockService.claimNextAvailable(vendorId, 301L).orElseThrow();
+            assertEquals(Lock.Status.IN_TRANSIT, loaded.getStatus());
+            assertEquals(301L, claimed.getClaimedBy());
+        });
+
+        // The pending change was flushed before the claim rather than thrown away
+        Lock stored = lockRepository.findById(lockId).orElseThrow();
+        assertEquals(Lock.Status.IN_TRANSIT, stored.getStatus());
+        assertEquals(301L, stored.getAssignedTo());
+        assertEquals(301L, stored.getClaimedBy());
+    }
+
+    @Test
+    void aLockWithAnActiveTripCannotBeMadeAvailable() {
+        Long vendorId = vendor();
+        Long lockId = lock(vendorId).getId();
+        Long scheduleId = scheduleRepository.save(new Schedule(LocalDate.now(), "Busy run", 1L, vendorId)).getId();
+        Trip trip = tripService.startTrip(new TripRequest(lockId, scheduleId), vendorId, null);
+
+        assertThrows(RuntimeException.class,
+                () -> lockService.updateLockStatus(lockId, Lock.Status.AVAILABLE, vendorId));
+        Lock stored = lockRepository.findById(lockId).orElseThrow();
+        assertEquals(Lock.Status.IN_TRANSIT, stored.getStatus());
+        assertEquals(trip.getId(), stored.getCurrentTripId());
+        assertTrue(lockService.claimNextAvailable(vendorId, null).isEmpty());
+    }
+
+    private Long vendor() {
+        return uniqueVendor(vendorRepository, "Claim Vendor").getId();
+    }
+
+    private Lock lock(Long vendorId) {
+        return lockService.createLock("CLAIM-" + System.nanoTime(), vendorId);
+    }
+}
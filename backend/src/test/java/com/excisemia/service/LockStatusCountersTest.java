@@ -0,0 +1,86 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.LockStatusSummary;
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LockStatusCountersTest {
+
+    @Autowired
+    private LockStatusCounters lockStatusCounters;
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Test
+    void committedTransitionsMoveCountsAndReconcileCorrectsDrift() {
+        Long vendorId = uniqueVendor(vendorRepository, "Counters").getId();
+        lockStatusCounters.reconcile();
+
+        Lock first = lockService.createLock("COUNT-1", vendorId);
+        Lock second = lockService.createLock("COUNT-2", vendorId);
+        lockService.createLock("COUNT-3", vendorId);
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Counter run", 1L, vendorId));
+        Trip trip = tripService.startTrip(new TripRequest(first.getId(), schedule.getId()), vendorId, null);
+        lockService.updateLockStatus(second.getId(), Lock.Status.ON_REVERSE_TRANSIT, vendorId);
+        assertCounts(vendorId, 1, 1, 1, 0);
+
+        tripService.completeTrip(trip.getId(), new TripCompletionRequest(10.0, 0), vendorId);
+        // Rolled back transitions are not counted
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            lockService.updateLockStatus(second.getId(), Lock.Status.REACHED, vendorId);
+            throw new IllegalStateException("Rolled back");
+        }));
+        assertCounts(vendorId, 1, 0, 1, 1);
+
+        // A lock written around the service is picked up by the next rebuild
+        lock(lockRepository, vendorId, "COUNT-4");
+        assertCounts(vendorId, 1, 0, 1, 1);
+        lockStatusCounters.reconcile();
+        assertCounts(vendorId, 2, 0, 1, 1);
+    }
+
+    private void assertCounts(Long vendorId, long available, long inTransit, long reverse, long reached) {
+        LockStatusSummary summary = lockStatusCounters.summary(vendorId);
+        assertEquals(available, summary.getCounts().get(Lock.Status.AVAILABLE));
+        assertEquals(inTransit, summary.getCounts().get(Lock.Status.IN_TRANSIT));
+        assertEquals(reverse, summary.getCounts().get(Lock.Status.ON_REVERSE_TRANSIT));
+        assertEquals(reached, summary.getCounts().get(Lock.Status.REACHED));
+        assertEquals(available + inTransit + reverse + reached, summary.getTotal());
+    }
+}
@@ -0,0 +1,189 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.ScheduleRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Notification;
+import com.excisemia.model.User;
+import com.excisemia.model.Vendor;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.NotificationRepository;
+import com.excisemia.repository.OutboxEventRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "locktrackpro.notifications.provider=stub",
+        "locktrackpro.notifications.baseBackoffMs=0",
+        "locktrackpro.notifications.maxAttempts=3"
+})
+@ActiveProfiles("test")
+class NotificationDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationOutboxHandler notificationOutboxHandler;
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private StubPushProvider provider;
+
+    private Long vendorId;
+    private User withToken;
+    private User withoutToken;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        notificationRepository.deleteAll();
+        provider.reset();
+
+        vendorId = uniqueVendor(vendorRepository, "Push Vendor").getId();
+        withToken = user("tracked-" + vendorId, "ExponentPushToken[" + vendorId + "]");
+        withoutToken = user("silent-" + vendorId, null);
+    }
+
+    @Test
+    void assignmentsAreCoalescedIntoOnePushPerRecipient() {
+        assign(withToken);
+        assign(withToken);
+        assign(withoutToken);
+        scheduleService.createSchedule(new ScheduleRequest(LocalDate.now().plusDays(1), "Dock 4"), withToken.getId(), vendorId);
+
+        outboxDispatcher.dispatchBatch();
+        List<Notification> queued = notificationRepository.findByRecipientIdOrderByIdAsc(withToken.getId());
+        assertEquals(3, queued.size());
+        assertEquals(0, notificationRepository.findByRecipientIdOrderByIdAsc(withoutToken.getId()).size());
+
+        // A redelivered outbox batch must not queue the same notifications twice
+        notificationOutboxHandler.handle(outboxEventRepository.findAll());
+        assertEquals(3, notificationRepository.count());
+
+        assertEquals(3, notificationDispatcher.dispatchBatch());
+        assertEquals(1, provider.sent.size());
+        PushMessage message = provider.sent.get(0);
+        assertEquals("3 new updates", message.getTitle());
+        assertEquals(3, message.getNotificationIds().size());
+        assertTrue(message.getBody().startsWith("Schedule for "));
+        assertEquals(3, notificationRepository.countByStatus(Notification.Status.SENT));
+    }
+
+    @Test
+    void transientFailuresRetryUntilDeadLettered() {
+        provider.outcome = message -> PushResult.retry("provider unavailable");
+        assign(withToken);
+        outboxDispatcher.dispatchBatch();
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertEquals(1, notificationDispatcher.dispatchBatch());
+        }
+
+        assertEquals(3, provider.sent.size());
+        Notification dead = notificationRepository.findByRecipientIdOrderByIdAsc(withToken.getId()).get(0);
+        assertEquals(Notification.Status.DEAD, dead.getStatus());
+        assertEquals("provider unavailable", dead.getLastError());
+        assertEquals(0, notificationDispatcher.dispatchBatch());
+    }
+
+    @Test
+    void unregisteredDeviceIsDeadLetteredAndItsTokenCleared() {
+        provider.outcome = message -> PushResult.unregistered("DeviceNotRegistered");
+        assign(withToken);
+        outboxDispatcher.dispatchBatch();
+
+        assertEquals(1, notificationDispatcher.dispatchBatch());
+
+        assertEquals(1, notificationRepository.countByStatus(Notification.Status.DEAD));
+        assertNull(userRepository.findById(withToken.getId()).orElseThrow().getPushToken());
+    }
+
+    private User user(String name, String pushToken) {
+        User user = new User(name, name + "@push.test", "secret", User.Role.TRACKING, vendorId);
+        user.setIsActive(true);
+        user.setPushToken(pushToken);
+        return userRepository.save(user);
+    }
+
+    private void assign(User user) {
+        Lock lock = lock(lockRepository, vendorId, "PUSH-" + System.nanoTime());
+        lockService.assignLock(lock.getId(), user.getId(), vendorId);
+    }
+
+    @TestConfiguration
+    static class ProviderConfig {
+        @Bean
+        StubPushProvider stubPushProvider() {
+            return new StubPushProvider();
+        }
+    }
+
+    static class StubPushProvider implements PushProvider {
+        private final List<PushMessage> sent = Collections.synchronizedList(new ArrayList<>());
+        private volatile Function<PushMessage, PushResult> outcome;
+
+        void reset() {
+            sent.clear();
+            outcome = message -> PushResult.delivered();
+        }
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 2;
+        }
+
+        @Override
+        public List<PushResult> send(List<PushMessage> messages) {
+            sent.addAll(messages);
+            return messages.stream().map(outcome).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.excisemia.service;
+
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "locktrackpro.outbox.baseBackoffMs=0",
+        "locktrackpro.outbox.maxAttempts=3"
+})
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    private static final String TEST_EVENT = "TEST_EVENT";
+    private static final String POISON_EVENT = "TEST_POISON";
+    private static final String FLAKY_EVENT = "TEST_FLAKY";
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecordingHandler handler;
+
+    @Autowired
+    private FlakyHandler flakyHandler;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        outboxEventRepository.deleteAll();
+        handler.reset();
+        flakyHandler.reset();
+    }
+
+    @Test
+    void eventsOfARolledBackTransactionAreNeverDispatched() {
+        transactionTemplate.executeWithoutResult(status -> {
+            record(1L, TEST_EVENT, 1);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void failedBatchIsRedeliveredInRecordedOrder() {
+        transactionTemplate.executeWithoutResult(status -> {
+            record(1L, TEST_EVENT, 1);
+            record(2L, TEST_EVENT, 1);
+            record(1L, TEST_EVENT, 2);
+        });
+        handler.failuresLeft = 1;
+
+        assertEquals(3, dispatcher.dispatchBatch());
+        assertEquals(List.of(), handler.delivered);
+        assertEquals(3, dispatcher.dispatchBatch());
+
+        assertEquals(List.of("1:1", "2:1", "1:2"), handler.delivered);
+        for (OutboxEvent event : outboxEventRepository.findAll()) {
+            assertEquals(OutboxEvent.Status.DISPATCHED, event.getStatus());
+            assertEquals(2, event.getAttempts());
+        }
+    }
+
+    @Test
+    void poisonEventIsParkedAndKeepsBlockingItsAggregate() {
+        transactionTemplate.executeWithoutResult(status -> record(7L, POISON_EVENT, 1));
+        for (int attempt = 0; attempt < 3; attempt++) {
+            dispatcher.dispatchBatch();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            record(7L, TEST_EVENT, 2);
+            record(8L, TEST_EVENT, 1);
+        });
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of("8:1"), handler.delivered);
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.PARKED));
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+    }
+
+    @Test
+    void laterEventsWaitWhileTheHeadOfTheirAggregateIsLeasedElsewhere() {
+        transactionTemplate.executeWithoutResult(status -> {
+            record(1L, TEST_EVENT, 1);
+            record(1L, TEST_EVENT, 2);
+        });
+        Long head = outboxEventRepository.findAll().stream().map(OutboxEvent::getId).min(Long::compare).orElseThrow();
+        // Another node holds the lease on the first event
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.lease(List.of(head), LocalDateTime.now().plusMinutes(1)));
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(List.of(), handler.delivered);
+    }
+
+    @Test
+    void partialFailureHoldsBackTheAggregateAndRetriesOnlyTheFailedHandler() {
+        transactionTemplate.executeWithoutResult(status -> {
+            record(1L, FLAKY_EVENT, 1);
+            record(1L, TEST_EVENT, 2);
+            record(2L, TEST_EVENT, 1);
+        });
+        flakyHandler.failuresLeft = 1;
+
+        assertEquals(3, dispatcher.dispatchBatch());
+        assertEquals(List.of("1:1", "1:2", "2:1"), handler.delivered);
+        assertEquals(List.of(), flakyHandler.delivered);
+        // 1:2 succeeded in every handler but must not overtake 1:1
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.DISPATCHED));
+
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(List.of("1:1", "1:2", "2:1"), handler.delivered);
+        assertEquals(List.of("1:1"), flakyHandler.delivered);
+        Map<String, Integer> attempts = new HashMap<>();
+        for (OutboxEvent event : outboxEventRepository.findAll()) {
+            assertEquals(OutboxEvent.Status.DISPATCHED, event.getStatus());
+            attempts.put(event.getAggregateId() + ":" + outboxService.readPayload(event).get("sequence"),
+                    event.getAttempts());
+        }
+        assertEquals(Map.of("1:1", 2, "1:2", 1, "2:1", 1), attempts);
+    }
+
+    private void record(Long aggregateId, String eventType, int sequence) {
+        outboxService.record(OutboxService.LOCK, aggregateId, 1L, eventType,
+                OutboxService.payload("sequence", sequence));
+    }
+
+    @TestConfiguration
+    static class HandlerConfig {
+        @Bean
+        RecordingHandler recordingHandler(OutboxService outboxService) {
+            return new RecordingHandler(outboxService);
+        }
+
+        @Bean
+        FlakyHandler flakyHandler(OutboxService outboxService) {
+            return new FlakyHandler(outboxService);
+        }
+    }
+
+    static class RecordingHandler implements OutboxEventHandler {
+        private final OutboxService outboxService;
+        private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        private volatile int failuresLeft;
+
+        RecordingHandler(OutboxService outboxService) {
+            this.outboxService = outboxService;
+        }
+
+        void reset() {
+            delivered.clear();
+            failuresLeft = 0;
+        }
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public boolean supports(String eventType) {
+            return eventType.startsWith("TEST_");
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Simulated handler failure");
+            }
+            if (events.stream().anyMatch(event -> POISON_EVENT.equals(event.getEventType()))) {
+                throw new IllegalStateException("Poison event");
+            }
+            for (OutboxEvent event : events) {
+                delivered.add(event.getAggregateId() + ":" + outboxService.readPayload(event).get("sequence"));
+            }
+        }
+    }
+
+    // Second consumer of FLAKY_EVENT only, so one event can fail in one handler and succeed in the other
+    static class FlakyHandler implements OutboxEventHandler {
+        private final OutboxService outboxService;
+        private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        private volatile int failuresLeft;
+
+        FlakyHandler(OutboxService outboxService) {
+            this.outboxService = outboxService;
+        }
+
+        void reset() {
+            delivered.clear();
+            failuresLeft = 0;
+        }
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public boolean supports(String eventType) {
+            return FLAKY_EVENT.equals(eventType);
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Simulated handler failure");
+            }
+            for (OutboxEvent event : events) {
+                delivered.add(event.getAggregateId() + ":" + outboxService.readPayload(event).get("sequence"));
+            }
+        }
+    }
+}
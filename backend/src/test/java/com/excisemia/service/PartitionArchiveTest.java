@@ -0,0 +1,119 @@
+package com.excisemia.service;
+
+import com.excisemia.model.Remark;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.RemarkRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PartitionArchiveTest {
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private PartitionArchiveJob partitionArchiveJob;
+
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private RemarkService remarkService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private RemarkRepository remarkRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rowsPastTheCutoffMoveToTheArchiveAndStayQueryable() {
+        Long vendorId = uniqueVendor(vendorRepository, "Archive").getId();
+        Long lockId = lock(lockRepository, vendorId, "ARCHIVE").getId();
+        LocalDateTime old = partitionManager.archiveCutoff().minusMonths(2).plusDays(3);
+        LocalDateTime from = old.minusDays(3);
+        LocalDateTime to = from.plusMonths(1);
+
+        Long oldTrip = trip(vendorId, lockId, Trip.Status.COMPLETED, old);
+        Long oldActiveTrip = trip(vendorId, lockId, Trip.Status.ACTIVE, old);
+        Long recentTrip = trip(vendorId, lockId, Trip.Status.COMPLETED, LocalDateTime.now().minusDays(1));
+        Long oldRemark = remark(vendorId, 7L, old);
+        Long recentRemark = remark(vendorId, 7L, LocalDateTime.now().minusDays(1));
+
+        // Past the cutoff rows leave the live reads straight away and are served from the archive range
+        assertEquals(List.of(recentTrip), ids(tripService.getTripsByStatusAndVendor(Trip.Status.COMPLETED, vendorId)));
+        // Active trips are never archived, so they are listed whatever their age
+        assertEquals(List.of(oldActiveTrip), ids(tripService.getTripsByStatusAndVendor(Trip.Status.ACTIVE, vendorId)));
+        assertEquals(List.of(recentRemark), remarkIds(remarkService.getRemarksByVendor(vendorId)));
+        assertEquals(List.of(oldTrip, oldActiveTrip), ids(archiveService.findTrips(vendorId, from, to)));
+
+        assertTrue(jobScheduler.runIfDue(partitionArchiveJob));
+
+        assertFalse(tripRepository.existsById(oldTrip));
+        assertTrue(tripRepository.existsById(oldActiveTrip));
+        assertTrue(tripRepository.existsById(recentTrip));
+        assertFalse(remarkRepository.existsById(oldRemark));
+        assertEquals(List.of(oldTrip, oldActiveTrip), ids(archiveService.findTrips(vendorId, from, to)));
+        assertEquals(List.of(oldRemark), remarkIds(archiveService.findRemarks(vendorId, 7L, from, to)));
+        assertTrue(archiveService.findRemarks(vendorId, 8L, from, to).isEmpty());
+        Integer archived = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trips_archive WHERE vendor_id = ?",
+                Integer.class, vendorId);
+        assertEquals(1, archived);
+    }
+
+    private Long trip(Long vendorId, Long lockId, Trip.Status status, LocalDateTime startTime) {
+        Trip trip = new Trip(lockId, 1L, vendorId);
+        trip.setStatus(status);
+        Long id = tripRepository.save(trip).getId();
+        jdbcTemplate.update("UPDATE trips SET start_time = ? WHERE id = ?", Timestamp.valueOf(startTime), id);
+        return id;
+    }
+
+    private Long remark(Long vendorId, Long lockId, LocalDateTime timestamp) {
+        Long id = remarkRepository.save(new Remark(lockId, 1L, "Archivist", "Seal checked", vendorId)).getId();
+        jdbcTemplate.update("UPDATE remarks SET timestamp = ? WHERE id = ?", Timestamp.valueOf(timestamp), id);
+        return id;
+    }
+
+    private static List<Long> ids(List<Trip> trips) {
+        return trips.stream().map(Trip::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static List<Long> remarkIds(List<Remark> remarks) {
+        return remarks.stream().map(Remark::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.excisemia.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The test database is H2, where the tables stay plain, so the PostgreSQL statements are checked against a mock
+class PartitionManagerTest {
+
+    @Test
+    void postgresPartitionsAreCreatedAheadAndEmptiedMonthsDropped() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM pg_partitioned_table"), eq(Integer.class)))
+                .thenReturn(2);
+        YearMonth now = YearMonth.now();
+        YearMonth archived = now.minusMonths(14);
+        YearMonth kept = now.minusMonths(13);
+        YearMonth live = now.minusMonths(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("trips"))).thenReturn(List.of(
+                PartitionManager.partitionName("trips", archived), PartitionManager.partitionName("trips", kept),
+                PartitionManager.partitionName("trips", live), "trips_default"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("remarks"))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM "
+                + PartitionManager.partitionName("trips", archived) + ")", Boolean.class)).thenReturn(true);
+        // Still holds an active trip
+        when(jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM "
+                + PartitionManager.partitionName("trips", kept) + ")", Boolean.class)).thenReturn(false);
+
+        PartitionManager partitionManager = new PartitionManager();
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 12);
+        ReflectionTestUtils.setField(partitionManager, "monthsAhead", 1);
+        ReflectionTestUtils.setField(partitionManager, "jdbcTemplate", jdbcTemplate);
+        partitionManager.run(new DefaultApplicationArguments());
+        assertTrue(partitionManager.isNativePartitioning());
+        partitionManager.maintain();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        List<String> expected = new ArrayList<>(List.of(
+                "CREATE TABLE IF NOT EXISTS trips_archive AS SELECT * FROM trips WITH NO DATA",
+                "CREATE INDEX IF NOT EXISTS idx_trips_archive_vendor_time ON trips_archive (vendor_id, start_time)",
+                "CREATE TABLE IF NOT EXISTS remarks_archive AS SELECT * FROM remarks WITH NO DATA",
+                "CREATE INDEX IF NOT EXISTS idx_remarks_archive_vendor_time ON remarks_archive (vendor_id, timestamp)"));
+        // Upcoming partitions are ensured at startup and again after each archive run
+        for (int run = 0; run < 2; run++) {
+            for (String table : List.of("trips", "remarks")) {
+                for (YearMonth month : List.of(now, now.plusMonths(1))) {
+                    expected.add("CREATE TABLE IF NOT EXISTS " + PartitionManager.partitionName(table, month)
+                            + " PARTITION OF " + table + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                            + month.plusMonths(1).atDay(1) + "')");
+                }
+            }
+        }
+        expected.add("DROP TABLE " + PartitionManager.partitionName("trips", archived));
+        assertEquals(expected, sql.getAllValues());
+    }
+}
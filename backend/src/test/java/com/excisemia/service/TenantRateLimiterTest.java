@@ -0,0 +1,78 @@
+package com.excisemia.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantRateLimiterTest {
+
+    @Test
+    void aBurstIsAdmittedAndTheNextRequestWaitsForOneInterval() {
+        TenantRateLimiter limiter = limiter(0, 1, 3, "", 100);
+        TenantRateLimiter.EndpointRule rule = limiter.ruleFor("GET", "/api/locks");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquireUser(1L, rule));
+        }
+        long wait = limiter.tryAcquireUser(1L, rule);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1));
+        // Another user has a bucket of their own
+        assertEquals(0, limiter.tryAcquireUser(2L, rule));
+
+        limiter.refundUser(1L, rule);
+        assertEquals(0, limiter.tryAcquireUser(1L, rule));
+        assertTrue(limiter.tryAcquireUser(1L, rule) > 0);
+    }
+
+    @Test
+    void endpointOverridesMatchInOrderAndZeroDisablesABucket() {
+        TenantRateLimiter limiter = limiter(100, 100, 1, "GET /api/analytics/**=0/2, GET /api/**=5/5", 100);
+        TenantRateLimiter.EndpointRule analytics = limiter.ruleFor("GET", "/api/analytics/trips");
+        assertEquals("GET /api/analytics/**", analytics.getName());
+        assertEquals("GET /api/**", limiter.ruleFor("GET", "/api/locks").getName());
+        assertEquals("default", limiter.ruleFor("POST", "/api/analytics/trips").getName());
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, limiter.tryAcquireVendor(1L, analytics));
+        }
+        assertEquals(0, limiter.tryAcquireUser(1L, analytics));
+        assertEquals(0, limiter.tryAcquireUser(1L, analytics));
+        assertTrue(limiter.tryAcquireUser(1L, analytics) > 0);
+        // Each rule keeps its own buckets
+        assertEquals(0, limiter.tryAcquireUser(1L, limiter.ruleFor("GET", "/api/locks")));
+    }
+
+    @Test
+    void newBucketsAreTurnedAwayAtTheCapUntilTheSweepFreesRoom() throws Exception {
+        TenantRateLimiter limiter = limiter(0, 1000, 0.01, "", 2);
+        TenantRateLimiter.EndpointRule rule = limiter.ruleFor("GET", "/api/locks");
+        assertEquals(0, limiter.tryAcquireUser(1L, rule));
+        assertEquals(0, limiter.tryAcquireUser(2L, rule));
+        assertTrue(limiter.tryAcquireUser(3L, rule) > 0);
+        assertEquals(0, limiter.tryAcquireUser(1L, rule));
+        assertEquals(2, limiter.size());
+
+        Thread.sleep(50);
+        limiter.sweep();
+        assertEquals(0, limiter.size());
+        assertEquals(0, limiter.tryAcquireUser(3L, rule));
+        assertEquals(1, limiter.size());
+    }
+
+    private static TenantRateLimiter limiter(double vendorPerSecond, double userPerSecond, double burstSeconds,
+                                             String endpoints, int maxBuckets) {
+        TenantRateLimiter limiter = new TenantRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "vendorPerSecond", vendorPerSecond);
+        ReflectionTestUtils.setField(limiter, "userPerSecond", userPerSecond);
+        ReflectionTestUtils.setField(limiter, "burstSeconds", burstSeconds);
+        ReflectionTestUtils.setField(limiter, "endpointOverrides", endpoints);
+        ReflectionTestUtils.setField(limiter, "maxBuckets", maxBuckets);
+        ReflectionTestUtils.setField(limiter, "sweepIntervalMs", 10000L);
+        limiter.init();
+        return limiter;
+    }
+}
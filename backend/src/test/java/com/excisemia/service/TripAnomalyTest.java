@@ -0,0 +1,154 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Notification;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.TripAnomaly;
+import com.excisemia.model.TripStats;
+import com.excisemia.model.User;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.OutboxEventRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripStatsRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TripAnomalyTest {
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripAnomalyService tripAnomalyService;
+
+    @Autowired
+    private TripAnomalyOutboxHandler tripAnomalyOutboxHandler;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TripStatsRepository tripStatsRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void overstayingTripsAreFlaggedAgainstTheLockThenTheVendor() {
+        Long vendorId = uniqueVendor(vendorRepository, "Anomaly").getId();
+        Lock lock = lock(lockRepository, vendorId, "ANOM");
+        Lock fresh = lock(lockRepository, vendorId, "ANOM2");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Anomaly run", 1L, vendorId));
+        User admin = new User("Admin " + vendorId, "anomaly" + vendorId + "@vendor.test", "x", User.Role.ADMIN, vendorId);
+        admin.setIsActive(true);
+        admin.setPushToken("ExponentPushToken[anomaly-" + vendorId + "]");
+        admin = userRepository.save(admin);
+
+        for (int i = 0; i < 12; i++) {
+            complete(lock, schedule, vendorId, 100.0 + i % 3, 10 + i % 5);
+        }
+        complete(lock, schedule, vendorId, 101.0, 120);
+        drainOutbox();
+        // A lock with no history is compared with the vendor
+        complete(fresh, schedule, vendorId, 100.0, 200);
+        drainOutbox();
+
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        List<TripAnomaly> anomalies = tripAnomalyService.findAnomalies(vendorId, null, from, to, 100);
+        assertEquals(2, anomalies.size());
+        TripAnomaly vendorBaseline = anomalies.get(0);
+        assertEquals(fresh.getId(), vendorBaseline.getLockId());
+        assertEquals(TripAnomaly.Baseline.VENDOR, vendorBaseline.getBaseline());
+        TripAnomaly lockBaseline = anomalies.get(1);
+        assertEquals(lock.getId(), lockBaseline.getLockId());
+        assertEquals(TripAnomaly.Metric.DETENTION, lockBaseline.getMetric());
+        assertEquals(TripAnomaly.Baseline.LOCK, lockBaseline.getBaseline());
+        assertEquals(120.0, lockBaseline.getValue());
+
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> vendorId.equals(event.getVendorId())).collect(Collectors.toList());
+        assertEquals(2, events.stream().filter(event -> OutboxEvent.TRIP_ANOMALY.equals(event.getEventType())).count());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE recipient_id = ? " +
+                "AND type = ?", Integer.class, admin.getId(), Notification.TRIP_ANOMALY));
+
+        // Redelivered completions are not scored again
+        tripAnomalyOutboxHandler.handle(events.stream()
+                .filter(event -> OutboxEvent.TRIP_COMPLETED.equals(event.getEventType())).collect(Collectors.toList()));
+        assertEquals(2, tripAnomalyService.findAnomalies(vendorId, null, from, to, 100).size());
+        assertEquals(1, tripAnomalyService.findAnomalies(vendorId, lock.getId(), from, to, 100).size());
+    }
+
+    @Test
+    void aCompletionCommittedAfterALaterOneIsStillFoldedIn() {
+        Long vendorId = uniqueVendor(vendorRepository, "Late").getId();
+        Long lockId = lock(lockRepository, vendorId, "LATE").getId();
+        List<OutboxEvent> events = transactionTemplate.execute(status -> List.of(
+                outboxService.record(OutboxService.LOCK, lockId, vendorId, OutboxEvent.TRIP_COMPLETED,
+                        OutboxService.payload("tripId", 1L, "detentionMins", 10)),
+                outboxService.record(OutboxService.LOCK, lockId, vendorId, OutboxEvent.TRIP_COMPLETED,
+                        OutboxService.payload("tripId", 2L, "detentionMins", 20))));
+
+        // The higher id is delivered first, then the lower one, then the lower one again
+        tripAnomalyOutboxHandler.handle(List.of(events.get(1)));
+        tripAnomalyOutboxHandler.handle(List.of(events.get(0)));
+        tripAnomalyOutboxHandler.handle(List.of(events.get(0)));
+
+        TripStats stats = tripStatsRepository.findAll().stream()
+                .filter(row -> vendorId.equals(row.getVendorId()) && lockId.equals(row.getLockId()))
+                .findFirst().orElseThrow();
+        assertEquals(2L, stats.getDetentionSamples());
+    }
+
+    private void complete(Lock lock, Schedule schedule, Long vendorId, double distanceKm, int detentionMins) {
+        Trip trip = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(trip.getId(), new TripCompletionRequest(distanceKm, detentionMins), vendorId);
+    }
+
+    private void drainOutbox() {
+        while (outboxDispatcher.dispatchBatch() > 0) {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripFactQuery;
+import com.excisemia.dto.TripFactReport;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "locktrackpro.jobs.retention.tripDays=30")
+@ActiveProfiles("test")
+class TripFactCacheTest {
+
+    @Autowired
+    private TripFactCache tripFactCache;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private RetentionPurgeJob retentionPurgeJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void parallelGroupByMatchesAStraightScan() throws Exception {
+        TripFactStore store = new TripFactStore(16);
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Map<String, long[]> expected = new HashMap<>();
+        for (long id = 20_000; id >= 1; id--) {
+            long lockId = 1 + random.nextInt(25);
+            LocalDateTime start = base.plusMinutes(random.nextInt(90 * 24 * 60));
+            double distance = random.nextInt(400);
+            int detention = random.nextInt(120);
+            Trip.Status status = random.nextInt(10) == 0 ? Trip.Status.ACTIVE : Trip.Status.COMPLETED;
+            // Descending ids exercise the out-of-order insert path, the second upsert the overwrite
+            store.upsert(id, lockId, start, 1.0, null, Trip.Status.ACTIVE);
+            store.upsert(id, lockId, start, distance, detention, status);
+            if (status == Trip.Status.COMPLETED && distance > 200) {
+                LocalDate week = start.toLocalDate().with(java.time.DayOfWeek.MONDAY);
+                long[] sums = expected.computeIfAbsent(lockId + "@" + week, k -> new long[3]);
+                sums[0]++;
+                sums[1] += detention;
+                sums[2] += (long) distance;
+            }
+        }
+
+        TripFactQuery query = new TripFactQuery();
+        query.setStatus(Trip.Status.COMPLETED);
+        query.setMinDistanceKm(200.5);
+        query.setGroupBy(List.of(TripFactQuery.GroupBy.LOCK, TripFactQuery.GroupBy.WEEK));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TripFactReport report = store.scan(query, executor, 1000);
+            assertEquals(20_000L, report.getScannedTrips());
+            assertEquals(expected.size(), report.getGroups().size());
+            for (TripFactReport.Group group : report.getGroups()) {
+                long[] sums = expected.get(group.getLockId() + "@" + group.getPeriod());
+                assertEquals(sums[0], group.getTrips());
+                assertEquals(sums[1], group.getTotalDetentionMins());
+                assertEquals(sums[2], group.getTotalDistanceKm().longValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void tripChangesArriveThroughTheOutboxFeed() {
+        tripFactCache.reload();
+        Long vendorId = uniqueVendor(vendorRepository, "Facts").getId();
+        Lock lock = lock(lockRepository, vendorId, "FACT");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Fact run", 1L, vendorId));
+
+        Trip trip = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(trip.getId(), new TripCompletionRequest(250.0, 35), vendorId);
+        assertTrue(tripFactCache.applyFeed() >= 2);
+
+        TripFactQuery query = new TripFactQuery();
+        query.setGroupBy(List.of(TripFactQuery.GroupBy.STATUS));
+        TripFactReport report = tripFactCache.query(vendorId, query);
+        assertEquals(1, report.getGroups().size());
+        TripFactReport.Group group = report.getGroups().get(0);
+        assertEquals(Trip.Status.COMPLETED, group.getStatus());
+        assertEquals(250.0, group.getTotalDistanceKm());
+        assertEquals(35, group.getMaxDetentionMins());
+    }
+
+    @Test
+    void purgedTripsLeaveTheCache() {
+        tripFactCache.reload();
+        Long vendorId = uniqueVendor(vendorRepository, "Purged facts").getId();
+        Lock lock = lock(lockRepository, vendorId, "PURGE");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Purge run", 1L, vendorId));
+        Trip old = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(old.getId(), new TripCompletionRequest(120.0, 20), vendorId);
+        Trip recent = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(recent.getId(), new TripCompletionRequest(80.0, 10), vendorId);
+        tripFactCache.applyFeed();
+
+        TripFactQuery query = new TripFactQuery();
+        assertEquals(2L, tripFactCache.query(vendorId, query).getScannedTrips());
+
+        jdbcTemplate.update("UPDATE trips SET end_time = ? WHERE id = ?", LocalDateTime.now().minusDays(60),
+                old.getId());
+        transactionTemplate.executeWithoutResult(status -> retentionPurgeJob.processChunk(vendorId, 0, 500));
+        assertTrue(tripFactCache.applyFeed() >= 1);
+
+        TripFactReport report = tripFactCache.query(vendorId, query);
+        assertEquals(1L, report.getScannedTrips());
+        assertEquals(80.0, report.getGroups().get(0).getTotalDistanceKm());
+    }
+}
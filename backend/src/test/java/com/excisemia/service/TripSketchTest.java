@@ -0,0 +1,121 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.TripCompletionRequest;
+import com.excisemia.dto.TripPercentilesResponse;
+import com.excisemia.dto.TripRequest;
+import com.excisemia.model.Lock;
+import com.excisemia.model.OutboxEvent;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.OutboxEventRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TripSketchTest {
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripSketchService tripSketchService;
+
+    @Autowired
+    private TripSketchOutboxHandler tripSketchOutboxHandler;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Test
+    void quantilesStayWithinTwoPercentAndSketchesMerge() {
+        Random random = new Random(11);
+        long[] values = new long[100_000];
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Long-tailed, like detention: mostly under an hour, occasionally days
+            values[i] = (long) Math.exp(3 + random.nextGaussian() * 1.5);
+            whole.add(values[i]);
+            (i % 2 == 0 ? first : second).add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            double estimate = whole.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= Math.max(0.5, exact * 0.02), q + ": " + estimate + " vs " + exact);
+        }
+
+        byte[] bytes = whole.toBytes();
+        assertTrue(bytes.length < 4096, "sketch takes " + bytes.length + " bytes");
+        first.merge(QuantileSketch.fromBytes(second.toBytes()));
+        assertArrayEquals(bytes, first.toBytes());
+    }
+
+    @Test
+    void completedTripsAreFoldedInOnceAndMergedOverTheRange() {
+        Long vendorId = uniqueVendor(vendorRepository, "Sketch").getId();
+        Lock lock = lock(lockRepository, vendorId, "SKETCH");
+        Lock other = lock(lockRepository, vendorId, "SKETCH2");
+        Schedule schedule = scheduleRepository.save(new Schedule(LocalDate.now(), "Sketch run", 1L, vendorId));
+        for (int detention : new int[] {10, 20, 300}) {
+            Trip trip = tripService.startTrip(new TripRequest(lock.getId(), schedule.getId()), vendorId, null);
+            tripService.completeTrip(trip.getId(), new TripCompletionRequest(50.0, detention), vendorId);
+        }
+        Trip trip = tripService.startTrip(new TripRequest(other.getId(), schedule.getId()), vendorId, null);
+        tripService.completeTrip(trip.getId(), new TripCompletionRequest(50.0, 5), vendorId);
+        while (outboxDispatcher.dispatchBatch() > 0) {
+        }
+
+        LocalDate from = LocalDate.now().minusDays(7);
+        LocalDate to = LocalDate.now().plusDays(1);
+        TripPercentilesResponse forLock = tripSketchService.percentiles(vendorId, lock.getId(), from, to);
+        assertEquals(3L, forLock.getDetentionMins().getCount());
+        assertEquals(20.0, forLock.getDetentionMins().getP50());
+        assertEquals(300L, forLock.getDetentionMins().getMax());
+        assertEquals(3L, forLock.getDurationMins().getCount());
+
+        // Redelivered events are skipped
+        List<OutboxEvent> completed = outboxEventRepository.findAll().stream()
+                .filter(event -> vendorId.equals(event.getVendorId()) && OutboxEvent.TRIP_COMPLETED.equals(event.getEventType()))
+                .collect(Collectors.toList());
+        tripSketchOutboxHandler.handle(completed);
+
+        TripPercentilesResponse forVendor = tripSketchService.percentiles(vendorId, null, from, to);
+        assertEquals(4L, forVendor.getDetentionMins().getCount());
+        assertEquals(10.0, forVendor.getDetentionMins().getP50());
+        assertEquals(300.0, forVendor.getDetentionMins().getP99());
+        assertEquals(0L, tripSketchService.percentiles(vendorId, null, from.minusDays(30), from)
+                .getDetentionMins().getCount());
+    }
+}
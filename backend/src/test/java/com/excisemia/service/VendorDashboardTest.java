@@ -0,0 +1,95 @@
+package com.excisemia.service;
+
+import com.excisemia.dto.VendorDashboardResponse;
+import com.excisemia.dto.VendorDashboardResponse.VendorSummary;
+import com.excisemia.model.Lock;
+import com.excisemia.model.Vendor;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.VendorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.excisemia.support.TestDataSeeder.lock;
+import static com.excisemia.support.TestDataSeeder.uniqueVendor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "locktrackpro.dashboard.concurrency=2",
+        "locktrackpro.dashboard.vendorTimeoutMs=500",
+        "locktrackpro.dashboard.timeoutMs=3000"
+})
+@ActiveProfiles("test")
+class VendorDashboardTest {
+
+    // Scans a billion generated rows; only a cancelled statement finishes in time
+    private static final String SLOW_QUERY = "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 1000000000) WHERE MOD(X, 7) = 3";
+
+    @SpyBean
+    private VendorDashboardService vendorDashboardService;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private LockRepository lockRepository;
+
+    @Test
+    void slowVendorsAreCancelledAtTheirDeadlineWithoutHoldingUpTheRest() {
+        List<Vendor> fast = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Vendor vendor = uniqueVendor(vendorRepository, "Fast " + i);
+            lock(lockRepository, vendor.getId(), "FAST-1");
+            Lock inTransit = lock(lockRepository, vendor.getId(), "FAST-2");
+            inTransit.setStatus(Lock.Status.IN_TRANSIT);
+            lockRepository.save(inTransit);
+            fast.add(vendor);
+        }
+        // As many slow vendors as threads: without a per-vendor deadline they would hold both until the end
+        Set<Long> slow = Set.of(
+                uniqueVendor(vendorRepository, "Slow A").getId(), uniqueVendor(vendorRepository, "Slow B").getId());
+        doAnswer(invocation -> {
+            Object[] args = (Object[]) invocation.getRawArguments()[3];
+            if (args.length > 0 && slow.contains(args[0])) {
+                vendorDashboardService.query(SLOW_QUERY, invocation.getArgument(1), rs -> { }, new Object[0]);
+                return null;
+            }
+            return invocation.callRealMethod();
+        }).when(vendorDashboardService).query(anyString(), anyLong(), any(), any(Object[].class));
+
+        long started = System.currentTimeMillis();
+        VendorDashboardResponse dashboard = vendorDashboardService.getDashboard();
+        assertTrue(System.currentTimeMillis() - started < 3000);
+
+        for (Vendor vendor : fast) {
+            VendorSummary fastSummary = summary(dashboard, vendor.getId());
+            assertEquals(VendorSummary.Status.OK, fastSummary.getStatus());
+            assertEquals(1L, fastSummary.getLocksByStatus().get("AVAILABLE"));
+            assertEquals(1L, fastSummary.getLocksByStatus().get("IN_TRANSIT"));
+            assertEquals(0L, fastSummary.getTotalTrips());
+        }
+        for (Long vendorId : slow) {
+            assertEquals(VendorSummary.Status.TIMED_OUT, summary(dashboard, vendorId).getStatus());
+        }
+        assertEquals(2, dashboard.getTimedOut());
+        assertEquals(dashboard.getVendors().size(), dashboard.getCompleted() + dashboard.getTimedOut());
+        assertEquals(Set.of(VendorSummary.Status.OK, VendorSummary.Status.TIMED_OUT), dashboard.getVendors().stream()
+                .map(VendorSummary::getStatus).collect(Collectors.toSet()));
+    }
+
+    private static VendorSummary summary(VendorDashboardResponse dashboard, Long vendorId) {
+        return dashboard.getVendors().stream().filter(v -> v.getVendorId().equals(vendorId)).findFirst().orElseThrow();
+    }
+}
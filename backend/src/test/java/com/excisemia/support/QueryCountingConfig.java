@@ -0,0 +1,53 @@
+package com.excisemia.support;
+
+import com.excisemia.service.PasswordHashingExecutor;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+
+@TestConfiguration
+public class QueryCountingConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !beanName.startsWith("scopedTarget")) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new QueryRecorder())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Sign-in runs its queries on the hashing pool, they must count towards the request that submitted them.
+    // Ordered ahead of the post-processor that runs @PostConstruct, which builds the pool.
+    @Bean
+    public static BeanPostProcessor queryRecordingHashingPostProcessor() {
+        return new QueryRecordingHashingPostProcessor();
+    }
+
+    private static class QueryRecordingHashingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof PasswordHashingExecutor) {
+                ((PasswordHashingExecutor) bean).setTaskDecorator(QueryRecorder::propagate);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
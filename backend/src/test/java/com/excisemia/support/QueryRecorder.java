@@ -0,0 +1,76 @@
+package com.excisemia.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Counts the statements executed on the current thread while recording, so background
+// work on other threads never leaks into an endpoint's numbers
+public class QueryRecorder implements QueryExecutionListener {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Recording());
+    }
+
+    public static Recording stop() {
+        Recording recording = CURRENT.get();
+        CURRENT.remove();
+        return recording != null ? recording : new Recording();
+    }
+
+    // Carries the caller's recording onto a pool thread, so work an endpoint hands to an
+    // executor still counts towards that endpoint
+    public static Runnable propagate(Runnable task) {
+        Recording recording = CURRENT.get();
+        if (recording == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = CURRENT.get();
+            CURRENT.set(recording);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Recording recording = CURRENT.get();
+        if (recording == null) {
+            return;
+        }
+        // A JDBC batch is one round trip but still one statement per batched entry
+        int statements = execInfo.isBatch() ? Math.max(execInfo.getBatchSize(), 1) : queryInfoList.size();
+        recording.statementCount += statements;
+        recording.elapsedMillis += execInfo.getElapsedTime();
+        for (QueryInfo queryInfo : queryInfoList) {
+            recording.queries.add(queryInfo.getQuery());
+        }
+    }
+
+    public static class Recording {
+        private int statementCount;
+        private long elapsedMillis;
+        private final List<String> queries = new ArrayList<>();
+
+        public int getStatementCount() { return statementCount; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public List<String> getQueries() { return queries; }
+    }
+}
@@ -0,0 +1,176 @@
+package com.excisemia.support;
+
+import com.excisemia.model.Lock;
+import com.excisemia.model.Remark;
+import com.excisemia.model.Schedule;
+import com.excisemia.model.Trip;
+import com.excisemia.model.User;
+import com.excisemia.model.Vendor;
+import com.excisemia.repository.LockRepository;
+import com.excisemia.repository.RemarkRepository;
+import com.excisemia.repository.ScheduleRepository;
+import com.excisemia.repository.TripRepository;
+import com.excisemia.repository.UserRepository;
+import com.excisemia.repository.VendorRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Seeds a multi-vendor dataset whose every dimension grows with the scale factor, so an
+// endpoint whose statement count depends on row counts shows up as a difference between scales
+public class TestDataSeeder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VendorRepository vendorRepository;
+    private final UserRepository userRepository;
+    private final LockRepository lockRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final TripRepository tripRepository;
+    private final RemarkRepository remarkRepository;
+    private final String passwordHash;
+
+    public TestDataSeeder(JdbcTemplate jdbcTemplate, VendorRepository vendorRepository, UserRepository userRepository,
+                          LockRepository lockRepository, ScheduleRepository scheduleRepository,
+                          TripRepository tripRepository, RemarkRepository remarkRepository, String passwordHash) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.vendorRepository = vendorRepository;
+        this.userRepository = userRepository;
+        this.lockRepository = lockRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.tripRepository = tripRepository;
+        this.remarkRepository = remarkRepository;
+        this.passwordHash = passwordHash;
+    }
+
+    public Dataset seed(int scale) {
+        resetDatabase();
+        Dataset dataset = new Dataset();
+
+        // The system vendor must get id 1, UserController treats it as the platform tenant
+        Vendor systemVendor = vendorRepository.save(vendor("LockTrack Pro System", "SYSTEM"));
+        dataset.systemAdmin = userRepository.save(user("System Administrator", "superadmin@locktrackpro.com",
+                User.Role.SUPERADMIN, systemVendor.getId()));
+
+        for (int v = 0; v < 2 * scale; v++) {
+            Vendor vendor = vendorRepository.save(vendor("Vendor " + v, "V" + v));
+
+            User superAdmin = userRepository.save(user("Super " + v, "super" + v + "@vendor.test",
+                    User.Role.SUPERADMIN, vendor.getId()));
+            User admin = userRepository.save(user("Admin " + v, "admin" + v + "@vendor.test",
+                    User.Role.ADMIN, vendor.getId()));
+            List<User> trackers = new ArrayList<>();
+            for (int u = 0; u < scale + 1; u++) {
+                trackers.add(user("Tracker " + v + "-" + u, "tracking" + v + "-" + u + "@vendor.test",
+                        User.Role.TRACKING, vendor.getId()));
+            }
+            trackers = userRepository.saveAll(trackers);
+
+            List<Schedule> schedules = new ArrayList<>();
+            for (int s = 0; s < 2 * scale; s++) {
+                schedules.add(new Schedule(LocalDate.now().plusDays(s), "Route " + s, admin.getId(), vendor.getId()));
+            }
+            schedules = scheduleRepository.saveAll(schedules);
+
+            List<Lock> locks = new ArrayList<>();
+            Lock.Status[] statuses = Lock.Status.values();
+            for (int l = 0; l < 4 * scale; l++) {
+                Lock lock = new Lock("V" + v + "-L" + l, vendor.getId());
+                lock.setStatus(statuses[l % statuses.length]);
+                lock.setAssignedTo(trackers.get(l % trackers.size()).getId());
+                locks.add(lock);
+            }
+            locks = lockRepository.saveAll(locks);
+
+            List<Trip> trips = new ArrayList<>();
+            List<Remark> remarks = new ArrayList<>();
+            for (Lock lock : locks) {
+                for (int t = 0; t < 3 * scale; t++) {
+                    Trip trip = new Trip(lock.getId(), schedules.get(t % schedules.size()).getId(), vendor.getId());
+                    trip.setDistanceKm(10.0 + t);
+                    trip.setDetentionMins(5 * t);
+                    if (t > 0) {
+                        trip.setStatus(Trip.Status.COMPLETED);
+                        trip.setEndTime(LocalDateTime.now().minusHours(t));
+                    }
+                    trips.add(trip);
+                }
+                for (int r = 0; r < 2 * scale; r++) {
+                    User author = trackers.get(r % trackers.size());
+                    remarks.add(new Remark(lock.getId(), author.getId(), author.getName(),
+                            "Checkpoint " + r + " cleared", vendor.getId()));
+                }
+            }
+            trips = tripRepository.saveAll(trips);
+            remarkRepository.saveAll(remarks);
+
+            if (v == 0) {
+                dataset.vendorId = vendor.getId();
+                dataset.vendorSuperAdmin = superAdmin;
+                dataset.vendorAdmin = admin;
+                dataset.trackingUser = trackers.get(0);
+                dataset.lockId = locks.get(0).getId();
+                dataset.scheduleId = schedules.get(0).getId();
+                // The first trip of every lock is still active, take one that is not on dataset.lockId
+                dataset.activeTripId = trips.get(3 * scale).getId();
+            }
+        }
+        return dataset;
+    }
+
+    // Suites share one in-memory database, so every vendor gets a name and code no other test uses. Lock numbers are
+    // only unique per vendor and can stay readable.
+    public static Vendor uniqueVendor(VendorRepository vendorRepository, String name) {
+        String suffix = String.valueOf(System.nanoTime());
+        return vendorRepository.save(new Vendor(name + " " + suffix, "T" + suffix, "vendor" + suffix + "@vendor.test"));
+    }
+
+    public static Lock lock(LockRepository lockRepository, Long vendorId, String lockNumber) {
+        return lockRepository.save(new Lock(lockNumber, vendorId));
+    }
+
+    private void resetDatabase() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (String table : tables) {
+            jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\" RESTART IDENTITY");
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private Vendor vendor(String name, String code) {
+        Vendor vendor = new Vendor(name, code, code.toLowerCase() + "@vendor.test");
+        vendor.setIsActive(true);
+        return vendor;
+    }
+
+    private User user(String name, String email, User.Role role, Long vendorId) {
+        User user = new User(name, email, passwordHash, role, vendorId);
+        user.setIsActive(true);
+        return user;
+    }
+
+    public static class Dataset {
+        private Long vendorId;
+        private User systemAdmin;
+        private User vendorSuperAdmin;
+        private User vendorAdmin;
+        private User trackingUser;
+        private Long lockId;
+        private Long scheduleId;
+        private Long activeTripId;
+
+        public Long getVendorId() { return vendorId; }
+        public User getSystemAdmin() { return systemAdmin; }
+        public User getVendorSuperAdmin() { return vendorSuperAdmin; }
+        public User getVendorAdmin() { return vendorAdmin; }
+        public User getTrackingUser() { return trackingUser; }
+        public Long getLockId() { return lockId; }
+        public Long getScheduleId() { return scheduleId; }
+        public Long getActiveTripId() { return activeTripId; }
+    }
+}